@@ -0,0 +1,140 @@
+package com.github.lofi.depsanalyzer;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Synthetic inputs for the benchmarks, generated with a fixed seed so runs compare.
+ */
+final class BenchmarkFixtures {
+
+    private BenchmarkFixtures() {
+    }
+
+    static String pom(String artifactId, String packaging, String modules) {
+        return """
+            <project>
+              <modelVersion>4.0.0</modelVersion>
+              <groupId>com.example.bench</groupId>
+              <artifactId>%s</artifactId>
+              <version>1.0.0</version>
+              <packaging>%s</packaging>
+              %s
+            </project>
+            """.formatted(artifactId, packaging, modules);
+    }
+
+    /**
+     * A ZIP of a reactor with {@code modules} modules, each with a POM and
+     * {@code sourcesPerModule} source files of about {@code sourceBytes} bytes.
+     */
+    static Path reactorZip(Path directory, int modules, int sourcesPerModule, int sourceBytes) throws IOException {
+        Path zipFile = directory.resolve("reactor-" + modules + "x" + sourcesPerModule + ".zip");
+        Random random = new Random(42);
+        byte[] source = new byte[sourceBytes];
+        StringBuilder moduleList = new StringBuilder("<modules>");
+        for (int module = 0; module < modules; module++) {
+            moduleList.append("<module>module-").append(module).append("</module>");
+        }
+        moduleList.append("</modules>");
+
+        try (ZipOutputStream zip = new ZipOutputStream(new BufferedOutputStream(Files.newOutputStream(zipFile)))) {
+            put(zip, "reactor/pom.xml", pom("reactor", "pom", moduleList.toString()).getBytes(StandardCharsets.UTF_8));
+            for (int module = 0; module < modules; module++) {
+                String prefix = "reactor/module-" + module + "/";
+                put(zip, prefix + "pom.xml", pom("module-" + module, "jar", "").getBytes(StandardCharsets.UTF_8));
+                for (int file = 0; file < sourcesPerModule; file++) {
+                    for (int i = 0; i < source.length; i++) {
+                        // Printable text compresses like real sources
+                        source[i] = (byte) ('a' + random.nextInt(8));
+                    }
+                    put(zip, prefix + "src/main/java/com/example/Class" + file + ".java", source);
+                }
+            }
+        }
+        return zipFile;
+    }
+
+    private static void put(ZipOutputStream zip, String name, byte[] content) throws IOException {
+        zip.putNextEntry(new ZipEntry(name));
+        zip.write(content);
+        zip.closeEntry();
+    }
+
+    /**
+     * A reactor nested {@code depth} levels deep with {@code width} modules per level,
+     * plus a {@code target} and a {@code node_modules} directory per module that the
+     * discovery prunes.
+     */
+    static Path moduleTree(Path root, int depth, int width) throws IOException {
+        Files.createDirectories(root);
+        writeModule(root, "root", depth, width);
+        return root;
+    }
+
+    private static void writeModule(Path directory, String artifactId, int depth, int width) throws IOException {
+        StringBuilder modules = new StringBuilder();
+        if (depth > 0) {
+            modules.append("<modules>");
+            for (int i = 0; i < width; i++) {
+                modules.append("<module>").append(artifactId).append('-').append(i).append("</module>");
+            }
+            modules.append("</modules>");
+        }
+        Files.writeString(directory.resolve("pom.xml"), pom(artifactId, depth > 0 ? "pom" : "jar", modules.toString()));
+        Path target = Files.createDirectories(directory.resolve("target/classes/META-INF/maven"));
+        Files.writeString(target.resolve("pom.xml"), pom(artifactId, "jar", ""));
+        Files.createDirectories(directory.resolve("node_modules/left-pad/lib"));
+        if (depth > 0) {
+            for (int i = 0; i < width; i++) {
+                String child = artifactId + "-" + i;
+                writeModule(Files.createDirectories(directory.resolve(child)), child, depth - 1, width);
+            }
+        }
+    }
+
+    /**
+     * A Maven log of {@code lines} lines where every {@code every}th line reports a
+     * THIRD-PARTY file of another module.
+     */
+    static String mavenLog(int lines, int every) {
+        StringBuilder log = new StringBuilder(lines * 96);
+        for (int line = 0; line < lines; line++) {
+            if (line % every == 0) {
+                log.append("[INFO] ").append(MavenOutputSink.THIRD_PARTY_FILE_MARKER)
+                        .append("/home/build/workspace/reactor/module-").append(line)
+                        .append("/target/generated-sources/license/THIRD-PARTY.txt\n");
+            } else {
+                log.append("[INFO] Downloaded from central: https://repo.maven.apache.org/maven2/org/example/lib-")
+                        .append(line).append("/1.0/lib-").append(line).append("-1.0.pom (2.1 kB at 48 kB/s)\n");
+            }
+        }
+        return log.toString();
+    }
+
+    static void delete(Path directory) {
+        if (!Files.exists(directory)) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> {
+                try {
+                    Files.delete(file);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.github.lofi.depsanalyzer;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Finding the THIRD-PARTY files in multi-megabyte Maven logs: the whole-string scan of
+ * {@code extractFilePathFromResult}, the line-by-line {@link MavenOutputSink} that the
+ * builds use, and naming the copied files with {@code getExtractFilename}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class MavenLogBenchmark {
+
+    // About 4 MB and 40 MB with a THIRD-PARTY file every 10 lines
+    @Param({ "40000", "400000" })
+    int lines;
+
+    private String log;
+    private String[] logLines;
+    private List<String> thirdPartyFiles;
+    private Path directory;
+    private MavenCommand mavenCommand;
+
+    @Setup
+    public void createLog() throws IOException {
+        log = BenchmarkFixtures.mavenLog(lines, 10);
+        logLines = log.split("\n");
+        directory = Files.createTempDirectory("log-benchmark");
+        mavenCommand = new MavenCommand();
+        thirdPartyFiles = mavenCommand.extractFilePathFromResult(log);
+    }
+
+    @TearDown
+    public void deleteDirectory() {
+        BenchmarkFixtures.delete(directory);
+    }
+
+    @Benchmark
+    public List<String> extractFilePathFromResult() {
+        return mavenCommand.extractFilePathFromResult(log);
+    }
+
+    @Benchmark
+    public List<String> outputSink() throws IOException {
+        // Includes writing the log file, as during a build
+        try (MavenOutputSink sink = new MavenOutputSink(directory.resolve("maven.txt"))) {
+            for (String line : logLines) {
+                sink.consumeLine(line);
+            }
+            return sink.getThirdPartyFiles();
+        }
+    }
+
+    @Benchmark
+    public void getExtractFilename(Blackhole blackhole) {
+        for (String thirdPartyFile : thirdPartyFiles) {
+            blackhole.consume(mavenCommand.getExtractFilename("reactor", thirdPartyFile));
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.github.lofi.depsanalyzer;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Finding the reactor root of a deep module tree, once with a cold discovery (every call
+ * walks the tree and reads the POMs) and once served from the discovery's index.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class PomDiscoveryBenchmark {
+
+    // 4^4 = 256 and 4^5 = 1024 leaf modules
+    @Param({ "4", "5" })
+    int depth;
+
+    @Param({ "4" })
+    int width;
+
+    private Path root;
+    private File rootDirectory;
+    private PomDiscovery pomDiscovery;
+    private MavenCommand mavenCommand;
+
+    @Setup
+    public void createTree() throws IOException {
+        root = BenchmarkFixtures.moduleTree(Files.createTempDirectory("pom-benchmark"), depth, width);
+        rootDirectory = root.toFile();
+        mavenCommand = new MavenCommand();
+        pomDiscovery = mavenCommand.getPomDiscovery();
+    }
+
+    @TearDown
+    public void deleteTree() {
+        BenchmarkFixtures.delete(root);
+    }
+
+    @Benchmark
+    public File findPomFileRecursivelyCold() {
+        pomDiscovery.invalidate(root);
+        return mavenCommand.findPomFileRecursively(rootDirectory);
+    }
+
+    @Benchmark
+    public File findPomFileRecursivelyIndexed() {
+        return mavenCommand.findPomFileRecursively(rootDirectory);
+    }
+}
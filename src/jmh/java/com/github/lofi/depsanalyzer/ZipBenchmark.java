@@ -0,0 +1,73 @@
+package com.github.lofi.depsanalyzer;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Extraction of a large project ZIP: everything ({@code unzip}) against only the build
+ * files the license and dependency goals need.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ZipBenchmark {
+
+    @Param({ "50", "500" })
+    int modules;
+
+    @Param({ "20" })
+    int sourcesPerModule;
+
+    private Path directory;
+    private File zipFile;
+    private File destDir;
+    private MavenCommand mavenCommand;
+
+    @Setup(Level.Trial)
+    public void createZip() throws IOException {
+        directory = Files.createTempDirectory("zip-benchmark");
+        zipFile = BenchmarkFixtures.reactorZip(directory, modules, sourcesPerModule, 4096).toFile();
+        mavenCommand = new MavenCommand();
+    }
+
+    @Setup(Level.Invocation)
+    public void cleanDestination() {
+        destDir = directory.resolve("extract").toFile();
+        BenchmarkFixtures.delete(destDir.toPath());
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteZip() {
+        BenchmarkFixtures.delete(directory);
+    }
+
+    @Benchmark
+    public void unzip() throws IOException {
+        mavenCommand.unzip(zipFile, destDir);
+    }
+
+    @Benchmark
+    public long extractBuildFiles() throws IOException {
+        return mavenCommand.extract(zipFile, destDir, false);
+    }
+}
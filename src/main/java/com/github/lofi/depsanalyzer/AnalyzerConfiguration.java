@@ -0,0 +1,82 @@
+package com.github.lofi.depsanalyzer;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class AnalyzerConfiguration {
+
+    @Bean
+    ResultCache resultCache(@Value("${analyzer.cache.directory:}") String directory,
+            @Value("${analyzer.cache.max-size-mb:1024}") long maxSizeMb,
+            @Value("${analyzer.cache.max-age-days:30}") long maxAgeDays) {
+        Path cacheDirectory = directory.isEmpty() ? ResultCache.defaultDirectory() : Path.of(directory);
+        return new ResultCache(cacheDirectory, maxSizeMb * 1024 * 1024, Duration.ofDays(maxAgeDays));
+    }
+
+    @Bean
+    WorkspaceManager workspaceManager(@Value("${analyzer.workspace.directory:}") String directory,
+            @Value("${analyzer.workspace.quota-mb:4096}") long quotaMb,
+            @Value("${analyzer.workspace.max-entries:100000}") int maxEntries,
+            @Value("${analyzer.workspace.max-ratio:200}") int maxRatio,
+            @Value("${analyzer.workspace.pool-size:8}") int poolSize,
+            @Value("${analyzer.workspace.pool-max-mb:2048}") long poolMaxMb) {
+        Path workspaceDirectory = directory.isEmpty() ? WorkspaceManager.defaultDirectory() : Path.of(directory);
+        return new WorkspaceManager(workspaceDirectory,
+            new ZipArchive.Limits(quotaMb * 1024 * 1024, maxEntries, maxRatio), poolSize, poolMaxMb * 1024 * 1024);
+    }
+
+    @Bean
+    PomDiscovery pomDiscovery(@Value("${analyzer.discovery.prune:target,node_modules,.*}") List<String> prunePatterns) {
+        return new PomDiscovery(prunePatterns);
+    }
+
+    @Bean
+    GitMirrorCache gitMirrorCache(@Value("${analyzer.git.mirror-directory:}") String directory) {
+        return new GitMirrorCache(directory.isEmpty() ? GitMirrorCache.defaultDirectory() : Path.of(directory));
+    }
+
+    @Bean
+    MavenPool mavenPool(@Value("${analyzer.maven.daemon:true}") boolean useDaemon,
+            @Value("${analyzer.maven.mvnd-executable:}") String mvndExecutable,
+            @Value("${analyzer.maven.pool-size:2}") int size,
+            @Value("${analyzer.maven.max-builds:50}") int maxBuilds,
+            @Value("${analyzer.maven.max-memory-mb:2048}") long maxMemoryMb,
+            @Value("${analyzer.maven.daemon-directory:}") String daemonDirectory) {
+        return MavenPool.create(useDaemon, mvndExecutable, Math.max(1, size), maxBuilds, maxMemoryMb * 1024 * 1024,
+            daemonDirectory.isEmpty() ? MavenPool.defaultDaemonDirectory() : Path.of(daemonDirectory));
+    }
+
+    @Bean
+    OfflineMode offlineMode(@Value("${analyzer.offline.enabled:false}") boolean enabled,
+            @Value("${analyzer.offline.index-file:}") String indexFile,
+            @Value("${analyzer.offline.local-repository:}") String localRepository) {
+        return new OfflineMode(enabled,
+            indexFile.isEmpty() ? LocalRepositoryIndex.defaultIndexFile() : Path.of(indexFile),
+            localRepository.isEmpty() ? InProcessResolver.defaultLocalRepository() : new File(localRepository));
+    }
+
+    @Bean
+    LicensePolicy licensePolicy(@Value("${analyzer.license.policy-file:}") String policyFile) throws IOException {
+        return policyFile.isEmpty() ? LicensePolicy.defaults() : LicensePolicy.load(Path.of(policyFile));
+    }
+
+    @Bean
+    AnalyzerMetrics analyzerMetrics(ObjectProvider<MeterRegistry> registry, MavenPool mavenPool) {
+        // The cli profile leaves out the actuator, the commands still print their stage summaries
+        MeterRegistry meterRegistry = registry.getIfAvailable();
+        AnalyzerMetrics metrics = meterRegistry == null ? AnalyzerMetrics.disabled() : new AnalyzerMetrics(meterRegistry);
+        metrics.bind(mavenPool);
+        return metrics;
+    }
+}
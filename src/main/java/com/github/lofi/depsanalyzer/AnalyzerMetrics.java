@@ -0,0 +1,214 @@
+package com.github.lofi.depsanalyzer;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+
+/**
+ * Micrometer meters of the analysis pipelines: the duration of every stage of a command,
+ * the bytes extracted, POMs scanned, clone sizes and each Maven build with its exit code.
+ * The meters are exported through the actuator metrics endpoint and a {@link Run} sums
+ * up the stages of one command for the shell.
+ */
+class AnalyzerMetrics {
+
+    static final String COMMAND = "analyzer.command";
+    static final String STAGE = "analyzer.stage";
+    static final String EXTRACTED_BYTES = "analyzer.extract.bytes";
+    static final String POMS_SCANNED = "analyzer.discovery.poms";
+    static final String CLONE_BYTES = "analyzer.clone.bytes";
+    static final String CLONE_FILES = "analyzer.clone.files";
+    static final String MAVEN_EXECUTION = "analyzer.maven.execution";
+    static final String MAVEN_QUEUE_WAIT = "analyzer.maven.queue.wait";
+    static final String MAVEN_BUSY_WORKERS = "analyzer.maven.workers.busy";
+
+    private final MeterRegistry registry;
+
+    AnalyzerMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * Metrics that are not exported, only the summaries of the commands are kept.
+     */
+    static AnalyzerMetrics disabled() {
+        return new AnalyzerMetrics(new CompositeMeterRegistry());
+    }
+
+    MeterRegistry getRegistry() {
+        return registry;
+    }
+
+    /**
+     * Records every build of the pool and the number of busy workers.
+     */
+    void bind(MavenPool mavenPool) {
+        Gauge.builder(MAVEN_BUSY_WORKERS, mavenPool, MavenPool::busyWorkers)
+                .description("Maven workers running a build")
+                .register(registry);
+        mavenPool.setListener(execution -> {
+            Timer.builder(MAVEN_EXECUTION)
+                    .description("Maven builds by goal and exit code")
+                    .tag("goal", execution.goals())
+                    .tag("exit", String.valueOf(execution.exitCode()))
+                    .register(registry)
+                    .record(execution.executionMillis(), TimeUnit.MILLISECONDS);
+            Timer.builder(MAVEN_QUEUE_WAIT)
+                    .description("Time a Maven build waited for a free worker")
+                    .tag("goal", execution.goals())
+                    .register(registry)
+                    .record(execution.queueWaitMillis(), TimeUnit.MILLISECONDS);
+        });
+    }
+
+    /**
+     * All analyzer meters, one line per meter and tag combination.
+     */
+    String format() {
+        List<String> lines = new ArrayList<>();
+        for (Meter meter : registry.getMeters()) {
+            Meter.Id id = meter.getId();
+            if (!id.getName().startsWith("analyzer.")) {
+                continue;
+            }
+            StringBuilder line = new StringBuilder(id.getName());
+            id.getTags().forEach(tag -> line.append(' ').append(tag.getKey()).append('=').append(tag.getValue()));
+            if (meter instanceof Timer timer) {
+                line.append(String.format("  count %d, total %.1f ms, max %.1f ms", timer.count(),
+                    timer.totalTime(TimeUnit.MILLISECONDS), timer.max(TimeUnit.MILLISECONDS)));
+            } else if (meter instanceof DistributionSummary summary) {
+                line.append(String.format("  count %d, total %.0f, max %.0f", summary.count(), summary.totalAmount(),
+                    summary.max()));
+            } else {
+                meter.measure().forEach(measurement -> line.append(String.format("  %s %.0f",
+                    measurement.getStatistic().getTagValueRepresentation(), measurement.getValue())));
+            }
+            lines.add(line.toString());
+        }
+        if (lines.isEmpty()) {
+            return "No analyzer metrics recorded yet";
+        }
+        lines.sort(null);
+        return String.join(String.format("%n"), lines);
+    }
+
+    Run start(String command) {
+        return new Run(command);
+    }
+
+    /**
+     * The stages of one command. Every stage and quantity is recorded in the registry
+     * right away, {@link #close()} records the duration of the whole command.
+     */
+    class Run implements AutoCloseable {
+
+        private final String command;
+        private final long start = System.nanoTime();
+        private final Map<String, Long> stageNanos = new LinkedHashMap<>();
+        private final List<String> details = new ArrayList<>();
+        private boolean failed;
+
+        private Run(String command) {
+            this.command = command;
+        }
+
+        /**
+         * Records a stage that started at {@code startNanos} ({@link System#nanoTime()})
+         * and ends now. A stage run more than once is summed.
+         */
+        synchronized void stage(String stage, long startNanos) {
+            long nanos = System.nanoTime() - startNanos;
+            Timer.builder(STAGE)
+                    .description("Duration of a stage of an analyzer command")
+                    .tag("command", command)
+                    .tag("stage", stage)
+                    .publishPercentiles(0.5, 0.95)
+                    .register(registry)
+                    .record(nanos, TimeUnit.NANOSECONDS);
+            stageNanos.merge(stage, nanos, Long::sum);
+        }
+
+        synchronized void bytesExtracted(long bytes) {
+            summary(EXTRACTED_BYTES, "Bytes extracted from ZIP files", "bytes").record(bytes);
+            details.add(formatBytes(bytes) + " extracted");
+        }
+
+        synchronized void pomsScanned(int poms) {
+            summary(POMS_SCANNED, "POM files found by a discovery", "poms").record(poms);
+            details.add(poms + " POMs scanned");
+        }
+
+        synchronized void cloned(long bytes, int files) {
+            summary(CLONE_BYTES, "Bytes transferred by a clone", "bytes").record(bytes);
+            summary(CLONE_FILES, "Files checked out by a clone", "files").record(files);
+            details.add(formatBytes(bytes) + " cloned, " + files + " files checked out");
+        }
+
+        /**
+         * The builds themselves are recorded by the pool, this only adds the exit code to
+         * the summary.
+         */
+        synchronized void mavenExitCode(int exitCode) {
+            details.add("Maven exit code " + exitCode);
+        }
+
+        synchronized void failed() {
+            failed = true;
+        }
+
+        private DistributionSummary summary(String name, String description, String unit) {
+            return DistributionSummary.builder(name)
+                    .description(description)
+                    .baseUnit(unit)
+                    .tag("command", command)
+                    .register(registry);
+        }
+
+        /**
+         * E.g. {@code Stages: extract 120 ms, maven 4.2 s (total 4.4 s); 3.1 MB extracted}.
+         */
+        synchronized String summary() {
+            StringBuilder summary = new StringBuilder("Stages: ");
+            List<String> stages = new ArrayList<>();
+            stageNanos.forEach((stage, nanos) -> stages.add(stage + " " + formatNanos(nanos)));
+            summary.append(stages.isEmpty() ? "-" : String.join(", ", stages))
+                    .append(" (total ").append(formatNanos(System.nanoTime() - start)).append(")");
+            if (!details.isEmpty()) {
+                summary.append("; ").append(String.join(", ", details));
+            }
+            return summary.toString();
+        }
+
+        @Override
+        public synchronized void close() {
+            Timer.builder(COMMAND)
+                    .description("Duration of an analyzer command")
+                    .tag("command", command)
+                    .tag("outcome", failed ? "error" : "success")
+                    .register(registry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    static String formatNanos(long nanos) {
+        long millis = nanos / 1_000_000;
+        return millis < 1000 ? millis + " ms" : String.format("%.1f s", millis / 1000.0);
+    }
+
+    static String formatBytes(long bytes) {
+        if (bytes < 1024) {
+            return bytes + " B";
+        }
+        return bytes < 1024 * 1024 ? String.format("%.1f KB", bytes / 1024.0)
+            : String.format("%.1f MB", bytes / (1024.0 * 1024.0));
+    }
+}
@@ -0,0 +1,244 @@
+package com.github.lofi.depsanalyzer;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.shell.standard.ShellComponent;
+import org.springframework.shell.standard.ShellMethod;
+import org.springframework.shell.standard.ShellOption;
+
+@ShellComponent
+public class BatchCommand {
+
+    private static final Logger logger = LoggerFactory.getLogger(BatchCommand.class);
+
+    private final MavenCommand mavenCommand;
+
+    public BatchCommand(MavenCommand mavenCommand) {
+        this.mavenCommand = mavenCommand;
+    }
+
+    record ArchiveResult(String archive, long archiveBytes, boolean success, boolean cached, int fileCount,
+            long extractMillis, long mavenMillis, long copyMillis, String error) {
+    }
+
+    @ShellMethod(key = "list-licenses-batch", value = "List licenses of Maven dependencies from all ZIP files in a directory or matching a glob.")
+    public String listDependencyLicensesBatch(@ShellOption(value = "--source") String source,
+            @ShellOption(value = "--directory") String extractDirectory,
+            @ShellOption(value = "--workers", defaultValue = "4") int workers,
+            @ShellOption(value = "--maven-forks", defaultValue = "2") int mavenForks,
+            @ShellOption(value = "--no-cache", defaultValue = "false") boolean noCache,
+            @ShellOption(value = "--full-extract", defaultValue = "false") boolean fullExtract,
+            @ShellOption(value = "--policy", defaultValue = "") String policyFile) {
+        try {
+            LicensePolicy policy = policyFile.isEmpty() ? mavenCommand.getLicensePolicy()
+                : LicensePolicy.load(Paths.get(policyFile));
+            List<Path> archives = findArchives(source);
+            if (archives.isEmpty()) {
+                return "No ZIP files found for: " + source;
+            }
+            logger.info("Listing licenses for {} ZIP files with {} workers and {} Maven forks",
+                archives.size(), workers, mavenForks);
+
+            Files.createDirectories(Paths.get(extractDirectory));
+
+            // Extraction and copying are I/O bound and run on every worker, the Maven
+            // invocations are CPU and memory heavy and are capped by the semaphore.
+            Semaphore mavenPermits = new Semaphore(Math.max(1, mavenForks));
+            ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, workers));
+            long start = System.nanoTime();
+            List<ArchiveResult> results = new ArrayList<>();
+            try {
+                List<Future<ArchiveResult>> futures = new ArrayList<>();
+                for (Path archive : archives) {
+                    futures.add(executor.submit(() -> processArchive(archive, extractDirectory, mavenPermits, !noCache, fullExtract)));
+                }
+                for (Future<ArchiveResult> future : futures) {
+                    results.add(future.get());
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+            long wallMillis = (System.nanoTime() - start) / 1_000_000;
+
+            return formatResults(results, wallMillis) + evaluateLicenses(results, extractDirectory, policy);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return "Batch license listing interrupted.";
+        } catch (IOException | ExecutionException e) {
+            logger.error("Error listing licenses in batch: {}", e.getMessage(), e);
+            return "Error listing licenses in batch: " + e.getMessage();
+        }
+    }
+
+    ArchiveResult processArchive(Path archive, String extractDirectory, Semaphore mavenPermits, boolean useCache,
+            boolean fullExtract) {
+        String zipFilePath = archive.toString();
+        long archiveBytes = archive.toFile().length();
+        long extractMillis = 0;
+        long mavenMillis = 0;
+        long copyMillis = 0;
+        WorkspaceManager.Workspace workspace = null;
+        try {
+            long stageStart = System.nanoTime();
+            // Extracted into a workspace of its own, the results are written to extractDirectory
+            workspace = mavenCommand.getWorkspaces().create("batch");
+            Path extracted = workspace.extract(archive.toFile(), fullExtract, Runtime.getRuntime().availableProcessors());
+            extractMillis = millisSince(stageStart);
+
+            String zipFileName = mavenCommand.getZipFileName(zipFilePath);
+            Path projectDirectory = extracted.resolve(zipFileName);
+            mavenCommand.deleteMergedLicenses(zipFileName, extractDirectory);
+
+            String cacheKey = null;
+            if (useCache) {
+                cacheKey = mavenCommand.cacheKey(projectDirectory.toString(), MavenCommand.GOAL_LICENSES);
+                stageStart = System.nanoTime();
+                Optional<Integer> restored = mavenCommand.getResultCache().read(cacheKey,
+                    entry -> mavenCommand.restoreLicenseFiles(entry, zipFileName, extractDirectory));
+                if (restored.isPresent()) {
+                    copyMillis = millisSince(stageStart);
+                    return new ArchiveResult(zipFilePath, archiveBytes, true, true, restored.get(),
+                        extractMillis, mavenMillis, copyMillis, null);
+                }
+            }
+
+            MavenCommand.LicenseListResult result;
+            mavenPermits.acquire();
+            try {
+                stageStart = System.nanoTime();
+                result = mavenCommand.executeMavenLicenseList(projectDirectory.toString(),
+                    Paths.get(extractDirectory, zipFileName + "-maven.txt"));
+                mavenMillis = millisSince(stageStart);
+            } finally {
+                mavenPermits.release();
+            }
+            if (!result.success()) {
+                return new ArchiveResult(zipFilePath, archiveBytes, false, false, 0,
+                    extractMillis, mavenMillis, copyMillis, "Maven exited with code " + result.exitCode());
+            }
+
+            stageStart = System.nanoTime();
+            List<Path> licenseFiles = mavenCommand.copyLicenseFiles(zipFileName, extractDirectory, projectDirectory,
+                result.thirdPartyFiles());
+            if (cacheKey != null) {
+                mavenCommand.storeLicenseFiles(cacheKey, zipFileName, licenseFiles);
+            }
+            int fileCount = licenseFiles.size();
+            copyMillis = millisSince(stageStart);
+
+            logger.info("Licenses listed for ZIP file: {} with {} files", zipFilePath, fileCount);
+            return new ArchiveResult(zipFilePath, archiveBytes, true, false, fileCount,
+                extractMillis, mavenMillis, copyMillis, null);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new ArchiveResult(zipFilePath, archiveBytes, false, false, 0,
+                extractMillis, mavenMillis, copyMillis, "Interrupted");
+        } catch (Exception e) {
+            logger.error("Error processing the ZIP file {}: {}", zipFilePath, e.getMessage(), e);
+            return new ArchiveResult(zipFilePath, archiveBytes, false, false, 0,
+                extractMillis, mavenMillis, copyMillis, e.getMessage());
+        } finally {
+            mavenCommand.close(workspace);
+        }
+    }
+
+    /**
+     * Evaluates the merged license reports of all successful archives as one report, a
+     * dependency used by several archives is listed once with the modules of all of them.
+     */
+    String evaluateLicenses(List<ArchiveResult> results, String extractDirectory, LicensePolicy policy)
+            throws IOException {
+        Map<String, Path> mergedFiles = new LinkedHashMap<>();
+        for (ArchiveResult result : results) {
+            String zipFileName = mavenCommand.getZipFileName(result.archive());
+            Path mergedFile = Paths.get(extractDirectory, zipFileName + "-licenses-merged.txt");
+            if (result.success() && Files.isRegularFile(mergedFile)) {
+                mergedFiles.put(zipFileName, mergedFile);
+            }
+        }
+        Path reportFile = Paths.get(extractDirectory, "license-report.json");
+        if (mergedFiles.isEmpty()) {
+            Files.deleteIfExists(reportFile);
+            return "";
+        }
+        LicenseReport report = LicenseReport.evaluate(mergedFiles, policy);
+        report.write(reportFile);
+        return String.format("%n%s", report.format(reportFile));
+    }
+
+    List<Path> findArchives(String source) throws IOException {
+        Path sourcePath = Paths.get(source);
+        if (Files.isDirectory(sourcePath)) {
+            return listMatching(sourcePath, sourcePath.getFileSystem().getPathMatcher("glob:*.zip"));
+        }
+
+        // Treat the last path element as a glob pattern, e.g. /archives/release-*.zip
+        Path parent = sourcePath.toAbsolutePath().getParent();
+        if (parent == null || !Files.isDirectory(parent)) {
+            return new ArrayList<>();
+        }
+        PathMatcher matcher = sourcePath.getFileSystem().getPathMatcher("glob:" + sourcePath.getFileName());
+        return listMatching(parent, matcher);
+    }
+
+    private List<Path> listMatching(Path directory, PathMatcher matcher) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(Files::isRegularFile)
+                    .filter(file -> matcher.matches(file.getFileName()))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    String formatResults(List<ArchiveResult> results, long wallMillis) {
+        StringBuilder table = new StringBuilder();
+        table.append(String.format("%-40s %-7s %6s %10s %10s %10s  %s%n",
+            "ARCHIVE", "STATUS", "FILES", "EXTRACT", "MAVEN", "COPY", "ERROR"));
+
+        int succeeded = 0;
+        long totalBytes = 0;
+        for (ArchiveResult result : results) {
+            if (result.success()) {
+                succeeded++;
+            }
+            totalBytes += result.archiveBytes();
+            table.append(String.format("%-40s %-7s %6d %8dms %8dms %8dms  %s%n",
+                Paths.get(result.archive()).getFileName(),
+                result.cached() ? "CACHED" : result.success() ? "OK" : "FAILED",
+                result.fileCount(),
+                result.extractMillis(),
+                result.mavenMillis(),
+                result.copyMillis(),
+                result.error() == null ? "" : result.error()));
+        }
+
+        double seconds = Math.max(wallMillis, 1) / 1000.0;
+        table.append(String.format("%nProcessed %d archives (%d succeeded, %d failed) in %.1f s%n",
+            results.size(), succeeded, results.size() - succeeded, seconds));
+        table.append(String.format("Throughput: %.2f archives/min, %.2f MB/s",
+            results.size() / seconds * 60, totalBytes / (1024.0 * 1024.0) / seconds));
+        return table.toString();
+    }
+
+    private static long millisSince(long start) {
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+}
@@ -0,0 +1,39 @@
+package com.github.lofi.depsanalyzer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.shell.standard.ShellComponent;
+import org.springframework.shell.standard.ShellMethod;
+
+@ShellComponent
+public class CacheCommand {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheCommand.class);
+
+    private final ResultCache resultCache;
+
+    public CacheCommand(ResultCache resultCache) {
+        this.resultCache = resultCache;
+    }
+
+    @ShellMethod(key = "cache-stats", value = "Show size and hit/miss counters of the result cache.")
+    public String cacheStats() {
+        try {
+            return resultCache.stats();
+        } catch (Exception e) {
+            logger.error("Error reading the result cache: {}", e.getMessage(), e);
+            return "Error reading the result cache: " + e.getMessage();
+        }
+    }
+
+    @ShellMethod(key = "cache-clear", value = "Remove all entries from the result cache.")
+    public String cacheClear() {
+        try {
+            int removed = resultCache.clear();
+            return String.format("Removed %d entries from: %s", removed, resultCache.getDirectory());
+        } catch (Exception e) {
+            logger.error("Error clearing the result cache: {}", e.getMessage(), e);
+            return "Error clearing the result cache: " + e.getMessage();
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.github.lofi.depsanalyzer;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.revwalk.filter.CommitTimeRevFilter;
+import org.eclipse.jgit.revwalk.filter.RevFilter;
+import org.eclipse.jgit.treewalk.filter.AndTreeFilter;
+import org.eclipse.jgit.treewalk.filter.OrTreeFilter;
+import org.eclipse.jgit.treewalk.filter.PathFilter;
+import org.eclipse.jgit.treewalk.filter.PathSuffixFilter;
+import org.eclipse.jgit.treewalk.filter.TreeFilter;
+
+/**
+ * Walks the commits of a branch lazily and hands each matching commit to a consumer as
+ * soon as it is found, so the first lines are available before the walk is complete and
+ * no more commits than requested are parsed.
+ */
+class CommitLister {
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm")
+            .withZone(ZoneOffset.UTC);
+
+    /**
+     * A page of commits. {@code limit} 0 lists all commits, {@code since} and
+     * {@code until} may be null, {@code paths} empty lists commits regardless of the
+     * files they touch.
+     */
+    record Query(String branch, int offset, int limit, Instant since, Instant until, List<String> paths,
+            boolean fullMessage) {
+    }
+
+    /**
+     * Streams the commits of the query to the consumer and returns how many were listed.
+     */
+    int list(Repository repository, Query query, Consumer<String> consumer) throws IOException {
+        ObjectId start = repository.resolve(query.branch());
+        if (start == null) {
+            throw new IllegalArgumentException("Unknown branch or revision: " + query.branch());
+        }
+
+        try (RevWalk walk = new RevWalk(repository)) {
+            walk.markStart(walk.parseCommit(start));
+            walk.setRevFilter(timeFilter(query.since(), query.until()));
+            if (!query.paths().isEmpty()) {
+                walk.setTreeFilter(AndTreeFilter.create(pathFilter(query.paths()), TreeFilter.ANY_DIFF));
+                // Parent rewriting is only needed for graphs, a flat list is cheaper without it
+                walk.setRewriteParents(false);
+            }
+
+            int skipped = 0;
+            int listed = 0;
+            for (RevCommit commit : walk) {
+                if (skipped < query.offset()) {
+                    skipped++;
+                    continue;
+                }
+                consumer.accept(format(commit, query.fullMessage()));
+                listed++;
+                if (query.limit() > 0 && listed >= query.limit()) {
+                    break;
+                }
+            }
+            return listed;
+        }
+    }
+
+    private RevFilter timeFilter(Instant since, Instant until) {
+        if (since != null && until != null) {
+            return CommitTimeRevFilter.between(Date.from(since), Date.from(until));
+        }
+        if (since != null) {
+            // Stops the walk once commits are older than since
+            return CommitTimeRevFilter.after(Date.from(since));
+        }
+        if (until != null) {
+            return CommitTimeRevFilter.before(Date.from(until));
+        }
+        return RevFilter.ALL;
+    }
+
+    /**
+     * A path with a slash matches that file or directory, a plain file name like
+     * {@code pom.xml} matches the file in any directory.
+     */
+    TreeFilter pathFilter(List<String> paths) {
+        List<TreeFilter> filters = new ArrayList<>();
+        for (String path : paths) {
+            String trimmed = path.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            if (trimmed.contains("/")) {
+                filters.add(PathFilter.create(trimmed));
+            } else {
+                filters.add(PathFilter.create(trimmed));
+                filters.add(PathSuffixFilter.create("/" + trimmed));
+            }
+        }
+        if (filters.isEmpty()) {
+            return TreeFilter.ALL;
+        }
+        return filters.size() == 1 ? filters.get(0) : OrTreeFilter.create(filters);
+    }
+
+    private String format(RevCommit commit, boolean fullMessage) {
+        if (fullMessage) {
+            return commit.getFullMessage();
+        }
+        return String.format("%s %s %s %s", commit.abbreviate(8).name(),
+            DATE_FORMAT.format(Instant.ofEpochSecond(commit.getCommitTime())),
+            commit.getAuthorIdent().getName(), commit.getShortMessage());
+    }
+}
@@ -0,0 +1,208 @@
+package com.github.lofi.depsanalyzer;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * The difference between the resolved dependencies of two builds, e.g. release N and
+ * N+1: dependencies added, removed or resolved in another version, and dependencies whose
+ * licenses changed. Dependencies are identified by groupId, artifactId and classifier, the
+ * reactor modules of each side are left out.
+ */
+class DependencyDiff {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    record Dependency(String key, List<String> versions, List<String> licenses) {
+    }
+
+    record Change(String key, List<String> from, List<String> to) {
+    }
+
+    record Summary(String from, String to, int fromDependencies, int toDependencies, int added, int removed,
+            int changed, int licenseChanges) {
+    }
+
+    record Document(Summary summary, List<Dependency> added, List<Dependency> removed, List<Change> changed,
+            List<Change> licenseChanges) {
+    }
+
+    private final Summary summary;
+    private final List<Dependency> added;
+    private final List<Dependency> removed;
+    private final List<Change> changed;
+    private final List<Change> licenseChanges;
+
+    private DependencyDiff(Summary summary, List<Dependency> added, List<Dependency> removed, List<Change> changed,
+            List<Change> licenseChanges) {
+        this.summary = summary;
+        this.added = added;
+        this.removed = removed;
+        this.changed = changed;
+        this.licenseChanges = licenseChanges;
+    }
+
+    /**
+     * Compares the graphs, and the license reports when both are given (may be null).
+     * Each side is reduced to a hash map from dependency to its versions in one pass over
+     * the nodes, so only the sorted union of the keys is walked to find the differences.
+     */
+    static DependencyDiff compare(String fromLabel, DependencyGraph from,
+            Collection<ThirdPartyReport.MergedEntry> fromLicenses, String toLabel, DependencyGraph to, Collection<ThirdPartyReport.MergedEntry> toLicenses,
+            SpdxLicenses spdxLicenses) {
+        Map<String, TreeSet<String>> fromVersions = versions(from);
+        Map<String, TreeSet<String>> toVersions = versions(to);
+        boolean compareLicenses = fromLicenses != null && toLicenses != null;
+        Map<String, TreeSet<String>> fromSpdx = compareLicenses ? licenses(fromLicenses, spdxLicenses) : Map.of();
+        Map<String, TreeSet<String>> toSpdx = compareLicenses ? licenses(toLicenses, spdxLicenses) : Map.of();
+
+        List<Dependency> added = new ArrayList<>();
+        List<Dependency> removed = new ArrayList<>();
+        List<Change> changed = new ArrayList<>();
+        List<Change> licenseChanges = new ArrayList<>();
+        TreeSet<String> keys = new TreeSet<>(fromVersions.keySet());
+        keys.addAll(toVersions.keySet());
+        for (String key : keys) {
+            TreeSet<String> before = fromVersions.get(key);
+            TreeSet<String> after = toVersions.get(key);
+            if (before == null) {
+                added.add(new Dependency(key, List.copyOf(after), list(toSpdx.get(ga(key)))));
+            } else if (after == null) {
+                removed.add(new Dependency(key, List.copyOf(before), list(fromSpdx.get(ga(key)))));
+            } else if (!before.equals(after)) {
+                changed.add(new Change(key, List.copyOf(before), List.copyOf(after)));
+            }
+        }
+        if (compareLicenses) {
+            // Licenses are reported per groupId and artifactId, only dependencies of both sides can change them
+            for (String ga : new TreeSet<>(fromSpdx.keySet())) {
+                TreeSet<String> before = fromSpdx.get(ga);
+                TreeSet<String> after = toSpdx.get(ga);
+                if (after != null && !before.equals(after)) {
+                    licenseChanges.add(new Change(ga, List.copyOf(before), List.copyOf(after)));
+                }
+            }
+        }
+
+        Summary summary = new Summary(fromLabel, toLabel, fromVersions.size(), toVersions.size(), added.size(),
+            removed.size(), changed.size(), licenseChanges.size());
+        return new DependencyDiff(summary, added, removed, changed, licenseChanges);
+    }
+
+    /**
+     * The versions of every dependency below the roots, keyed by groupId:artifactId and
+     * the classifier if there is one. Several versions appear when modules resolve
+     * different ones.
+     */
+    static Map<String, TreeSet<String>> versions(DependencyGraph graph) {
+        Set<String> reactor = new HashSet<>();
+        for (DependencyGraph.Node root : graph.roots()) {
+            reactor.add(root.groupId() + ":" + root.artifactId());
+        }
+        Map<String, TreeSet<String>> versions = new HashMap<>();
+        for (int i = 0; i < graph.size(); i++) {
+            DependencyGraph.Node node = graph.node(i);
+            String ga = node.groupId() + ":" + node.artifactId();
+            if (graph.parent(i) < 0 || reactor.contains(ga)) {
+                continue;
+            }
+            String key = node.classifier() == null || node.classifier().isEmpty() ? ga : ga + ":" + node.classifier();
+            versions.computeIfAbsent(key, k -> new TreeSet<>()).add(node.version());
+        }
+        return versions;
+    }
+
+    private static Map<String, TreeSet<String>> licenses(Collection<ThirdPartyReport.MergedEntry> entries,
+            SpdxLicenses spdxLicenses) {
+        Map<String, TreeSet<String>> licenses = new HashMap<>();
+        for (ThirdPartyReport.MergedEntry merged : entries) {
+            ThirdPartyReport.Entry entry = merged.entry();
+            TreeSet<String> spdxIds = licenses.computeIfAbsent(entry.groupId() + ":" + entry.artifactId(),
+                k -> new TreeSet<>());
+            for (String license : entry.licenses()) {
+                // Compared by SPDX id, so a renamed license of the same kind is no change
+                spdxIds.add(spdxLicenses.toSpdx(license));
+            }
+        }
+        return licenses;
+    }
+
+    private static String ga(String key) {
+        int second = key.indexOf(':', key.indexOf(':') + 1);
+        return second < 0 ? key : key.substring(0, second);
+    }
+
+    private static List<String> list(TreeSet<String> values) {
+        return values == null ? List.of() : List.copyOf(values);
+    }
+
+    Summary getSummary() {
+        return summary;
+    }
+
+    List<Dependency> getAdded() {
+        return added;
+    }
+
+    List<Dependency> getRemoved() {
+        return removed;
+    }
+
+    List<Change> getChanged() {
+        return changed;
+    }
+
+    List<Change> getLicenseChanges() {
+        return licenseChanges;
+    }
+
+    boolean isEmpty() {
+        return added.isEmpty() && removed.isEmpty() && changed.isEmpty() && licenseChanges.isEmpty();
+    }
+
+    void write(Path file) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        MAPPER.writeValue(file.toFile(), new Document(summary, added, removed, changed, licenseChanges));
+    }
+
+    String format() {
+        StringBuilder result = new StringBuilder(String.format(
+            "Dependencies of %s (%d) and %s (%d): %d added, %d removed, %d version changes, %d license changes",
+            summary.from(), summary.fromDependencies(), summary.to(), summary.toDependencies(), summary.added(),
+            summary.removed(), summary.changed(), summary.licenseChanges()));
+        if (isEmpty()) {
+            return result.toString();
+        }
+        result.append(String.format("%n%-8s %-60s %s", "CHANGE", "DEPENDENCY", "VERSIONS / LICENSES"));
+        for (Dependency dependency : added) {
+            result.append(String.format("%n%-8s %-60s %s%s", "ADDED", dependency.key(), String.join(", ",
+                dependency.versions()), dependency.licenses().isEmpty() ? "" : " (" + String.join(", ",
+                dependency.licenses()) + ")"));
+        }
+        for (Dependency dependency : removed) {
+            result.append(String.format("%n%-8s %-60s %s", "REMOVED", dependency.key(),
+                String.join(", ", dependency.versions())));
+        }
+        for (Change change : changed) {
+            result.append(String.format("%n%-8s %-60s %s -> %s", "VERSION", change.key(),
+                String.join(", ", change.from()), String.join(", ", change.to())));
+        }
+        for (Change change : licenseChanges) {
+            result.append(String.format("%n%-8s %-60s %s -> %s", "LICENSE", change.key(),
+                String.join(", ", change.from()), String.join(", ", change.to())));
+        }
+        return result.toString();
+    }
+}
@@ -0,0 +1,194 @@
+package com.github.lofi.depsanalyzer;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.eclipse.aether.artifact.Artifact;
+import org.eclipse.aether.graph.DependencyNode;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Compact dependency graph of one or more reactor modules. Nodes are stored in
+ * insertion (pre-order) order and refer to their parent by index, so a tree is
+ * rebuilt without any per-node child lists.
+ */
+class DependencyGraph {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    record Node(String groupId, String artifactId, String type, String classifier, String version,
+            String scope, boolean optional) {
+
+        String coordinate() {
+            StringBuilder coordinate = new StringBuilder()
+                    .append(groupId).append(':').append(artifactId).append(':').append(type).append(':');
+            if (classifier != null && !classifier.isEmpty()) {
+                coordinate.append(classifier).append(':');
+            }
+            coordinate.append(version);
+            if (scope != null && !scope.isEmpty()) {
+                coordinate.append(':').append(scope);
+            }
+            return coordinate.toString();
+        }
+    }
+
+    record Entry(int parent, Node node) {
+    }
+
+    record Document(List<Entry> nodes) {
+    }
+
+    private final List<Node> nodes = new ArrayList<>();
+    private int[] parents = new int[64];
+
+    int addNode(Node node, int parent) {
+        if (parent >= nodes.size()) {
+            throw new IllegalArgumentException("Unknown parent node: " + parent);
+        }
+        if (nodes.size() == parents.length) {
+            parents = Arrays.copyOf(parents, parents.length * 2);
+        }
+        parents[nodes.size()] = parent;
+        nodes.add(node);
+        return nodes.size() - 1;
+    }
+
+    int size() {
+        return nodes.size();
+    }
+
+    Node node(int id) {
+        return nodes.get(id);
+    }
+
+    int parent(int id) {
+        return parents[id];
+    }
+
+    List<Node> roots() {
+        List<Node> roots = new ArrayList<>();
+        for (int i = 0; i < nodes.size(); i++) {
+            if (parents[i] < 0) {
+                roots.add(nodes.get(i));
+            }
+        }
+        return roots;
+    }
+
+    /**
+     * Splits the graph into one graph per root, e.g. per reactor module. In pre-order a
+     * root's subtree is the range of nodes up to the next root.
+     */
+    List<DependencyGraph> split() {
+        List<DependencyGraph> graphs = new ArrayList<>();
+        DependencyGraph current = null;
+        int offset = 0;
+        for (int i = 0; i < nodes.size(); i++) {
+            if (parents[i] < 0) {
+                current = new DependencyGraph();
+                graphs.add(current);
+                offset = i;
+            }
+            current.addNode(nodes.get(i), parents[i] < 0 ? -1 : parents[i] - offset);
+        }
+        return graphs;
+    }
+
+    /**
+     * Whether an artifact with the given groupId and artifactId is below one of the roots.
+     */
+    boolean dependsOn(String groupId, String artifactId) {
+        for (int i = 0; i < nodes.size(); i++) {
+            Node node = nodes.get(i);
+            if (parents[i] >= 0 && node.groupId().equals(groupId) && node.artifactId().equals(artifactId)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    int depth(int id) {
+        int depth = 0;
+        for (int parent = parents[id]; parent >= 0; parent = parents[parent]) {
+            depth++;
+        }
+        return depth;
+    }
+
+    String render() {
+        int size = nodes.size();
+        // Pre-order storage means a node is the last child of its parent when no later node
+        // shares that parent, so one backwards pass is enough to find every last child.
+        boolean[] lastChild = new boolean[size];
+        boolean[] parentSeen = new boolean[size];
+        for (int i = size - 1; i >= 0; i--) {
+            int parent = parents[i];
+            if (parent >= 0 && !parentSeen[parent]) {
+                lastChild[i] = true;
+                parentSeen[parent] = true;
+            }
+        }
+
+        StringBuilder tree = new StringBuilder();
+        String[] prefixes = new String[size];
+        for (int i = 0; i < size; i++) {
+            int parent = parents[i];
+            if (parent < 0) {
+                prefixes[i] = "";
+                tree.append(nodes.get(i).coordinate());
+            } else {
+                tree.append(prefixes[parent]).append(lastChild[i] ? "\\- " : "+- ").append(nodes.get(i).coordinate());
+                prefixes[i] = prefixes[parent] + (lastChild[i] ? "   " : "|  ");
+            }
+            if (nodes.get(i).optional()) {
+                tree.append(" (optional)");
+            }
+            tree.append("\n");
+        }
+        return tree.toString();
+    }
+
+    void write(Path path) throws IOException {
+        List<Entry> entries = new ArrayList<>(nodes.size());
+        for (int i = 0; i < nodes.size(); i++) {
+            entries.add(new Entry(parents[i], nodes.get(i)));
+        }
+        Files.createDirectories(path.toAbsolutePath().getParent());
+        MAPPER.writeValue(path.toFile(), new Document(entries));
+    }
+
+    static DependencyGraph read(Path path) throws IOException {
+        Document document = MAPPER.readValue(path.toFile(), Document.class);
+        DependencyGraph graph = new DependencyGraph();
+        for (Entry entry : document.nodes()) {
+            graph.addNode(entry.node(), entry.parent());
+        }
+        return graph;
+    }
+
+    static DependencyGraph from(List<DependencyNode> roots) {
+        DependencyGraph graph = new DependencyGraph();
+        for (DependencyNode root : roots) {
+            add(graph, root, -1);
+        }
+        return graph;
+    }
+
+    private static void add(DependencyGraph graph, DependencyNode dependencyNode, int parent) {
+        Artifact artifact = dependencyNode.getArtifact();
+        String type = artifact.getProperty("type", artifact.getExtension());
+        String scope = dependencyNode.getDependency() == null ? "" : dependencyNode.getDependency().getScope();
+        boolean optional = dependencyNode.getDependency() != null && dependencyNode.getDependency().isOptional();
+        int id = graph.addNode(new Node(artifact.getGroupId(), artifact.getArtifactId(), type,
+                artifact.getClassifier(), artifact.getVersion(), scope, optional), parent);
+        for (DependencyNode child : dependencyNode.getChildren()) {
+            add(graph, child, id);
+        }
+    }
+}
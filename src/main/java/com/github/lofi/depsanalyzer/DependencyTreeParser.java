@@ -0,0 +1,112 @@
+package com.github.lofi.depsanalyzer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import org.apache.maven.shared.invoker.InvocationOutputHandler;
+
+/**
+ * Parses the text output of {@code dependency:tree} line by line while Maven is
+ * still running, so the full build log never has to be buffered.
+ */
+class DependencyTreeParser implements InvocationOutputHandler {
+
+    private static final Pattern ANSI_ESCAPE = Pattern.compile("\u001B\\[[;\\d]*m");
+    private static final String INFO_PREFIX = "[INFO] ";
+
+    private final DependencyGraph graph = new DependencyGraph();
+    // Node id of the most recent node on each depth of the tree that is being read
+    private final List<Integer> path = new ArrayList<>();
+    private boolean inTree;
+    private boolean expectRoot;
+
+    @Override
+    public void consumeLine(String line) {
+        String content = ANSI_ESCAPE.matcher(line).replaceAll("");
+        if (!content.startsWith(INFO_PREFIX)) {
+            inTree = false;
+            return;
+        }
+        content = content.substring(INFO_PREFIX.length());
+
+        if (content.startsWith("--- ") && content.contains(":tree ")) {
+            expectRoot = true;
+            inTree = false;
+            return;
+        }
+        if (expectRoot) {
+            if (content.isBlank()) {
+                return;
+            }
+            expectRoot = false;
+            DependencyGraph.Node root = parseCoordinate(content.trim());
+            if (root != null) {
+                path.clear();
+                path.add(graph.addNode(root, -1));
+                inTree = true;
+            }
+            return;
+        }
+        if (!inTree) {
+            return;
+        }
+
+        int start = coordinateStart(content);
+        if (start <= 0 || start % 3 != 0) {
+            inTree = false;
+            return;
+        }
+        DependencyGraph.Node node = parseCoordinate(content.substring(start).trim());
+        if (node == null) {
+            inTree = false;
+            return;
+        }
+        int depth = start / 3;
+        if (depth > path.size()) {
+            inTree = false;
+            return;
+        }
+        int id = graph.addNode(node, path.get(depth - 1));
+        while (path.size() > depth) {
+            path.remove(path.size() - 1);
+        }
+        path.add(id);
+    }
+
+    DependencyGraph getGraph() {
+        return graph;
+    }
+
+    private int coordinateStart(String content) {
+        int index = 0;
+        while (index < content.length()) {
+            char c = content.charAt(index);
+            if (c != ' ' && c != '|' && c != '+' && c != '\\' && c != '-') {
+                return index;
+            }
+            index++;
+        }
+        return -1;
+    }
+
+    static DependencyGraph.Node parseCoordinate(String text) {
+        boolean optional = false;
+        int space = text.indexOf(' ');
+        if (space > 0) {
+            optional = text.substring(space).contains("(optional)");
+            text = text.substring(0, space);
+        }
+        String[] parts = text.split(":");
+        switch (parts.length) {
+            case 4:
+                return new DependencyGraph.Node(parts[0], parts[1], parts[2], "", parts[3], "", optional);
+            case 5:
+                return new DependencyGraph.Node(parts[0], parts[1], parts[2], "", parts[3], parts[4], optional);
+            case 6:
+                return new DependencyGraph.Node(parts[0], parts[1], parts[2], parts[3], parts[4], parts[5], optional);
+            default:
+                return null;
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.github.lofi.depsanalyzer;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import org.apache.maven.shared.invoker.MavenInvocationException;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Repository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.shell.standard.ShellComponent;
+import org.springframework.shell.standard.ShellMethod;
+import org.springframework.shell.standard.ShellOption;
+
+@ShellComponent
+public class DiffCommand {
+
+    private static final Logger logger = LoggerFactory.getLogger(DiffCommand.class);
+
+    /**
+     * One side of a diff: the project and the directory its license reports are written
+     * to, named after {@code name}. The output directory is always below --directory,
+     * null without it, so nothing is written next to a project used in place. ZIP files
+     * and revisions are in a workspace of their own, closed when the diff is done.
+     */
+    record Side(String label, String projectDirectory, String outputDirectory, String name,
+            WorkspaceManager.Workspace workspace) {
+    }
+
+    private final MavenCommand mavenCommand;
+    private final AnalyzerMetrics metrics;
+
+    public DiffCommand(MavenCommand mavenCommand) {
+        this.mavenCommand = mavenCommand;
+        this.metrics = mavenCommand.getMetrics();
+    }
+
+    @ShellMethod(key = "diff-dependencies", value = "Compare the resolved dependencies of two ZIP files, directories or git revisions.")
+    public String diffDependencies(@ShellOption(value = "--from") String from,
+            @ShellOption(value = "--to") String to,
+            @ShellOption(value = "--repository", defaultValue = "") String repository,
+            @ShellOption(value = "--directory", defaultValue = "") String workDirectory,
+            @ShellOption(value = "--engine", defaultValue = MavenCommand.ENGINE_RESOLVER) String engine,
+            @ShellOption(value = "--licenses", defaultValue = "false") boolean licenses,
+            @ShellOption(value = "--no-cache", defaultValue = "false") boolean noCache,
+            @ShellOption(value = "--output", defaultValue = "") String outputFile) {
+        AnalyzerMetrics.Run run = metrics.start("diff-dependencies");
+        Side fromSide = null;
+        Side toSide = null;
+        try {
+            logger.info("Comparing dependencies of {} and {}", from, to);
+            if (licenses && workDirectory.isEmpty()) {
+                throw new IllegalArgumentException("Pass --directory to write the license reports of both sides");
+            }
+            long stageStart = System.nanoTime();
+            fromSide = side(from, repository, workDirectory, "from");
+            toSide = side(to, repository, workDirectory, "to");
+            run.stage("extract", stageStart);
+
+            // Graphs and license reports come from the result cache when the POMs of a side did not change
+            stageStart = System.nanoTime();
+            DependencyGraph fromGraph = mavenCommand.listDependencies(fromSide.projectDirectory(), engine, !noCache);
+            DependencyGraph toGraph = mavenCommand.listDependencies(toSide.projectDirectory(), engine, !noCache);
+            run.stage("dependencies", stageStart);
+
+            List<ThirdPartyReport.MergedEntry> fromLicenses = null;
+            List<ThirdPartyReport.MergedEntry> toLicenses = null;
+            if (licenses) {
+                stageStart = System.nanoTime();
+                fromLicenses = licenses(fromSide, !noCache);
+                toLicenses = licenses(toSide, !noCache);
+                run.stage("licenses", stageStart);
+            }
+
+            stageStart = System.nanoTime();
+            DependencyDiff diff = DependencyDiff.compare(fromSide.label(), fromGraph, fromLicenses, toSide.label(),
+                toGraph, toLicenses, mavenCommand.getLicensePolicy().getSpdxLicenses());
+            run.stage("diff", stageStart);
+
+            StringBuilder result = new StringBuilder(diff.format());
+            if (!outputFile.isEmpty()) {
+                diff.write(Paths.get(outputFile));
+                result.append(String.format("%nDiff saved to: %s", outputFile));
+            }
+            return result.append(String.format("%n%s", run.summary())).toString();
+        } catch (Exception e) {
+            run.failed();
+            logger.error("Error comparing dependencies: {}", e.getMessage(), e);
+            return "Error comparing dependencies: " + e.getMessage();
+        } finally {
+            run.close();
+            close(fromSide);
+            close(toSide);
+        }
+    }
+
+    void close(Side side) {
+        if (side != null) {
+            mavenCommand.close(side.workspace());
+        }
+    }
+
+    /**
+     * Makes a ZIP file, a project directory or a revision of the repository available as
+     * a project directory. ZIP files are extracted and revisions exported with their build
+     * files only into a workspace, the caller closes it with {@link #close(Side)}. The
+     * output directory of every side is {@code workDirectory/role}.
+     */
+    Side side(String source, String repository, String workDirectory, String role) throws IOException {
+        Path path = Paths.get(source);
+        String outputDirectory = workDirectory.isEmpty() ? null : Paths.get(workDirectory, role).toString();
+        if (Files.isDirectory(path)) {
+            Path project = path.toAbsolutePath().normalize();
+            String name = project.getFileName() == null ? role : project.getFileName().toString();
+            return new Side(source, project.toString(), outputDirectory, name, null);
+        }
+        boolean zipFile = Files.isRegularFile(path) && source.endsWith(".zip");
+        if (!zipFile && repository.isEmpty()) {
+            throw new IllegalArgumentException("Not a ZIP file or directory: " + source
+                + " (pass --repository to compare git revisions)");
+        }
+
+        WorkspaceManager.Workspace workspace = mavenCommand.getWorkspaces().create("diff-dependencies-" + role);
+        try {
+            return zipFile ? zipSide(source, workspace, outputDirectory)
+                : revisionSide(source, repository, workspace, outputDirectory);
+        } catch (IOException | RuntimeException e) {
+            mavenCommand.close(workspace);
+            throw e;
+        }
+    }
+
+    private Side zipSide(String source, WorkspaceManager.Workspace workspace, String outputDirectory)
+            throws IOException {
+        Path extracted = workspace.extract(new File(source), false, Runtime.getRuntime().availableProcessors());
+        String name = mavenCommand.getZipFileName(source);
+        return new Side(name, extracted.resolve(name).toString(), outputDirectory, name, workspace);
+    }
+
+    private Side revisionSide(String source, String repository, WorkspaceManager.Workspace workspace,
+            String outputDirectory) throws IOException {
+        Path repositoryPath = Paths.get(repository).toAbsolutePath().normalize();
+        try (Git git = Git.open(repositoryPath.toFile())) {
+            Repository gitRepository = git.getRepository();
+            ObjectId commit = gitRepository.resolve(source + "^{commit}");
+            if (commit == null) {
+                throw new IllegalArgumentException("Unknown revision: " + source);
+            }
+            // Named by commit, so the reports of two revisions never mix
+            String abbreviated = commit.abbreviate(8).name();
+            String name = repositoryPath.getFileName() + "-" + abbreviated;
+            Path project = workspace.getDirectory().resolve(name);
+            int files = GitMirrorCache.checkoutBuildFiles(gitRepository, commit, project);
+            logger.info("Exported {} build files of {} ({}) to: {}", files, source, abbreviated, project);
+            return new Side(source + " (" + abbreviated + ")", project.toString(), outputDirectory, name, workspace);
+        }
+    }
+
+    private List<ThirdPartyReport.MergedEntry> licenses(Side side, boolean useCache)
+            throws IOException, MavenInvocationException {
+        Path mergedFile = mavenCommand.listMergedLicenses(side.name(), Paths.get(side.projectDirectory()),
+            side.outputDirectory(), useCache);
+        return mergedFile == null ? List.of() : ThirdPartyReport.parseMerged(mergedFile);
+    }
+}
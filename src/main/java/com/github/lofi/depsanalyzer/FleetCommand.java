@@ -0,0 +1,82 @@
+package com.github.lofi.depsanalyzer;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.shell.standard.ShellComponent;
+import org.springframework.shell.standard.ShellMethod;
+import org.springframework.shell.standard.ShellOption;
+
+@ShellComponent
+public class FleetCommand {
+
+    private static final Logger logger = LoggerFactory.getLogger(FleetCommand.class);
+
+    private final FleetScanner fleetScanner;
+
+    public FleetCommand(MavenCommand mavenCommand, GitMirrorCache gitMirrorCache) {
+        this.fleetScanner = new FleetScanner(mavenCommand, gitMirrorCache);
+    }
+
+    @ShellMethod(key = "fleet-scan", value = "Clone and analyse the Maven dependencies of all repositories in a manifest.")
+    public String fleetScan(@ShellOption(value = "--manifest") String manifest,
+            @ShellOption(value = "--directory") String workDirectory,
+            @ShellOption(value = "--clone-workers", defaultValue = "4") int cloneWorkers,
+            @ShellOption(value = "--discovery-workers", defaultValue = "2") int discoveryWorkers,
+            @ShellOption(value = "--analysis-workers", defaultValue = "2") int analysisWorkers,
+            @ShellOption(value = "--queue-size", defaultValue = "4") int queueSize,
+            @ShellOption(value = "--engine", defaultValue = MavenCommand.ENGINE_RESOLVER) String engine,
+            @ShellOption(value = "--licenses", defaultValue = "false") boolean licenses,
+            @ShellOption(value = "--no-mirror", defaultValue = "false") boolean noMirror,
+            @ShellOption(value = "--no-cache", defaultValue = "false") boolean noCache,
+            @ShellOption(value = "--restart", defaultValue = "false") boolean restart) {
+        try {
+            List<FleetScanner.Repository> repositories = FleetScanner.readManifest(Paths.get(manifest));
+            if (repositories.isEmpty()) {
+                return "No repositories found in manifest: " + manifest;
+            }
+            logger.info("Scanning {} repositories from manifest: {}", repositories.size(), manifest);
+
+            FleetScanner.Limits limits = new FleetScanner.Limits(Math.max(1, cloneWorkers),
+                Math.max(1, discoveryWorkers), Math.max(1, analysisWorkers), Math.max(1, queueSize));
+            long start = System.nanoTime();
+            List<FleetScanner.RepositoryResult> results = fleetScanner.scan(repositories, Path.of(workDirectory),
+                limits, engine, licenses, !noMirror, !noCache, restart);
+            return formatResults(results, (System.nanoTime() - start) / 1_000_000, Path.of(workDirectory));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return "Fleet scan interrupted, run it again to resume.";
+        } catch (IOException e) {
+            logger.error("Error scanning repositories: {}", e.getMessage(), e);
+            return "Error scanning repositories: " + e.getMessage();
+        }
+    }
+
+    String formatResults(List<FleetScanner.RepositoryResult> results, long wallMillis, Path workDirectory) {
+        StringBuilder table = new StringBuilder();
+        table.append(String.format("%-40s %-8s %7s %12s %8s %8s %8s  %s%n",
+            "REPOSITORY", "STATUS", "MODULES", "DEPENDENCIES", "CLONE", "DISCOVER", "ANALYSE", "ERROR"));
+        int succeeded = 0;
+        int resumed = 0;
+        for (FleetScanner.RepositoryResult result : results) {
+            String status = !result.success() ? "FAILED" : result.resumed() ? "RESUMED" : "OK";
+            if (result.success()) {
+                succeeded++;
+            }
+            if (result.resumed()) {
+                resumed++;
+            }
+            table.append(String.format("%-40s %-8s %7d %12d %6d ms %5d ms %5d ms  %s%n",
+                result.name(), status, result.modules(), result.dependencies(), result.cloneMillis(),
+                result.discoveryMillis(), result.analysisMillis(), result.error() == null ? "" : result.error()));
+        }
+        table.append(String.format("Scanned %d repositories (%d succeeded, %d resumed, %d failed) in %.1f s%n",
+            results.size(), succeeded, resumed, results.size() - succeeded, wallMillis / 1000.0));
+        table.append("Results saved to: ").append(workDirectory.resolve(FleetScanner.REPOSITORIES_DIRECTORY));
+        return table.toString();
+    }
+}
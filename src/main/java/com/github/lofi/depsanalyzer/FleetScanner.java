@@ -0,0 +1,357 @@
+package com.github.lofi.depsanalyzer;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Scans many repositories in a pipeline of three stages: clone, POM discovery and
+ * analysis. Every stage has its own number of workers and hands repositories to the next
+ * stage through a bounded queue, so a fast stage blocks instead of piling up checkouts
+ * when a slower stage falls behind. Finished repositories are appended to a journal in
+ * the work directory, a restarted scan skips the repositories that already succeeded.
+ */
+class FleetScanner {
+
+    private static final Logger logger = LoggerFactory.getLogger(FleetScanner.class);
+
+    static final String JOURNAL_FILE = "fleet-scan.jsonl";
+    static final String REPOSITORIES_DIRECTORY = "repositories";
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    record Repository(String url, String branch) {
+    }
+
+    record Limits(int cloneWorkers, int discoveryWorkers, int analysisWorkers, int queueCapacity) {
+    }
+
+    record RepositoryResult(String url, String name, boolean success, boolean resumed, String commit, int modules,
+            int dependencies, long cloneMillis, long discoveryMillis, long analysisMillis, String error) {
+
+        RepositoryResult asResumed() {
+            return new RepositoryResult(url, name, success, true, commit, modules, dependencies, cloneMillis,
+                discoveryMillis, analysisMillis, error);
+        }
+    }
+
+    /**
+     * A repository on its way through the pipeline.
+     */
+    private static final class Job {
+
+        // Tells the workers of a stage that no more jobs will come
+        static final Job END = new Job(null);
+
+        final Repository repository;
+        Path directory;
+        String commit;
+        int modules;
+        int dependencies;
+        long cloneMillis;
+        long discoveryMillis;
+        long analysisMillis;
+
+        Job(Repository repository) {
+            this.repository = repository;
+        }
+
+        RepositoryResult result(String error) {
+            return new RepositoryResult(repository.url(), GitMirrorCache.repositoryName(repository.url()),
+                error == null, false, commit, modules, dependencies, cloneMillis, discoveryMillis, analysisMillis, error);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Stage {
+        void process(Job job) throws Exception;
+    }
+
+    private final MavenCommand mavenCommand;
+    private final GitMirrorCache gitMirrorCache;
+
+    FleetScanner(MavenCommand mavenCommand, GitMirrorCache gitMirrorCache) {
+        this.mavenCommand = mavenCommand;
+        this.gitMirrorCache = gitMirrorCache;
+    }
+
+    /**
+     * Reads a manifest with one repository URL or local repository path per line,
+     * optionally followed by a branch. Empty lines and lines starting with # are ignored,
+     * a repository listed twice is scanned once with the first branch given for it.
+     */
+    static List<Repository> readManifest(Path manifest) throws IOException {
+        List<Repository> repositories = new ArrayList<>();
+        for (String line : Files.readAllLines(manifest)) {
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+                continue;
+            }
+            String[] parts = trimmed.split("\\s+");
+            String url = parts[0];
+            if (!url.contains("://") && !url.contains("@") && Files.isDirectory(Path.of(url))) {
+                url = Path.of(url).toAbsolutePath().normalize().toUri().toString();
+            }
+            repositories.add(new Repository(url, parts.length > 1 ? parts[1] : ""));
+        }
+        return distinct(repositories);
+    }
+
+    /**
+     * Drops repeated URLs: every URL has one checkout directory, a second job for it would
+     * delete the checkout of the first.
+     */
+    static List<Repository> distinct(List<Repository> repositories) {
+        Map<String, Repository> byUrl = new LinkedHashMap<>();
+        for (Repository repository : repositories) {
+            if (byUrl.putIfAbsent(repository.url(), repository) != null) {
+                logger.warn("Skipping repository listed more than once: {}", repository.url());
+            }
+        }
+        return new ArrayList<>(byUrl.values());
+    }
+
+    List<RepositoryResult> scan(List<Repository> repositories, Path workDirectory, Limits limits, String engine,
+            boolean licenses, boolean useMirror, boolean useCache, boolean restart)
+            throws IOException, InterruptedException {
+        Path repositoriesDirectory = Files.createDirectories(workDirectory.resolve(REPOSITORIES_DIRECTORY));
+        Path journalFile = workDirectory.resolve(JOURNAL_FILE);
+        if (restart) {
+            Files.deleteIfExists(journalFile);
+        }
+        Map<String, RepositoryResult> finished = readJournal(journalFile);
+        repositories = distinct(repositories);
+
+        Map<String, RepositoryResult> results = new LinkedHashMap<>();
+        List<Job> pending = new ArrayList<>();
+        for (Repository repository : repositories) {
+            RepositoryResult previous = finished.get(repository.url());
+            if (previous != null && previous.success()) {
+                results.put(repository.url(), previous.asResumed());
+            } else {
+                results.put(repository.url(), null);
+                pending.add(new Job(repository));
+            }
+        }
+        logger.info("Scanning {} repositories, {} already done", repositories.size(),
+            repositories.size() - pending.size());
+
+        BlockingQueue<Job> cloneQueue = new ArrayBlockingQueue<>(limits.queueCapacity());
+        BlockingQueue<Job> discoveryQueue = new ArrayBlockingQueue<>(limits.queueCapacity());
+        BlockingQueue<Job> analysisQueue = new ArrayBlockingQueue<>(limits.queueCapacity());
+
+        try (BufferedWriter journal = Files.newBufferedWriter(journalFile, StandardOpenOption.CREATE,
+                StandardOpenOption.APPEND)) {
+            Stage clone = job -> {
+                long start = System.nanoTime();
+                job.directory = repositoriesDirectory.resolve(GitMirrorCache.repositoryName(job.repository.url()));
+                // A checkout left behind by an interrupted scan may contain stale POMs
+                ResultCache.deleteRecursively(job.directory);
+                GitMirrorCache.CloneResult result = gitMirrorCache.cloneForAnalysis(job.repository.url(),
+                    job.repository.branch(), job.directory, 1, true, useMirror);
+                job.commit = result.commit();
+                job.cloneMillis = millisSince(start);
+            };
+            Stage discover = job -> {
+                long start = System.nanoTime();
+                PomIndex index = mavenCommand.getPomDiscovery().index(job.directory);
+                PomIndex.PomInfo reactorRoot = index.reactorRoot();
+                if (reactorRoot == null) {
+                    throw new IOException("No pom.xml found");
+                }
+                job.modules = index.reactor(reactorRoot).size();
+                job.discoveryMillis = millisSince(start);
+            };
+            Stage analyse = job -> {
+                long start = System.nanoTime();
+                String projectDirectory = job.directory.toString();
+                String name = job.directory.getFileName().toString();
+                DependencyGraph graph = mavenCommand.listDependencies(projectDirectory, engine, useCache);
+                // Next to the checkout, both belong to the scan's work directory
+                mavenCommand.saveDependencyGraph(graph, projectDirectory,
+                    repositoriesDirectory.resolve(name + "-dependencies.json").toString());
+                job.dependencies = graph.size() - graph.roots().size();
+                if (licenses) {
+                    MavenCommand.LicenseListResult result = mavenCommand.executeMavenLicenseList(projectDirectory,
+                        repositoriesDirectory.resolve(name + "-maven.txt"));
+                    if (!result.success()) {
+                        throw new IOException("Maven exited with code " + result.exitCode());
+                    }
+                    mavenCommand.copyLicenseFiles(name, repositoriesDirectory.toString(), result.thirdPartyFiles());
+                }
+                job.analysisMillis = millisSince(start);
+            };
+
+            StageRunner runner = new StageRunner(results, journal);
+            ExecutorService executor = Executors.newCachedThreadPool();
+            try {
+                runner.start(executor, "clone", limits.cloneWorkers(), cloneQueue, discoveryQueue,
+                    limits.discoveryWorkers(), clone);
+                runner.start(executor, "discovery", limits.discoveryWorkers(), discoveryQueue, analysisQueue,
+                    limits.analysisWorkers(), discover);
+                runner.start(executor, "analysis", limits.analysisWorkers(), analysisQueue, null, 0, analyse);
+
+                // Blocks when the clone stage is behind, so checkouts never run far ahead
+                for (Job job : pending) {
+                    if (runner.failure.get() != null) {
+                        break;
+                    }
+                    cloneQueue.put(job);
+                }
+                for (int i = 0; i < limits.cloneWorkers(); i++) {
+                    cloneQueue.put(Job.END);
+                }
+                executor.shutdown();
+                while (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+                    logger.info("Fleet scan still running: {} of {} repositories done", runner.done.get(),
+                        pending.size());
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+            Throwable failure = runner.failure.get();
+            if (failure != null) {
+                throw new IOException("Fleet scan aborted: " + failure.getMessage(), failure);
+            }
+        }
+        // Repositories still missing were interrupted and are retried by the next scan
+        return results.values().stream().filter(Objects::nonNull).collect(Collectors.toList());
+    }
+
+    /**
+     * Starts the workers of the stages and records finished or failed repositories. A
+     * worker never dies with a job: a failing job is recorded as failed, and when the
+     * journal cannot be written the scan is aborted, the workers then drain their queues
+     * without processing and every stage still hands the end marker to the next one.
+     */
+    private class StageRunner {
+
+        private final Map<String, RepositoryResult> results;
+        private final BufferedWriter journal;
+        private final AtomicInteger done = new AtomicInteger();
+        private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        StageRunner(Map<String, RepositoryResult> results, BufferedWriter journal) {
+            this.results = results;
+            this.journal = journal;
+        }
+
+        void start(ExecutorService executor, String name, int workers, BlockingQueue<Job> input,
+                BlockingQueue<Job> output, int downstreamWorkers, Stage stage) {
+            AtomicInteger running = new AtomicInteger(workers);
+            for (int i = 0; i < workers; i++) {
+                executor.submit(() -> {
+                    try {
+                        for (Job job = input.take(); job != Job.END; job = input.take()) {
+                            if (failure.get() == null) {
+                                process(name, job, output, stage);
+                            }
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        // The last worker of a stage ends the workers of the next stage
+                        if (running.decrementAndGet() == 0 && output != null) {
+                            end(output, downstreamWorkers);
+                        }
+                    }
+                    return null;
+                });
+            }
+        }
+
+        private void process(String name, Job job, BlockingQueue<Job> output, Stage stage)
+                throws InterruptedException {
+            try {
+                try {
+                    stage.process(job);
+                } catch (InterruptedException e) {
+                    throw e;
+                } catch (Throwable e) {
+                    logger.warn("Fleet scan {} of {} failed: {}", name, job.repository.url(), e.getMessage());
+                    complete(job.result(name + " failed: " + e.getMessage()));
+                    return;
+                }
+                if (output == null) {
+                    complete(job.result(null));
+                } else {
+                    output.put(job);
+                }
+            } catch (InterruptedException e) {
+                throw e;
+            } catch (Throwable e) {
+                if (failure.compareAndSet(null, e)) {
+                    logger.error("Aborting fleet scan: {}", e.getMessage(), e);
+                }
+            }
+        }
+
+        private void end(BlockingQueue<Job> output, int downstreamWorkers) {
+            try {
+                for (int end = 0; end < downstreamWorkers; end++) {
+                    output.put(Job.END);
+                }
+            } catch (InterruptedException e) {
+                // Only shutdownNow interrupts, and it interrupts the workers of the next stage as well
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private synchronized void complete(RepositoryResult result) {
+            results.put(result.url(), result);
+            done.incrementAndGet();
+            try {
+                journal.write(MAPPER.writeValueAsString(result));
+                journal.newLine();
+                journal.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not write the fleet scan journal", e);
+            }
+        }
+    }
+
+    /**
+     * The latest result per URL. A line cut off by a crash is skipped.
+     */
+    Map<String, RepositoryResult> readJournal(Path journalFile) throws IOException {
+        Map<String, RepositoryResult> finished = new LinkedHashMap<>();
+        if (!Files.isRegularFile(journalFile)) {
+            return finished;
+        }
+        for (String line : Files.readAllLines(journalFile)) {
+            try {
+                RepositoryResult result = MAPPER.readValue(line, RepositoryResult.class);
+                finished.put(result.url(), result);
+            } catch (JsonProcessingException e) {
+                logger.warn("Skipping unreadable journal line: {}", line);
+            }
+        }
+        return finished;
+    }
+
+    private static long millisSince(long start) {
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+}
@@ -0,0 +1,239 @@
+package com.github.lofi.depsanalyzer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+import org.eclipse.jgit.api.CloneCommand;
+import org.eclipse.jgit.api.FetchCommand;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Ref;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.lib.StoredConfig;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.transport.RefSpec;
+import org.eclipse.jgit.treewalk.TreeWalk;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Clones repositories for analysis only: a shallow, single branch bare mirror per remote
+ * URL is kept on disk and updated with a fetch on later runs, and the working directory
+ * is created from the mirror, optionally with the build files only.
+ */
+class GitMirrorCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(GitMirrorCache.class);
+
+    record CloneResult(String url, String branch, String commit, boolean mirrorUpdated, long bytesTransferred,
+            int filesCheckedOut, long millis) {
+    }
+
+    private final Path directory;
+    private final Map<Path, Object> locks = new ConcurrentHashMap<>();
+
+    GitMirrorCache(Path directory) {
+        this.directory = directory;
+    }
+
+    static Path defaultDirectory() {
+        return Path.of(System.getProperty("user.home"), ".maven-deps-analyzer", "mirrors");
+    }
+
+    Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Fetches {@code branch} (the remote HEAD when empty) with the given depth into the
+     * mirror of the URL and checks it out into {@code targetDirectory}. With
+     * {@code buildFilesOnly} only the build files are written and no git repository is
+     * created, JGit has no sparse checkout. Without {@code useMirror} a temporary mirror
+     * is used and removed afterwards.
+     */
+    CloneResult cloneForAnalysis(String url, String branch, Path targetDirectory, int depth, boolean buildFilesOnly,
+            boolean useMirror) throws IOException, GitAPIException {
+        long start = System.nanoTime();
+        String branchName = branch.isEmpty() ? remoteHead(url) : branch;
+        Path mirror = useMirror ? mirrorPath(url) : Files.createTempDirectory("analysis-mirror");
+        try {
+            boolean mirrorUpdated;
+            long bytesTransferred;
+            ObjectId commit;
+            synchronized (locks.computeIfAbsent(mirror, path -> new Object())) {
+                long sizeBefore = objectsSize(mirror);
+                mirrorUpdated = Files.isDirectory(mirror.resolve("objects"));
+                if (mirrorUpdated) {
+                    fetch(mirror, branchName, depth);
+                } else {
+                    createMirror(url, branchName, mirror, depth);
+                }
+                // Received packs are stored as they arrive, so the growth of the object
+                // database is the number of bytes transferred
+                bytesTransferred = Math.max(0, objectsSize(mirror) - sizeBefore);
+
+                try (Git git = Git.open(mirror.toFile())) {
+                    commit = git.getRepository().resolve(Constants.R_HEADS + branchName);
+                }
+                if (commit == null) {
+                    throw new IOException("Branch " + branchName + " not found in " + url);
+                }
+            }
+
+            int files = buildFilesOnly
+                ? checkoutBuildFiles(mirror, commit, targetDirectory)
+                : checkout(mirror, url, branchName, targetDirectory);
+
+            long millis = (System.nanoTime() - start) / 1_000_000;
+            logger.info("Cloned {} ({}) at {} into {}: {} bytes transferred in {} ms", url, branchName, commit.name(),
+                targetDirectory, bytesTransferred, millis);
+            return new CloneResult(url, branchName, commit.name(), mirrorUpdated, bytesTransferred, files, millis);
+        } finally {
+            if (!useMirror) {
+                ResultCache.deleteRecursively(mirror);
+            }
+        }
+    }
+
+    private String remoteHead(String url) throws GitAPIException {
+        Map<String, Ref> refs = Git.lsRemoteRepository().setRemote(url).callAsMap();
+        Ref head = refs.get(Constants.HEAD);
+        if (head != null && head.isSymbolic()) {
+            return Repository.shortenRefName(head.getTarget().getName());
+        }
+        // Older servers do not advertise the HEAD symref, pick the ref HEAD points to
+        for (Ref ref : refs.values()) {
+            if (head != null && ref.getName().startsWith(Constants.R_HEADS) && ref.getObjectId().equals(head.getObjectId())) {
+                return Repository.shortenRefName(ref.getName());
+            }
+        }
+        throw new IllegalArgumentException("Could not determine the default branch of " + url + ", pass --branch");
+    }
+
+    Path mirrorPath(String url) {
+        return directory.resolve(repositoryName(url) + ".git");
+    }
+
+    /**
+     * A readable name for the repository that is unique per URL, e.g. {@code app-1a2b3c4d}.
+     */
+    static String repositoryName(String url) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(url.getBytes(StandardCharsets.UTF_8));
+            String name = url.replaceAll("/+$", "").replaceAll("\\.git$", "").replaceAll(".*[/:]", "");
+            return name + "-" + HexFormat.of().formatHex(hash, 0, 4);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private void createMirror(String url, String branch, Path mirror, int depth) throws IOException, GitAPIException {
+        logger.info("Creating mirror of {} ({}) in {}", url, branch, mirror);
+        Files.createDirectories(mirror);
+        CloneCommand command = Git.cloneRepository()
+                .setURI(url)
+                .setDirectory(mirror.toFile())
+                .setBare(true)
+                .setCloneAllBranches(false)
+                .setBranchesToClone(List.of(Constants.R_HEADS + branch))
+                .setBranch(Constants.R_HEADS + branch);
+        if (depth > 0) {
+            command.setDepth(depth);
+        }
+        command.call().close();
+    }
+
+    private void fetch(Path mirror, String branch, int depth) throws IOException, GitAPIException {
+        logger.info("Updating mirror {} ({})", mirror, branch);
+        try (Git git = Git.open(mirror.toFile())) {
+            FetchCommand command = git.fetch()
+                    .setRemote(Constants.DEFAULT_REMOTE_NAME)
+                    .setRefSpecs(new RefSpec("+" + Constants.R_HEADS + branch + ":" + Constants.R_HEADS + branch));
+            if (depth > 0) {
+                command.setDepth(depth);
+            }
+            command.call();
+        }
+    }
+
+    private int checkoutBuildFiles(Path mirror, ObjectId commit, Path targetDirectory) throws IOException {
+        try (Git git = Git.open(mirror.toFile())) {
+            return checkoutBuildFiles(git.getRepository(), commit, targetDirectory);
+        }
+    }
+
+    /**
+     * Writes the build files of the commit into {@code targetDirectory} and returns their
+     * number.
+     */
+    static int checkoutBuildFiles(Repository repository, ObjectId commit, Path targetDirectory) throws IOException {
+        int files = 0;
+        Path target = targetDirectory.toAbsolutePath().normalize();
+        try (RevWalk walk = new RevWalk(repository); TreeWalk treeWalk = new TreeWalk(repository)) {
+            treeWalk.addTree(walk.parseCommit(commit).getTree());
+            treeWalk.setRecursive(true);
+            while (treeWalk.next()) {
+                String path = treeWalk.getPathString();
+                if (!ZipArchive.isBuildFile(path)) {
+                    continue;
+                }
+                Path file = target.resolve(path).normalize();
+                if (!file.startsWith(target)) {
+                    throw new IOException("Entry is outside of the target directory: " + path);
+                }
+                Files.createDirectories(file.getParent());
+                try (OutputStream out = Files.newOutputStream(file)) {
+                    repository.open(treeWalk.getObjectId(0)).copyTo(out);
+                }
+                files++;
+            }
+        }
+        return files;
+    }
+
+    private int checkout(Path mirror, String url, String branch, Path targetDirectory)
+            throws IOException, GitAPIException {
+        try (Git git = Git.cloneRepository()
+                .setURI(mirror.toUri().toString())
+                .setDirectory(targetDirectory.toFile())
+                .setCloneAllBranches(false)
+                .setBranchesToClone(List.of(Constants.R_HEADS + branch))
+                .setBranch(Constants.R_HEADS + branch)
+                .call()) {
+            // Point origin at the real remote, the mirror is an implementation detail
+            StoredConfig config = git.getRepository().getConfig();
+            config.setString("remote", Constants.DEFAULT_REMOTE_NAME, "url", url);
+            config.save();
+        }
+        try (Stream<Path> files = Files.walk(targetDirectory)) {
+            return (int) files.filter(file -> !file.startsWith(targetDirectory.resolve(Constants.DOT_GIT)))
+                    .filter(Files::isRegularFile)
+                    .count();
+        }
+    }
+
+    /**
+     * The size of the object database of a bare repository or a .git directory.
+     */
+    static long objectsSize(Path gitDirectory) throws IOException {
+        Path objects = gitDirectory.resolve("objects");
+        if (!Files.isDirectory(objects)) {
+            return 0;
+        }
+        try (Stream<Path> files = Files.walk(objects)) {
+            return files.filter(Files::isRegularFile).mapToLong(file -> file.toFile().length()).sum();
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package com.github.lofi.depsanalyzer;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.shell.standard.AbstractShellComponent;
+import org.springframework.shell.standard.ShellComponent;
+import org.springframework.shell.standard.ShellMethod;
+import org.springframework.shell.standard.ShellOption;
+
+@ShellComponent
+public class GitlabCommand extends AbstractShellComponent {
+
+    private static final Logger logger = LoggerFactory.getLogger(GitlabCommand.class);
+
+    private final IncrementalAnalyzer incrementalAnalyzer;
+    private final GitMirrorCache gitMirrorCache;
+    private final AnalyzerMetrics metrics;
+
+    public GitlabCommand(MavenCommand mavenCommand, GitMirrorCache gitMirrorCache) {
+        this.incrementalAnalyzer = new IncrementalAnalyzer(mavenCommand);
+        this.gitMirrorCache = gitMirrorCache;
+        this.metrics = mavenCommand.getMetrics();
+    }
+
+    @ShellMethod(key = "clone", value = "Clone a GitLab repository.")
+    public String cloneRepo(@ShellOption(value = "--url") String repoUrl,
+            @ShellOption(value = "--directory") String directory) {
+        AnalyzerMetrics.Run run = metrics.start("clone");
+        try {
+            logger.info("Cloning repository from URL: {}", repoUrl);
+            long stageStart = System.nanoTime();
+            try (Git git = Git.cloneRepository()
+                    .setURI(repoUrl)
+                    .setDirectory(new File(directory))
+                    .call()) {
+                run.stage("clone", stageStart);
+                run.cloned(GitMirrorCache.objectsSize(git.getRepository().getDirectory().toPath()),
+                    git.getRepository().readDirCache().getEntryCount());
+            }
+            logger.info("Repository successfully cloned to: {}", directory);
+            return String.format("Repository successfully cloned to: %s%n%s", directory, run.summary());
+        } catch (GitAPIException | IOException e) {
+            run.failed();
+            logger.error("Error cloning the repository: {}", e.getMessage(), e);
+            return "Error cloning the repository: " + e.getMessage();
+        } finally {
+            run.close();
+        }
+    }
+
+    @ShellMethod(key = "clone-analysis", value = "Clone a repository for analysis: shallow, single branch and through a local mirror.")
+    public String cloneForAnalysis(@ShellOption(value = "--url") String repoUrl,
+            @ShellOption(value = "--directory") String directory,
+            @ShellOption(value = "--branch", defaultValue = "") String branch,
+            @ShellOption(value = "--depth", defaultValue = "1") int depth,
+            @ShellOption(value = "--build-files-only", defaultValue = "false") boolean buildFilesOnly,
+            @ShellOption(value = "--no-mirror", defaultValue = "false") boolean noMirror) {
+        AnalyzerMetrics.Run run = metrics.start("clone-analysis");
+        try {
+            logger.info("Cloning repository for analysis from URL: {}", repoUrl);
+            long stageStart = System.nanoTime();
+            GitMirrorCache.CloneResult result = gitMirrorCache.cloneForAnalysis(repoUrl, branch, Paths.get(directory),
+                depth, buildFilesOnly, !noMirror);
+            run.stage(result.mirrorUpdated() ? "fetch" : "clone", stageStart);
+            run.cloned(result.bytesTransferred(), result.filesCheckedOut());
+            return String.format("Repository %s (%s at %s) %s to: %s%n%d files checked out, %.1f KB transferred in %d ms%n%s",
+                repoUrl, result.branch(), result.commit().substring(0, 8),
+                result.mirrorUpdated() ? "updated in mirror and checked out" : "cloned", directory, result.filesCheckedOut(),
+                result.bytesTransferred() / 1024.0, result.millis(), run.summary());
+        } catch (Exception e) {
+            run.failed();
+            logger.error("Error cloning the repository: {}", e.getMessage(), e);
+            return "Error cloning the repository: " + e.getMessage();
+        } finally {
+            run.close();
+        }
+    }
+
+    @ShellMethod(key = "list-branches", value = "List all branches of a local repository.")
+    public String listBranches(@ShellOption(value = "--directory") String directory) {
+        try (Git git = Git.open(new File(directory))) {
+            logger.info("Listing branches for repository in directory: {}", directory);
+            StringBuilder branches = new StringBuilder();
+            git.branchList().call().forEach(ref -> branches.append(ref.getName()).append("\n"));
+            return branches.toString();
+        } catch (Exception e) {
+            logger.error("Error listing branches: {}", e.getMessage(), e);
+            return "Error listing branches: " + e.getMessage();
+        }
+    }
+
+    @ShellMethod(key = "list-commits", value = "List the latest commits of a branch.")
+    public String listCommits(@ShellOption(value = "--directory") String directory,
+            @ShellOption(value = "--branch") String branch,
+            @ShellOption(value = "--limit", defaultValue = "100") int limit,
+            @ShellOption(value = "--offset", defaultValue = "0") int offset,
+            @ShellOption(value = "--since", defaultValue = "") String since,
+            @ShellOption(value = "--until", defaultValue = "") String until,
+            @ShellOption(value = "--path", defaultValue = "") String paths,
+            @ShellOption(value = "--full-message", defaultValue = "false") boolean fullMessage) {
+        try (Git git = Git.open(new File(directory))) {
+            logger.info("Listing commits for branch: {} in directory: {}", branch, directory);
+            long start = System.nanoTime();
+            CommitLister.Query query = new CommitLister.Query(branch, offset, limit, parseTime(since, false), parseTime(until, true),
+                paths.isEmpty() ? List.of() : List.of(paths.split(",")), fullMessage);
+
+            // Each commit is printed as soon as it is found instead of after the whole walk
+            PrintWriter writer = getTerminal().writer();
+            int listed = new CommitLister().list(git.getRepository(), query, line -> {
+                writer.println(line);
+                writer.flush();
+            });
+            return String.format("Listed %d commits starting at offset %d in %d ms", listed, offset,
+                (System.nanoTime() - start) / 1_000_000);
+        } catch (Exception e) {
+            logger.error("Error listing commits: {}", e.getMessage(), e);
+            return "Error listing commits: " + e.getMessage();
+        }
+    }
+
+    /**
+     * Parses an ISO instant or a date in UTC. A date is the start of that day, or with
+     * {@code endOfDay} its last second, so {@code --until 2024-05-01} includes the commits
+     * made on that day.
+     */
+    static Instant parseTime(String time, boolean endOfDay) {
+        if (time.isEmpty()) {
+            return null;
+        }
+        if (time.length() == 10) {
+            LocalDate date = LocalDate.parse(time);
+            return endOfDay
+                ? date.plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant().minusSeconds(1)
+                : date.atStartOfDay(ZoneOffset.UTC).toInstant();
+        }
+        return Instant.parse(time);
+    }
+
+    @ShellMethod(key = "analyze-diff", value = "Re-analyse only the Maven modules whose build files changed between two revisions.")
+    public String analyzeDiff(@ShellOption(value = "--directory") String directory,
+            @ShellOption(value = "--from") String fromRevision,
+            @ShellOption(value = "--to", defaultValue = "HEAD") String toRevision,
+            @ShellOption(value = "--engine", defaultValue = MavenCommand.ENGINE_RESOLVER) String engine,
+            @ShellOption(value = "--licenses", defaultValue = "false") boolean licenses,
+            @ShellOption(value = "--output", defaultValue = "") String outputDirectory) {
+        AnalyzerMetrics.Run run = metrics.start("analyze-diff");
+        try {
+            logger.info("Analysing changes from {} to {} in directory: {}", fromRevision, toRevision, directory);
+            Path output = outputDirectory.isEmpty() ? getAnalysisPath(directory) : Paths.get(outputDirectory);
+            long stageStart = System.nanoTime();
+            IncrementalAnalyzer.Analysis analysis = incrementalAnalyzer.analyze(Paths.get(directory), fromRevision,
+                toRevision, engine, licenses, output);
+            run.stage("analyze", stageStart);
+            if (analysis.error() != null) {
+                run.failed();
+            }
+            return formatAnalysis(analysis) + String.format("%n%s", run.summary());
+        } catch (Exception e) {
+            run.failed();
+            logger.error("Error analysing the repository: {}", e.getMessage(), e);
+            return "Error analysing the repository: " + e.getMessage();
+        } finally {
+            run.close();
+        }
+    }
+
+    Path getAnalysisPath(String directory) {
+        // Next to the repository, like the -dependencies.json file of list-dependencies-dir
+        Path repository = Paths.get(directory).toAbsolutePath().normalize();
+        Path parent = repository.getParent() == null ? repository : repository.getParent();
+        return parent.resolve(repository.getFileName() + "-analysis");
+    }
+
+    String formatAnalysis(IncrementalAnalyzer.Analysis analysis) {
+        StringBuilder result = new StringBuilder();
+        result.append(String.format("Build files changed from %s to %s: %d%n", analysis.from(), analysis.to(),
+            analysis.changedFiles().size()));
+        analysis.changedFiles().forEach(file -> result.append("  ").append(file).append("\n"));
+        result.append(String.format("%-40s %-8s %12s %9s%n", "MODULE", "STATUS", "DEPENDENCIES", "LICENSES"));
+        long reused = 0;
+        for (IncrementalAnalyzer.ModuleResult module : analysis.modules()) {
+            result.append(String.format("%-40s %-8s %12d %9d%n", module.module(), module.status(),
+                module.dependencyCount(), module.licenseCount()));
+            if (module.status() == IncrementalAnalyzer.ModuleStatus.REUSED) {
+                reused++;
+            }
+        }
+        result.append(String.format("%d modules analysed, %d reused, results saved to: %s",
+            analysis.modules().size() - reused, reused, analysis.outputDirectory()));
+        if (analysis.error() != null) {
+            result.append("\n").append(analysis.error());
+        }
+        return result.toString();
+    }
+
+}
@@ -0,0 +1,118 @@
+package com.github.lofi.depsanalyzer;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.shell.standard.ShellComponent;
+import org.springframework.shell.standard.ShellMethod;
+import org.springframework.shell.standard.ShellOption;
+
+@ShellComponent
+public class GraphCommand {
+
+    private static final Logger logger = LoggerFactory.getLogger(GraphCommand.class);
+
+    // Loaded by graph-load and kept for the queries of the shell session
+    private GraphStore store;
+
+    @ShellMethod(key = "graph-load", value = "Load all dependency graph JSON files below a directory for graph queries.")
+    public String graphLoad(@ShellOption(value = "--directory") String directory) {
+        try {
+            long start = System.nanoTime();
+            // The previous graphs can be collected while the new ones are loaded
+            store = null;
+            GraphStore loaded = GraphStore.load(Path.of(directory));
+            store = loaded;
+            return String.format("Loaded %d projects: %d artifacts, %d dependency edges (%.1f MB of adjacency "
+                + "arrays) in %d ms", loaded.projects().size(), loaded.vertexCount(), loaded.edgeCount(),
+                loaded.adjacencyBytes() / (1024.0 * 1024.0), (System.nanoTime() - start) / 1_000_000);
+        } catch (Exception e) {
+            logger.error("Error loading dependency graphs: {}", e.getMessage(), e);
+            return "Error loading dependency graphs: " + e.getMessage();
+        }
+    }
+
+    @ShellMethod(key = "graph-query", value = "List the projects that depend on an artifact, with the dependency path.")
+    public String graphQuery(@ShellOption(value = "--artifact") String artifact,
+            @ShellOption(value = "--versions", defaultValue = "") String versions) {
+        try {
+            int[] targets = find(artifact, versions);
+            if (targets.length == 0) {
+                return "No loaded project uses " + describe(artifact, versions);
+            }
+            List<GraphStore.Match> matches = store.dependingProjects(targets);
+            StringBuilder result = new StringBuilder();
+            for (GraphStore.Match match : matches) {
+                result.append(match.project()).append(": ").append(String.join(" -> ", match.path())).append("\n");
+            }
+            result.append(String.format("%d project modules depend on %s", matches.size(),
+                describe(artifact, versions)));
+            return result.toString();
+        } catch (Exception e) {
+            logger.error("Error querying dependency graphs: {}", e.getMessage(), e);
+            return "Error querying dependency graphs: " + e.getMessage();
+        }
+    }
+
+    @ShellMethod(key = "graph-dependents", value = "List the artifacts that depend on an artifact.")
+    public String graphDependents(@ShellOption(value = "--artifact") String artifact,
+            @ShellOption(value = "--versions", defaultValue = "") String versions,
+            @ShellOption(value = "--transitive", defaultValue = "false") boolean transitive) {
+        try {
+            List<String> dependents = store().dependents(find(artifact, versions), transitive);
+            StringBuilder result = new StringBuilder();
+            dependents.forEach(dependent -> result.append(dependent).append("\n"));
+            result.append(String.format("%d artifacts depend %son %s", dependents.size(),
+                transitive ? "transitively " : "directly ", describe(artifact, versions)));
+            return result.toString();
+        } catch (Exception e) {
+            logger.error("Error querying dependency graphs: {}", e.getMessage(), e);
+            return "Error querying dependency graphs: " + e.getMessage();
+        }
+    }
+
+    @ShellMethod(key = "graph-path", value = "Show the shortest dependency path from one artifact to another.")
+    public String graphPath(@ShellOption(value = "--from") String from,
+            @ShellOption(value = "--to") String to,
+            @ShellOption(value = "--versions", defaultValue = "") String versions) {
+        try {
+            List<String> path = store().shortestPath(find(from, ""), find(to, versions));
+            if (path.isEmpty()) {
+                return "No dependency path from " + from + " to " + describe(to, versions);
+            }
+            return String.join("\n-> ", path);
+        } catch (Exception e) {
+            logger.error("Error querying dependency graphs: {}", e.getMessage(), e);
+            return "Error querying dependency graphs: " + e.getMessage();
+        }
+    }
+
+    /**
+     * Artifact ids for groupId:artifactId, filtered by the version range, or for
+     * groupId:artifactId:version.
+     */
+    private int[] find(String artifact, String versions) {
+        String[] parts = artifact.split(":");
+        if (parts.length < 2 || parts.length > 3) {
+            throw new IllegalArgumentException("Expected groupId:artifactId[:version], got: " + artifact);
+        }
+        if (parts.length == 3) {
+            int vertex = store().vertex(parts[0], parts[1], parts[2]);
+            return vertex < 0 ? new int[0] : new int[] { vertex };
+        }
+        return store().find(parts[0], parts[1], GraphStore.versionFilter(versions));
+    }
+
+    private GraphStore store() {
+        if (store == null) {
+            throw new IllegalStateException("No dependency graphs loaded, run graph-load first");
+        }
+        return store;
+    }
+
+    private static String describe(String artifact, String versions) {
+        return versions.isEmpty() ? artifact : artifact + " " + versions;
+    }
+}
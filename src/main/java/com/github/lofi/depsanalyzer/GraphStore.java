@@ -0,0 +1,423 @@
+package com.github.lofi.depsanalyzer;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.eclipse.aether.util.version.GenericVersionScheme;
+import org.eclipse.aether.version.InvalidVersionSpecificationException;
+import org.eclipse.aether.version.Version;
+import org.eclipse.aether.version.VersionConstraint;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+
+/**
+ * The dependency trees of many projects merged into one graph for queries across all
+ * projects. Every groupId:artifactId:version is interned into an int id and the edges
+ * are stored as primitive adjacency arrays in both directions (an offset per artifact
+ * into one array of neighbour ids), so tens of millions of edges fit in a few hundred MB
+ * and a query is a breadth-first search over int arrays.
+ * <p>
+ * The graph is the union of the trees: an edge means that some project resolved the
+ * source artifact with the target as its dependency.
+ */
+class GraphStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(GraphStore.class);
+
+    private static final GenericVersionScheme VERSION_SCHEME = new GenericVersionScheme();
+
+    /**
+     * A project whose root artifact depends on a matching artifact, with the shortest
+     * path from the root to the match.
+     */
+    record Match(String project, List<String> path) {
+    }
+
+    record Project(String name, int[] roots) {
+    }
+
+    private final String[] artifacts;
+    private final int[] artifactOf;
+    private final String[] versions;
+    private final Map<String, Integer> artifactIds;
+    private final Map<String, Integer> vertexIds;
+    private final int[] forwardOffsets;
+    private final int[] forwardTargets;
+    private final int[] reverseOffsets;
+    private final int[] reverseSources;
+    private final List<Project> projects;
+
+    private GraphStore(Builder builder, int[] forwardOffsets, int[] forwardTargets) {
+        int vertexCount = builder.vertexCount;
+        this.artifacts = builder.artifacts.toArray(new String[0]);
+        this.artifactOf = Arrays.copyOf(builder.artifactOf, vertexCount);
+        this.versions = Arrays.copyOf(builder.versions, vertexCount);
+        this.artifactIds = builder.artifactIds;
+        this.vertexIds = builder.vertexIds;
+        this.forwardOffsets = forwardOffsets;
+        this.forwardTargets = forwardTargets;
+        this.projects = List.copyOf(builder.projects);
+
+        // Reverse adjacency from the deduplicated forward lists
+        reverseOffsets = new int[vertexCount + 1];
+        for (int target : forwardTargets) {
+            reverseOffsets[target + 1]++;
+        }
+        for (int v = 0; v < vertexCount; v++) {
+            reverseOffsets[v + 1] += reverseOffsets[v];
+        }
+        reverseSources = new int[forwardTargets.length];
+        int[] cursor = Arrays.copyOf(reverseOffsets, vertexCount);
+        for (int v = 0; v < vertexCount; v++) {
+            for (int e = forwardOffsets[v]; e < forwardOffsets[v + 1]; e++) {
+                reverseSources[cursor[forwardTargets[e]]++] = v;
+            }
+        }
+    }
+
+    static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Loads every dependency graph JSON file below the directory, e.g. the output of
+     * list-dependencies-dir or fleet-scan. Other JSON files are skipped.
+     */
+    static GraphStore load(Path directory) throws IOException {
+        long start = System.nanoTime();
+        List<Path> files;
+        try (Stream<Path> paths = Files.walk(directory)) {
+            files = paths.filter(path -> path.getFileName().toString().endsWith(".json"))
+                    .filter(Files::isRegularFile)
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+        Builder builder = builder();
+        for (Path file : files) {
+            DependencyGraph graph;
+            try {
+                graph = DependencyGraph.read(file);
+            } catch (JsonProcessingException e) {
+                logger.debug("Skipping {}, not a dependency graph: {}", file, e.getMessage());
+                continue;
+            }
+            String name = directory.relativize(file).toString().replaceAll("\\.json$", "");
+            builder.addProject(name, graph);
+        }
+        GraphStore store = builder.build();
+        logger.info("Loaded {} projects with {} artifacts and {} edges in {} ms", store.projects.size(),
+            store.vertexCount(), store.edgeCount(), (System.nanoTime() - start) / 1_000_000);
+        return store;
+    }
+
+    int vertexCount() {
+        return versions.length;
+    }
+
+    int edgeCount() {
+        return forwardTargets.length;
+    }
+
+    List<Project> projects() {
+        return projects;
+    }
+
+    /**
+     * Approximate heap used by the adjacency arrays and the vertex table.
+     */
+    long adjacencyBytes() {
+        return (long) Integer.BYTES * (forwardOffsets.length + forwardTargets.length + reverseOffsets.length
+            + reverseSources.length + artifactOf.length);
+    }
+
+    String coordinate(int vertex) {
+        return artifacts[artifactOf[vertex]] + ":" + versions[vertex];
+    }
+
+    /**
+     * The ids of all versions of groupId:artifactId accepted by the filter.
+     */
+    int[] find(String groupId, String artifactId, Predicate<String> versionFilter) {
+        Integer artifact = artifactIds.get(groupId + ":" + artifactId);
+        if (artifact == null) {
+            return new int[0];
+        }
+        int[] matches = new int[8];
+        int count = 0;
+        for (int v = 0; v < artifactOf.length; v++) {
+            if (artifactOf[v] == artifact && versionFilter.test(versions[v])) {
+                if (count == matches.length) {
+                    matches = Arrays.copyOf(matches, count * 2);
+                }
+                matches[count++] = v;
+            }
+        }
+        return Arrays.copyOf(matches, count);
+    }
+
+    int vertex(String groupId, String artifactId, String version) {
+        Integer vertex = vertexIds.get(groupId + ":" + artifactId + ":" + version);
+        return vertex == null ? -1 : vertex;
+    }
+
+    /**
+     * For every project root that depends on one of the targets directly or
+     * transitively, the shortest path from the root to a target. One reverse search from
+     * all targets at once, so the cost does not grow with the number of projects.
+     */
+    List<Match> dependingProjects(int[] targets) {
+        int[] next = reverseSearch(targets);
+        List<Match> matches = new ArrayList<>();
+        for (Project project : projects) {
+            for (int root : project.roots()) {
+                if (next[root] != -1) {
+                    matches.add(new Match(project.name(), path(root, next)));
+                }
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * The artifacts that depend on one of the targets, directly or with
+     * {@code transitive} at any depth.
+     */
+    List<String> dependents(int[] targets, boolean transitive) {
+        List<String> dependents = new ArrayList<>();
+        if (transitive) {
+            int[] next = reverseSearch(targets);
+            boolean[] target = new boolean[vertexCount()];
+            for (int t : targets) {
+                target[t] = true;
+            }
+            for (int v = 0; v < next.length; v++) {
+                if (next[v] != -1 && !target[v]) {
+                    dependents.add(coordinate(v));
+                }
+            }
+        } else {
+            boolean[] seen = new boolean[vertexCount()];
+            for (int t : targets) {
+                for (int e = reverseOffsets[t]; e < reverseOffsets[t + 1]; e++) {
+                    int source = reverseSources[e];
+                    if (!seen[source]) {
+                        seen[source] = true;
+                        dependents.add(coordinate(source));
+                    }
+                }
+            }
+        }
+        dependents.sort(null);
+        return dependents;
+    }
+
+    /**
+     * The shortest dependency path from one of the sources to one of the targets, empty
+     * when there is none.
+     */
+    List<String> shortestPath(int[] sources, int[] targets) {
+        // Search backwards from the targets, the path is then read forwards from the source
+        int[] next = reverseSearch(targets);
+        int best = -1;
+        int bestLength = Integer.MAX_VALUE;
+        for (int source : sources) {
+            if (next[source] == -1) {
+                continue;
+            }
+            int length = path(source, next).size();
+            if (length < bestLength) {
+                best = source;
+                bestLength = length;
+            }
+        }
+        return best == -1 ? List.of() : path(best, next);
+    }
+
+    /**
+     * Breadth-first search over the reverse edges. {@code next[v]} is the neighbour of v
+     * one step closer to a target, the target itself for a target and -1 when v does not
+     * reach a target.
+     */
+    private int[] reverseSearch(int[] targets) {
+        int[] next = new int[vertexCount()];
+        Arrays.fill(next, -1);
+        int[] queue = new int[vertexCount()];
+        int head = 0;
+        int tail = 0;
+        for (int target : targets) {
+            if (next[target] == -1) {
+                next[target] = target;
+                queue[tail++] = target;
+            }
+        }
+        while (head < tail) {
+            int v = queue[head++];
+            for (int e = reverseOffsets[v]; e < reverseOffsets[v + 1]; e++) {
+                int source = reverseSources[e];
+                if (next[source] == -1) {
+                    next[source] = v;
+                    queue[tail++] = source;
+                }
+            }
+        }
+        return next;
+    }
+
+    private List<String> path(int from, int[] next) {
+        List<String> path = new ArrayList<>();
+        int v = from;
+        path.add(coordinate(v));
+        while (next[v] != v) {
+            v = next[v];
+            path.add(coordinate(v));
+        }
+        return path;
+    }
+
+    /**
+     * A filter for Maven version ranges like {@code [,2.17.0)} or {@code [2.0,2.17.1),[2.18,)};
+     * a plain version matches only itself and an empty string matches every version.
+     */
+    static Predicate<String> versionFilter(String range) {
+        if (range == null || range.isBlank()) {
+            return version -> true;
+        }
+        String trimmed = range.trim();
+        if (!trimmed.startsWith("[") && !trimmed.startsWith("(")) {
+            return trimmed::equals;
+        }
+        try {
+            VersionConstraint constraint = VERSION_SCHEME.parseVersionConstraint(trimmed);
+            return version -> {
+                try {
+                    Version parsed = VERSION_SCHEME.parseVersion(version);
+                    return constraint.containsVersion(parsed);
+                } catch (InvalidVersionSpecificationException e) {
+                    return false;
+                }
+            };
+        } catch (InvalidVersionSpecificationException e) {
+            throw new IllegalArgumentException("Invalid version range: " + range, e);
+        }
+    }
+
+    /**
+     * Collects projects and interns their artifacts. The edges are kept as two growing
+     * int arrays until {@link #build()} turns them into adjacency arrays.
+     */
+    static class Builder {
+
+        private final List<String> artifacts = new ArrayList<>();
+        private final Map<String, Integer> artifactIds = new HashMap<>();
+        private final Map<String, Integer> vertexIds = new HashMap<>();
+        private final List<Project> projects = new ArrayList<>();
+        private int[] artifactOf = new int[1024];
+        private String[] versions = new String[1024];
+        private int vertexCount;
+        private int[] edgeSources = new int[1024];
+        private int[] edgeTargets = new int[1024];
+        private int edgeCount;
+
+        int vertex(String groupId, String artifactId, String version) {
+            String key = groupId + ":" + artifactId + ":" + version;
+            Integer existing = vertexIds.get(key);
+            if (existing != null) {
+                return existing;
+            }
+            String artifact = groupId + ":" + artifactId;
+            Integer artifactIndex = artifactIds.get(artifact);
+            if (artifactIndex == null) {
+                artifactIndex = artifacts.size();
+                artifacts.add(artifact);
+                artifactIds.put(artifact, artifactIndex);
+            }
+            if (vertexCount == versions.length) {
+                artifactOf = Arrays.copyOf(artifactOf, vertexCount * 2);
+                versions = Arrays.copyOf(versions, vertexCount * 2);
+            }
+            artifactOf[vertexCount] = artifactIndex;
+            versions[vertexCount] = version.intern();
+            vertexIds.put(key, vertexCount);
+            return vertexCount++;
+        }
+
+        void addEdge(int source, int target) {
+            if (source == target) {
+                return;
+            }
+            if (edgeCount == edgeSources.length) {
+                edgeSources = Arrays.copyOf(edgeSources, edgeCount * 2);
+                edgeTargets = Arrays.copyOf(edgeTargets, edgeCount * 2);
+            }
+            edgeSources[edgeCount] = source;
+            edgeTargets[edgeCount] = target;
+            edgeCount++;
+        }
+
+        Builder addProject(String name, DependencyGraph graph) {
+            int[] ids = new int[graph.size()];
+            int[] roots = new int[graph.roots().size()];
+            int rootCount = 0;
+            for (int i = 0; i < graph.size(); i++) {
+                DependencyGraph.Node node = graph.node(i);
+                ids[i] = vertex(node.groupId(), node.artifactId(), node.version());
+                int parent = graph.parent(i);
+                if (parent < 0) {
+                    roots[rootCount++] = ids[i];
+                } else {
+                    addEdge(ids[parent], ids[i]);
+                }
+            }
+            projects.add(new Project(name, roots));
+            return this;
+        }
+
+        /**
+         * Sorts the edges by source with a counting sort and drops duplicates, the same
+         * dependency usually appears in many projects.
+         */
+        GraphStore build() {
+            int[] offsets = new int[vertexCount + 1];
+            for (int e = 0; e < edgeCount; e++) {
+                offsets[edgeSources[e] + 1]++;
+            }
+            for (int v = 0; v < vertexCount; v++) {
+                offsets[v + 1] += offsets[v];
+            }
+            int[] targets = new int[edgeCount];
+            int[] cursor = Arrays.copyOf(offsets, vertexCount);
+            for (int e = 0; e < edgeCount; e++) {
+                targets[cursor[edgeSources[e]]++] = edgeTargets[e];
+            }
+            // The edge arrays are not needed anymore
+            edgeSources = new int[0];
+            edgeTargets = new int[0];
+
+            int written = 0;
+            for (int v = 0; v < vertexCount; v++) {
+                int start = offsets[v];
+                int end = offsets[v + 1];
+                offsets[v] = written;
+                Arrays.sort(targets, start, end);
+                for (int e = start; e < end; e++) {
+                    if (e == start || targets[e] != targets[e - 1]) {
+                        targets[written++] = targets[e];
+                    }
+                }
+            }
+            offsets[vertexCount] = written;
+            return new GraphStore(this, offsets, Arrays.copyOf(targets, written));
+        }
+    }
+}
@@ -0,0 +1,345 @@
+package com.github.lofi.depsanalyzer;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import org.apache.maven.model.Build;
+import org.apache.maven.model.Model;
+import org.apache.maven.model.Parent;
+import org.apache.maven.model.Plugin;
+import org.apache.maven.model.Repository;
+import org.apache.maven.model.building.DefaultModelBuilderFactory;
+import org.apache.maven.model.building.DefaultModelBuildingRequest;
+import org.apache.maven.model.building.FileModelSource;
+import org.apache.maven.model.building.ModelBuilder;
+import org.apache.maven.model.building.ModelBuildingException;
+import org.apache.maven.model.building.ModelBuildingRequest;
+import org.apache.maven.model.building.ModelSource;
+import org.apache.maven.model.resolution.ModelResolver;
+import org.apache.maven.model.resolution.UnresolvableModelException;
+import org.apache.maven.repository.internal.MavenRepositorySystemUtils;
+import org.eclipse.aether.DefaultRepositoryCache;
+import org.eclipse.aether.DefaultRepositorySystemSession;
+import org.eclipse.aether.RepositorySystem;
+import org.eclipse.aether.RepositorySystemSession;
+import org.eclipse.aether.artifact.Artifact;
+import org.eclipse.aether.artifact.ArtifactType;
+import org.eclipse.aether.artifact.DefaultArtifact;
+import org.eclipse.aether.collection.CollectRequest;
+import org.eclipse.aether.collection.DependencyCollectionException;
+import org.eclipse.aether.graph.Dependency;
+import org.eclipse.aether.graph.DependencyNode;
+import org.eclipse.aether.graph.Exclusion;
+import org.eclipse.aether.repository.LocalRepository;
+import org.eclipse.aether.repository.RemoteRepository;
+import org.eclipse.aether.repository.RepositoryPolicy;
+import org.eclipse.aether.repository.WorkspaceReader;
+import org.eclipse.aether.repository.WorkspaceRepository;
+import org.eclipse.aether.resolution.ArtifactRequest;
+import org.eclipse.aether.resolution.ArtifactResolutionException;
+import org.eclipse.aether.supplier.RepositorySystemSupplier;
+import org.eclipse.aether.util.repository.SimpleArtifactDescriptorPolicy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Resolves the transitive dependency graph of a project inside the shell JVM with
+ * Maven Resolver, without forking a Maven build. Only POMs are needed, so on a warm
+ * local repository no remote request is made.
+ */
+class InProcessResolver {
+
+    private static final Logger logger = LoggerFactory.getLogger(InProcessResolver.class);
+
+    private static final RemoteRepository CENTRAL = new RemoteRepository.Builder(
+            "central", "default", "https://repo.maven.apache.org/maven2/").build();
+
+    private final RepositorySystem system;
+    private final File localRepository;
+    private final boolean offline;
+    private final ModelBuilder modelBuilder = new DefaultModelBuilderFactory().newInstance();
+    // Shared across sessions so artifact descriptors read once stay warm for the whole shell session
+    private final DefaultRepositoryCache repositoryCache = new DefaultRepositoryCache();
+
+    InProcessResolver() {
+        this(defaultLocalRepository(), false);
+    }
+
+    InProcessResolver(File localRepository) {
+        this(localRepository, false);
+    }
+
+    /**
+     * With {@code offline} only the local repository is used, a POM missing there fails
+     * the resolution instead of being downloaded.
+     */
+    InProcessResolver(File localRepository, boolean offline) {
+        this.system = new RepositorySystemSupplier().get();
+        this.localRepository = localRepository;
+        this.offline = offline;
+    }
+
+    File getLocalRepository() {
+        return localRepository;
+    }
+
+    static File defaultLocalRepository() {
+        String configured = System.getProperty("maven.repo.local");
+        if (configured != null && !configured.isEmpty()) {
+            return new File(configured);
+        }
+        return new File(System.getProperty("user.home"), ".m2/repository");
+    }
+
+    /**
+     * Returns one dependency tree per reactor module, starting with the given POM.
+     */
+    List<DependencyNode> resolve(File pomFile) throws ModelBuildingException, DependencyCollectionException {
+        return resolve(pomFile, module -> true);
+    }
+
+    /**
+     * Returns the dependency trees of the selected reactor modules only. All modules are
+     * still read, so selected modules resolve their siblings from the reactor.
+     */
+    List<DependencyNode> resolve(File pomFile, Predicate<File> selected)
+            throws ModelBuildingException, DependencyCollectionException {
+        return resolve(pomFile, selected, newSession(offline), false);
+    }
+
+    /**
+     * Collects the dependency trees from the local repository only. A dependency whose
+     * POM is missing or broken stays in the tree as a leaf instead of failing the
+     * collection, so all missing artifacts can be found in one pass.
+     */
+    List<DependencyNode> collectOffline(File pomFile) throws ModelBuildingException, DependencyCollectionException {
+        DefaultRepositorySystemSession session = newSession(true);
+        session.setArtifactDescriptorPolicy(new SimpleArtifactDescriptorPolicy(true, true));
+        // Descriptors of missing POMs are empty here and must not reach the shared cache
+        session.setCache(new DefaultRepositoryCache());
+        return resolve(pomFile, module -> true, session, true);
+    }
+
+    /**
+     * The version of the plugin that a build of the POM uses: the one of its build plugins
+     * or plugin management, including the super POM's. Null when the POM sets none and
+     * Maven picks the latest version, read from the local repository only.
+     */
+    String pluginVersion(File pomFile, String groupId, String artifactId) throws ModelBuildingException {
+        DefaultRepositorySystemSession session = newSession(true);
+        session.setCache(new DefaultRepositoryCache());
+        Build build = buildEffectiveModel(pomFile, session, new ArrayList<>(List.of(CENTRAL))).getBuild();
+        if (build == null) {
+            return null;
+        }
+        List<Plugin> plugins = new ArrayList<>(build.getPlugins());
+        if (build.getPluginManagement() != null) {
+            plugins.addAll(build.getPluginManagement().getPlugins());
+        }
+        for (Plugin plugin : plugins) {
+            if (plugin.getGroupId().equals(groupId) && plugin.getArtifactId().equals(artifactId)
+                    && plugin.getVersion() != null) {
+                return plugin.getVersion();
+            }
+        }
+        return null;
+    }
+
+    private List<DependencyNode> resolve(File pomFile, Predicate<File> selected,
+            DefaultRepositorySystemSession session, boolean partial)
+            throws ModelBuildingException, DependencyCollectionException {
+        List<RemoteRepository> repositories = new ArrayList<>(List.of(CENTRAL));
+
+        Map<String, Model> reactor = new LinkedHashMap<>();
+        Map<String, File> reactorPoms = new LinkedHashMap<>();
+        collectReactor(pomFile, session, repositories, reactor, reactorPoms);
+        session.setWorkspaceReader(new ReactorReader(reactorPoms));
+
+        List<DependencyNode> roots = new ArrayList<>();
+        for (Map.Entry<String, Model> module : reactor.entrySet()) {
+            if (!selected.test(reactorPoms.get(module.getKey()))) {
+                continue;
+            }
+            try {
+                roots.add(collect(module.getValue(), session, repositories));
+            } catch (DependencyCollectionException e) {
+                if (!partial || e.getResult().getRoot() == null) {
+                    throw e;
+                }
+                roots.add(e.getResult().getRoot());
+            }
+        }
+        return roots;
+    }
+
+    private void collectReactor(File pomFile, RepositorySystemSession session, List<RemoteRepository> repositories,
+            Map<String, Model> reactor, Map<String, File> reactorPoms) throws ModelBuildingException {
+        Model model = buildEffectiveModel(pomFile, session, repositories);
+        String key = model.getGroupId() + ":" + model.getArtifactId() + ":" + model.getVersion();
+        if (reactor.putIfAbsent(key, model) != null) {
+            return;
+        }
+        reactorPoms.put(key, pomFile);
+
+        for (String module : model.getModules()) {
+            File moduleFile = new File(pomFile.getParentFile(), module);
+            if (moduleFile.isDirectory()) {
+                moduleFile = new File(moduleFile, "pom.xml");
+            }
+            if (moduleFile.isFile()) {
+                collectReactor(moduleFile, session, repositories, reactor, reactorPoms);
+            } else {
+                logger.warn("Module {} of {} not found, skipping", module, pomFile);
+            }
+        }
+    }
+
+    Model buildEffectiveModel(File pomFile, RepositorySystemSession session, List<RemoteRepository> repositories)
+            throws ModelBuildingException {
+        DefaultModelBuildingRequest request = new DefaultModelBuildingRequest();
+        request.setPomFile(pomFile);
+        request.setValidationLevel(ModelBuildingRequest.VALIDATION_LEVEL_MINIMAL);
+        request.setProcessPlugins(false);
+        request.setTwoPhaseBuilding(false);
+        request.setSystemProperties(System.getProperties());
+        request.setModelResolver(new RepositoryModelResolver(session, repositories));
+        return modelBuilder.build(request).getEffectiveModel();
+    }
+
+    private DependencyNode collect(Model model, RepositorySystemSession session, List<RemoteRepository> repositories)
+            throws DependencyCollectionException {
+        CollectRequest request = new CollectRequest();
+        request.setRootArtifact(new DefaultArtifact(model.getGroupId(), model.getArtifactId(),
+                model.getPackaging(), model.getVersion()));
+        request.setRepositories(repositories);
+        for (org.apache.maven.model.Dependency dependency : model.getDependencies()) {
+            request.addDependency(toDependency(dependency, session));
+        }
+        if (model.getDependencyManagement() != null) {
+            for (org.apache.maven.model.Dependency dependency : model.getDependencyManagement().getDependencies()) {
+                request.addManagedDependency(toDependency(dependency, session));
+            }
+        }
+
+        logger.info("Collecting dependencies of {}:{}:{}", model.getGroupId(), model.getArtifactId(),
+                model.getVersion());
+        return system.collectDependencies(session, request).getRoot();
+    }
+
+    private Dependency toDependency(org.apache.maven.model.Dependency dependency, RepositorySystemSession session) {
+        ArtifactType type = session.getArtifactTypeRegistry().get(dependency.getType());
+        Artifact artifact = new DefaultArtifact(dependency.getGroupId(), dependency.getArtifactId(),
+                dependency.getClassifier(), null, dependency.getVersion(), type);
+        List<Exclusion> exclusions = dependency.getExclusions().stream()
+                .map(exclusion -> new Exclusion(exclusion.getGroupId(), exclusion.getArtifactId(), "*", "*"))
+                .collect(Collectors.toList());
+        return new Dependency(artifact, dependency.getScope(), dependency.isOptional(), exclusions);
+    }
+
+    private DefaultRepositorySystemSession newSession(boolean offline) {
+        DefaultRepositorySystemSession session = MavenRepositorySystemUtils.newSession();
+        session.setOffline(offline);
+        // The simple layout does not track which remote an artifact came from, so artifacts
+        // downloaded through a mirror are reused instead of being checked again.
+        session.setLocalRepositoryManager(system.newLocalRepositoryManager(session,
+                new LocalRepository(localRepository, "simple")));
+        session.setUpdatePolicy(RepositoryPolicy.UPDATE_POLICY_NEVER);
+        session.setChecksumPolicy(RepositoryPolicy.CHECKSUM_POLICY_WARN);
+        session.setSystemProperties(System.getProperties());
+        session.setCache(repositoryCache);
+        return session;
+    }
+
+    private class RepositoryModelResolver implements ModelResolver {
+
+        private final RepositorySystemSession session;
+        private final List<RemoteRepository> repositories;
+
+        RepositoryModelResolver(RepositorySystemSession session, List<RemoteRepository> repositories) {
+            this.session = session;
+            this.repositories = repositories;
+        }
+
+        @Override
+        public ModelSource resolveModel(String groupId, String artifactId, String version)
+                throws UnresolvableModelException {
+            ArtifactRequest request = new ArtifactRequest(
+                    new DefaultArtifact(groupId, artifactId, "", "pom", version), repositories, null);
+            try {
+                return new FileModelSource(system.resolveArtifact(session, request).getArtifact().getFile());
+            } catch (ArtifactResolutionException e) {
+                throw new UnresolvableModelException(e.getMessage(), groupId, artifactId, version, e);
+            }
+        }
+
+        @Override
+        public ModelSource resolveModel(Parent parent) throws UnresolvableModelException {
+            return resolveModel(parent.getGroupId(), parent.getArtifactId(), parent.getVersion());
+        }
+
+        @Override
+        public ModelSource resolveModel(org.apache.maven.model.Dependency dependency)
+                throws UnresolvableModelException {
+            return resolveModel(dependency.getGroupId(), dependency.getArtifactId(), dependency.getVersion());
+        }
+
+        @Override
+        public void addRepository(Repository repository) {
+            addRepository(repository, false);
+        }
+
+        @Override
+        public void addRepository(Repository repository, boolean replace) {
+            synchronized (repositories) {
+                boolean known = repositories.stream().anyMatch(existing -> existing.getId().equals(repository.getId()));
+                if (!known) {
+                    repositories.add(new RemoteRepository.Builder(repository.getId(), "default",
+                            repository.getUrl()).build());
+                }
+            }
+        }
+
+        @Override
+        public ModelResolver newCopy() {
+            return new RepositoryModelResolver(session, repositories);
+        }
+    }
+
+    private static class ReactorReader implements WorkspaceReader {
+
+        private final WorkspaceRepository repository = new WorkspaceRepository("reactor");
+        private final Map<String, File> poms;
+
+        ReactorReader(Map<String, File> poms) {
+            this.poms = poms;
+        }
+
+        @Override
+        public WorkspaceRepository getRepository() {
+            return repository;
+        }
+
+        @Override
+        public File findArtifact(Artifact artifact) {
+            if (!"pom".equals(artifact.getExtension())) {
+                return null;
+            }
+            return poms.get(artifact.getGroupId() + ":" + artifact.getArtifactId() + ":" + artifact.getVersion());
+        }
+
+        @Override
+        public List<String> findVersions(Artifact artifact) {
+            String prefix = artifact.getGroupId() + ":" + artifact.getArtifactId() + ":";
+            return poms.keySet().stream()
+                    .filter(key -> key.startsWith(prefix))
+                    .map(key -> key.substring(prefix.length()))
+                    .collect(Collectors.collectingAndThen(Collectors.toList(), Collections::unmodifiableList));
+        }
+    }
+}
@@ -0,0 +1,363 @@
+package com.github.lofi.depsanalyzer;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.apache.maven.shared.invoker.MavenInvocationException;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.Status;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.diff.DiffEntry;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectReader;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.treewalk.CanonicalTreeParser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Re-analyses only the reactor modules of a git repository whose build files changed
+ * between two revisions. The results of every analysed revision are kept in the
+ * {@link ResultCache} under its commit id, so the modules a diff does not touch are
+ * copied from the results of the older revision.
+ */
+class IncrementalAnalyzer {
+
+    private static final Logger logger = LoggerFactory.getLogger(IncrementalAnalyzer.class);
+
+    static final String GOAL_INCREMENTAL = "incremental";
+    static final String DEPENDENCIES_SUFFIX = "-dependencies.json";
+    static final String LICENSES_SUFFIX = "-licenses.txt";
+    static final String MERGED_LICENSES_FILE = "licenses-merged.txt";
+
+    enum ModuleStatus {
+        // Build files of the module or of a module it depends on changed
+        CHANGED,
+        // Result copied from the older revision
+        REUSED,
+        // No result of the older revision to reuse
+        NEW
+    }
+
+    record ModuleResult(String module, ModuleStatus status, int dependencyCount, int licenseCount) {
+    }
+
+    record Analysis(String from, String to, List<String> changedFiles, List<ModuleResult> modules,
+            Path outputDirectory, String error) {
+    }
+
+    private final MavenCommand mavenCommand;
+    private final ResultCache resultCache;
+    private final PomDiscovery pomDiscovery;
+
+    IncrementalAnalyzer(MavenCommand mavenCommand) {
+        this.mavenCommand = mavenCommand;
+        this.resultCache = mavenCommand.getResultCache();
+        this.pomDiscovery = mavenCommand.getPomDiscovery();
+    }
+
+    /**
+     * Analyses the working tree, which has to be checked out at {@code toRevision}, and
+     * writes one dependency graph and, when {@code licenses} is set, one license file per
+     * module into the output directory.
+     */
+    Analysis analyze(Path repositoryDirectory, String fromRevision, String toRevision, String engine,
+            boolean licenses, Path outputDirectory) throws IOException, GitAPIException, MavenInvocationException {
+        try (Git git = Git.open(repositoryDirectory.toFile())) {
+            Repository repository = git.getRepository();
+            ObjectId from = resolveCommit(repository, fromRevision);
+            ObjectId to = resolveCommit(repository, toRevision);
+            ObjectId head = resolveCommit(repository, Constants.HEAD);
+            if (!head.equals(to)) {
+                throw new IllegalArgumentException("The working tree is at " + head.abbreviate(8).name()
+                    + ", check out " + toRevision + " before analysing it");
+            }
+
+            Set<String> changedFiles = new TreeSet<>(changedBuildFiles(git, from, to));
+            Set<String> uncommitted = uncommittedBuildFiles(git);
+            changedFiles.addAll(uncommitted);
+            logger.info("{} build files changed between {} and {}", changedFiles.size(), fromRevision, toRevision);
+
+            Path workTree = repository.getWorkTree().toPath().toAbsolutePath().normalize();
+            PomIndex index = pomDiscovery.index(workTree);
+            PomIndex.PomInfo reactorRoot = index.reactorRoot();
+            if (reactorRoot == null) {
+                throw new IOException("No pom.xml found in: " + workTree);
+            }
+            List<PomIndex.PomInfo> reactor = index.reactor(reactorRoot);
+            String reactorPath = workTree.relativize(reactorRoot.pomFile()).toString().replace('\\', '/');
+            String mode = licenses ? "licenses" : "dependencies";
+            // Qualified like every other cached result, so engines and offline runs never share one
+            String goal = mavenCommand.cacheQualifier(GOAL_INCREMENTAL, engine);
+
+            // A copy of the older results, the cache may evict them while the modules are resolved
+            Path previousDirectory = Files.createTempDirectory("analyze-diff-previous");
+            try {
+                Map<String, Path> previous = previousResults(resultCache.key(goal, mode, reactorPath,
+                    from.name()), previousDirectory);
+                Files.createDirectories(outputDirectory);
+
+                Map<PomIndex.PomInfo, DependencyGraph> previousGraphs = new LinkedHashMap<>();
+                for (PomIndex.PomInfo module : reactor) {
+                    Path graphFile = previous.get(moduleName(module) + DEPENDENCIES_SUFFIX);
+                    boolean complete = graphFile != null
+                        && (!licenses || "pom".equals(module.packaging()) || previous.containsKey(moduleName(module) + LICENSES_SUFFIX));
+                    if (complete) {
+                        previousGraphs.put(module, DependencyGraph.read(graphFile));
+                    }
+                }
+                Set<PomIndex.PomInfo> affected = affectedModules(index, reactor, workTree, changedFiles, previousGraphs);
+                logger.info("{} of {} modules affected", affected.size(), reactor.size());
+
+                Map<PomIndex.PomInfo, DependencyGraph> graphs = resolveDependencies(reactorRoot, affected, engine);
+                Map<PomIndex.PomInfo, List<ThirdPartyReport.Entry>> licenseEntries = new LinkedHashMap<>();
+                String error = null;
+                if (licenses) {
+                    error = listLicenses(workTree, reactorRoot, index, reactor, affected, outputDirectory, licenseEntries);
+                }
+
+                List<ModuleResult> results = new ArrayList<>();
+                Map<String, Path> entryFiles = new LinkedHashMap<>();
+                for (PomIndex.PomInfo module : reactor) {
+                    String name = moduleName(module);
+                    Path graphFile = outputDirectory.resolve(name + DEPENDENCIES_SUFFIX);
+                    Path licenseFile = outputDirectory.resolve(name + LICENSES_SUFFIX);
+                    ModuleStatus status;
+                    DependencyGraph graph;
+                    if (affected.contains(module)) {
+                        status = previous.containsKey(name + DEPENDENCIES_SUFFIX) ? ModuleStatus.CHANGED : ModuleStatus.NEW;
+                        graph = graphs.get(module);
+                        if (graph == null) {
+                            error = error != null ? error : "No dependency graph resolved for " + module.coordinate();
+                            continue;
+                        }
+                        graph.write(graphFile);
+                    } else {
+                        status = ModuleStatus.REUSED;
+                        graph = previousGraphs.get(module);
+                        Files.copy(previous.get(name + DEPENDENCIES_SUFFIX), graphFile, StandardCopyOption.REPLACE_EXISTING);
+                        if (licenses && previous.containsKey(name + LICENSES_SUFFIX)) {
+                            Files.copy(previous.get(name + LICENSES_SUFFIX), licenseFile, StandardCopyOption.REPLACE_EXISTING);
+                            licenseEntries.put(module, ThirdPartyReport.parse(licenseFile));
+                        }
+                    }
+                    entryFiles.put(graphFile.getFileName().toString(), graphFile);
+                    if (licenseEntries.containsKey(module)) {
+                        entryFiles.put(licenseFile.getFileName().toString(), licenseFile);
+                    }
+                    List<ThirdPartyReport.Entry> entries = licenseEntries.getOrDefault(module, List.of());
+                    results.add(new ModuleResult(name, status, graph.size() - 1, entries.size()));
+                }
+
+                if (licenses && !licenseEntries.isEmpty()) {
+                    Map<String, List<ThirdPartyReport.Entry>> entriesByModule = new LinkedHashMap<>();
+                    licenseEntries.forEach((module, entries) -> entriesByModule.put(moduleName(module), entries));
+                    ThirdPartyReport.writeMerged(outputDirectory.resolve(MERGED_LICENSES_FILE),
+                        ThirdPartyReport.merge(entriesByModule), entriesByModule.size());
+                }
+
+                // Results of a dirty working tree do not belong to the commit
+                if (error == null && uncommitted.isEmpty()) {
+                    resultCache.store(resultCache.key(goal, mode, reactorPath, to.name()), GOAL_INCREMENTAL,
+                        entryFiles);
+                } else if (!uncommitted.isEmpty()) {
+                    logger.info("Not storing results of {}, build files have uncommitted changes: {}", toRevision,
+                        uncommitted);
+                }
+                return new Analysis(from.abbreviate(8).name(), to.abbreviate(8).name(), List.copyOf(changedFiles),
+                    results, outputDirectory, error);
+            } finally {
+                ResultCache.deleteRecursively(previousDirectory);
+            }
+        }
+    }
+
+    private ObjectId resolveCommit(Repository repository, String revision) throws IOException {
+        ObjectId id = repository.resolve(revision + "^{commit}");
+        if (id == null) {
+            throw new IllegalArgumentException("Unknown revision: " + revision);
+        }
+        return id;
+    }
+
+    /**
+     * Repository relative paths of the build files that differ between the two commits.
+     * Only names are compared, no content diff is computed.
+     */
+    List<String> changedBuildFiles(Git git, ObjectId from, ObjectId to) throws IOException, GitAPIException {
+        Repository repository = git.getRepository();
+        try (ObjectReader reader = repository.newObjectReader(); RevWalk walk = new RevWalk(reader)) {
+            CanonicalTreeParser oldTree = new CanonicalTreeParser(null, reader, walk.parseCommit(from).getTree());
+            CanonicalTreeParser newTree = new CanonicalTreeParser(null, reader, walk.parseCommit(to).getTree());
+
+            List<String> changed = new ArrayList<>();
+            for (DiffEntry diff : git.diff().setOldTree(oldTree).setNewTree(newTree).setShowNameAndStatusOnly(true)
+                    .call()) {
+                for (String path : List.of(diff.getOldPath(), diff.getNewPath())) {
+                    if (!DiffEntry.DEV_NULL.equals(path) && ZipArchive.isBuildFile(path) && !changed.contains(path)) {
+                        changed.add(path);
+                    }
+                }
+            }
+            return changed;
+        }
+    }
+
+    private Set<String> uncommittedBuildFiles(Git git) throws GitAPIException {
+        Status status = git.status().call();
+        Set<String> uncommitted = new TreeSet<>();
+        for (Set<String> paths : List.of(status.getAdded(), status.getChanged(), status.getModified(),
+                status.getRemoved(), status.getMissing(), status.getUntracked())) {
+            paths.stream().filter(ZipArchive::isBuildFile).forEach(uncommitted::add);
+        }
+        return uncommitted;
+    }
+
+    /**
+     * Modules whose own build files changed, that inherit from a changed POM, that have no
+     * previous result, and, transitively, that depend on one of those modules.
+     */
+    Set<PomIndex.PomInfo> affectedModules(PomIndex index, List<PomIndex.PomInfo> reactor, Path workTree,
+            Collection<String> changedFiles, Map<PomIndex.PomInfo, DependencyGraph> previousGraphs) {
+        Set<Path> changedPoms = new HashSet<>();
+        Set<PomIndex.PomInfo> affected = new LinkedHashSet<>();
+        for (String changedFile : changedFiles) {
+            Path file = workTree.resolve(changedFile).normalize();
+            if (changedFile.startsWith(".mvn/") || changedFile.contains("/.mvn/") || file.getFileName().toString().startsWith("mvnw")) {
+                // Maven configuration, extensions or wrapper version apply to every module
+                return new LinkedHashSet<>(reactor);
+            }
+            if (file.getFileName().toString().equals("pom.xml")) {
+                changedPoms.add(file);
+            }
+            PomIndex.PomInfo module = index.findModule(reactor, file);
+            if (module != null) {
+                affected.add(module);
+            }
+        }
+
+        for (PomIndex.PomInfo module : reactor) {
+            if (!previousGraphs.containsKey(module)
+                    || index.ancestors(module).stream().anyMatch(parent -> changedPoms.contains(parent.pomFile()))) {
+                affected.add(module);
+            }
+        }
+
+        boolean added = true;
+        while (added) {
+            added = false;
+            for (PomIndex.PomInfo module : reactor) {
+                if (affected.contains(module)) {
+                    continue;
+                }
+                DependencyGraph graph = previousGraphs.get(module);
+                if (affected.stream().anyMatch(changed -> graph.dependsOn(changed.groupId(), changed.artifactId()))) {
+                    affected.add(module);
+                    added = true;
+                }
+            }
+        }
+        return affected;
+    }
+
+    private Map<PomIndex.PomInfo, DependencyGraph> resolveDependencies(PomIndex.PomInfo reactorRoot,
+            Set<PomIndex.PomInfo> affected, String engine) throws IOException {
+        Map<PomIndex.PomInfo, DependencyGraph> graphs = new LinkedHashMap<>();
+        if (affected.isEmpty()) {
+            return graphs;
+        }
+        Set<File> selected = new HashSet<>();
+        affected.forEach(module -> selected.add(module.pomFile().toFile()));
+
+        DependencyGraph graph;
+        try {
+            if (MavenCommand.ENGINE_INVOKER.equalsIgnoreCase(engine)) {
+                graph = mavenCommand.listDependencies(reactorRoot.pomFile().getParent().toString(), engine);
+            } else {
+                graph = DependencyGraph.from(mavenCommand.getResolver().resolve(reactorRoot.pomFile().toFile(),
+                    pom -> selected.contains(pom.getAbsoluteFile())));
+            }
+        } catch (Exception e) {
+            logger.warn("In-process resolution failed, falling back to Maven Invoker: {}", e.getMessage());
+            try {
+                graph = mavenCommand.listDependencies(reactorRoot.pomFile().getParent().toString(),
+                    MavenCommand.ENGINE_INVOKER);
+            } catch (Exception invokerFailure) {
+                throw new IOException("Could not resolve dependencies: " + invokerFailure.getMessage(), invokerFailure);
+            }
+        }
+
+        for (DependencyGraph moduleGraph : graph.split()) {
+            DependencyGraph.Node root = moduleGraph.node(0);
+            for (PomIndex.PomInfo module : affected) {
+                if (root.groupId().equals(module.groupId()) && root.artifactId().equals(module.artifactId())) {
+                    graphs.put(module, moduleGraph);
+                }
+            }
+        }
+        return graphs;
+    }
+
+    /**
+     * Runs license:add-third-party for the affected modules and copies their files. Returns
+     * an error message when Maven failed, otherwise null.
+     */
+    private String listLicenses(Path workTree, PomIndex.PomInfo reactorRoot, PomIndex index,
+            List<PomIndex.PomInfo> reactor, Set<PomIndex.PomInfo> affected, Path outputDirectory,
+            Map<PomIndex.PomInfo, List<ThirdPartyReport.Entry>> licenseEntries)
+            throws IOException, MavenInvocationException {
+        List<String> projects = new ArrayList<>();
+        for (PomIndex.PomInfo module : affected) {
+            if (module.artifactId() != null && !"pom".equals(module.packaging())) {
+                projects.add(":" + module.artifactId());
+            }
+        }
+        if (projects.isEmpty()) {
+            return null;
+        }
+
+        // -am builds the sibling modules the affected ones depend on in the same reactor
+        MavenCommand.LicenseListResult result = mavenCommand.executeMavenLicenseList(
+            reactorRoot.pomFile().getParent().toString(), 1, projects, true, outputDirectory.resolve("maven.txt"));
+        for (String thirdPartyFile : result.thirdPartyFiles()) {
+            PomIndex.PomInfo module = index.findModule(reactor, workTree.resolve(thirdPartyFile));
+            if (module != null && affected.contains(module)) {
+                Path licenseFile = outputDirectory.resolve(moduleName(module) + LICENSES_SUFFIX);
+                Files.copy(Path.of(thirdPartyFile), licenseFile, StandardCopyOption.REPLACE_EXISTING);
+                licenseEntries.put(module, ThirdPartyReport.parse(licenseFile));
+            }
+        }
+        return result.success() ? null : result.errorMessage();
+    }
+
+    private Map<String, Path> previousResults(String key, Path directory) throws IOException {
+        Map<String, Path> files = new LinkedHashMap<>();
+        resultCache.read(key, entry -> {
+            for (Path file : resultCache.entryFiles(entry)) {
+                Path copy = directory.resolve(file.getFileName().toString());
+                Files.copy(file, copy, StandardCopyOption.REPLACE_EXISTING);
+                files.put(copy.getFileName().toString(), copy);
+            }
+            return files.size();
+        });
+        return files;
+    }
+
+    static String moduleName(PomIndex.PomInfo module) {
+        return module.artifactId() != null ? module.artifactId() : module.pomFile().getParent().getFileName().toString();
+    }
+}
@@ -0,0 +1,148 @@
+package com.github.lofi.depsanalyzer;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * HTTP API of the server mode: submit an analysis as a job, poll it, stream its status
+ * changes and fetch its output. The tenant is the one of the bearer token, or the
+ * {@code X-Tenant} header on a server without tokens; a tenant only sees its own jobs.
+ */
+@RestController
+@Profile("server")
+@RequestMapping("/jobs")
+public class JobController {
+
+    static final String TENANT_HEADER = "X-Tenant";
+
+    private final JobService jobService;
+    private final ServerAccess access;
+
+    public JobController(JobService jobService, ServerAccess access) {
+        this.jobService = jobService;
+        this.access = access;
+    }
+
+    @PostMapping("/{type}")
+    public ResponseEntity<JobService.JobInfo> submit(@PathVariable String type,
+            @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+            @RequestHeader(value = TENANT_HEADER, required = false) String tenantHeader,
+            @RequestBody(required = false) Map<String, String> parameters) {
+        String tenant = access.tenant(authorization, tenantHeader);
+        JobService.JobInfo job = jobService.submit(tenant, type, parameters == null ? Map.of() : parameters);
+        return ResponseEntity.accepted().location(URI.create("/jobs/" + job.id())).body(job);
+    }
+
+    @GetMapping
+    public List<JobService.JobInfo> list(
+            @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+            @RequestHeader(value = TENANT_HEADER, required = false) String tenantHeader) {
+        return jobService.list(access.tenant(authorization, tenantHeader));
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<JobService.JobInfo> get(@PathVariable String id,
+            @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+            @RequestHeader(value = TENANT_HEADER, required = false) String tenantHeader) {
+        return ResponseEntity.of(job(id, authorization, tenantHeader));
+    }
+
+    /**
+     * The output of a finished job as plain text, 409 while it is still running.
+     */
+    @GetMapping(value = "/{id}/output", produces = MediaType.TEXT_PLAIN_VALUE)
+    public ResponseEntity<String> output(@PathVariable String id,
+            @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+            @RequestHeader(value = TENANT_HEADER, required = false) String tenantHeader) {
+        return job(id, authorization, tenantHeader)
+                .map(job -> job.status().isDone()
+                    ? ResponseEntity.ok(job.output() == null ? "" : job.output())
+                    : ResponseEntity.status(HttpStatus.CONFLICT).body("Job is " + job.status()))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Server-sent events with the job on every status change, completed when the job is
+     * done; the last event carries the output.
+     */
+    @GetMapping(value = "/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> events(@PathVariable String id,
+            @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+            @RequestHeader(value = TENANT_HEADER, required = false) String tenantHeader) {
+        if (job(id, authorization, tenantHeader).isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        SseEmitter emitter = new SseEmitter(0L);
+        boolean found = jobService.subscribe(id, job -> {
+            try {
+                emitter.send(SseEmitter.event().name(job.status().name().toLowerCase()).data(job));
+                if (job.status().isDone()) {
+                    emitter.complete();
+                }
+            } catch (IOException e) {
+                // The client went away, the job service drops the listener
+                throw new IllegalStateException(e);
+            }
+        });
+        return found ? ResponseEntity.ok(emitter) : ResponseEntity.notFound().build();
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> cancel(@PathVariable String id,
+            @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+            @RequestHeader(value = TENANT_HEADER, required = false) String tenantHeader) {
+        if (job(id, authorization, tenantHeader).isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        return jobService.cancel(id) ? ResponseEntity.accepted().build() : ResponseEntity.notFound().build();
+    }
+
+    @GetMapping("/stats")
+    public String stats(@RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+            @RequestHeader(value = TENANT_HEADER, required = false) String tenantHeader) {
+        access.tenant(authorization, tenantHeader);
+        return jobService.stats();
+    }
+
+    // Jobs of other tenants are reported as not found
+    private Optional<JobService.JobInfo> job(String id, String authorization, String tenantHeader) {
+        String tenant = access.tenant(authorization, tenantHeader);
+        return jobService.get(id).filter(job -> job.tenant().equals(tenant));
+    }
+
+    @ExceptionHandler(SecurityException.class)
+    public ResponseEntity<String> unauthorized(SecurityException e) {
+        return ResponseEntity.status(HttpStatus.UNAUTHORIZED).header(HttpHeaders.WWW_AUTHENTICATE, "Bearer")
+            .body(e.getMessage());
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> badRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(e.getMessage());
+    }
+
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<String> tooManyJobs(RejectedExecutionException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(e.getMessage());
+    }
+}
@@ -0,0 +1,322 @@
+package com.github.lofi.depsanalyzer;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs analyses submitted over HTTP as asynchronous jobs on a fixed number of workers.
+ * All jobs share the analyzer's caches, the Maven pool and the in-process resolver, so
+ * a resident server answers repeated requests from warm state. Jobs wait in a bounded
+ * queue, a tenant has at most {@code tenantConcurrency} jobs running at a time and its
+ * further jobs wait in submission order without holding a worker.
+ */
+class JobService implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(JobService.class);
+
+    // The shell commands report failures as "Error ...: <message>" instead of throwing
+    static final String ERROR_PREFIX = "Error ";
+
+    enum Status {
+        QUEUED, RUNNING, SUCCEEDED, FAILED, CANCELLED;
+
+        boolean isDone() {
+            return this == SUCCEEDED || this == FAILED || this == CANCELLED;
+        }
+    }
+
+    /**
+     * An analysis the server offers, e.g. the licenses of a ZIP file.
+     */
+    interface Operation {
+
+        /**
+         * Runs the analysis and returns its output, throws IllegalArgumentException
+         * for missing or invalid parameters.
+         */
+        String run(Map<String, String> parameters) throws Exception;
+
+        /**
+         * Checked on submission, so invalid jobs are rejected before they are queued.
+         */
+        default void validate(Map<String, String> parameters) {
+        }
+    }
+
+    /**
+     * Immutable view of a job.
+     */
+    record JobInfo(String id, String tenant, String type, Map<String, String> parameters, Status status,
+            Instant submitted, Instant started, Instant finished, String output) {
+    }
+
+    private final class Job {
+
+        final String id = UUID.randomUUID().toString();
+        final String tenant;
+        final String type;
+        final Map<String, String> parameters;
+        final Instant submitted = Instant.now();
+        final List<Consumer<JobInfo>> listeners = new CopyOnWriteArrayList<>();
+        volatile Status status = Status.QUEUED;
+        volatile Instant started;
+        volatile Instant finished;
+        volatile String output;
+        volatile boolean cancelled;
+        Future<?> future;
+
+        Job(String tenant, String type, Map<String, String> parameters) {
+            this.tenant = tenant;
+            this.type = type;
+            this.parameters = Map.copyOf(parameters);
+        }
+
+        JobInfo info() {
+            return new JobInfo(id, tenant, type, parameters, status, submitted, started, finished, output);
+        }
+    }
+
+    private final Map<String, Operation> operations;
+    private final int queueCapacity;
+    private final int tenantConcurrency;
+    private final int retainedJobs;
+    private final ExecutorService executor;
+
+    // Guarded by this
+    private final Map<String, Job> jobs = new LinkedHashMap<>();
+    private final Map<String, Integer> runningByTenant = new HashMap<>();
+    private final Map<String, Deque<Job>> waitingByTenant = new HashMap<>();
+    private int queued;
+
+    JobService(Map<String, Operation> operations, int workers, int queueCapacity, int tenantConcurrency,
+            int retainedJobs) {
+        this.operations = Map.copyOf(operations);
+        this.queueCapacity = queueCapacity;
+        this.tenantConcurrency = Math.max(1, tenantConcurrency);
+        this.retainedJobs = retainedJobs;
+        AtomicInteger threads = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(Math.max(1, workers), runnable -> {
+            Thread thread = new Thread(runnable, "analyzer-job-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    Iterable<String> getOperations() {
+        return operations.keySet();
+    }
+
+    /**
+     * Queues a job, throws RejectedExecutionException when the queue is full and
+     * IllegalArgumentException for an unknown type or invalid parameters.
+     */
+    JobInfo submit(String tenant, String type, Map<String, String> parameters) {
+        Operation operation = operations.get(type);
+        if (operation == null) {
+            throw new IllegalArgumentException("Unknown job type: " + type + " (expected one of "
+                + String.join(", ", operations.keySet()) + ")");
+        }
+        operation.validate(parameters);
+
+        synchronized (this) {
+            if (queued >= queueCapacity) {
+                throw new RejectedExecutionException("Job queue is full (" + queueCapacity + " jobs waiting)");
+            }
+            Job job = new Job(tenant, type, parameters);
+            jobs.put(job.id, job);
+            queued++;
+            evictFinished();
+            if (runningByTenant.getOrDefault(tenant, 0) < tenantConcurrency) {
+                dispatch(job);
+            } else {
+                waitingByTenant.computeIfAbsent(tenant, key -> new ArrayDeque<>()).addLast(job);
+            }
+            logger.info("Job {} ({}) of tenant {} queued, {} jobs waiting", job.id, type, tenant, queued);
+            return job.info();
+        }
+    }
+
+    // Called with the lock held
+    private void dispatch(Job job) {
+        runningByTenant.merge(job.tenant, 1, Integer::sum);
+        job.future = executor.submit(() -> run(job));
+    }
+
+    private void run(Job job) {
+        synchronized (this) {
+            if (job.status != Status.QUEUED) {
+                return;
+            }
+            queued--;
+            job.status = Status.RUNNING;
+            job.started = Instant.now();
+        }
+        notifyListeners(job);
+
+        Status status;
+        String output;
+        try {
+            output = operations.get(job.type).run(job.parameters);
+            status = output != null && output.startsWith(ERROR_PREFIX) ? Status.FAILED : Status.SUCCEEDED;
+        } catch (Exception e) {
+            logger.error("Job {} failed: {}", job.id, e.getMessage(), e);
+            output = ERROR_PREFIX + "running job: " + e.getMessage();
+            status = Status.FAILED;
+        }
+        finish(job, job.cancelled ? Status.CANCELLED : status, output);
+    }
+
+    private void finish(Job job, Status status, String output) {
+        synchronized (this) {
+            if (job.status.isDone()) {
+                return;
+            }
+            if (job.status == Status.QUEUED) {
+                queued--;
+            }
+            job.output = output;
+            job.finished = Instant.now();
+            job.status = status;
+            if (job.started != null || job.future != null) {
+                release(job.tenant);
+            } else {
+                waitingByTenant.getOrDefault(job.tenant, new ArrayDeque<>()).remove(job);
+            }
+        }
+        logger.info("Job {} {} in {} ms", job.id, status,
+            job.finished.toEpochMilli() - (job.started == null ? job.submitted : job.started).toEpochMilli());
+        notifyListeners(job);
+    }
+
+    // Called with the lock held: frees the tenant's slot for its next waiting job
+    private void release(String tenant) {
+        runningByTenant.merge(tenant, -1, Integer::sum);
+        Deque<Job> waiting = waitingByTenant.get(tenant);
+        if (waiting != null && !waiting.isEmpty()) {
+            dispatch(waiting.removeFirst());
+        }
+        if (waiting != null && waiting.isEmpty()) {
+            waitingByTenant.remove(tenant);
+        }
+    }
+
+    // Called with the lock held: keeps at most retainedJobs jobs, dropping the oldest finished
+    private void evictFinished() {
+        int excess = jobs.size() - retainedJobs;
+        Iterator<Job> iterator = jobs.values().iterator();
+        while (excess > 0 && iterator.hasNext()) {
+            if (iterator.next().status.isDone()) {
+                iterator.remove();
+                excess--;
+            }
+        }
+    }
+
+    synchronized Optional<JobInfo> get(String id) {
+        Job job = jobs.get(id);
+        return job == null ? Optional.empty() : Optional.of(job.info());
+    }
+
+    synchronized List<JobInfo> list(String tenant) {
+        List<JobInfo> result = new ArrayList<>();
+        for (Job job : jobs.values()) {
+            if (tenant == null || tenant.equals(job.tenant)) {
+                result.add(job.info());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Cancels a waiting job or interrupts a running one. Returns false for an unknown job.
+     */
+    boolean cancel(String id) {
+        Job job;
+        synchronized (this) {
+            job = jobs.get(id);
+            if (job == null) {
+                return false;
+            }
+            if (job.status.isDone()) {
+                return true;
+            }
+            job.cancelled = true;
+            if (job.status == Status.RUNNING) {
+                job.future.cancel(true);
+                return true;
+            }
+            if (job.future != null) {
+                job.future.cancel(false);
+            }
+        }
+        // A waiting job has no worker yet, a dispatched one skips itself when it starts
+        finish(job, Status.CANCELLED, null);
+        return true;
+    }
+
+    /**
+     * Calls {@code listener} with the current state of the job and on every status
+     * change until the job is done. Returns false for an unknown job.
+     */
+    boolean subscribe(String id, Consumer<JobInfo> listener) {
+        Job job;
+        synchronized (this) {
+            job = jobs.get(id);
+            if (job == null) {
+                return false;
+            }
+            if (!job.status.isDone()) {
+                job.listeners.add(listener);
+            }
+        }
+        listener.accept(job.info());
+        return true;
+    }
+
+    private void notifyListeners(Job job) {
+        JobInfo info = job.info();
+        for (Consumer<JobInfo> listener : job.listeners) {
+            try {
+                listener.accept(info);
+            } catch (RuntimeException e) {
+                logger.debug("Removing listener of job {}: {}", job.id, e.getMessage());
+                job.listeners.remove(listener);
+            }
+        }
+        if (info.status().isDone()) {
+            job.listeners.clear();
+        }
+    }
+
+    synchronized String stats() {
+        long running = jobs.values().stream().filter(job -> job.status == Status.RUNNING).count();
+        return String.format("%d jobs running, %d waiting (capacity %d), %d retained", running, queued,
+            queueCapacity, jobs.size());
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        executor.shutdownNow();
+        executor.awaitTermination(30, TimeUnit.SECONDS);
+    }
+}
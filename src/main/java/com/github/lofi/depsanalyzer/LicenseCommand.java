@@ -0,0 +1,85 @@
+package com.github.lofi.depsanalyzer;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.shell.standard.ShellComponent;
+import org.springframework.shell.standard.ShellMethod;
+import org.springframework.shell.standard.ShellOption;
+
+@ShellComponent
+public class LicenseCommand {
+
+    private static final Logger logger = LoggerFactory.getLogger(LicenseCommand.class);
+
+    private static final String MERGED_SUFFIX = "-licenses-merged.txt";
+
+    private final MavenCommand mavenCommand;
+
+    public LicenseCommand(MavenCommand mavenCommand) {
+        this.mavenCommand = mavenCommand;
+    }
+
+    @ShellMethod(key = "evaluate-licenses", value = "Evaluate license reports against the license policy without running Maven.")
+    public String evaluateLicenses(@ShellOption(value = "--source") String source,
+            @ShellOption(value = "--policy", defaultValue = "") String policyFile,
+            @ShellOption(value = "--output", defaultValue = "") String outputFile) {
+        try {
+            LicensePolicy policy = policyFile.isEmpty() ? mavenCommand.getLicensePolicy()
+                : LicensePolicy.load(Paths.get(policyFile));
+            Path sourcePath = Paths.get(source);
+            Map<String, Path> files = licenseFiles(sourcePath);
+            if (files.isEmpty()) {
+                return "No license reports found in: " + source;
+            }
+            LicenseReport report = LicenseReport.evaluate(files, policy);
+            Path reportFile = !outputFile.isEmpty() ? Paths.get(outputFile)
+                : Files.isDirectory(sourcePath) ? sourcePath.resolve("license-report.json")
+                : sourcePath.resolveSibling(label(sourcePath) + "-license-report.json");
+            report.write(reportFile);
+            return report.format(reportFile);
+        } catch (Exception e) {
+            logger.error("Error evaluating licenses of {}: {}", source, e.getMessage(), e);
+            return "Error evaluating licenses: " + e.getMessage();
+        }
+    }
+
+    /**
+     * A single THIRD-PARTY or merged report, or all merged reports in a directory keyed by
+     * their ZIP file name.
+     */
+    Map<String, Path> licenseFiles(Path source) throws IOException {
+        Map<String, Path> files = new LinkedHashMap<>();
+        if (Files.isRegularFile(source)) {
+            files.put(label(source), source);
+        } else if (Files.isDirectory(source)) {
+            List<Path> mergedFiles;
+            try (Stream<Path> list = Files.list(source)) {
+                mergedFiles = list.filter(file -> file.getFileName().toString().endsWith(MERGED_SUFFIX))
+                        .sorted()
+                        .collect(Collectors.toList());
+            }
+            for (Path mergedFile : mergedFiles) {
+                files.put(label(mergedFile), mergedFile);
+            }
+        }
+        return files;
+    }
+
+    private static String label(Path file) {
+        String name = file.getFileName().toString();
+        if (name.endsWith(MERGED_SUFFIX)) {
+            return name.substring(0, name.length() - MERGED_SUFFIX.length());
+        }
+        return name.endsWith(".txt") ? name.substring(0, name.length() - ".txt".length()) : name;
+    }
+}
@@ -0,0 +1,134 @@
+package com.github.lofi.depsanalyzer;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Allow and deny lists of SPDX ids a dependency's licenses are checked against. A
+ * dependency listing several licenses, or an SPDX expression with OR, may be used under
+ * any of them: it is allowed when one of them is allowed and denied only when all of
+ * them are denied. Everything else, including unknown license names, needs a review.
+ * Artifacts listed as exceptions are allowed regardless of their licenses.
+ */
+class LicensePolicy {
+
+    enum Verdict {
+        ALLOWED, REVIEW, DENIED
+    }
+
+    record Decision(List<String> spdxIds, Verdict verdict, String reason) {
+    }
+
+    static final List<String> DEFAULT_ALLOW = List.of("Apache-2.0", "MIT", "MIT-0", "BSD-2-Clause", "BSD-3-Clause",
+        "ISC", "0BSD", "Unlicense", "CC0-1.0", "Zlib", "BSL-1.0");
+    static final List<String> DEFAULT_DENY = List.of("AGPL-3.0-only", "AGPL-3.0-or-later", "GPL-2.0-only",
+        "GPL-2.0-or-later", "GPL-3.0-only", "GPL-3.0-or-later", "SSPL-1.0");
+
+    private final Set<String> allow;
+    private final Set<String> deny;
+    private final Set<String> exceptions;
+    private final SpdxLicenses spdxLicenses;
+
+    LicensePolicy(Iterable<String> allow, Iterable<String> deny, Iterable<String> exceptions,
+            Map<String, String> aliases) {
+        this.allow = lowerCase(allow);
+        this.deny = lowerCase(deny);
+        this.exceptions = new LinkedHashSet<>();
+        exceptions.forEach(exception -> this.exceptions.add(exception.trim()));
+        this.spdxLicenses = new SpdxLicenses(aliases);
+    }
+
+    static LicensePolicy defaults() {
+        return new LicensePolicy(DEFAULT_ALLOW, DEFAULT_DENY, List.of(), Map.of());
+    }
+
+    /**
+     * Reads a policy from a properties file with comma separated {@code allow},
+     * {@code deny} and {@code exceptions} (groupId:artifactId or groupId:*) and
+     * {@code alias.<license name>=<SPDX id>} entries. Missing lists keep their defaults.
+     */
+    static LicensePolicy load(Path file) throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file)) {
+            properties.load(reader);
+        }
+        Map<String, String> aliases = new LinkedHashMap<>();
+        for (String name : properties.stringPropertyNames()) {
+            if (name.startsWith("alias.")) {
+                aliases.put(name.substring("alias.".length()), properties.getProperty(name).trim());
+            }
+        }
+        return new LicensePolicy(list(properties.getProperty("allow"), DEFAULT_ALLOW),
+            list(properties.getProperty("deny"), DEFAULT_DENY), list(properties.getProperty("exceptions"), List.of()),
+            aliases);
+    }
+
+    private static List<String> list(String value, List<String> defaults) {
+        if (value == null) {
+            return defaults;
+        }
+        return Arrays.stream(value.split(",")).map(String::trim).filter(item -> !item.isEmpty())
+                .collect(Collectors.toList());
+    }
+
+    private static Set<String> lowerCase(Iterable<String> ids) {
+        Set<String> set = new LinkedHashSet<>();
+        ids.forEach(id -> set.add(id.trim().toLowerCase()));
+        return set;
+    }
+
+    SpdxLicenses getSpdxLicenses() {
+        return spdxLicenses;
+    }
+
+    Decision evaluate(String groupId, String artifactId, List<String> licenseNames) {
+        List<String> spdxIds = new ArrayList<>(licenseNames.size());
+        List<String> unknown = new ArrayList<>();
+        for (String name : licenseNames) {
+            String spdxId = spdxLicenses.toSpdx(name);
+            spdxIds.add(spdxId);
+            if (SpdxLicenses.UNKNOWN.equals(spdxId)) {
+                unknown.add(name);
+            }
+        }
+        if (exceptions.contains(groupId + ":" + artifactId) || exceptions.contains(groupId + ":*")) {
+            return new Decision(spdxIds, Verdict.ALLOWED, "exception");
+        }
+
+        List<String> alternatives = new ArrayList<>();
+        for (String spdxId : spdxIds) {
+            alternatives.addAll(Arrays.asList(spdxId.split(" OR ")));
+        }
+        boolean allDenied = !alternatives.isEmpty();
+        for (String alternative : alternatives) {
+            String id = alternative.trim().toLowerCase();
+            if (allow.contains(id)) {
+                return new Decision(spdxIds, Verdict.ALLOWED, alternative.trim());
+            }
+            if (!deny.contains(id)) {
+                allDenied = false;
+            }
+        }
+        if (allDenied) {
+            return new Decision(spdxIds, Verdict.DENIED, String.join(", ", alternatives));
+        }
+        if (alternatives.isEmpty()) {
+            return new Decision(spdxIds, Verdict.REVIEW, "no license");
+        }
+        if (!unknown.isEmpty()) {
+            return new Decision(spdxIds, Verdict.REVIEW, "unknown license " + String.join(", ", unknown));
+        }
+        return new Decision(spdxIds, Verdict.REVIEW, "not in allow list: " + String.join(", ", alternatives));
+    }
+}
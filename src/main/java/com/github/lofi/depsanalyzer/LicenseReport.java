@@ -0,0 +1,150 @@
+package com.github.lofi.depsanalyzer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * The licenses of all dependencies of a run evaluated against a {@link LicensePolicy}:
+ * each dependency once with its SPDX ids, the verdict and the modules that use it.
+ */
+class LicenseReport {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    // Dependencies listed per verdict in the shell output, the JSON report has all
+    private static final int LISTED = 20;
+
+    record Dependency(String coordinate, String name, List<String> licenses, List<String> spdxIds,
+            LicensePolicy.Verdict verdict, String reason, Set<String> modules) {
+    }
+
+    record Summary(int dependencies, int allowed, int review, int denied, Map<String, Integer> licenses) {
+    }
+
+    record Document(Summary summary, List<Dependency> dependencies) {
+    }
+
+    private final List<Dependency> dependencies;
+    private final Summary summary;
+
+    private LicenseReport(List<Dependency> dependencies) {
+        this.dependencies = dependencies;
+        Map<String, Integer> licenses = new TreeMap<>();
+        int[] verdicts = new int[LicensePolicy.Verdict.values().length];
+        for (Dependency dependency : dependencies) {
+            verdicts[dependency.verdict().ordinal()]++;
+            for (String spdxId : dependency.spdxIds()) {
+                licenses.merge(spdxId, 1, Integer::sum);
+            }
+        }
+        this.summary = new Summary(dependencies.size(), verdicts[LicensePolicy.Verdict.ALLOWED.ordinal()],
+            verdicts[LicensePolicy.Verdict.REVIEW.ordinal()], verdicts[LicensePolicy.Verdict.DENIED.ordinal()],
+            licenses);
+    }
+
+    /**
+     * Reads the license files in parallel and evaluates their merged entries. The key
+     * of each file is its label, e.g. the ZIP file name, and prefixes the module names
+     * in the file; entries of a file without module names are attributed to the label.
+     */
+    static LicenseReport evaluate(Map<String, Path> files, LicensePolicy policy) throws IOException {
+        Map<String, ThirdPartyReport.MergedEntry> merged = new ConcurrentHashMap<>();
+        try {
+            files.entrySet().parallelStream().forEach(file -> {
+                try {
+                    for (ThirdPartyReport.MergedEntry entry : ThirdPartyReport.parseMerged(file.getValue())) {
+                        Set<String> modules = new TreeSet<>();
+                        if (entry.modules().isEmpty() || files.size() == 1) {
+                            modules.addAll(entry.modules().isEmpty() ? Set.of(file.getKey()) : entry.modules());
+                        } else {
+                            entry.modules().forEach(module -> modules.add(file.getKey() + "/" + module));
+                        }
+                        merged.merge(entry.entry().coordinate(), new ThirdPartyReport.MergedEntry(entry.entry(), modules),
+                            (existing, added) -> {
+                                Set<String> all = new TreeSet<>(existing.modules());
+                                all.addAll(added.modules());
+                                return new ThirdPartyReport.MergedEntry(existing.entry(), all);
+                            });
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return evaluate(merged.values(), policy);
+    }
+
+    static LicenseReport evaluate(Collection<ThirdPartyReport.MergedEntry> entries, LicensePolicy policy) {
+        List<Dependency> dependencies = entries.parallelStream()
+                .map(merged -> {
+                    ThirdPartyReport.Entry entry = merged.entry();
+                    LicensePolicy.Decision decision = policy.evaluate(entry.groupId(), entry.artifactId(),
+                        entry.licenses());
+                    return new Dependency(entry.coordinate(), entry.name(), entry.licenses(), decision.spdxIds(),
+                        decision.verdict(), decision.reason(), merged.modules());
+                })
+                .sorted(Comparator.comparing(Dependency::coordinate))
+                .collect(Collectors.toList());
+        return new LicenseReport(dependencies);
+    }
+
+    List<Dependency> getDependencies() {
+        return dependencies;
+    }
+
+    Summary getSummary() {
+        return summary;
+    }
+
+    void write(Path file) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        MAPPER.writeValue(file.toFile(), new Document(summary, dependencies));
+    }
+
+    String format(Path reportFile) {
+        StringBuilder result = new StringBuilder(String.format(
+            "License policy: %d dependencies, %d allowed, %d to review, %d denied",
+            summary.dependencies(), summary.allowed(), summary.review(), summary.denied()));
+        append(result, LicensePolicy.Verdict.DENIED);
+        append(result, LicensePolicy.Verdict.REVIEW);
+        result.append(String.format("%nLicense report saved to: %s", reportFile));
+        return result.toString();
+    }
+
+    private void append(StringBuilder result, LicensePolicy.Verdict verdict) {
+        List<Dependency> listed = new ArrayList<>();
+        int count = 0;
+        for (Dependency dependency : dependencies) {
+            if (dependency.verdict() == verdict) {
+                if (listed.size() < LISTED) {
+                    listed.add(dependency);
+                }
+                count++;
+            }
+        }
+        for (Dependency dependency : listed) {
+            result.append(String.format("%n  %-6s %s  %s  %s", verdict, dependency.coordinate(), dependency.reason(),
+                dependency.modules()));
+        }
+        if (count > listed.size()) {
+            result.append(String.format("%n  ... and %d more, see the report", count - listed.size()));
+        }
+    }
+}
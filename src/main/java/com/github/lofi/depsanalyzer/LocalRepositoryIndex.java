@@ -0,0 +1,300 @@
+package com.github.lofi.depsanalyzer;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A compact on-disk index of the artifacts in a local Maven repository: for every POM
+ * its path, whether the jar is present and the parent POM it inherits from. The
+ * entries are sorted by coordinate and the file is memory-mapped, so a lookup is a
+ * binary search without reading the whole index or touching the repository.
+ */
+class LocalRepositoryIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(LocalRepositoryIndex.class);
+
+    // Changed with the record layout, an index of an older layout is rebuilt
+    private static final int MAGIC = 0x4D444932;
+    private static final XMLInputFactory XML_INPUT_FACTORY = XMLInputFactory.newFactory();
+
+    /**
+     * An indexed POM, {@code parent} is the coordinate of its parent POM or empty.
+     */
+    record Entry(String groupId, String artifactId, String version, String path, boolean hasJar, String parent) {
+
+        String coordinate() {
+            return key(groupId, artifactId, version);
+        }
+    }
+
+    private final Path localRepository;
+    private final Instant created;
+    private final int size;
+    private final int offsetsStart;
+    private final int dataStart;
+    private final ByteBuffer buffer;
+
+    private LocalRepositoryIndex(Path localRepository, Instant created, int size, int offsetsStart,
+            ByteBuffer buffer) {
+        this.localRepository = localRepository;
+        this.created = created;
+        this.size = size;
+        this.offsetsStart = offsetsStart;
+        this.dataStart = offsetsStart + size * Integer.BYTES;
+        this.buffer = buffer;
+    }
+
+    static Path defaultIndexFile() {
+        return Path.of(System.getProperty("user.home"), ".maven-deps-analyzer", "local-repository.idx");
+    }
+
+    /**
+     * Scans the local repository, writes the index file and opens it.
+     */
+    static LocalRepositoryIndex build(Path localRepository, Path indexFile) throws IOException {
+        long start = System.nanoTime();
+        List<Path> poms;
+        try (Stream<Path> files = Files.walk(localRepository)) {
+            poms = files.filter(file -> file.getFileName().toString().endsWith(".pom"))
+                    .collect(Collectors.toList());
+        }
+        List<Entry> entries = poms.parallelStream()
+                .map(pom -> entry(localRepository, pom))
+                .filter(Objects::nonNull)
+                .sorted(Comparator.comparing(Entry::coordinate))
+                .collect(Collectors.toList());
+        write(localRepository, entries, indexFile);
+        logger.info("Indexed {} artifacts of {} in {} ms", entries.size(), localRepository,
+            (System.nanoTime() - start) / 1_000_000);
+        return open(indexFile);
+    }
+
+    static LocalRepositoryIndex open(Path indexFile) throws IOException {
+        try (FileChannel channel = FileChannel.open(indexFile, StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.limit() < Integer.BYTES || buffer.getInt(0) != MAGIC) {
+                throw new IOException("Not a local repository index: " + indexFile);
+            }
+            buffer.position(Integer.BYTES);
+            Instant created = Instant.ofEpochMilli(buffer.getLong());
+            Path localRepository = Path.of(readString(buffer));
+            int size = buffer.getInt();
+            return new LocalRepositoryIndex(localRepository, created, size, buffer.position(), buffer);
+        }
+    }
+
+    /**
+     * Reads a POM at {@code group/path/artifactId/version/artifactId-version.pom}, other
+     * POMs (e.g. timestamped snapshots) are skipped.
+     */
+    private static Entry entry(Path localRepository, Path pom) {
+        Path relative = localRepository.relativize(pom);
+        int names = relative.getNameCount();
+        if (names < 4) {
+            return null;
+        }
+        String version = relative.getName(names - 2).toString();
+        String artifactId = relative.getName(names - 3).toString();
+        if (!pom.getFileName().toString().equals(artifactId + "-" + version + ".pom")) {
+            return null;
+        }
+        String groupId = relative.subpath(0, names - 3).toString().replace(relative.getFileSystem().getSeparator(), ".");
+        boolean hasJar = Files.isRegularFile(pom.resolveSibling(artifactId + "-" + version + ".jar"));
+        return new Entry(groupId, artifactId, version, relative.toString().replace('\\', '/'), hasJar,
+            parent(pom));
+    }
+
+    /**
+     * The coordinate in project/parent, or empty when the POM has no parent, read with a
+     * streaming parser that stops after the parent element.
+     */
+    static String parent(Path pom) {
+        Map<String, String> parent = new HashMap<>();
+        try (InputStream in = Files.newInputStream(pom)) {
+            XMLStreamReader reader = XML_INPUT_FACTORY.createXMLStreamReader(in);
+            List<String> path = new ArrayList<>();
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    path.add(reader.getLocalName());
+                    if (path.size() == 3 && path.get(0).equals("project") && path.get(1).equals("parent")) {
+                        parent.put(path.get(2), reader.getElementText().trim());
+                        path.remove(path.size() - 1);
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    path.remove(path.size() - 1);
+                    if ((path.size() == 1 && reader.getLocalName().equals("parent")) || path.isEmpty()) {
+                        break;
+                    }
+                }
+            }
+            reader.close();
+        } catch (IOException | XMLStreamException e) {
+            logger.debug("Could not read the parent of {}: {}", pom, e.getMessage());
+        }
+        if (!parent.containsKey("groupId") || !parent.containsKey("artifactId") || !parent.containsKey("version")) {
+            return "";
+        }
+        return key(parent.get("groupId"), parent.get("artifactId"), parent.get("version"));
+    }
+
+    private static void write(Path localRepository, List<Entry> entries, Path indexFile) throws IOException {
+        Files.createDirectories(indexFile.toAbsolutePath().getParent());
+        List<byte[]> records = new ArrayList<>(entries.size());
+        for (Entry entry : entries) {
+            records.add(record(entry));
+        }
+
+        Path temporary = indexFile.resolveSibling(indexFile.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+            out.writeInt(MAGIC);
+            out.writeLong(System.currentTimeMillis());
+            writeString(out, localRepository.toAbsolutePath().toString());
+            out.writeInt(records.size());
+            int offset = 0;
+            for (byte[] record : records) {
+                out.writeInt(offset);
+                offset += record.length;
+            }
+            for (byte[] record : records) {
+                out.write(record);
+            }
+        }
+        // Readers of the old index keep their mapping, new readers see a complete file
+        Files.move(temporary, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static byte[] record(Entry entry) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            writeString(out, entry.coordinate());
+            writeString(out, entry.path());
+            out.writeBoolean(entry.hasJar());
+            writeString(out, entry.parent());
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        int length = Math.min(bytes.length, 0xFFFF);
+        out.writeShort(length);
+        out.write(bytes, 0, length);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[Short.toUnsignedInt(buffer.getShort())];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static String key(String groupId, String artifactId, String version) {
+        return groupId + ":" + artifactId + ":" + version;
+    }
+
+    Path getLocalRepository() {
+        return localRepository;
+    }
+
+    Instant getCreated() {
+        return created;
+    }
+
+    int size() {
+        return size;
+    }
+
+    Entry find(String groupId, String artifactId, String version) {
+        int index = search(key(groupId, artifactId, version));
+        return index < 0 ? null : read(index);
+    }
+
+    /**
+     * Whether any version of the artifact is indexed.
+     */
+    boolean containsAny(String groupId, String artifactId) {
+        return !versions(groupId, artifactId).isEmpty();
+    }
+
+    /**
+     * The indexed versions of the artifact, in key order.
+     */
+    List<String> versions(String groupId, String artifactId) {
+        String prefix = groupId + ":" + artifactId + ":";
+        // The prefix itself is never a key, the insertion point is the first version
+        List<String> versions = new ArrayList<>();
+        for (int index = -search(prefix) - 1; index < size; index++) {
+            String key = keyAt(index);
+            if (!key.startsWith(prefix)) {
+                break;
+            }
+            versions.add(key.substring(prefix.length()));
+        }
+        return versions;
+    }
+
+    private int search(String key) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int compare = keyAt(middle).compareTo(key);
+            if (compare < 0) {
+                low = middle + 1;
+            } else if (compare > 0) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -(low + 1);
+    }
+
+    private ByteBuffer recordAt(int index) {
+        // A duplicate per lookup keeps concurrent lookups independent
+        ByteBuffer record = buffer.duplicate();
+        record.position(dataStart + buffer.getInt(offsetsStart + index * Integer.BYTES));
+        return record;
+    }
+
+    private String keyAt(int index) {
+        return readString(recordAt(index));
+    }
+
+    private Entry read(int index) {
+        ByteBuffer record = recordAt(index);
+        String[] coordinate = readString(record).split(":");
+        String path = readString(record);
+        boolean hasJar = record.get() != 0;
+        return new Entry(coordinate[0], coordinate[1], coordinate[2], path, hasJar, readString(record));
+    }
+}
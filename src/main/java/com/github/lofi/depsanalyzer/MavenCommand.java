@@ -1,26 +1,30 @@
 package com.github.lofi.depsanalyzer;
 
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
-import java.nio.file.StandardOpenOption;
 import java.util.Collections;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipInputStream;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
 import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
 
 import org.apache.maven.shared.invoker.DefaultInvocationRequest;
-import org.apache.maven.shared.invoker.DefaultInvoker;
 import org.apache.maven.shared.invoker.InvocationRequest;
-import org.apache.maven.shared.invoker.InvocationResult;
-import org.apache.maven.shared.invoker.Invoker;
 import org.apache.maven.shared.invoker.MavenInvocationException;
-import org.apache.maven.shared.invoker.InvocationOutputHandler;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.shell.standard.ShellComponent;
 import org.springframework.shell.standard.ShellMethod;
 import org.springframework.shell.standard.ShellOption;
@@ -32,76 +36,583 @@ public class MavenCommand {
 
     private static final Logger logger = LoggerFactory.getLogger(MavenCommand.class);
 
+    static final String ENGINE_RESOLVER = "resolver";
+    static final String ENGINE_INVOKER = "invoker";
+
+    static final String GOAL_DEPENDENCY_TREE = "dependency:tree";
+    static final String GOAL_LICENSES = "license:add-third-party";
+    static final String GRAPH_FILE = "dependency-graph.json";
+
+    private final ResultCache resultCache;
+    private final PomDiscovery pomDiscovery;
+    private final MavenPool mavenPool;
+    private final OfflineMode offlineMode;
+    private final LicensePolicy licensePolicy;
+    private final AnalyzerMetrics metrics;
+    private final WorkspaceManager workspaces;
+    private InProcessResolver resolver;
+
+    public MavenCommand() {
+        this(new ResultCache(ResultCache.defaultDirectory(), ResultCache.DEFAULT_MAX_BYTES, ResultCache.DEFAULT_MAX_AGE),
+            new PomDiscovery());
+    }
+
+    public MavenCommand(ResultCache resultCache, PomDiscovery pomDiscovery) {
+        this(resultCache, pomDiscovery, MavenPool.invoker(), OfflineMode.disabled(), LicensePolicy.defaults(),
+            AnalyzerMetrics.disabled(), WorkspaceManager.defaults());
+    }
+
+    @Autowired
+    public MavenCommand(ResultCache resultCache, PomDiscovery pomDiscovery, MavenPool mavenPool,
+            OfflineMode offlineMode, LicensePolicy licensePolicy, AnalyzerMetrics metrics,
+            WorkspaceManager workspaces) {
+        this.resultCache = resultCache;
+        this.pomDiscovery = pomDiscovery;
+        this.mavenPool = mavenPool;
+        this.offlineMode = offlineMode;
+        this.licensePolicy = licensePolicy;
+        this.metrics = metrics;
+        this.workspaces = workspaces;
+    }
+
     @ShellMethod(key = "list-dependencies-dir", value = "List Maven dependencies of a project in a directory from the pom.xml.")
-    public String listDependenciesFromDirectory(@ShellOption(value = "--directory") String directory) {
+    public String listDependenciesFromDirectory(@ShellOption(value = "--directory") String directory,
+            @ShellOption(value = "--engine", defaultValue = ENGINE_RESOLVER) String engine,
+            @ShellOption(value = "--output", defaultValue = "") String outputFilePath,
+            @ShellOption(value = "--no-cache", defaultValue = "false") boolean noCache) {
+        AnalyzerMetrics.Run run = metrics.start("list-dependencies-dir");
         try {
             logger.info("Listing dependencies for project in directory: {}", directory);
-            return executeMavenDependencyTree(directory);
+            discover(run, directory);
+            long stageStart = System.nanoTime();
+            DependencyGraph graph = listDependencies(directory, engine, !noCache);
+            run.stage("dependencies", stageStart);
+            return saveDependencyGraph(graph, directory, outputFilePath) + String.format("%n%s", run.summary());
         } catch (Exception e) {
+            run.failed();
             logger.error("Error retrieving Maven dependencies: {}", e.getMessage(), e);
             return "Error retrieving Maven dependencies: " + e.getMessage();
+        } finally {
+            run.close();
+        }
+    }
+
+    @ShellMethod(key = "list-poms", value = "List the POMs of a project in a directory with their modules.")
+    public String listPoms(@ShellOption(value = "--directory") String directory,
+            @ShellOption(value = "--refresh", defaultValue = "false") boolean refresh) {
+        try {
+            logger.info("Listing POMs for project in directory: {}", directory);
+            if (refresh) {
+                pomDiscovery.invalidate(Paths.get(directory));
+            }
+            PomIndex index = pomDiscovery.index(Paths.get(directory));
+            PomIndex.PomInfo reactorRoot = index.reactorRoot();
+            if (reactorRoot == null) {
+                return "No pom.xml found in: " + directory;
+            }
+            return formatPomIndex(index, reactorRoot);
+        } catch (Exception e) {
+            logger.error("Error listing POMs: {}", e.getMessage(), e);
+            return "Error listing POMs: " + e.getMessage();
+        }
+    }
+
+    String formatPomIndex(PomIndex index, PomIndex.PomInfo reactorRoot) {
+        StringBuilder result = new StringBuilder();
+        result.append("Reactor root: ").append(index.getRoot().relativize(reactorRoot.pomFile())).append("\n");
+        List<PomIndex.PomInfo> reactor = index.reactor(reactorRoot);
+        for (PomIndex.PomInfo pom : reactor) {
+            result.append("  ").append(pom.coordinate()).append(" (").append(pom.packaging()).append(") ")
+                .append(index.getRoot().relativize(pom.pomFile())).append("\n");
         }
+        int outside = index.getPoms().size() - reactor.size();
+        result.append(String.format("%d POMs in reactor, %d POMs outside of the reactor, %d local parents above the directory",
+            reactor.size(), outside, index.getExternalParents().size()));
+        return result.toString();
     }
 
     @ShellMethod(key = "list-dependencies-zip", value = "List Maven dependencies from a ZIP file with pom.xml.")
     public String listDependenciesFromZip(@ShellOption(value = "--zipfile") String zipFilePath,
-            @ShellOption(value = "--directory") String extractDirectory) {
-        try {
+            @ShellOption(value = "--directory") String extractDirectory,
+            @ShellOption(value = "--engine", defaultValue = ENGINE_RESOLVER) String engine,
+            @ShellOption(value = "--no-cache", defaultValue = "false") boolean noCache,
+            @ShellOption(value = "--full-extract", defaultValue = "false") boolean fullExtract) {
+        AnalyzerMetrics.Run run = metrics.start("list-dependencies-zip");
+        try (WorkspaceManager.Workspace workspace = workspaces.create("list-dependencies-zip")) {
             logger.info("Listing dependencies from ZIP file: {} into directory: {}", zipFilePath, extractDirectory);
-            File destDir = new File(extractDirectory);
-            unzip(new File(zipFilePath), destDir);
+            Path extracted = extract(run, workspace, new File(zipFilePath), fullExtract);
 
             String zipFileName = getZipFileName(zipFilePath);
 
-            return executeMavenDependencyTree(extractDirectory + "/" + zipFileName);
+            String projectDirectory = extracted.resolve(zipFileName).toString();
+            try {
+                discover(run, projectDirectory);
+                long stageStart = System.nanoTime();
+                DependencyGraph graph = listDependencies(projectDirectory, engine, !noCache);
+                run.stage("dependencies", stageStart);
+                return saveDependencyGraph(graph, projectDirectory,
+                    Paths.get(extractDirectory, zipFileName + "-dependencies.json").toString())
+                    + String.format("%n%s", run.summary());
+            } finally {
+                pomDiscovery.invalidate(workspace.getDirectory());
+            }
         } catch (Exception e) {
+            run.failed();
             logger.error("Error processing the ZIP file: {}", e.getMessage(), e);
             return "Error processing the ZIP file: " + e.getMessage();
+        } finally {
+            run.close();
         }
     }
 
     @ShellMethod(key = "list-licenses-zip", value = "List licenses of Maven dependencies from a ZIP file with pom.xml.")
     public String listDependencyLicenses(@ShellOption(value = "--zipfile") String zipFilePath,
-            @ShellOption(value = "--directory") String extractDirectory) {
+            @ShellOption(value = "--directory") String extractDirectory,
+            @ShellOption(value = "--no-cache", defaultValue = "false") boolean noCache,
+            @ShellOption(value = "--full-extract", defaultValue = "false") boolean fullExtract,
+            @ShellOption(value = "--threads", defaultValue = "1") int threads,
+            @ShellOption(value = "--per-module", defaultValue = "false") boolean perModule,
+            @ShellOption(value = "--policy", defaultValue = "") String policyFile) {
+        AnalyzerMetrics.Run run = metrics.start("list-licenses-zip");
+        WorkspaceManager.Workspace workspace = null;
         try {
+            LicensePolicy policy = policyFile.isEmpty() ? licensePolicy : LicensePolicy.load(Path.of(policyFile));
             logger.info("Listing licenses from ZIP file: {} into directory: {}", zipFilePath, extractDirectory);
-            File destDir = new File(extractDirectory);
-            unzip(new File(zipFilePath), destDir);
+            Files.createDirectories(Paths.get(extractDirectory));
+            workspace = workspaces.create("list-licenses-zip");
+            Path extracted = extract(run, workspace, new File(zipFilePath), fullExtract);
 
             String zipFileName = getZipFileName(zipFilePath);
-            String outputFilePath = extractDirectory + "/" + zipFileName + "-maven.txt";
-
-            String result = executeMavenLicenseList(extractDirectory + "/" + zipFileName);
-
-            if (!outputFilePath.isEmpty()) {
-                saveToFile(result, outputFilePath);
-                logger.info("Maven successfully executed and the result of Maven is saved to: {}", outputFilePath);
+            Path logFile = Paths.get(extractDirectory, zipFileName + "-maven.txt");
+            String projectDirectory = extracted.resolve(zipFileName).toString();
+            deleteMergedLicenses(zipFileName, extractDirectory);
+            discover(run, projectDirectory);
+
+            String cacheKey = null;
+            if (!noCache) {
+                long stageStart = System.nanoTime();
+                cacheKey = cacheKey(projectDirectory, GOAL_LICENSES);
+                Optional<Integer> restored = resultCache.read(cacheKey,
+                    entry -> restoreLicenseFiles(entry, zipFileName, extractDirectory));
+                if (restored.isPresent()) {
+                    int fileCount = restored.get();
+                    run.stage("cache", stageStart);
+                    // The policy may have changed since the entry was stored, so it is evaluated again
+                    String evaluation = evaluateLicenses(run, zipFileName, extractDirectory, policy);
+                    return String.format("Licenses restored from cache and saved %d files to: %s%s%n%s",
+                        fileCount, extractDirectory, evaluation, run.summary());
+                }
+                run.stage("cache", stageStart);
             }
 
-            ArrayList<String> resultFilePaths = extractFilePathFromResult(result);
-            
-            // Process each found license file
-            int fileCount = 0;
-            for (String resultFilePath : resultFilePaths) {
-                fileCount++;
-
-                String extractFilename = getExtractFilename(zipFileName, resultFilePath);
-                
-                Files.copy(Paths.get(resultFilePath), Paths.get(extractDirectory + "/" + 
-                    extractFilename), StandardCopyOption.REPLACE_EXISTING);
-                
-                    logger.info("Result file copied from: {} to: {}", resultFilePath, extractFilename);
+            long stageStart = System.nanoTime();
+            LicenseListResult result = perModule
+                ? executeMavenLicenseListPerModule(projectDirectory, threads, logFile)
+                : executeMavenLicenseList(projectDirectory, threads, List.of(), logFile);
+            run.stage("maven", stageStart);
+            run.mavenExitCode(result.exitCode());
+            logger.info("Maven executed with exit code {} and the result of Maven is saved to: {}",
+                result.exitCode(), logFile);
+
+            stageStart = System.nanoTime();
+            List<ModuleLicenses> modules = collectModuleLicenses(zipFileName, extractDirectory,
+                Paths.get(projectDirectory), result.thirdPartyFiles());
+            List<Path> licenseFiles = licenseFiles(zipFileName, extractDirectory, modules);
+            int fileCount = licenseFiles.size();
+            run.stage("copy", stageStart);
+            String evaluation = evaluateLicenses(run, zipFileName, extractDirectory, policy);
+            if (!result.success()) {
+                run.failed();
+                return formatModuleLicenses(modules) + evaluation + String.format("%n%s%n%s", result.errorMessage(),
+                    run.summary());
+            }
+            if (cacheKey != null) {
+                storeLicenseFiles(cacheKey, zipFileName, licenseFiles);
             }
 
-            return String.format("Licenses successfully listed and saved %d files to: %s", 
-                fileCount, extractDirectory);
+            return formatModuleLicenses(modules) + evaluation
+                + String.format("%nLicenses successfully listed and saved %d files to: %s%n%s", fileCount,
+                    extractDirectory, run.summary());
         } catch (Exception e) {
+            run.failed();
             logger.error("Error retrieving Maven dependency licenses: {}", e.getMessage(), e);
             return "Error retrieving Maven dependency licenses: " + e.getMessage();
+        } finally {
+            run.close();
+            close(workspace);
         }
     }
 
-    private String executeMavenLicenseList(String directory) throws MavenInvocationException {
+    private Path extract(AnalyzerMetrics.Run run, WorkspaceManager.Workspace workspace, File zipFile,
+            boolean fullExtract) throws IOException {
+        long stageStart = System.nanoTime();
+        long usedBytes = workspace.getUsedBytes();
+        Path extracted = workspace.extract(zipFile, fullExtract, Runtime.getRuntime().availableProcessors());
+        run.stage("extract", stageStart);
+        run.bytesExtracted(workspace.getUsedBytes() - usedBytes);
+        return extracted;
+    }
+
+    /**
+     * Returns the extractions of the workspace to the pool and deletes it. The POM indexes
+     * of its directories are dropped, the paths are not used again.
+     */
+    void close(WorkspaceManager.Workspace workspace) {
+        if (workspace == null) {
+            return;
+        }
+        pomDiscovery.invalidate(workspace.getDirectory());
+        try {
+            workspace.close();
+        } catch (IOException e) {
+            logger.warn("Could not clean up workspace {}: {}", workspace.getDirectory(), e.getMessage());
+        }
+    }
+
+    private void discover(AnalyzerMetrics.Run run, String directory) throws IOException {
+        long stageStart = System.nanoTime();
+        int poms = pomDiscovery.index(Paths.get(directory)).getPoms().size();
+        run.stage("discover", stageStart);
+        run.pomsScanned(poms);
+    }
+
+    private String evaluateLicenses(AnalyzerMetrics.Run run, String zipFileName, String extractDirectory,
+            LicensePolicy policy) throws IOException {
+        long stageStart = System.nanoTime();
+        String evaluation = evaluateLicenses(zipFileName, extractDirectory, policy);
+        run.stage("evaluate", stageStart);
+        return evaluation;
+    }
+
+    /**
+     * License result of one reactor module. {@code licenseFile} is null when Maven wrote no
+     * THIRD-PARTY file for the module, e.g. for POM packaging or a failed module build.
+     */
+    record ModuleLicenses(String module, String packaging, Path pomFile, Path licenseFile,
+            List<ThirdPartyReport.Entry> entries) {
+    }
+
+    /**
+     * Copies all license files and returns them with the merged reactor report.
+     */
+    List<Path> copyLicenseFiles(String zipFileName, String extractDirectory, List<String> thirdPartyFiles)
+            throws IOException {
+        return copyLicenseFiles(zipFileName, extractDirectory, Paths.get(extractDirectory, zipFileName),
+            thirdPartyFiles);
+    }
+
+    List<Path> copyLicenseFiles(String zipFileName, String extractDirectory, Path projectDirectory,
+            List<String> thirdPartyFiles) throws IOException {
+        return licenseFiles(zipFileName, extractDirectory,
+            collectModuleLicenses(zipFileName, extractDirectory, projectDirectory, thirdPartyFiles));
+    }
+
+    private List<Path> licenseFiles(String zipFileName, String extractDirectory, List<ModuleLicenses> modules)
+            throws IOException {
+        List<Path> licenseFiles = new ArrayList<>();
+        for (ModuleLicenses module : modules) {
+            if (module.licenseFile() != null) {
+                licenseFiles.add(module.licenseFile());
+            }
+        }
+        Path mergedFile = writeMergedLicenses(zipFileName, extractDirectory, modules);
+        if (mergedFile != null) {
+            licenseFiles.add(mergedFile);
+        }
+        return licenseFiles;
+    }
+
+    /**
+     * Maps the THIRD-PARTY files Maven reported to the modules of the reactor, copies them
+     * next to the project directory and parses their entries. Returns one result per
+     * reactor module in reactor order, followed by files that belong to no known module.
+     */
+    List<ModuleLicenses> collectModuleLicenses(String zipFileName, String extractDirectory,
+            List<String> thirdPartyFiles) throws IOException {
+        return collectModuleLicenses(zipFileName, extractDirectory, Paths.get(extractDirectory, zipFileName),
+            thirdPartyFiles);
+    }
+
+    /**
+     * Like {@link #collectModuleLicenses(String, String, List)} for a project that was not
+     * extracted into {@code extractDirectory}, e.g. into a workspace.
+     */
+    List<ModuleLicenses> collectModuleLicenses(String zipFileName, String extractDirectory, Path projectDirectory,
+            List<String> thirdPartyFiles) throws IOException {
+        PomIndex index = null;
+        List<PomIndex.PomInfo> reactor = List.of();
+        if (Files.isDirectory(projectDirectory)) {
+            index = pomDiscovery.index(projectDirectory);
+            PomIndex.PomInfo reactorRoot = index.reactorRoot();
+            reactor = reactorRoot == null ? List.of() : index.reactor(reactorRoot);
+        }
+
+        Map<Path, String> filesByModule = new LinkedHashMap<>();
+        List<String> unmatched = new ArrayList<>();
+        for (String resultFilePath : thirdPartyFiles) {
+            PomIndex.PomInfo module = index == null ? null : index.findModule(reactor, Paths.get(resultFilePath));
+            if (module == null) {
+                unmatched.add(resultFilePath);
+            } else {
+                filesByModule.put(module.pomFile(), resultFilePath);
+            }
+        }
+
+        List<Callable<ModuleLicenses>> tasks = new ArrayList<>();
+        for (PomIndex.PomInfo module : reactor) {
+            String resultFilePath = filesByModule.get(module.pomFile());
+            String name = module.artifactId() != null ? module.artifactId()
+                : module.pomFile().getParent().getFileName().toString();
+            if (resultFilePath == null) {
+                tasks.add(() -> new ModuleLicenses(name, module.packaging(), module.pomFile(), null, List.of()));
+            } else {
+                tasks.add(() -> copyModuleLicenses(zipFileName, extractDirectory, name, module.packaging(),
+                    module.pomFile(), resultFilePath));
+            }
+        }
+        for (String resultFilePath : unmatched) {
+            String extractFilename = getExtractFilename(zipFileName, resultFilePath);
+            String name = extractFilename.substring(zipFileName.length() + "-licenses-".length(),
+                extractFilename.length() - ".txt".length());
+            tasks.add(() -> copyModuleLicenses(zipFileName, extractDirectory, name, null, null, resultFilePath));
+        }
+
+        // Large reactors have hundreds of files, they are copied and parsed in parallel in reactor order
+        try {
+            return tasks.parallelStream()
+                    .map(task -> {
+                        try {
+                            return task.call();
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        } catch (Exception e) {
+                            throw new IllegalStateException(e);
+                        }
+                    })
+                    .collect(Collectors.toList());
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private ModuleLicenses copyModuleLicenses(String zipFileName, String extractDirectory, String module,
+            String packaging, Path pomFile, String resultFilePath) throws IOException {
+        String extractFilename = getExtractFilename(zipFileName, resultFilePath);
+
+        Path licenseFile = Paths.get(extractDirectory + "/" + extractFilename);
+        Files.copy(Paths.get(resultFilePath), licenseFile, StandardCopyOption.REPLACE_EXISTING);
+
+        logger.info("Result file copied from: {} to: {}", resultFilePath, extractFilename);
+        return new ModuleLicenses(module, packaging, pomFile, licenseFile, ThirdPartyReport.parse(licenseFile));
+    }
+
+    /**
+     * Writes one license report for the whole reactor with each dependency listed once,
+     * or returns null when no module has a license file.
+     */
+    Path writeMergedLicenses(String zipFileName, String extractDirectory, List<ModuleLicenses> modules)
+            throws IOException {
+        Map<String, List<ThirdPartyReport.Entry>> entriesByModule = new LinkedHashMap<>();
+        for (ModuleLicenses module : modules) {
+            if (module.licenseFile() != null) {
+                entriesByModule.put(module.module(), module.entries());
+            }
+        }
+        if (entriesByModule.isEmpty()) {
+            return null;
+        }
+        Path mergedFile = Paths.get(extractDirectory, zipFileName + "-licenses-merged.txt");
+        ThirdPartyReport.writeMerged(mergedFile, ThirdPartyReport.merge(entriesByModule), entriesByModule.size());
+        logger.info("Merged license report of {} modules saved to: {}", entriesByModule.size(), mergedFile);
+        return mergedFile;
+    }
+
+    /**
+     * Deletes the merged license report and its evaluation left by an earlier run, so they
+     * do not stand in for a project without license files.
+     */
+    void deleteMergedLicenses(String zipFileName, String extractDirectory) throws IOException {
+        Files.deleteIfExists(Paths.get(extractDirectory, zipFileName + "-licenses-merged.txt"));
+        Files.deleteIfExists(Paths.get(extractDirectory, zipFileName + "-license-report.json"));
+    }
+
+    /**
+     * Evaluates the merged license report of the ZIP file against the policy and saves
+     * the result as JSON next to it. Returns the summary to append to the command output,
+     * empty when there is no merged report.
+     */
+    String evaluateLicenses(String zipFileName, String extractDirectory, LicensePolicy policy) throws IOException {
+        Path mergedFile = Paths.get(extractDirectory, zipFileName + "-licenses-merged.txt");
+        if (!Files.isRegularFile(mergedFile)) {
+            return "";
+        }
+        LicenseReport report = LicenseReport.evaluate(Map.of(zipFileName, mergedFile), policy);
+        Path reportFile = Paths.get(extractDirectory, zipFileName + "-license-report.json");
+        report.write(reportFile);
+        return String.format("%n%s", report.format(reportFile));
+    }
+
+    /**
+     * The merged license report of the project, restored from the result cache when its
+     * POMs are unchanged, otherwise written by a license:add-third-party run. The Maven log
+     * and the license files are written to {@code outputDirectory}, named after
+     * {@code name}. Returns null when Maven wrote no license file.
+     */
+    Path listMergedLicenses(String name, Path projectDirectory, String outputDirectory, boolean useCache)
+            throws IOException, MavenInvocationException {
+        Files.createDirectories(Paths.get(outputDirectory));
+        Path mergedFile = Paths.get(outputDirectory, name + "-licenses-merged.txt");
+        deleteMergedLicenses(name, outputDirectory);
+
+        String cacheKey = useCache ? cacheKey(projectDirectory.toString(), GOAL_LICENSES) : null;
+        if (cacheKey != null) {
+            if (resultCache.read(cacheKey, entry -> restoreLicenseFiles(entry, name, outputDirectory)).isPresent()) {
+                return Files.isRegularFile(mergedFile) ? mergedFile : null;
+            }
+        }
+
+        LicenseListResult result = executeMavenLicenseList(projectDirectory.toString(),
+            Paths.get(outputDirectory, name + "-maven.txt"));
+        if (!result.success()) {
+            throw new IOException(result.errorMessage());
+        }
+        List<Path> licenseFiles = copyLicenseFiles(name, outputDirectory, projectDirectory, result.thirdPartyFiles());
+        if (cacheKey != null) {
+            storeLicenseFiles(cacheKey, name, licenseFiles);
+        }
+        return licenseFiles.contains(mergedFile) ? mergedFile : null;
+    }
+
+    String formatModuleLicenses(List<ModuleLicenses> modules) {
+        StringBuilder result = new StringBuilder();
+        result.append(String.format("%-40s %-8s %12s  %s%n", "MODULE", "STATUS", "DEPENDENCIES", "FILE"));
+        for (ModuleLicenses module : modules) {
+            String status = module.licenseFile() != null ? "OK" : "pom".equals(module.packaging()) ? "POM" : "MISSING";
+            result.append(String.format("%-40s %-8s %12d  %s%n", module.module(), status, module.entries().size(),
+                module.licenseFile() == null ? "-" : module.licenseFile().getFileName()));
+        }
+        return result.toString().stripTrailing();
+    }
+
+    String cacheKey(String projectDirectory, String goal) throws IOException {
+        return cacheKey(projectDirectory, goal, "");
+    }
+
+    /**
+     * Keys a result by the POMs, the goal, the engine that produced it and the offline
+     * mode: the engines resolve differently (the invoker applies settings.xml mirrors and
+     * extensions), and an offline result is only stored after the offline check passed.
+     */
+    String cacheKey(String projectDirectory, String goal, String engine) throws IOException {
+        Path root = Paths.get(projectDirectory);
+        return resultCache.key(root, findPomFiles(root), cacheQualifier(goal, engine));
+    }
+
+    String cacheQualifier(String goal, String engine) {
+        return goal + (engine.isEmpty() ? "" : ":" + engine.toLowerCase(Locale.ROOT))
+            + (offlineMode.isEnabled() ? ":offline" : "");
+    }
+
+    void storeLicenseFiles(String cacheKey, String zipFileName, List<Path> licenseFiles) throws IOException {
+        // Stored without the ZIP file name, so an archive with another name but the same POMs hits
+        Map<String, Path> files = new LinkedHashMap<>();
+        for (Path licenseFile : licenseFiles) {
+            files.put(licenseFile.getFileName().toString().substring(zipFileName.length() + 1), licenseFile);
+        }
+        resultCache.store(cacheKey, GOAL_LICENSES, files);
+    }
+
+    int restoreLicenseFiles(Path entry, String zipFileName, String extractDirectory) throws IOException {
+        int fileCount = 0;
+        for (Path cachedFile : resultCache.entryFiles(entry)) {
+            Path licenseFile = Paths.get(extractDirectory, zipFileName + "-" + cachedFile.getFileName());
+            Files.copy(cachedFile, licenseFile, StandardCopyOption.REPLACE_EXISTING);
+            fileCount++;
+            logger.info("Result file restored from cache: {}", licenseFile);
+        }
+        return fileCount;
+    }
+
+    ResultCache getResultCache() {
+        return resultCache;
+    }
+
+    PomDiscovery getPomDiscovery() {
+        return pomDiscovery;
+    }
+
+    LicensePolicy getLicensePolicy() {
+        return licensePolicy;
+    }
+
+    AnalyzerMetrics getMetrics() {
+        return metrics;
+    }
+
+    MavenPool getMavenPool() {
+        return mavenPool;
+    }
+
+    OfflineMode getOfflineMode() {
+        return offlineMode;
+    }
+
+    WorkspaceManager getWorkspaces() {
+        return workspaces;
+    }
+
+    /**
+     * Outcome of a license:add-third-party run. The full output is only in the log file,
+     * the third-party file paths, error lines and the last lines are collected while it streams.
+     */
+    record LicenseListResult(int exitCode, List<String> thirdPartyFiles, List<String> errors, String tail,
+            Path logFile) {
+
+        static LicenseListResult of(int exitCode, MavenOutputSink sink) {
+            return new LicenseListResult(exitCode, sink.getThirdPartyFiles(), sink.getErrors(), sink.getTail(),
+                sink.getLogFile());
+        }
+
+        boolean success() {
+            return exitCode == 0;
+        }
+
+        String errorMessage() {
+            String details = errors.isEmpty() ? tail : String.join("\n", errors);
+            return String.format("Error retrieving Maven dependency licenses: Maven exited with code %d, see %s%n%s",
+                exitCode, logFile, details);
+        }
+    }
+
+    LicenseListResult executeMavenLicenseList(String directory, Path logFile)
+            throws MavenInvocationException, IOException {
+        return executeMavenLicenseList(directory, 1, List.of(), logFile);
+    }
+
+    /**
+     * Runs license:add-third-party with {@code threads} as Maven's -T and, when projects are
+     * given, only for these reactor modules (-pl). The output is streamed to {@code logFile}.
+     */
+    LicenseListResult executeMavenLicenseList(String directory, int threads, List<String> projects, Path logFile)
+            throws MavenInvocationException, IOException {
+        return executeMavenLicenseList(directory, threads, projects, false, logFile);
+    }
+
+    /**
+     * Like {@link #executeMavenLicenseList(String, int, List, Path)}, with {@code alsoMake}
+     * adding the modules the projects depend on to the build (-am).
+     */
+    LicenseListResult executeMavenLicenseList(String directory, int threads, List<String> projects, boolean alsoMake,
+            Path logFile) throws MavenInvocationException, IOException {
+        checkOffline(directory, GOAL_LICENSES);
+        try (MavenOutputSink sink = new MavenOutputSink(logFile)) {
+            int exitCode = invokeMavenLicenseList(directory, threads, projects, alsoMake, sink);
+            return LicenseListResult.of(exitCode, sink);
+        }
+    }
+
+    private int invokeMavenLicenseList(String directory, int threads, List<String> projects, boolean alsoMake,
+            MavenOutputSink sink) throws MavenInvocationException {
         File pomFile = new File(directory, "pom.xml");
         if (!pomFile.exists()) {
             pomFile = findPomFileRecursively(new File(directory));
@@ -110,32 +621,158 @@ public class MavenCommand {
         InvocationRequest request = new DefaultInvocationRequest();
         request.setPomFile(pomFile);
         request.setGoals(Collections.singletonList("license:add-third-party"));
+        request.setBatchMode(true);
+        request.setOffline(offlineMode.isEnabled());
+        if (threads > 1) {
+            request.setThreads(String.valueOf(threads));
+        }
+        if (!projects.isEmpty()) {
+            request.setProjects(projects);
+            request.setAlsoMake(alsoMake);
+        }
 
-        StringBuilder output = new StringBuilder();
-        Invoker invoker = new DefaultInvoker();
-        invoker.setMavenHome(new File(System.getenv("MAVEN_HOME")));
-        invoker.setWorkingDirectory(pomFile.getParentFile());
+        logger.info("Executing Maven license:add-third-party for project in directory: {} {}", 
+            pomFile.getParentFile().getAbsolutePath(), projects.isEmpty() ? "" : projects);
 
-        logger.info("Executing Maven license:add-third-party for project in directory: {}", 
-            pomFile.getParentFile().getAbsolutePath());
-        
-        invoker.setOutputHandler(new InvocationOutputHandler() {
-            @Override
-            public void consumeLine(String line) {
-                output.append(line).append("\n");
+        return mavenPool.execute(request, sink).exitCode();
+    }
+
+    /**
+     * Runs an independent Maven invocation per reactor module, at most {@code threads} at
+     * a time, all streaming into the same log file. Modules with POM packaging are skipped,
+     * the plugin writes no file for them. Sibling modules a module depends on must be
+     * resolvable from the local repository.
+     */
+    LicenseListResult executeMavenLicenseListPerModule(String directory, int threads, Path logFile)
+            throws IOException, InterruptedException, ExecutionException {
+        PomIndex index = pomDiscovery.index(Paths.get(directory));
+        PomIndex.PomInfo reactorRoot = index.reactorRoot();
+        if (reactorRoot == null) {
+            throw new IOException("No pom.xml found in: " + directory);
+        }
+        String reactorDirectory = reactorRoot.pomFile().getParent().toString();
+        checkOffline(reactorDirectory, GOAL_LICENSES);
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, threads));
+        try (MavenOutputSink sink = new MavenOutputSink(logFile)) {
+            List<Future<Integer>> exitCodes = new ArrayList<>();
+            for (PomIndex.PomInfo module : index.reactor(reactorRoot)) {
+                if (module.artifactId() == null || "pom".equals(module.packaging())) {
+                    continue;
+                }
+                List<String> projects = List.of(":" + module.artifactId());
+                exitCodes.add(executor.submit(() -> invokeMavenLicenseList(reactorDirectory, 1, projects, false, sink)));
             }
-        });
 
-        InvocationResult result = invoker.execute(request);
+            int exitCode = 0;
+            for (Future<Integer> moduleExitCode : exitCodes) {
+                exitCode = Math.max(exitCode, moduleExitCode.get());
+            }
+            return LicenseListResult.of(exitCode, sink);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
 
-        if (result.getExitCode() == 0) {
-            return output.toString();
-        } else {
-            return "Error retrieving Maven dependency licenses: " + output.toString();
+    String saveDependencyGraph(DependencyGraph graph, String projectDirectory, String outputFilePath)
+            throws IOException {
+        Path outputPath = outputFilePath.isEmpty() ? getDependencyGraphPath(projectDirectory) : Paths.get(outputFilePath);
+        graph.write(outputPath);
+        logger.info("Dependency graph with {} nodes saved to: {}", graph.size(), outputPath);
+
+        return graph.render() + String.format("%nDependency graph with %d nodes saved to: %s",
+            graph.size(), outputPath);
+    }
+
+    Path getDependencyGraphPath(String projectDirectory) {
+        // Stored inside the project directory, never next to it in a directory the user did not name
+        Path project = Paths.get(projectDirectory).toAbsolutePath().normalize();
+        String name = project.getFileName() == null ? "project" : project.getFileName().toString();
+        return project.resolve(name + "-dependencies.json");
+    }
+
+    DependencyGraph listDependencies(String directory, String engine, boolean useCache)
+            throws MavenInvocationException, IOException {
+        if (!useCache) {
+            return listDependencies(directory, engine);
+        }
+        String cacheKey = cacheKey(directory, GOAL_DEPENDENCY_TREE, engine);
+        Optional<DependencyGraph> cached = resultCache.read(cacheKey,
+            entry -> DependencyGraph.read(entry.resolve(GRAPH_FILE)));
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+
+        DependencyGraph graph = listDependencies(directory, engine);
+        Path graphFile = Files.createTempFile("dependency-graph", ".json");
+        try {
+            graph.write(graphFile);
+            resultCache.store(cacheKey, GOAL_DEPENDENCY_TREE, Map.of(GRAPH_FILE, graphFile));
+        } finally {
+            Files.deleteIfExists(graphFile);
+        }
+        return graph;
+    }
+
+    DependencyGraph listDependencies(String directory, String engine) throws MavenInvocationException, IOException {
+        checkOffline(directory, ENGINE_INVOKER.equalsIgnoreCase(engine) ? GOAL_DEPENDENCY_TREE : null);
+        if (ENGINE_INVOKER.equalsIgnoreCase(engine)) {
+            return executeMavenDependencyTree(directory);
+        }
+        if (!ENGINE_RESOLVER.equalsIgnoreCase(engine)) {
+            throw new IllegalArgumentException("Unknown engine: " + engine
+                + " (expected " + ENGINE_RESOLVER + " or " + ENGINE_INVOKER + ")");
+        }
+        try {
+            return resolveDependencyTree(directory);
+        } catch (Exception e) {
+            // The in-process engine does not support every build (e.g. extensions or
+            // custom repositories from settings.xml), so fall back to a forked Maven.
+            logger.warn("In-process resolution failed, falling back to Maven Invoker: {}", e.getMessage());
+            return executeMavenDependencyTree(directory);
+        }
+    }
+
+    DependencyGraph resolveDependencyTree(String directory) throws Exception {
+        File pomFile = new File(directory, "pom.xml");
+        if (!pomFile.exists()) {
+            pomFile = findPomFileRecursively(new File(directory));
+        }
+        if (pomFile == null) {
+            throw new IOException("No pom.xml found in: " + directory);
         }
+
+        logger.info("Resolving dependency tree in-process for project in directory: {}",
+            pomFile.getParentFile().getAbsolutePath());
+
+        return DependencyGraph.from(getResolver().resolve(pomFile));
     }
 
-    private String executeMavenDependencyTree(String directory) throws MavenInvocationException {
+    /**
+     * In offline mode, fails before Maven starts when artifacts the project needs for
+     * {@code goal} are missing from the local repository.
+     */
+    void checkOffline(String directory, String goal) throws IOException {
+        if (!offlineMode.isEnabled()) {
+            return;
+        }
+        File pomFile = new File(directory, "pom.xml");
+        if (!pomFile.exists()) {
+            pomFile = findPomFileRecursively(new File(directory));
+        }
+        if (pomFile != null) {
+            offlineMode.requireArtifacts(pomFile, getResolver(), goal);
+        }
+    }
+
+    synchronized InProcessResolver getResolver() {
+        if (resolver == null) {
+            resolver = new InProcessResolver(offlineMode.getLocalRepository(), offlineMode.isEnabled());
+        }
+        return resolver;
+    }
+
+    private DependencyGraph executeMavenDependencyTree(String directory) throws MavenInvocationException, IOException {
         InvocationRequest request = new DefaultInvocationRequest();
 
         File pomFile = new File(directory, "pom.xml");
@@ -145,20 +782,20 @@ public class MavenCommand {
         request.setPomFile(pomFile);
         
         request.setGoals(Collections.singletonList("dependency:tree"));
+        request.setBatchMode(true);
+        request.setOffline(offlineMode.isEnabled());
 
-        Invoker invoker = new DefaultInvoker();
-        invoker.setMavenHome(new File(System.getenv("MAVEN_HOME")));
-        invoker.setWorkingDirectory(pomFile.getParentFile());
+        DependencyTreeParser parser = new DependencyTreeParser();
 
         logger.info("Executing Maven dependency:tree for project in directory: {}", 
             pomFile.getParentFile().getAbsolutePath());
 
-        InvocationResult result = invoker.execute(request);
+        MavenPool.Execution execution = mavenPool.execute(request, parser);
 
-        if (result.getExitCode() == 0) {
-            return "Maven dependencies successfully listed.";
+        if (execution.exitCode() == 0) {
+            return parser.getGraph();
         } else {
-            return "Error retrieving Maven dependencies.";
+            throw new IOException("Maven dependency:tree failed with exit code " + execution.exitCode());
         }
     }
 
@@ -173,38 +810,22 @@ public class MavenCommand {
         return extractFilename;
     }
     
-    void saveToFile(String content, String filePath) throws IOException {
-        Path path = Paths.get(filePath);
-        Files.write(path, content.getBytes(), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
-    }
-
     File findPomFileRecursively(File directory) {
-        // Check for directories starting with "build" (case-insensitive)
-        File[] buildDirs = directory.listFiles((dir, name) -> name.toLowerCase().startsWith("build"));
-        if (buildDirs != null) {
-            for (File buildDir : buildDirs) {
-                File pomFile = new File(buildDir, "pom.xml");
-                if (pomFile.exists()) {
-                    return pomFile;
-                }
-            }
+        try {
+            PomIndex.PomInfo reactorRoot = pomDiscovery.index(directory.toPath()).reactorRoot();
+            return reactorRoot == null ? null : reactorRoot.pomFile().toFile();
+        } catch (IOException e) {
+            logger.error("Error searching for pom.xml in {}: {}", directory, e.getMessage(), e);
+            return null;
         }
+    }
 
-        // If no "build" directories found, search everywhere
-        File[] files = directory.listFiles();
-        if (files != null) {
-            for (File file : files) {
-                if (file.isDirectory()) {
-                    File pomFile = findPomFileRecursively(file);
-                    if (pomFile != null) {
-                        return pomFile;
-                    }
-                } else if (file.getName().equals("pom.xml")) {
-                    return file;
-                }
-            }
-        }
-        return null;
+    /**
+     * Returns all POM files of the project below the given directory plus local parent POMs
+     * outside of it, which together decide the result of a dependency or license goal.
+     */
+    List<Path> findPomFiles(Path projectDirectory) throws IOException {
+        return pomDiscovery.index(projectDirectory).pomFilesWithParents();
     }
 
     String getZipFileName(String zipFilePath) {
@@ -214,25 +835,24 @@ public class MavenCommand {
     }
 
     void unzip(File zipFile, File destDir) throws IOException {
-        try (ZipInputStream zipInputStream = new ZipInputStream(new FileInputStream(zipFile))) {
-            ZipEntry entry;
-            while ((entry = zipInputStream.getNextEntry()) != null) {
-                File newFile = new File(destDir, entry.getName());
-                if (entry.isDirectory()) {
-                    newFile.mkdirs();
-                } else {
-                    newFile.getParentFile().mkdirs();
-                    try (FileOutputStream fos = new FileOutputStream(newFile)) {
-                        Files.copy(zipInputStream, newFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
-                    }
-                }
+        extract(zipFile, destDir, true);
+    }
+
+    long extract(File zipFile, File destDir, boolean fullExtract) throws IOException {
+        pomDiscovery.invalidate(destDir.toPath());
+        try (ZipArchive archive = new ZipArchive(zipFile)) {
+            if (!fullExtract && archive.findPomEntries().isEmpty()) {
+                throw new IOException("No pom.xml found in ZIP file: " + zipFile);
             }
+            // Maven only needs the build files to resolve dependencies and licenses
+            return archive.extract(destDir, fullExtract ? ZipArchive.ALL_FILES : ZipArchive.BUILD_FILES,
+                Runtime.getRuntime().availableProcessors(), workspaces.getLimits());
         }
     }
 
     ArrayList<String> extractFilePathFromResult(String result) {
         ArrayList<String> paths = new ArrayList<>();
-        String searchString = "Writing third-party file to ";
+        String searchString = MavenOutputSink.THIRD_PARTY_FILE_MARKER;
         int lastIndex = 0;
         
         while ((lastIndex = result.indexOf(searchString, lastIndex)) != -1) {
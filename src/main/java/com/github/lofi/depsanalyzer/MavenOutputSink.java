@@ -0,0 +1,103 @@
+package com.github.lofi.depsanalyzer;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+import org.apache.maven.shared.invoker.InvocationOutputHandler;
+
+/**
+ * Streams Maven output line by line into a log file while extracting the third-party file
+ * paths and error lines. Only a bounded tail of the output is kept in memory, so the
+ * memory use does not grow with the size of the build log.
+ */
+class MavenOutputSink implements InvocationOutputHandler, Closeable {
+
+    static final String THIRD_PARTY_FILE_MARKER = "Writing third-party file to ";
+    static final int DEFAULT_TAIL_LINES = 200;
+    static final int MAX_ERROR_LINES = 100;
+
+    private final Path logFile;
+    private final BufferedWriter writer;
+    private final int tailLines;
+    private final Deque<String> tail = new ArrayDeque<>();
+    private final List<String> thirdPartyFiles = new ArrayList<>();
+    private final List<String> errors = new ArrayList<>();
+    private long lineCount;
+
+    MavenOutputSink(Path logFile) throws IOException {
+        this(logFile, DEFAULT_TAIL_LINES);
+    }
+
+    MavenOutputSink(Path logFile, int tailLines) throws IOException {
+        this.logFile = logFile;
+        this.writer = Files.newBufferedWriter(logFile);
+        this.tailLines = tailLines;
+    }
+
+    // Synchronized, parallel per-module invocations share one sink
+    @Override
+    public synchronized void consumeLine(String line) {
+        try {
+            writer.write(line);
+            writer.newLine();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write Maven output to " + logFile, e);
+        }
+        lineCount++;
+
+        String thirdPartyFile = thirdPartyFilePath(line);
+        if (thirdPartyFile != null) {
+            thirdPartyFiles.add(thirdPartyFile);
+        }
+        if (line.startsWith("[ERROR]") && errors.size() < MAX_ERROR_LINES) {
+            errors.add(line);
+        }
+
+        if (tail.size() == tailLines) {
+            tail.removeFirst();
+        }
+        tail.addLast(line);
+    }
+
+    static String thirdPartyFilePath(String line) {
+        int index = line.indexOf(THIRD_PARTY_FILE_MARKER);
+        if (index < 0) {
+            return null;
+        }
+        String path = line.substring(index + THIRD_PARTY_FILE_MARKER.length()).trim();
+        return path.isEmpty() ? null : path;
+    }
+
+    Path getLogFile() {
+        return logFile;
+    }
+
+    synchronized List<String> getThirdPartyFiles() {
+        return List.copyOf(thirdPartyFiles);
+    }
+
+    synchronized List<String> getErrors() {
+        return List.copyOf(errors);
+    }
+
+    synchronized String getTail() {
+        return String.join("\n", tail);
+    }
+
+    synchronized long getLineCount() {
+        return lineCount;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        writer.close();
+    }
+}
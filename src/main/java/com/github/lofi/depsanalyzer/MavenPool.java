@@ -0,0 +1,457 @@
+package com.github.lofi.depsanalyzer;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+
+import org.apache.maven.shared.invoker.DefaultInvoker;
+import org.apache.maven.shared.invoker.InvocationOutputHandler;
+import org.apache.maven.shared.invoker.InvocationRequest;
+import org.apache.maven.shared.invoker.InvocationResult;
+import org.apache.maven.shared.invoker.Invoker;
+import org.apache.maven.shared.invoker.MavenInvocationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs Maven builds on a fixed number of workers. With the Maven daemon (mvnd) each
+ * worker owns a daemon that stays warm between builds, so the JIT and the plugin class
+ * realms are reused; without it every build starts a cold Maven through the invoker and
+ * the pool only bounds the number of concurrent builds. A worker is recycled after a
+ * number of builds or when its daemon has grown beyond a memory limit.
+ */
+class MavenPool implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(MavenPool.class);
+
+    static final String BACKEND_DAEMON = "mvnd";
+    static final String BACKEND_INVOKER = "invoker";
+
+    static final int DEFAULT_SIZE = 2;
+    static final int DEFAULT_MAX_BUILDS = 50;
+    static final long DEFAULT_MAX_MEMORY_BYTES = 2048L * 1024 * 1024;
+
+    private static final int RECENT_EXECUTIONS = 20;
+    // Measuring a daemon starts an mvnd client JVM, too slow to do after every build
+    static final int MEMORY_CHECK_INTERVAL = 10;
+
+    /**
+     * A Maven that runs one build at a time.
+     */
+    interface Worker extends Closeable {
+
+        InvocationResult execute(InvocationRequest request, InvocationOutputHandler outputHandler)
+                throws MavenInvocationException;
+
+        /**
+         * Resident memory of the Maven process kept between builds, 0 when none is kept.
+         */
+        long memoryBytes();
+
+        @Override
+        void close();
+    }
+
+    /**
+     * Timing of one build: the time waiting for a free worker and the time the build ran.
+     */
+    record Execution(String goals, String directory, int worker, int exitCode, long queueWaitMillis,
+            long executionMillis) {
+    }
+
+    private static final class Slot {
+
+        final int index;
+        Worker worker;
+        int builds;
+
+        Slot(int index) {
+            this.index = index;
+        }
+    }
+
+    private final String backend;
+    private final int maxBuilds;
+    private final long maxMemoryBytes;
+    private final IntFunction<Worker> workerFactory;
+    private final BlockingQueue<Slot> idle;
+    private final List<Slot> slots = new ArrayList<>();
+
+    private final Deque<Execution> recent = new ArrayDeque<>();
+    private volatile Consumer<Execution> listener = execution -> { };
+    private long executions;
+    private long totalQueueWaitMillis;
+    private long maxQueueWaitMillis;
+    private long totalExecutionMillis;
+    private long recycled;
+
+    MavenPool(String backend, int size, int maxBuilds, long maxMemoryBytes, IntFunction<Worker> workerFactory) {
+        this.backend = backend;
+        this.maxBuilds = maxBuilds;
+        this.maxMemoryBytes = maxMemoryBytes;
+        this.workerFactory = workerFactory;
+        this.idle = new ArrayBlockingQueue<>(size);
+        for (int i = 0; i < size; i++) {
+            Slot slot = new Slot(i);
+            slots.add(slot);
+            idle.add(slot);
+        }
+    }
+
+    /**
+     * A pool on mvnd when {@code mvndExecutable} is given or mvnd is found on the PATH
+     * and {@code useDaemon} is set, otherwise on the Maven installation in MAVEN_HOME.
+     */
+    static MavenPool create(boolean useDaemon, String mvndExecutable, int size, int maxBuilds, long maxMemoryBytes,
+            Path daemonDirectory) {
+        Path mvnd = useDaemon ? findMvnd(mvndExecutable) : null;
+        if (mvnd == null) {
+            logger.info("Using a pool of {} Maven invoker workers", size);
+            return new MavenPool(BACKEND_INVOKER, size, maxBuilds, maxMemoryBytes, index -> new InvokerWorker());
+        }
+        logger.info("Using a pool of {} Maven daemons from {}", size, mvnd);
+        return new MavenPool(BACKEND_DAEMON, size, maxBuilds, maxMemoryBytes,
+            index -> new DaemonWorker(mvnd, daemonDirectory.resolve("worker-" + index)));
+    }
+
+    static MavenPool invoker() {
+        return create(false, "", DEFAULT_SIZE, DEFAULT_MAX_BUILDS, DEFAULT_MAX_MEMORY_BYTES, null);
+    }
+
+    static Path defaultDaemonDirectory() {
+        return Path.of(System.getProperty("user.home"), ".maven-deps-analyzer", "mvnd");
+    }
+
+    static Path findMvnd(String mvndExecutable) {
+        if (!mvndExecutable.isEmpty()) {
+            Path path = Path.of(mvndExecutable);
+            return Files.isExecutable(path) ? path.toAbsolutePath() : null;
+        }
+        List<String> directories = new ArrayList<>();
+        String mvndHome = System.getenv("MVND_HOME");
+        if (mvndHome != null) {
+            directories.add(Path.of(mvndHome, "bin").toString());
+        }
+        String path = System.getenv("PATH");
+        if (path != null) {
+            directories.addAll(List.of(path.split(File.pathSeparator)));
+        }
+        for (String directory : directories) {
+            Path candidate = Path.of(directory, "mvnd");
+            if (Files.isExecutable(candidate)) {
+                return candidate.toAbsolutePath();
+            }
+        }
+        return null;
+    }
+
+    String getBackend() {
+        return backend;
+    }
+
+    int getSize() {
+        return slots.size();
+    }
+
+    /**
+     * Runs the request on the next free worker, waiting while all workers are busy.
+     */
+    Execution execute(InvocationRequest request, InvocationOutputHandler outputHandler)
+            throws MavenInvocationException {
+        long start = System.nanoTime();
+        Slot slot;
+        try {
+            slot = idle.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MavenInvocationException("Interrupted while waiting for a Maven worker", e);
+        }
+        long queueWaitMillis = (System.nanoTime() - start) / 1_000_000;
+
+        long executionStart = System.nanoTime();
+        try {
+            if (slot.worker == null) {
+                slot.worker = workerFactory.apply(slot.index);
+                slot.builds = 0;
+            }
+            InvocationResult result = slot.worker.execute(request, outputHandler);
+            if (result.getExecutionException() != null) {
+                throw new MavenInvocationException("Maven could not be started: "
+                    + result.getExecutionException().getMessage(), result.getExecutionException());
+            }
+            return record(request, slot.index, result.getExitCode(), queueWaitMillis,
+                (System.nanoTime() - executionStart) / 1_000_000);
+        } finally {
+            slot.builds++;
+            recycleIfNeeded(slot);
+            idle.add(slot);
+        }
+    }
+
+    private Execution record(InvocationRequest request, int worker, int exitCode, long queueWaitMillis,
+            long executionMillis) {
+        File pomFile = request.getPomFile();
+        Execution execution = new Execution(String.join(" ", request.getGoals()),
+            pomFile == null ? "" : pomFile.getParent(), worker, exitCode, queueWaitMillis, executionMillis);
+        logger.info("Maven {} in {} on worker {}: exit code {}, waited {} ms, ran {} ms", execution.goals(),
+            execution.directory(), worker, exitCode, queueWaitMillis, executionMillis);
+        synchronized (this) {
+            executions++;
+            totalQueueWaitMillis += queueWaitMillis;
+            maxQueueWaitMillis = Math.max(maxQueueWaitMillis, queueWaitMillis);
+            totalExecutionMillis += executionMillis;
+            if (recent.size() == RECENT_EXECUTIONS) {
+                recent.removeFirst();
+            }
+            recent.addLast(execution);
+        }
+        listener.accept(execution);
+        return execution;
+    }
+
+    private void recycleIfNeeded(Slot slot) {
+        if (slot.worker == null) {
+            return;
+        }
+        String reason = null;
+        if (maxBuilds > 0 && slot.builds >= maxBuilds) {
+            reason = slot.builds + " builds";
+        } else if (maxMemoryBytes > 0 && slot.builds % MEMORY_CHECK_INTERVAL == 0) {
+            long memory = slot.worker.memoryBytes();
+            if (memory > maxMemoryBytes) {
+                reason = (memory / (1024 * 1024)) + " MB resident";
+            }
+        }
+        if (reason != null) {
+            logger.info("Recycling Maven worker {} after {}", slot.index, reason);
+            slot.worker.close();
+            slot.worker = null;
+            synchronized (this) {
+                recycled++;
+            }
+        }
+    }
+
+    /**
+     * Called after every build, e.g. to record metrics.
+     */
+    void setListener(Consumer<Execution> listener) {
+        this.listener = listener;
+    }
+
+    int busyWorkers() {
+        return slots.size() - idle.size();
+    }
+
+    synchronized List<Execution> recentExecutions() {
+        return List.copyOf(recent);
+    }
+
+    synchronized String stats() {
+        StringBuilder stats = new StringBuilder(String.format(
+            "Backend: %s, workers: %d (recycled after %d builds or %d MB)%n"
+                + "Builds: %d, recycled workers: %d%n"
+                + "Queue wait: %.1f ms average, %d ms max; execution: %.1f ms average",
+            backend, slots.size(), maxBuilds, maxMemoryBytes / (1024 * 1024), executions, recycled,
+            executions == 0 ? 0.0 : (double) totalQueueWaitMillis / executions, maxQueueWaitMillis,
+            executions == 0 ? 0.0 : (double) totalExecutionMillis / executions));
+        for (Execution execution : recent) {
+            stats.append(String.format("%n  worker %d  exit %d  wait %6d ms  run %7d ms  %s  %s", execution.worker(),
+                execution.exitCode(), execution.queueWaitMillis(), execution.executionMillis(), execution.goals(),
+                execution.directory()));
+        }
+        return stats.toString();
+    }
+
+    /**
+     * Stops the daemons of all workers, waiting for running builds to finish.
+     */
+    @Override
+    public void close() {
+        for (int i = 0; i < slots.size(); i++) {
+            try {
+                Slot slot = idle.poll(1, TimeUnit.MINUTES);
+                if (slot == null) {
+                    logger.warn("Maven worker still busy, not stopped");
+                    continue;
+                }
+                if (slot.worker != null) {
+                    slot.worker.close();
+                    slot.worker = null;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Starts a cold Maven from MAVEN_HOME for every build.
+     */
+    static class InvokerWorker implements Worker {
+
+        @Override
+        public InvocationResult execute(InvocationRequest request, InvocationOutputHandler outputHandler)
+                throws MavenInvocationException {
+            Invoker invoker = new DefaultInvoker();
+            invoker.setMavenHome(new File(System.getenv("MAVEN_HOME")));
+            invoker.setWorkingDirectory(request.getPomFile().getParentFile());
+            invoker.setOutputHandler(outputHandler);
+            return invoker.execute(request);
+        }
+
+        @Override
+        public long memoryBytes() {
+            return 0;
+        }
+
+        @Override
+        public void close() {
+            // Nothing is kept between builds
+        }
+    }
+
+    /**
+     * Runs builds through the mvnd client. The worker has its own daemon storage, so its
+     * builds always go to its own daemon, which can be measured and stopped on its own.
+     */
+    static class DaemonWorker implements Worker {
+
+        static final Duration CLIENT_TIMEOUT = Duration.ofMinutes(1);
+
+        private final Path mvnd;
+        private final Path daemonStorage;
+        private final Duration clientTimeout;
+
+        DaemonWorker(Path mvnd, Path daemonStorage) {
+            this(mvnd, daemonStorage, CLIENT_TIMEOUT);
+        }
+
+        DaemonWorker(Path mvnd, Path daemonStorage, Duration clientTimeout) {
+            this.mvnd = mvnd;
+            this.daemonStorage = daemonStorage;
+            this.clientTimeout = clientTimeout;
+        }
+
+        @Override
+        public InvocationResult execute(InvocationRequest request, InvocationOutputHandler outputHandler)
+                throws MavenInvocationException {
+            Properties properties = new Properties();
+            if (request.getProperties() != null) {
+                properties.putAll(request.getProperties());
+            }
+            properties.setProperty("mvnd.daemonStorage", daemonStorage.toString());
+            // Plain output, the client would otherwise render a terminal UI
+            properties.setProperty("mvnd.rawStreams", "true");
+            request.setProperties(properties);
+
+            Invoker invoker = new DefaultInvoker();
+            invoker.setMavenHome(mvnd.getParent().getParent().toFile());
+            invoker.setMavenExecutable(mvnd.toFile());
+            invoker.setWorkingDirectory(request.getPomFile().getParentFile());
+            invoker.setOutputHandler(outputHandler);
+            return invoker.execute(request);
+        }
+
+        @Override
+        public long memoryBytes() {
+            try {
+                return residentMemory(run("--status"));
+            } catch (IOException e) {
+                logger.warn("Could not read the status of the Maven daemon in {}: {}", daemonStorage, e.getMessage());
+                return 0;
+            }
+        }
+
+        @Override
+        public void close() {
+            try {
+                run("--stop");
+            } catch (IOException e) {
+                logger.warn("Could not stop the Maven daemon in {}: {}", daemonStorage, e.getMessage());
+            }
+        }
+
+        /**
+         * Runs the mvnd client with the option and returns its output. The output goes to a
+         * file, so a client that hangs is killed after the timeout instead of blocking the
+         * worker on its output stream.
+         */
+        private List<String> run(String option) throws IOException {
+            Path output = Files.createTempFile("mvnd-client", ".txt");
+            try {
+                Process process = new ProcessBuilder(mvnd.toString(), option, "-Dmvnd.daemonStorage=" + daemonStorage)
+                        .redirectErrorStream(true)
+                        .redirectOutput(output.toFile())
+                        .start();
+                try {
+                    if (!process.waitFor(clientTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                        process.destroyForcibly();
+                        throw new IOException("mvnd " + option + " did not finish within " + clientTimeout.toSeconds()
+                            + " s");
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    process.destroyForcibly();
+                    throw new IOException("Interrupted while waiting for mvnd " + option, e);
+                }
+                return Files.readAllLines(output, StandardCharsets.UTF_8);
+            } finally {
+                Files.deleteIfExists(output);
+            }
+        }
+    }
+
+    /**
+     * Sums the RSS column of {@code mvnd --status}, e.g. {@code 512m} or {@code 1.2g}.
+     */
+    static long residentMemory(List<String> statusLines) {
+        int column = -1;
+        long total = 0;
+        for (String line : statusLines) {
+            String[] columns = line.trim().split("\\s+");
+            if (column < 0) {
+                column = List.of(columns).indexOf("RSS");
+                continue;
+            }
+            if (columns.length > column) {
+                total += parseSize(columns[column]);
+            }
+        }
+        return total;
+    }
+
+    static long parseSize(String size) {
+        String value = size.trim().toLowerCase();
+        if (value.isEmpty()) {
+            return 0;
+        }
+        long unit = switch (value.charAt(value.length() - 1)) {
+            case 'k' -> 1024L;
+            case 'm' -> 1024L * 1024;
+            case 'g' -> 1024L * 1024 * 1024;
+            default -> 1L;
+        };
+        String number = unit == 1 ? value : value.substring(0, value.length() - 1);
+        try {
+            return (long) (Double.parseDouble(number) * unit);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.github.lofi.depsanalyzer;
+
+import org.springframework.shell.standard.ShellComponent;
+import org.springframework.shell.standard.ShellMethod;
+
+@ShellComponent
+public class MavenPoolCommand {
+
+    private final MavenPool mavenPool;
+
+    public MavenPoolCommand(MavenPool mavenPool) {
+        this.mavenPool = mavenPool;
+    }
+
+    @ShellMethod(key = "maven-pool-stats", value = "Show the Maven workers and the queue wait and execution time of recent builds.")
+    public String mavenPoolStats() {
+        return mavenPool.stats();
+    }
+}
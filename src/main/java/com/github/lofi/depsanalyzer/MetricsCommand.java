@@ -0,0 +1,19 @@
+package com.github.lofi.depsanalyzer;
+
+import org.springframework.shell.standard.ShellComponent;
+import org.springframework.shell.standard.ShellMethod;
+
+@ShellComponent
+public class MetricsCommand {
+
+    private final AnalyzerMetrics metrics;
+
+    public MetricsCommand(AnalyzerMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @ShellMethod(key = "analyzer-metrics", value = "Show the stage timings, sizes and Maven builds recorded since the start.")
+    public String analyzerMetrics() {
+        return metrics.format();
+    }
+}
@@ -0,0 +1,53 @@
+package com.github.lofi.depsanalyzer;
+
+import java.io.File;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.shell.standard.ShellComponent;
+import org.springframework.shell.standard.ShellMethod;
+import org.springframework.shell.standard.ShellOption;
+
+@ShellComponent
+public class OfflineCommand {
+
+    private static final Logger logger = LoggerFactory.getLogger(OfflineCommand.class);
+
+    private final MavenCommand mavenCommand;
+
+    public OfflineCommand(MavenCommand mavenCommand) {
+        this.mavenCommand = mavenCommand;
+    }
+
+    @ShellMethod(key = "index-local-repository", value = "Build the index of the local Maven repository used by the offline mode.")
+    public String indexLocalRepository() {
+        try {
+            long start = System.nanoTime();
+            OfflineMode offlineMode = mavenCommand.getOfflineMode();
+            LocalRepositoryIndex index = offlineMode.rebuildIndex();
+            return String.format("Indexed %d artifacts of %s in %d ms into: %s", index.size(),
+                index.getLocalRepository(), (System.nanoTime() - start) / 1_000_000, offlineMode.getIndexFile());
+        } catch (Exception e) {
+            logger.error("Error indexing the local repository: {}", e.getMessage(), e);
+            return "Error indexing the local repository: " + e.getMessage();
+        }
+    }
+
+    @ShellMethod(key = "offline-check", value = "Check that all artifacts of a project are in the local Maven repository.")
+    public String offlineCheck(@ShellOption(value = "--directory") String directory,
+            @ShellOption(value = "--goal", defaultValue = MavenCommand.GOAL_DEPENDENCY_TREE) String goal) {
+        try {
+            File pomFile = new File(directory, "pom.xml");
+            if (!pomFile.exists()) {
+                pomFile = mavenCommand.findPomFileRecursively(new File(directory));
+            }
+            if (pomFile == null) {
+                return "No pom.xml found in: " + directory;
+            }
+            return mavenCommand.getOfflineMode().check(pomFile, mavenCommand.getResolver(), goal).format();
+        } catch (Exception e) {
+            logger.error("Error checking artifacts of {}: {}", directory, e.getMessage(), e);
+            return "Error checking artifacts: " + e.getMessage();
+        }
+    }
+}
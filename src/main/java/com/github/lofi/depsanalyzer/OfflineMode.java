@@ -0,0 +1,362 @@
+package com.github.lofi.depsanalyzer;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import org.apache.maven.artifact.versioning.ComparableVersion;
+import org.apache.maven.model.building.ModelBuildingException;
+import org.apache.maven.model.building.ModelProblem;
+import org.apache.maven.model.resolution.UnresolvableModelException;
+import org.eclipse.aether.artifact.Artifact;
+import org.eclipse.aether.collection.DependencyCollectionException;
+import org.eclipse.aether.graph.DependencyNode;
+import org.eclipse.aether.util.artifact.JavaScopes;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Offline analysis: Maven runs with -o and, before it starts, the artifacts a project
+ * needs are checked against the index of the local repository, so every missing artifact
+ * is reported at once instead of by a failed build. What is needed depends on the goal:
+ * dependency:tree reads the POMs only, license:add-third-party resolves the jars as well,
+ * and both need their plugin with its dependencies.
+ */
+class OfflineMode {
+
+    private static final Logger logger = LoggerFactory.getLogger(OfflineMode.class);
+
+    // Plugins of the goals the analyzer runs
+    private static final Map<String, String> GOAL_PLUGINS = Map.of(
+        MavenCommand.GOAL_DEPENDENCY_TREE, "org.apache.maven.plugins:maven-dependency-plugin",
+        MavenCommand.GOAL_LICENSES, "org.codehaus.mojo:license-maven-plugin");
+
+    record Problem(String coordinate, String requiredBy, String reason) {
+    }
+
+    record Report(Path pomFile, int artifacts, List<Problem> problems, long millis) {
+
+        boolean ok() {
+            return problems.isEmpty();
+        }
+
+        String format() {
+            StringBuilder report = new StringBuilder();
+            if (ok()) {
+                report.append(String.format("All %d artifacts of %s are in the local repository (checked in %d ms)",
+                    artifacts, pomFile, millis));
+                return report.toString();
+            }
+            report.append(String.format("%d of %d artifacts of %s are missing from the local repository "
+                + "(checked in %d ms):", problems.size(), artifacts, pomFile, millis));
+            for (Problem problem : problems) {
+                report.append(String.format("%n  %s  %s%s", problem.coordinate(), problem.reason(),
+                    problem.requiredBy().isEmpty() ? "" : " (required by " + problem.requiredBy() + ")"));
+            }
+            return report.toString();
+        }
+    }
+
+    private final boolean enabled;
+    private final Path indexFile;
+    private final File localRepository;
+    private LocalRepositoryIndex index;
+
+    OfflineMode(boolean enabled, Path indexFile, File localRepository) {
+        this.enabled = enabled;
+        this.indexFile = indexFile;
+        this.localRepository = localRepository;
+    }
+
+    static OfflineMode disabled() {
+        return new OfflineMode(false, LocalRepositoryIndex.defaultIndexFile(), InProcessResolver.defaultLocalRepository());
+    }
+
+    boolean isEnabled() {
+        return enabled;
+    }
+
+    File getLocalRepository() {
+        return localRepository;
+    }
+
+    Path getIndexFile() {
+        return indexFile;
+    }
+
+    /**
+     * The index of the local repository, built on first use when the file does not exist
+     * or belongs to another local repository.
+     */
+    synchronized LocalRepositoryIndex index() throws IOException {
+        if (index == null) {
+            if (Files.isRegularFile(indexFile)) {
+                try {
+                    LocalRepositoryIndex existing = LocalRepositoryIndex.open(indexFile);
+                    if (existing.getLocalRepository().equals(localRepository.toPath().toAbsolutePath())) {
+                        index = existing;
+                        return index;
+                    }
+                } catch (IOException e) {
+                    logger.info("Rebuilding the index of the local repository: {}", e.getMessage());
+                }
+            }
+            index = LocalRepositoryIndex.build(localRepository.toPath(), indexFile);
+        }
+        return index;
+    }
+
+    synchronized LocalRepositoryIndex rebuildIndex() throws IOException {
+        index = LocalRepositoryIndex.build(localRepository.toPath(), indexFile);
+        return index;
+    }
+
+    /**
+     * Collects the dependency trees of the project from the local repository and checks
+     * every POM with its parent POMs against the index, with {@code goal} (may be null)
+     * license:add-third-party also the jars, and the plugin of the goal in the version the
+     * build uses with its dependencies. An artifact not in the index is looked up on disk
+     * before it is reported, it may have been downloaded after the index was built.
+     */
+    Report check(File pomFile, InProcessResolver resolver, String goal) throws IOException {
+        long start = System.nanoTime();
+        Check check = new Check(index());
+        boolean jars = MavenCommand.GOAL_LICENSES.equals(goal);
+
+        try {
+            List<DependencyNode> roots = resolver.collectOffline(pomFile);
+            Set<String> reactor = new HashSet<>();
+            for (DependencyNode root : roots) {
+                reactor.add(coordinate(root.getArtifact()));
+            }
+            check.dependencies(roots, reactor, jars, "");
+        } catch (ModelBuildingException e) {
+            // A missing parent or import POM of a reactor module stops the collection
+            for (ModelProblem problem : e.getProblems()) {
+                if (problem.getSeverity() == ModelProblem.Severity.WARNING) {
+                    continue;
+                }
+                if (problem.getException() instanceof UnresolvableModelException unresolvable) {
+                    String coordinate = unresolvable.getGroupId() + ":" + unresolvable.getArtifactId() + ":"
+                        + unresolvable.getVersion();
+                    if (check.checked.add(coordinate)) {
+                        check.problems.putIfAbsent(coordinate, new Problem(coordinate, problem.getModelId(),
+                            "POM not found"));
+                    }
+                } else {
+                    check.problems.putIfAbsent(problem.getModelId(), new Problem(problem.getModelId(), "",
+                        problem.getMessage()));
+                }
+            }
+        } catch (DependencyCollectionException e) {
+            check.problems.put(pomFile.toString(), new Problem(pomFile.toString(), "", e.getMessage()));
+        }
+
+        String plugin = goal == null ? null : GOAL_PLUGINS.get(goal);
+        if (plugin != null) {
+            checkPlugin(check, pomFile, resolver, plugin, goal);
+        }
+
+        Report report = new Report(pomFile.toPath(), check.checked.size(), new ArrayList<>(check.problems.values()),
+            (System.nanoTime() - start) / 1_000_000);
+        logger.info("Offline check of {}: {} artifacts, {} missing in {} ms", pomFile, report.artifacts(),
+            report.problems().size(), report.millis());
+        return report;
+    }
+
+    /**
+     * Checks the plugin in the version the build of the POM uses, or the latest installed
+     * one when the build sets none, and the dependencies Maven loads with it.
+     */
+    private void checkPlugin(Check check, File pomFile, InProcessResolver resolver, String plugin, String goal) {
+        String[] parts = plugin.split(":");
+        String version = null;
+        try {
+            version = resolver.pluginVersion(pomFile, parts[0], parts[1]);
+        } catch (ModelBuildingException e) {
+            // Reported by the dependency check already
+            logger.debug("Could not read the plugin version of {}: {}", pomFile, e.getMessage());
+        }
+        if (version == null) {
+            version = latestVersion(check.index, parts[0], parts[1]);
+        }
+        if (version == null) {
+            check.checked.add(plugin);
+            check.problems.put(plugin, new Problem(plugin, goal, "plugin not found"));
+            return;
+        }
+        if (!check.require(parts[0], parts[1], version, "", true, goal)) {
+            return;
+        }
+
+        String coordinate = plugin + ":" + version;
+        File pluginPom = artifactDirectory(parts[0], parts[1]).resolve(version)
+            .resolve(parts[1] + "-" + version + ".pom").toFile();
+        try {
+            List<DependencyNode> dependencies = new ArrayList<>();
+            for (DependencyNode root : resolver.collectOffline(pluginPom)) {
+                // Maven provides its own API to plugins, and their test dependencies are not loaded
+                root.getChildren().stream()
+                    .filter(child -> child.getDependency() == null
+                        || !(JavaScopes.TEST.equals(child.getDependency().getScope())
+                            || JavaScopes.PROVIDED.equals(child.getDependency().getScope())))
+                    .forEach(dependencies::add);
+            }
+            check.dependencies(dependencies, Set.of(), true, coordinate);
+        } catch (ModelBuildingException | DependencyCollectionException e) {
+            check.problems.putIfAbsent(coordinate, new Problem(coordinate, goal, e.getMessage()));
+        }
+    }
+
+    private String latestVersion(LocalRepositoryIndex repositoryIndex, String groupId, String artifactId) {
+        List<String> versions = new ArrayList<>(repositoryIndex.versions(groupId, artifactId));
+        if (versions.isEmpty()) {
+            // Installed after the index was built
+            try (Stream<Path> directories = Files.list(artifactDirectory(groupId, artifactId))) {
+                directories.filter(Files::isDirectory)
+                    .map(directory -> directory.getFileName().toString())
+                    .forEach(versions::add);
+            } catch (IOException e) {
+                return null;
+            }
+        }
+        return versions.stream().max(Comparator.comparing(ComparableVersion::new)).orElse(null);
+    }
+
+    /**
+     * Fails with the list of missing artifacts when the project cannot be analysed offline.
+     */
+    void requireArtifacts(File pomFile, InProcessResolver resolver, String goal) throws IOException {
+        Report report = check(pomFile, resolver, goal);
+        if (!report.ok()) {
+            throw new IOException(report.format());
+        }
+    }
+
+    private Path artifactDirectory(String groupId, String artifactId) {
+        return localRepository.toPath().resolve(groupId.replace('.', '/')).resolve(artifactId);
+    }
+
+    private static String coordinate(Artifact artifact) {
+        return artifact == null ? ""
+            : artifact.getGroupId() + ":" + artifact.getArtifactId() + ":" + artifact.getBaseVersion();
+    }
+
+    /**
+     * The artifacts checked by one offline check and the problems found.
+     */
+    private class Check {
+
+        final LocalRepositoryIndex index;
+        final Map<String, Problem> problems = new LinkedHashMap<>();
+        final Set<String> checked = new HashSet<>();
+
+        Check(LocalRepositoryIndex index) {
+            this.index = index;
+        }
+
+        /**
+         * Checks every artifact of the trees except the skipped ones, with {@code jars} also
+         * the jars of the dependencies packaged as jar. The roots are required by
+         * {@code requiredBy}.
+         */
+        void dependencies(List<DependencyNode> roots, Set<String> skipped, boolean jars, String requiredBy) {
+            // Collected graphs may share nodes, each node is visited once
+            Map<DependencyNode, String> parents = new IdentityHashMap<>();
+            for (DependencyNode root : roots) {
+                parents.put(root, requiredBy);
+            }
+            Deque<DependencyNode> pending = new ArrayDeque<>(roots);
+            while (!pending.isEmpty()) {
+                DependencyNode node = pending.removeFirst();
+                for (DependencyNode child : node.getChildren()) {
+                    if (!parents.containsKey(child)) {
+                        parents.put(child, coordinate(node.getArtifact()));
+                        pending.addLast(child);
+                    }
+                }
+                Artifact artifact = node.getArtifact();
+                if (artifact == null || skipped.contains(coordinate(artifact))) {
+                    continue;
+                }
+                boolean jar = jars && "jar".equals(artifact.getExtension()) && (node.getDependency() == null
+                    || !JavaScopes.SYSTEM.equals(node.getDependency().getScope()));
+                require(artifact.getGroupId(), artifact.getArtifactId(), artifact.getBaseVersion(),
+                    artifact.getClassifier(), jar, parents.getOrDefault(node, ""));
+            }
+        }
+
+        /**
+         * Checks the POM of the artifact and its parent POMs, and with {@code jar} its jar.
+         * Returns whether the POM and all of its parents are there.
+         */
+        boolean require(String groupId, String artifactId, String version, String classifier, boolean jar,
+                String requiredBy) {
+            String coordinate = groupId + ":" + artifactId + ":" + version;
+            String key = classifier.isEmpty() ? coordinate : coordinate + ":" + classifier;
+            if (!checked.add(key)) {
+                return !problems.containsKey(key);
+            }
+            String parent = parent(groupId, artifactId, version);
+            if (parent == null) {
+                problems.putIfAbsent(key, new Problem(key, requiredBy, "POM not found"));
+                return false;
+            }
+            if (jar && !hasJar(groupId, artifactId, version, classifier)) {
+                problems.putIfAbsent(key, new Problem(key, requiredBy, "jar not found"));
+            }
+            // A missing parent POM fails the model of every POM inheriting from it
+            while (!parent.isEmpty()) {
+                String child = coordinate;
+                coordinate = parent;
+                String[] parts = coordinate.split(":");
+                parent = parent(parts[0], parts[1], parts[2]);
+                if (parent == null) {
+                    checked.add(coordinate);
+                    problems.putIfAbsent(coordinate, new Problem(coordinate, child, "parent POM not found"));
+                    return false;
+                }
+                if (!checked.add(coordinate)) {
+                    break;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * The parent coordinate of the POM, empty when it has none, null when the POM is
+         * not in the local repository.
+         */
+        private String parent(String groupId, String artifactId, String version) {
+            LocalRepositoryIndex.Entry entry = index.find(groupId, artifactId, version);
+            if (entry != null) {
+                return entry.parent();
+            }
+            Path pom = artifactDirectory(groupId, artifactId).resolve(version).resolve(artifactId + "-" + version + ".pom");
+            return Files.isRegularFile(pom) ? LocalRepositoryIndex.parent(pom) : null;
+        }
+
+        private boolean hasJar(String groupId, String artifactId, String version, String classifier) {
+            if (classifier.isEmpty()) {
+                LocalRepositoryIndex.Entry entry = index.find(groupId, artifactId, version);
+                if (entry != null && entry.hasJar()) {
+                    return true;
+                }
+            }
+            return Files.isRegularFile(artifactDirectory(groupId, artifactId).resolve(version)
+                .resolve(artifactId + "-" + version + (classifier.isEmpty() ? "" : "-" + classifier) + ".jar"));
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.github.lofi.depsanalyzer;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import org.apache.maven.model.Model;
+import org.apache.maven.model.Parent;
+import org.apache.maven.model.io.xpp3.MavenXpp3Reader;
+import org.codehaus.plexus.util.xml.pull.XmlPullParserException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Walks a project directory once, skipping pruned directories, and parses all POMs in
+ * parallel into a {@link PomIndex}. Indexes are kept for the shell session and rebuilt
+ * when one of their POMs changed.
+ */
+class PomDiscovery {
+
+    private static final Logger logger = LoggerFactory.getLogger(PomDiscovery.class);
+
+    static final List<String> DEFAULT_PRUNE = List.of("target", "node_modules", ".*");
+
+    private final List<PathMatcher> pruneMatchers;
+    private final Map<Path, PomIndex> indexes = new ConcurrentHashMap<>();
+
+    PomDiscovery() {
+        this(DEFAULT_PRUNE);
+    }
+
+    PomDiscovery(List<String> prunePatterns) {
+        this.pruneMatchers = prunePatterns.stream()
+                .map(String::trim)
+                .filter(pattern -> !pattern.isEmpty())
+                .map(pattern -> FileSystems.getDefault().getPathMatcher("glob:" + pattern))
+                .collect(Collectors.toList());
+    }
+
+    PomIndex index(Path directory) throws IOException {
+        Path root = directory.toAbsolutePath().normalize();
+        PomIndex index = indexes.get(root);
+        if (index != null && !index.isStale()) {
+            return index;
+        }
+        index = build(root);
+        indexes.put(root, index);
+        return index;
+    }
+
+    /**
+     * Forgets all indexes inside or above the given directory, e.g. after extracting into it.
+     */
+    void invalidate(Path directory) {
+        Path path = directory.toAbsolutePath().normalize();
+        indexes.keySet().removeIf(root -> root.startsWith(path) || path.startsWith(root));
+    }
+
+    PomIndex build(Path root) throws IOException {
+        long start = System.nanoTime();
+        List<Path> pomFiles = new ArrayList<>();
+        Files.walkFileTree(root, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                if (!dir.equals(root) && isPruned(dir)) {
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                if (file.getFileName().toString().equals("pom.xml")) {
+                    pomFiles.add(file);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException e) {
+                logger.warn("Skipping unreadable path {}: {}", file, e.getMessage());
+                return FileVisitResult.CONTINUE;
+            }
+        });
+
+        List<PomIndex.PomInfo> poms = pomFiles.parallelStream()
+                .map(this::read)
+                .filter(pom -> pom != null)
+                .collect(Collectors.toList());
+
+        // Follow local parents that live above the root directory, e.g. a corporate parent
+        List<PomIndex.PomInfo> externalParents = new ArrayList<>();
+        Set<Path> seen = new HashSet<>(pomFiles);
+        List<PomIndex.PomInfo> pending = new ArrayList<>(poms);
+        while (!pending.isEmpty()) {
+            PomIndex.PomInfo pom = pending.remove(pending.size() - 1);
+            Path parentPom = pom.parentPom();
+            if (parentPom != null && !parentPom.startsWith(root) && seen.add(parentPom)) {
+                PomIndex.PomInfo parent = read(parentPom);
+                if (parent != null) {
+                    externalParents.add(parent);
+                    pending.add(parent);
+                }
+            }
+        }
+
+        logger.info("Indexed {} POMs below {} in {} ms", poms.size(), root, (System.nanoTime() - start) / 1_000_000);
+        return new PomIndex(root, poms, externalParents);
+    }
+
+    private boolean isPruned(Path directory) {
+        Path name = directory.getFileName();
+        return name != null && pruneMatchers.stream().anyMatch(matcher -> matcher.matches(name));
+    }
+
+    PomIndex.PomInfo read(Path pomFile) {
+        Path file = pomFile.toAbsolutePath().normalize();
+        try (Reader reader = Files.newBufferedReader(file)) {
+            long lastModified = file.toFile().lastModified();
+            Model model = new MavenXpp3Reader().read(reader, false);
+            Parent parent = model.getParent();
+
+            String groupId = model.getGroupId() != null ? model.getGroupId() : parent != null ? parent.getGroupId() : null;
+            String version = model.getVersion() != null ? model.getVersion() : parent != null ? parent.getVersion() : null;
+            String packaging = model.getPackaging() == null ? "jar" : model.getPackaging();
+
+            List<Path> modules = new ArrayList<>();
+            for (String module : model.getModules()) {
+                Path modulePath = file.getParent().resolve(module).normalize();
+                modules.add(Files.isDirectory(modulePath) ? modulePath.resolve("pom.xml") : modulePath);
+            }
+
+            return new PomIndex.PomInfo(file, groupId, model.getArtifactId(), version, packaging,
+                    resolveParentPom(file, parent), modules, lastModified);
+        } catch (IOException | XmlPullParserException e) {
+            logger.warn("Could not read POM {}: {}", file, e.getMessage());
+            if (!Files.isRegularFile(file)) {
+                return null;
+            }
+            // Keep unparsable POMs in the index, Maven reports the details when it runs
+            return new PomIndex.PomInfo(file, null, null, null, "jar", null, List.of(), file.toFile().lastModified());
+        }
+    }
+
+    private Path resolveParentPom(Path pomFile, Parent parent) {
+        if (parent == null) {
+            return null;
+        }
+        String relativePath = parent.getRelativePath() == null ? "../pom.xml" : parent.getRelativePath();
+        if (relativePath.isEmpty()) {
+            return null;
+        }
+        Path parentPom = pomFile.getParent().resolve(relativePath).normalize();
+        if (Files.isDirectory(parentPom)) {
+            parentPom = parentPom.resolve("pom.xml");
+        }
+        return Files.isRegularFile(parentPom) ? parentPom : null;
+    }
+}
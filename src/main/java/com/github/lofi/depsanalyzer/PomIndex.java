@@ -0,0 +1,160 @@
+package com.github.lofi.depsanalyzer;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * All POMs below a project directory with their parent and module relationships.
+ */
+class PomIndex {
+
+    record PomInfo(Path pomFile, String groupId, String artifactId, String version, String packaging,
+            Path parentPom, List<Path> modulePoms, long lastModified) {
+
+        String coordinate() {
+            return groupId + ":" + artifactId + ":" + version;
+        }
+    }
+
+    private final Path root;
+    private final Map<Path, PomInfo> poms;
+    // Local parent POMs outside of the root directory, nearest first
+    private final List<PomInfo> externalParents;
+
+    PomIndex(Path root, List<PomInfo> poms, List<PomInfo> externalParents) {
+        this.root = root;
+        this.poms = new LinkedHashMap<>();
+        poms.stream()
+                .sorted(Comparator.comparing(PomInfo::pomFile))
+                .forEach(pom -> this.poms.put(pom.pomFile(), pom));
+        this.externalParents = externalParents;
+    }
+
+    Path getRoot() {
+        return root;
+    }
+
+    Collection<PomInfo> getPoms() {
+        return poms.values();
+    }
+
+    PomInfo get(Path pomFile) {
+        return poms.get(pomFile.toAbsolutePath().normalize());
+    }
+
+    List<PomInfo> getExternalParents() {
+        return externalParents;
+    }
+
+    /**
+     * POMs that decide the build result: every POM below the root and the local parents above it.
+     */
+    List<Path> pomFilesWithParents() {
+        List<Path> files = new ArrayList<>(poms.keySet());
+        externalParents.forEach(parent -> files.add(parent.pomFile()));
+        return files;
+    }
+
+    /**
+     * Chooses the reactor root: a POM that is not a module of another indexed POM, nearest
+     * to the root directory, preferring build* directories, then the larger reactor, then
+     * the path so the choice is stable across runs.
+     */
+    PomInfo reactorRoot() {
+        Set<Path> modules = new HashSet<>();
+        poms.values().forEach(pom -> modules.addAll(pom.modulePoms()));
+
+        return poms.values().stream()
+                .filter(pom -> !modules.contains(pom.pomFile()))
+                .min(Comparator.<PomInfo>comparingInt(pom -> root.relativize(pom.pomFile()).getNameCount())
+                        .thenComparing(pom -> !isInBuildDirectory(pom))
+                        .thenComparing(pom -> -reactor(pom).size())
+                        .thenComparing(pom -> pom.pomFile().toString()))
+                .orElse(null);
+    }
+
+    /**
+     * The given POM followed by all of its modules, recursively, in declaration order.
+     */
+    List<PomInfo> reactor(PomInfo rootPom) {
+        List<PomInfo> reactor = new ArrayList<>();
+        collectReactor(rootPom, reactor, new HashSet<>());
+        return reactor;
+    }
+
+    private void collectReactor(PomInfo pom, List<PomInfo> reactor, Set<Path> seen) {
+        if (pom == null || !seen.add(pom.pomFile())) {
+            return;
+        }
+        reactor.add(pom);
+        for (Path module : pom.modulePoms()) {
+            collectReactor(poms.get(module), reactor, seen);
+        }
+    }
+
+    /**
+     * The module whose directory contains the file, the deepest one for nested modules.
+     */
+    PomInfo findModule(Collection<PomInfo> modules, Path file) {
+        Path normalized = file.toAbsolutePath().normalize();
+        PomInfo found = null;
+        for (PomInfo module : modules) {
+            Path moduleDirectory = module.pomFile().getParent();
+            if (normalized.startsWith(moduleDirectory)
+                    && (found == null || moduleDirectory.getNameCount() > found.pomFile().getParent().getNameCount())) {
+                found = module;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * The POMs the given POM inherits from, nearest first, as far as they are local files.
+     */
+    List<PomInfo> ancestors(PomInfo pom) {
+        List<PomInfo> ancestors = new ArrayList<>();
+        Set<Path> seen = new HashSet<>();
+        PomInfo parent = localPom(pom.parentPom());
+        while (parent != null && seen.add(parent.pomFile())) {
+            ancestors.add(parent);
+            parent = localPom(parent.parentPom());
+        }
+        return ancestors;
+    }
+
+    private PomInfo localPom(Path pomFile) {
+        if (pomFile == null) {
+            return null;
+        }
+        PomInfo pom = poms.get(pomFile);
+        if (pom != null) {
+            return pom;
+        }
+        return externalParents.stream().filter(external -> external.pomFile().equals(pomFile))
+                .findFirst().orElse(null);
+    }
+
+    private boolean isInBuildDirectory(PomInfo pom) {
+        Path directory = pom.pomFile().getParent();
+        return !directory.equals(root) && directory.getFileName().toString().toLowerCase().startsWith("build");
+    }
+
+    /**
+     * An index is stale when one of its POMs was changed or removed since it was built.
+     */
+    boolean isStale() {
+        for (PomInfo pom : poms.values()) {
+            if (pom.pomFile().toFile().lastModified() != pom.lastModified()) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
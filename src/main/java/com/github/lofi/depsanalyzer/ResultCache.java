@@ -0,0 +1,356 @@
+package com.github.lofi.depsanalyzer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryNotEmptyException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Persistent on-disk cache of analysis results, keyed by a hash of the POM files of a
+ * project and the goal that produced the result. Each entry is a directory with the
+ * result files and a small metadata file; the directory modification time records the
+ * last access for size based eviction. Entries are read through {@link #read}, which keeps
+ * the jobs of this process from replacing or evicting an entry while it is being read.
+ */
+class ResultCache {
+
+    /**
+     * Reads the files of a cache entry, e.g. copies them to the output directory.
+     */
+    @FunctionalInterface
+    interface EntryReader<T> {
+        T read(Path entry) throws IOException;
+    }
+
+    private static final Logger logger = LoggerFactory.getLogger(ResultCache.class);
+
+    static final String METADATA_FILE = "cache-entry.properties";
+    static final long DEFAULT_MAX_BYTES = 1024L * 1024 * 1024;
+    static final Duration DEFAULT_MAX_AGE = Duration.ofDays(30);
+
+    private final Path directory;
+    private final long maxBytes;
+    private final Duration maxAge;
+    // Held for reading while an entry is read, for writing while entries are replaced or deleted
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong stores = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    ResultCache(Path directory, long maxBytes, Duration maxAge) {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        this.maxAge = maxAge;
+    }
+
+    static Path defaultDirectory() {
+        return Path.of(System.getProperty("user.home"), ".maven-deps-analyzer", "cache");
+    }
+
+    Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Hashes the goal and the content of every POM, ordered by their path relative to the
+     * project root so the same sources extracted to another directory share the key.
+     */
+    String key(Path projectRoot, Collection<Path> pomFiles, String goal) throws IOException {
+        Path root = projectRoot.toAbsolutePath().normalize();
+        MessageDigest digest = newDigest();
+        digest.update(goal.getBytes(StandardCharsets.UTF_8));
+
+        List<Path> sorted = pomFiles.stream()
+                .map(pom -> pom.toAbsolutePath().normalize())
+                .sorted(Comparator.comparing(pom -> root.relativize(pom).toString()))
+                .collect(Collectors.toList());
+        for (Path pom : sorted) {
+            digest.update((byte) 0);
+            digest.update(root.relativize(pom).toString().replace('\\', '/').getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            try (InputStream in = Files.newInputStream(pom)) {
+                byte[] buffer = new byte[8192];
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    digest.update(buffer, 0, read);
+                }
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Hashes plain values, for results that are identified by something other than POM
+     * content, e.g. a commit id.
+     */
+    String key(String... parts) {
+        MessageDigest digest = newDigest();
+        for (String part : parts) {
+            digest.update(part.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Passes the entry of the key to the reader and returns its result, or empty on a miss.
+     * The entry is not replaced or deleted before the reader returns, so the reader must
+     * not store into the cache itself.
+     */
+    <T> Optional<T> read(String key, EntryReader<T> reader) throws IOException {
+        lock.readLock().lock();
+        try {
+            Optional<Path> entry = lookup(key);
+            return entry.isPresent() ? Optional.of(reader.read(entry.get())) : Optional.empty();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * The entry of the key, which another job may replace or evict at any time; use
+     * {@link #read} to read its files.
+     */
+    Optional<Path> lookup(String key) {
+        Path entry = directory.resolve(key);
+        if (!Files.isRegularFile(entry.resolve(METADATA_FILE)) || isExpired(entry)) {
+            misses.incrementAndGet();
+            logger.info("Cache miss for key: {}", key);
+            return Optional.empty();
+        }
+        try {
+            Files.setLastModifiedTime(entry, FileTime.from(Instant.now()));
+        } catch (IOException e) {
+            logger.warn("Could not update access time of cache entry {}: {}", entry, e.getMessage());
+        }
+        hits.incrementAndGet();
+        logger.info("Cache hit for key: {}", key);
+        return Optional.of(entry);
+    }
+
+    /**
+     * Stores the given files under the key. The entry is written to a temporary directory
+     * first and then moved into place, so concurrent readers never see a partial entry.
+     */
+    Path store(String key, String goal, Map<String, Path> files) throws IOException {
+        Files.createDirectories(directory);
+        Path temp = Files.createTempDirectory(directory, key + ".tmp");
+        try {
+            for (Map.Entry<String, Path> file : files.entrySet()) {
+                Files.copy(file.getValue(), temp.resolve(file.getKey()), StandardCopyOption.REPLACE_EXISTING);
+            }
+            Properties metadata = new Properties();
+            metadata.setProperty("goal", goal);
+            metadata.setProperty("created", Instant.now().toString());
+            try (OutputStream out = Files.newOutputStream(temp.resolve(METADATA_FILE))) {
+                metadata.store(out, "maven-deps-analyzer cache entry");
+            }
+
+            Path entry = directory.resolve(key);
+            lock.writeLock().lock();
+            try {
+                deleteRecursively(entry);
+                try {
+                    Files.move(temp, entry, StandardCopyOption.ATOMIC_MOVE);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(temp, entry);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            stores.incrementAndGet();
+            logger.info("Stored {} files in cache entry: {}", files.size(), entry);
+        } catch (FileAlreadyExistsException | DirectoryNotEmptyException e) {
+            // Another job stored the same key at the same time, its entry is equivalent
+            logger.info("Cache entry for key {} was stored concurrently", key);
+        } finally {
+            deleteRecursively(temp);
+        }
+        evict();
+        return directory.resolve(key);
+    }
+
+    List<Path> entryFiles(Path entry) throws IOException {
+        try (Stream<Path> files = Files.list(entry)) {
+            return files.filter(file -> !file.getFileName().toString().equals(METADATA_FILE))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Removes entries older than the maximum age, then the least recently used entries
+     * until the cache fits into the maximum size.
+     */
+    void evict() throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            evictEntries();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void evictEntries() throws IOException {
+        List<Path> entries = listEntries();
+        List<Path> remaining = new ArrayList<>();
+        for (Path entry : entries) {
+            if (isExpired(entry)) {
+                remove(entry);
+            } else {
+                remaining.add(entry);
+            }
+        }
+
+        remaining.sort(Comparator.comparing(ResultCache::lastAccess));
+        long total = 0;
+        for (Path entry : remaining) {
+            total += sizeOf(entry);
+        }
+        for (Path entry : remaining) {
+            if (total <= maxBytes) {
+                break;
+            }
+            total -= sizeOf(entry);
+            remove(entry);
+        }
+    }
+
+    int clear() throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return 0;
+        }
+        lock.writeLock().lock();
+        try {
+            List<Path> entries = listEntries();
+            for (Path entry : entries) {
+                deleteRecursively(entry);
+            }
+            return entries.size();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    long getHits() {
+        return hits.get();
+    }
+
+    long getMisses() {
+        return misses.get();
+    }
+
+    String stats() throws IOException {
+        List<Path> entries = Files.isDirectory(directory) ? listEntries() : List.of();
+        long size = 0;
+        for (Path entry : entries) {
+            size += sizeOf(entry);
+        }
+        long lookups = hits.get() + misses.get();
+        return String.format("Cache directory: %s%nEntries: %d (%.1f MB of %.1f MB, max age %d days)%n"
+                + "Hits: %d, misses: %d, hit rate: %.1f%%%nStores: %d, evictions: %d",
+                directory, entries.size(), size / (1024.0 * 1024.0), maxBytes / (1024.0 * 1024.0), maxAge.toDays(),
+                hits.get(), misses.get(), lookups == 0 ? 0.0 : hits.get() * 100.0 / lookups,
+                stores.get(), evictions.get());
+    }
+
+    private List<Path> listEntries() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(Files::isDirectory)
+                    .filter(entry -> !entry.getFileName().toString().contains(".tmp"))
+                    .filter(entry -> Files.isRegularFile(entry.resolve(METADATA_FILE)))
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private boolean isExpired(Path entry) {
+        try (InputStream in = Files.newInputStream(entry.resolve(METADATA_FILE))) {
+            Properties metadata = new Properties();
+            metadata.load(in);
+            Instant created = Instant.parse(metadata.getProperty("created"));
+            return created.plus(maxAge).isBefore(Instant.now());
+        } catch (Exception e) {
+            return true;
+        }
+    }
+
+    private void remove(Path entry) throws IOException {
+        deleteRecursively(entry);
+        evictions.incrementAndGet();
+        logger.info("Evicted cache entry: {}", entry);
+    }
+
+    private static FileTime lastAccess(Path entry) {
+        try {
+            return Files.getLastModifiedTime(entry);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    private static long sizeOf(Path entry) {
+        try (Stream<Path> files = Files.walk(entry)) {
+            return files.filter(Files::isRegularFile).mapToLong(file -> {
+                try {
+                    return Files.size(file);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }).sum();
+        } catch (IOException | UncheckedIOException e) {
+            return 0;
+        }
+    }
+
+    static void deleteRecursively(Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(path)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
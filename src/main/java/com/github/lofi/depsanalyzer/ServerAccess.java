@@ -0,0 +1,152 @@
+package com.github.lofi.depsanalyzer;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Who may use the server and what its jobs may touch. Callers authenticate with a bearer
+ * token that names their tenant; without tokens the server must listen on a loopback
+ * address only, and the tenant is taken from the {@code X-Tenant} header. Paths in job
+ * parameters are resolved below the root and may not leave it, and repositories are only
+ * cloned from the configured URL prefixes, since building a project runs its plugins and
+ * extensions on the server.
+ */
+class ServerAccess {
+
+    static final String DEFAULT_TENANT = "default";
+    static final List<String> PATH_PARAMETERS = List.of("directory", "zipfile", "output", "policy");
+
+    private static final String BEARER = "Bearer ";
+
+    private final Path root;
+    private final Map<String, String> tenantsByToken;
+    private final List<String> cloneUrlPrefixes;
+
+    ServerAccess(Path root, Map<String, String> tenantsByToken, List<String> cloneUrlPrefixes) {
+        this.root = root.toAbsolutePath().normalize();
+        this.tenantsByToken = Map.copyOf(tenantsByToken);
+        this.cloneUrlPrefixes = List.copyOf(cloneUrlPrefixes);
+    }
+
+    static Path defaultRoot() {
+        return Path.of(System.getProperty("java.io.tmpdir"), "maven-deps-analyzer", "server");
+    }
+
+    /**
+     * Parses {@code tenant:token} entries, e.g. from {@code analyzer.server.tokens}.
+     */
+    static Map<String, String> parseTokens(List<String> entries) {
+        Map<String, String> tenantsByToken = new LinkedHashMap<>();
+        for (String entry : entries) {
+            String trimmed = entry.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            int separator = trimmed.indexOf(':');
+            if (separator <= 0 || separator == trimmed.length() - 1) {
+                throw new IllegalArgumentException("Expected tenant:token, got: " + trimmed.replaceAll(":.*", ":***"));
+            }
+            tenantsByToken.put(trimmed.substring(separator + 1), trimmed.substring(0, separator));
+        }
+        return tenantsByToken;
+    }
+
+    /**
+     * Fails when the server would accept requests from other hosts without tokens. An
+     * empty address means all interfaces.
+     */
+    void checkAddress(String address) {
+        if (!tenantsByToken.isEmpty()) {
+            return;
+        }
+        try {
+            if (!address.isBlank() && InetAddress.getByName(address).isLoopbackAddress()) {
+                return;
+            }
+        } catch (UnknownHostException e) {
+            throw new IllegalStateException("Unknown server address: " + address, e);
+        }
+        throw new IllegalStateException("The server listens on " + (address.isBlank() ? "all interfaces" : address)
+            + " without authentication, set analyzer.server.tokens or server.address=127.0.0.1");
+    }
+
+    Path getRoot() {
+        return root;
+    }
+
+    /**
+     * The tenant of a request: the one the bearer token belongs to, or without tokens the
+     * {@code X-Tenant} header. Throws SecurityException for a missing or unknown token.
+     */
+    String tenant(String authorization, String tenantHeader) {
+        if (tenantsByToken.isEmpty()) {
+            return tenantHeader == null || tenantHeader.isBlank() ? DEFAULT_TENANT : tenantHeader;
+        }
+        if (authorization == null || !authorization.startsWith(BEARER)) {
+            throw new SecurityException("Missing bearer token");
+        }
+        byte[] token = authorization.substring(BEARER.length()).trim().getBytes(StandardCharsets.UTF_8);
+        String tenant = null;
+        // Compares every token in constant time, so the response time tells nothing about them
+        for (Map.Entry<String, String> entry : tenantsByToken.entrySet()) {
+            if (MessageDigest.isEqual(token, entry.getKey().getBytes(StandardCharsets.UTF_8))) {
+                tenant = entry.getValue();
+            }
+        }
+        if (tenant == null) {
+            throw new SecurityException("Unknown bearer token");
+        }
+        return tenant;
+    }
+
+    /**
+     * Returns the parameters with every path resolved below the root, throws
+     * IllegalArgumentException for a path outside of it or a clone URL that is not allowed.
+     */
+    Map<String, String> confine(Map<String, String> parameters) {
+        Map<String, String> confined = new LinkedHashMap<>(parameters);
+        for (String name : PATH_PARAMETERS) {
+            String value = parameters.get(name);
+            if (value != null && !value.isEmpty()) {
+                confined.put(name, path(name, value).toString());
+            }
+        }
+        String url = parameters.get("url");
+        if (url != null && cloneUrlPrefixes.stream().noneMatch(url::startsWith)) {
+            throw new IllegalArgumentException(cloneUrlPrefixes.isEmpty()
+                ? "Cloning is disabled, set analyzer.server.clone-url-prefixes"
+                : "Repository URL not allowed: " + url);
+        }
+        return confined;
+    }
+
+    private Path path(String name, String value) {
+        // A relative path is below the root, an absolute one must point there
+        Path path = root.resolve(value).normalize();
+        if (!path.startsWith(root)) {
+            throw new IllegalArgumentException("Parameter " + name + " is outside of the server root: " + value);
+        }
+        // A symbolic link below the root must not lead out of it either, even one to a missing file
+        Path existing = path;
+        while (existing != null && !Files.exists(existing, LinkOption.NOFOLLOW_LINKS)) {
+            existing = existing.getParent();
+        }
+        try {
+            if (existing != null && existing.startsWith(root) && !existing.toRealPath().startsWith(root.toRealPath())) {
+                throw new IllegalArgumentException("Parameter " + name + " is outside of the server root: " + value);
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Cannot resolve parameter " + name + ": " + e.getMessage(), e);
+        }
+        return path;
+    }
+}
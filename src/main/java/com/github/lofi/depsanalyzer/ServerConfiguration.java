@@ -0,0 +1,108 @@
+package com.github.lofi.depsanalyzer;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * The server mode (profile {@code server}): the analyses run as jobs submitted over HTTP
+ * on the same command beans, and so the same caches, as the shell.
+ */
+@Configuration
+@Profile("server")
+public class ServerConfiguration {
+
+    @Bean
+    ServerAccess serverAccess(@Value("${analyzer.server.root:}") String root,
+            @Value("${analyzer.server.tokens:}") List<String> tokens,
+            @Value("${analyzer.server.clone-url-prefixes:}") List<String> cloneUrlPrefixes,
+            @Value("${server.address:}") String address) throws IOException {
+        ServerAccess access = new ServerAccess(root.isEmpty() ? ServerAccess.defaultRoot() : Path.of(root),
+            ServerAccess.parseTokens(tokens), cloneUrlPrefixes.stream().filter(prefix -> !prefix.isBlank()).toList());
+        access.checkAddress(address);
+        Files.createDirectories(access.getRoot());
+        return access;
+    }
+
+    @Bean(destroyMethod = "close")
+    JobService jobService(MavenCommand mavenCommand, GitlabCommand gitlabCommand, ServerAccess serverAccess,
+            @Value("${analyzer.server.workers:4}") int workers,
+            @Value("${analyzer.server.queue-capacity:100}") int queueCapacity,
+            @Value("${analyzer.server.tenant-concurrency:2}") int tenantConcurrency,
+            @Value("${analyzer.server.retained-jobs:1000}") int retainedJobs) {
+        return new JobService(operations(mavenCommand, gitlabCommand, serverAccess), workers, queueCapacity, tenantConcurrency,
+            retainedJobs);
+    }
+
+    /**
+     * The job types with the options of the matching shell commands as parameters,
+     * e.g. {@code {"zipfile": "...", "directory": "...", "per-module": "true"}}. Paths are
+     * confined to the server root and clone URLs to the allowed prefixes.
+     */
+    static Map<String, JobService.Operation> operations(MavenCommand mavenCommand, GitlabCommand gitlabCommand,
+            ServerAccess access) {
+        Map<String, JobService.Operation> operations = new LinkedHashMap<>();
+        operations.put("dependencies", operation(parameters -> {
+            String engine = parameters.getOrDefault("engine", MavenCommand.ENGINE_RESOLVER);
+            if (parameters.containsKey("zipfile")) {
+                return mavenCommand.listDependenciesFromZip(parameters.get("zipfile"), parameters.get("directory"),
+                    engine, flag(parameters, "no-cache"), flag(parameters, "full-extract"));
+            }
+            // The default output is confined like every other path, the directory may hold a link of that name
+            String output = parameters.getOrDefault("output", "");
+            if (output.isEmpty()) {
+                output = access.confine(Map.of("output",
+                    mavenCommand.getDependencyGraphPath(parameters.get("directory")).toString())).get("output");
+            }
+            return mavenCommand.listDependenciesFromDirectory(parameters.get("directory"), engine, output,
+                flag(parameters, "no-cache"));
+        }, access, "directory"));
+        operations.put("licenses", operation(parameters -> mavenCommand.listDependencyLicenses(
+            parameters.get("zipfile"), parameters.get("directory"), flag(parameters, "no-cache"),
+            flag(parameters, "full-extract"), Integer.parseInt(parameters.getOrDefault("threads", "1")),
+            flag(parameters, "per-module"), parameters.getOrDefault("policy", "")), access, "zipfile", "directory"));
+        operations.put("clone", operation(parameters -> gitlabCommand.cloneForAnalysis(parameters.get("url"),
+            parameters.get("directory"), parameters.getOrDefault("branch", ""),
+            Integer.parseInt(parameters.getOrDefault("depth", "1")), flag(parameters, "build-files-only"),
+            flag(parameters, "no-mirror")), access, "url", "directory"));
+        return operations;
+    }
+
+    private static JobService.Operation operation(JobService.Operation action, ServerAccess access,
+            String... required) {
+        return new JobService.Operation() {
+            @Override
+            public String run(Map<String, String> parameters) throws Exception {
+                return action.run(access.confine(parameters));
+            }
+
+            @Override
+            public void validate(Map<String, String> parameters) {
+                for (String name : required) {
+                    String value = parameters.get(name);
+                    if (value == null || value.isBlank()) {
+                        throw new IllegalArgumentException("Missing parameter: " + name);
+                    }
+                }
+                for (String number : new String[] { "threads", "depth" }) {
+                    if (parameters.containsKey(number) && !parameters.get(number).matches("\\d+")) {
+                        throw new IllegalArgumentException("Parameter " + number + " must be a number");
+                    }
+                }
+                access.confine(parameters);
+            }
+        };
+    }
+
+    private static boolean flag(Map<String, String> parameters, String name) {
+        return Boolean.parseBoolean(parameters.getOrDefault(name, "false"));
+    }
+}
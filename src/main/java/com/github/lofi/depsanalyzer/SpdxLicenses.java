@@ -0,0 +1,162 @@
+package com.github.lofi.depsanalyzer;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maps the free-form license names found in POMs to SPDX license identifiers, e.g.
+ * {@code The Apache Software License, Version 2.0} to {@code Apache-2.0}. Names are
+ * compared in a normalised form (lower case, punctuation and the words "the", "version"
+ * removed), so spelling variants need no alias of their own.
+ */
+class SpdxLicenses {
+
+    static final String UNKNOWN = "NOASSERTION";
+
+    private static final List<String> IDS = List.of(
+        "0BSD", "AGPL-3.0-only", "AGPL-3.0-or-later", "Apache-1.1", "Apache-2.0", "Artistic-2.0", "BSD-2-Clause",
+        "BSD-3-Clause", "BSL-1.0", "CC-BY-3.0", "CC-BY-4.0", "CC0-1.0", "CDDL-1.0", "CDDL-1.1", "CPL-1.0",
+        "EPL-1.0", "EPL-2.0", "GPL-2.0-only", "GPL-2.0-or-later", "GPL-3.0-only", "GPL-3.0-or-later",
+        "ISC", "LGPL-2.1-only", "LGPL-2.1-or-later", "LGPL-3.0-only", "LGPL-3.0-or-later", "MIT", "MIT-0",
+        "MPL-1.1", "MPL-2.0", "SSPL-1.0", "Unlicense", "UPL-1.0", "W3C", "WTFPL", "Zlib");
+
+    private static final Map<String, String> ALIASES = new HashMap<>();
+
+    // Checked in order against the raw name, many POMs name the license by its URL
+    private static final Map<String, String> URLS = new LinkedHashMap<>();
+
+    static {
+        for (String id : IDS) {
+            ALIASES.put(key(id), id);
+        }
+        alias("Apache-2.0", "Apache License 2.0", "Apache Software License 2.0", "Apache 2", "Apache 2.0",
+            "Apache License", "ASL 2.0", "ASF 2.0", "AL 2.0", "Apache License Version 2", "Apache 2.0 License",
+            "Apache Public License 2.0", "Apache Software Licenses", "Apache License v2.0");
+        alias("Apache-1.1", "Apache Software License 1.1", "Apache License 1.1");
+        alias("MIT", "MIT License", "The MIT License MIT", "MIT license (also X11)", "Expat", "Expat License",
+            "Bouncy Castle Licence");
+        alias("MIT-0", "MIT No Attribution");
+        alias("BSD-2-Clause", "BSD 2-Clause License", "Simplified BSD License", "FreeBSD License",
+            "BSD 2 Clause", "The BSD 2-Clause License");
+        alias("BSD-3-Clause", "BSD 3-Clause License", "New BSD License", "Modified BSD License", "Revised BSD",
+            "BSD License 3", "BSD 3 Clause", "BSD style", "BSD License", "BSD", "EDL 1.0",
+            "Eclipse Distribution License v. 1.0", "Eclipse Distribution License 1.0");
+        alias("EPL-1.0", "Eclipse Public License 1.0", "Eclipse Public License v1.0", "Eclipse Public License");
+        alias("EPL-2.0", "Eclipse Public License 2.0", "Eclipse Public License v2.0", "EPL 2.0");
+        alias("CDDL-1.0", "Common Development and Distribution License 1.0", "CDDL 1.0", "CDDL");
+        alias("CDDL-1.1", "Common Development and Distribution License 1.1", "CDDL 1.1");
+        alias("CDDL-1.1 OR GPL-2.0-only WITH Classpath-exception-2.0", "CDDL GPLv2 with classpath exception",
+            "CDDL GPLv2 with classpath exception CPE",
+            "CDDL GPL 2.0 with Classpath exception", "CDDL GPL2 w CPE", "Dual license consisting of the CDDL v1.1 "
+                + "and GPL v2");
+        alias("GPL-2.0-only WITH Classpath-exception-2.0", "GPL2 w CPE", "GPLv2 with Classpath exception",
+            "GNU General Public License v2.0 w Classpath exception", "GPL 2.0 with Classpath exception",
+            "GNU General Public License version 2 with the Classpath Exception");
+        alias("EPL-2.0 OR GPL-2.0-only WITH Classpath-exception-2.0", "EPL 2.0 GPL2 w CPE");
+        alias("GPL-2.0-only", "GNU General Public License v2.0", "GNU General Public License 2", "GPLv2", "GPL 2",
+            "GPL 2.0", "GNU GPL v2");
+        alias("GPL-2.0-or-later", "GNU General Public License v2.0 or later", "GPLv2+");
+        alias("GPL-3.0-only", "GNU General Public License v3.0", "GNU General Public License 3", "GPLv3", "GPL 3",
+            "GPL 3.0", "GNU GPL v3");
+        alias("GPL-3.0-or-later", "GNU General Public License v3.0 or later", "GPLv3+");
+        alias("AGPL-3.0-only", "GNU Affero General Public License v3.0", "AGPLv3", "AGPL 3.0", "AGPL");
+        alias("LGPL-2.1-only", "GNU Lesser General Public License 2.1", "LGPL 2.1", "LGPLv2.1",
+            "GNU Lesser General Public License v2.1", "GNU LGPL 2.1");
+        alias("LGPL-2.1-or-later", "GNU Lesser General Public License v2.1 or later", "LGPL 2.1 or later");
+        alias("LGPL-3.0-only", "GNU Lesser General Public License 3.0", "LGPL 3.0", "LGPLv3",
+            "GNU Lesser General Public License v3.0", "GNU LGPL 3.0", "GNU Lesser Public License");
+        alias("MPL-1.1", "Mozilla Public License 1.1", "MPL 1.1");
+        alias("MPL-2.0", "Mozilla Public License 2.0", "MPL 2.0", "Mozilla Public License");
+        alias("BSL-1.0", "Boost Software License 1.0");
+        alias("CC0-1.0", "CC0", "Creative Commons Zero", "CC0 1.0 Universal", "Public Domain CC0");
+        alias("LicenseRef-Public-Domain", "Public Domain", "Public Domain per Creative Commons CC0");
+        alias("UPL-1.0", "Universal Permissive License 1.0", "UPL");
+        alias("ISC", "ISC License");
+        alias("Unlicense", "The Unlicense");
+        alias("Zlib", "zlib License", "zlib libpng License");
+        alias("W3C", "W3C License", "W3C Software License");
+        alias("CPL-1.0", "Common Public License 1.0");
+
+        URLS.put("apache.org/licenses/license-2.0", "Apache-2.0");
+        URLS.put("opensource.org/licenses/apache-2.0", "Apache-2.0");
+        URLS.put("opensource.org/licenses/mit", "MIT");
+        URLS.put("opensource.org/licenses/bsd-2-clause", "BSD-2-Clause");
+        URLS.put("opensource.org/licenses/bsd-3-clause", "BSD-3-Clause");
+        URLS.put("opensource.org/licenses/bsd-license", "BSD-3-Clause");
+        URLS.put("eclipse.org/legal/epl-2.0", "EPL-2.0");
+        URLS.put("eclipse.org/legal/epl-v10", "EPL-1.0");
+        URLS.put("eclipse.org/org/documents/edl-v10", "BSD-3-Clause");
+        URLS.put("gnu.org/licenses/lgpl-2.1", "LGPL-2.1-only");
+        URLS.put("gnu.org/licenses/lgpl", "LGPL-3.0-only");
+        URLS.put("gnu.org/licenses/agpl", "AGPL-3.0-only");
+        URLS.put("gnu.org/licenses/old-licenses/gpl-2.0", "GPL-2.0-only");
+        URLS.put("gnu.org/licenses/gpl", "GPL-3.0-only");
+        URLS.put("mozilla.org/mpl/2.0", "MPL-2.0");
+        URLS.put("creativecommons.org/publicdomain/zero/1.0", "CC0-1.0");
+    }
+
+    private final Map<String, String> aliases;
+    // Reports of large reactors repeat the same few names thousands of times
+    private final Map<String, String> resolved = new ConcurrentHashMap<>();
+
+    /**
+     * {@code aliases} maps additional license names to SPDX ids and take precedence over
+     * the built-in names.
+     */
+    SpdxLicenses(Map<String, String> aliases) {
+        this.aliases = new HashMap<>();
+        aliases.forEach((name, id) -> this.aliases.put(key(name), id));
+    }
+
+    private static void alias(String id, String... names) {
+        for (String name : names) {
+            ALIASES.put(key(name), id);
+        }
+    }
+
+    /**
+     * The SPDX id or expression of the license name, {@link #UNKNOWN} when it is not known.
+     */
+    String toSpdx(String name) {
+        return resolved.computeIfAbsent(name, this::lookup);
+    }
+
+    private String lookup(String name) {
+        String key = key(name);
+        String id = aliases.get(key);
+        if (id == null) {
+            id = ALIASES.get(key);
+        }
+        if (id != null) {
+            return id;
+        }
+        String lower = name.toLowerCase(Locale.ROOT);
+        for (Map.Entry<String, String> url : URLS.entrySet()) {
+            if (lower.contains(url.getKey())) {
+                return url.getValue();
+            }
+        }
+        return UNKNOWN;
+    }
+
+    /**
+     * Lower case, "licence" spelled "license", the words "the", "version" and "v" before a
+     * number dropped and any other punctuation, except a "+" after a version, turned into
+     * single spaces.
+     */
+    static String key(String name) {
+        return name.toLowerCase(Locale.ROOT)
+                .replace("licence", "license")
+                .replaceAll("[^a-z0-9.+]+", " ")
+                .replaceAll("(?<![a-z0-9])\\+", " ")
+                .replaceAll("\\b(the|version)\\b", " ")
+                .replaceAll("\\bv\\.? ?(?=\\d)", " ")
+                .replaceAll("(?<=\\D)\\.|\\.(?=\\D)|\\.$", " ")
+                .replaceAll("\\s+", " ")
+                .trim();
+    }
+}
@@ -0,0 +1,71 @@
+package com.github.lofi.depsanalyzer;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.shell.standard.ShellComponent;
+import org.springframework.shell.standard.ShellMethod;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reports the time from the start of the JVM until the first shell command starts
+ * running, and compares it with {@code analyzer.startup.target-ms}. The command beans are
+ * wrapped in a proxy that takes the time when a command method is entered, so the beans
+ * that lazy initialization creates for the command are part of it. With
+ * {@code analyzer.startup.enforce-target} a slower start fails the command, which the
+ * fast-startup build uses to keep the latency under the target. Enabled by the cli
+ * profile, in the interactive shell the first command waits for the user.
+ */
+@Component
+@ConditionalOnProperty(name = "analyzer.startup.enabled", havingValue = "true")
+public class StartupTimer implements BeanPostProcessor {
+
+    private static final Logger logger = LoggerFactory.getLogger(StartupTimer.class);
+
+    private final long targetMillis;
+    private final boolean enforceTarget;
+    private final AtomicBoolean measured = new AtomicBoolean();
+
+    public StartupTimer(@Value("${analyzer.startup.target-ms:4000}") long targetMillis,
+            @Value("${analyzer.startup.enforce-target:false}") boolean enforceTarget) {
+        this.targetMillis = targetMillis;
+        this.enforceTarget = enforceTarget;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!AnnotatedElementUtils.hasAnnotation(bean.getClass(), ShellComponent.class)) {
+            return bean;
+        }
+        ProxyFactory proxyFactory = new ProxyFactory(bean);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAdvice((MethodInterceptor) invocation -> {
+            if (invocation.getMethod().isAnnotationPresent(ShellMethod.class) && measured.compareAndSet(false, true)) {
+                check(ManagementFactory.getRuntimeMXBean().getUptime());
+            }
+            return invocation.proceed();
+        });
+        return proxyFactory.getProxy(bean.getClass().getClassLoader());
+    }
+
+    void check(long millis) {
+        if (millis <= targetMillis) {
+            logger.info("First command started {} ms after JVM start (target {} ms)", millis, targetMillis);
+            return;
+        }
+        String message = String.format("First command started %d ms after JVM start, above the target of %d ms",
+            millis, targetMillis);
+        if (enforceTarget) {
+            throw new IllegalStateException(message);
+        }
+        logger.warn(message);
+    }
+}
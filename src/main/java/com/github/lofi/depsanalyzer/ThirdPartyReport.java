@@ -0,0 +1,185 @@
+package com.github.lofi.depsanalyzer;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Reads the THIRD-PARTY.txt files written by {@code license:add-third-party} and merges
+ * the entries of all modules of a reactor into one deduplicated report.
+ */
+class ThirdPartyReport {
+
+    record Entry(String groupId, String artifactId, String version, String name, List<String> licenses,
+            String url) {
+
+        String coordinate() {
+            return groupId + ":" + artifactId + ":" + version;
+        }
+
+        String format() {
+            StringBuilder line = new StringBuilder("     ");
+            for (String license : licenses) {
+                line.append('(').append(license).append(") ");
+            }
+            return line.append(name).append(" (").append(coordinate()).append(" - ").append(url).append(')')
+                    .toString();
+        }
+    }
+
+    record MergedEntry(Entry entry, Set<String> modules) {
+    }
+
+    private ThirdPartyReport() {
+    }
+
+    static List<Entry> parse(Path file) throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(file)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                Entry entry = parseLine(line);
+                if (entry != null) {
+                    entries.add(entry);
+                }
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Reads a report written by {@link #writeMerged}, or a plain THIRD-PARTY file whose
+     * entries then have no modules.
+     */
+    static List<MergedEntry> parseMerged(Path file) throws IOException {
+        List<MergedEntry> entries = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(file)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                Entry entry = parseLine(line);
+                if (entry != null) {
+                    entries.add(new MergedEntry(entry, modules(line)));
+                }
+            }
+        }
+        return entries;
+    }
+
+    private static Set<String> modules(String line) {
+        String text = line.trim();
+        Set<String> modules = new TreeSet<>();
+        int open = text.lastIndexOf(" [");
+        if (text.endsWith("]") && open > 0) {
+            for (String module : text.substring(open + 2, text.length() - 1).split(",")) {
+                if (!module.isBlank()) {
+                    modules.add(module.trim());
+                }
+            }
+        }
+        return modules;
+    }
+
+    /**
+     * Parses one dependency line, e.g.
+     * {@code (Apache License 2.0) (MIT) Spring Core (org.springframework:spring-core:6.0.0 - https://spring.io)}.
+     * License names may contain parentheses themselves, so groups are matched by depth.
+     * The module list a merged report appends in square brackets is ignored.
+     */
+    static Entry parseLine(String line) {
+        String text = line.trim();
+        if (text.endsWith("]") && text.lastIndexOf(" [") > 0) {
+            text = text.substring(0, text.lastIndexOf(" [")).trim();
+        }
+        List<String> licenses = new ArrayList<>();
+        while (text.startsWith("(")) {
+            int end = matchingClose(text, 0);
+            if (end < 0) {
+                return null;
+            }
+            licenses.add(text.substring(1, end).trim());
+            text = text.substring(end + 1).trim();
+        }
+        if (licenses.isEmpty() || !text.endsWith(")")) {
+            return null;
+        }
+
+        int open = matchingOpen(text, text.length() - 1);
+        if (open < 0) {
+            return null;
+        }
+        String name = text.substring(0, open).trim();
+        String artifact = text.substring(open + 1, text.length() - 1);
+        int separator = artifact.indexOf(" - ");
+        String gav = separator < 0 ? artifact.trim() : artifact.substring(0, separator).trim();
+        String url = separator < 0 ? "" : artifact.substring(separator + 3).trim();
+
+        String[] parts = gav.split(":");
+        if (parts.length < 3) {
+            return null;
+        }
+        // Artifacts with a classifier are written as groupId:artifactId:classifier:version
+        return new Entry(parts[0], parts[1], parts[parts.length - 1], name, licenses, url);
+    }
+
+    private static int matchingClose(String text, int open) {
+        int depth = 0;
+        for (int i = open; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '(') {
+                depth++;
+            } else if (c == ')' && --depth == 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int matchingOpen(String text, int close) {
+        int depth = 0;
+        for (int i = close; i >= 0; i--) {
+            char c = text.charAt(i);
+            if (c == ')') {
+                depth++;
+            } else if (c == '(' && --depth == 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Merges the entries of all modules, keyed and sorted by GAV, remembering which
+     * modules use each dependency.
+     */
+    static Collection<MergedEntry> merge(Map<String, List<Entry>> entriesByModule) {
+        Map<String, MergedEntry> merged = new TreeMap<>();
+        entriesByModule.forEach((module, entries) -> {
+            for (Entry entry : entries) {
+                merged.computeIfAbsent(entry.coordinate(), key -> new MergedEntry(entry, new TreeSet<>()))
+                        .modules().add(module);
+            }
+        });
+        return merged.values();
+    }
+
+    static void writeMerged(Path file, Collection<MergedEntry> merged, int moduleCount) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+            writer.write(String.format("%nLists of %d third-party dependencies of %d modules.%n",
+                    merged.size(), moduleCount));
+            for (MergedEntry entry : merged) {
+                writer.write(entry.entry().format());
+                writer.write(" " + entry.modules());
+                writer.newLine();
+            }
+        }
+    }
+}
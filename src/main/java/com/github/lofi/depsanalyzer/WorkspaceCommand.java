@@ -0,0 +1,39 @@
+package com.github.lofi.depsanalyzer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.shell.standard.ShellComponent;
+import org.springframework.shell.standard.ShellMethod;
+
+@ShellComponent
+public class WorkspaceCommand {
+
+    private static final Logger logger = LoggerFactory.getLogger(WorkspaceCommand.class);
+
+    private final WorkspaceManager workspaceManager;
+
+    public WorkspaceCommand(WorkspaceManager workspaceManager) {
+        this.workspaceManager = workspaceManager;
+    }
+
+    @ShellMethod(key = "workspace-stats", value = "Show the active workspaces and the pool of extracted archives.")
+    public String workspaceStats() {
+        try {
+            return workspaceManager.stats();
+        } catch (Exception e) {
+            logger.error("Error reading the workspaces: {}", e.getMessage(), e);
+            return "Error reading the workspaces: " + e.getMessage();
+        }
+    }
+
+    @ShellMethod(key = "workspace-clear", value = "Remove all pooled extractions of archives.")
+    public String workspaceClear() {
+        try {
+            int removed = workspaceManager.clear();
+            return String.format("Removed %d pooled extractions from: %s", removed, workspaceManager.getDirectory());
+        } catch (Exception e) {
+            logger.error("Error clearing the workspaces: {}", e.getMessage(), e);
+            return "Error clearing the workspaces: " + e.getMessage();
+        }
+    }
+}
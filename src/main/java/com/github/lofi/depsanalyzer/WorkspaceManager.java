@@ -0,0 +1,424 @@
+package com.github.lofi.depsanalyzer;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.nio.file.attribute.UserPrincipal;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Scratch directories for analysis jobs. Every job gets its own workspace below
+ * {@code jobs}, so concurrent runs never extract into the same directory, and the
+ * workspace is deleted when the job closes it. Extracted archives are kept in an LRU pool
+ * below {@code pool} when the workspace is closed and moved into the next workspace that
+ * extracts the same archive, which then skips the extraction. Moves within the same file
+ * system are atomic, so a pooled extraction is used by one job at a time, also by jobs of
+ * other processes sharing the directory.
+ */
+class WorkspaceManager {
+
+    private static final Logger logger = LoggerFactory.getLogger(WorkspaceManager.class);
+
+    static final long DEFAULT_QUOTA_BYTES = 4L * 1024 * 1024 * 1024;
+    static final int DEFAULT_POOL_SIZE = 8;
+    static final long DEFAULT_POOL_MAX_BYTES = 2L * 1024 * 1024 * 1024;
+    static final Duration STALE_AFTER = Duration.ofDays(1);
+
+    private final Path directory;
+    private final ZipArchive.Limits limits;
+    private final int poolSize;
+    private final long poolMaxBytes;
+
+    private final AtomicLong extracted = new AtomicLong();
+    private final AtomicLong reused = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private volatile boolean secured;
+
+    /**
+     * {@code limits.maxBytes()} is the quota of a workspace, for all archives extracted
+     * into it together.
+     */
+    WorkspaceManager(Path directory, ZipArchive.Limits limits, int poolSize, long poolMaxBytes) {
+        this.directory = directory;
+        this.limits = limits;
+        this.poolSize = poolSize;
+        this.poolMaxBytes = poolMaxBytes;
+    }
+
+    /**
+     * A directory of the current user in the temp directory, pooled extractions are built
+     * by later jobs and must not come from other users of the machine.
+     */
+    static Path defaultDirectory() {
+        String user = System.getProperty("user.name", "user").replaceAll("[^A-Za-z0-9._-]", "_");
+        return Path.of(System.getProperty("java.io.tmpdir"), "maven-deps-analyzer-" + user + "-workspaces");
+    }
+
+    static WorkspaceManager defaults() {
+        return new WorkspaceManager(defaultDirectory(), ZipArchive.Limits.DEFAULT.withMaxBytes(DEFAULT_QUOTA_BYTES),
+            DEFAULT_POOL_SIZE, DEFAULT_POOL_MAX_BYTES);
+    }
+
+    Path getDirectory() {
+        return directory;
+    }
+
+    ZipArchive.Limits getLimits() {
+        return limits;
+    }
+
+    /**
+     * Creates an empty workspace, {@code job} names it for the logs and the directory.
+     * Workspaces left behind by a killed process are deleted after a day.
+     */
+    Workspace create(String job) throws IOException {
+        secure();
+        Path jobs = Files.createDirectories(directory.resolve("jobs"));
+        deleteStale(jobs);
+        return new Workspace(Files.createTempDirectory(jobs, job + "-"));
+    }
+
+    /**
+     * Creates the directory accessible by the current user only, and fails when it belongs
+     * to another user, who could plant a pooled extraction for the next job to build.
+     */
+    private void secure() throws IOException {
+        if (secured) {
+            return;
+        }
+        Files.createDirectories(directory);
+        // The owner of a new file is the current user, no user name lookup needed
+        Path probe = Files.createTempFile(directory, ".owner", "");
+        try {
+            UserPrincipal owner = Files.getOwner(directory, LinkOption.NOFOLLOW_LINKS);
+            UserPrincipal user = Files.getOwner(probe);
+            if (!owner.equals(user)) {
+                throw new IOException(String.format("Workspace directory %s belongs to %s, not to %s", directory,
+                    owner.getName(), user.getName()));
+            }
+        } catch (UnsupportedOperationException e) {
+            logger.debug("Owner of {} not available: {}", directory, e.getMessage());
+        } finally {
+            Files.deleteIfExists(probe);
+        }
+        if (Files.getFileStore(directory).supportsFileAttributeView(PosixFileAttributeView.class)) {
+            Files.setPosixFilePermissions(directory, PosixFilePermissions.fromString("rwx------"));
+        }
+        secured = true;
+    }
+
+    private void deleteStale(Path jobs) throws IOException {
+        FileTime limit = FileTime.from(Instant.now().minus(STALE_AFTER));
+        List<Path> stale;
+        try (Stream<Path> files = Files.list(jobs)) {
+            stale = files.filter(job -> lastUse(job).compareTo(limit) < 0).collect(Collectors.toList());
+        }
+        for (Path job : stale) {
+            try {
+                ResultCache.deleteRecursively(job);
+                logger.info("Deleted stale workspace: {}", job);
+            } catch (IOException e) {
+                logger.warn("Could not delete stale workspace {}: {}", job, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * The scratch directory of one job, closing it returns its extractions to the pool and
+     * deletes everything else.
+     */
+    class Workspace implements AutoCloseable {
+
+        private final Path directory;
+        // Extraction by pool key
+        private final Map<String, Extraction> extractions = new LinkedHashMap<>();
+        private long usedBytes;
+
+        private Workspace(Path directory) {
+            this.directory = directory;
+        }
+
+        Path getDirectory() {
+            return directory;
+        }
+
+        long getUsedBytes() {
+            return usedBytes;
+        }
+
+        /**
+         * Extracts the archive, the build files only unless {@code fullExtract}, into a
+         * directory of this workspace and returns it, or takes over the pooled extraction
+         * of the same archive. Fails before writing when the archive does not fit into the
+         * quota of the workspace or the free space of the disk.
+         */
+        synchronized Path extract(File zipFile, boolean fullExtract, int parallelism) throws IOException {
+            String key = key(zipFile, fullExtract);
+            if (extractions.containsKey(key)) {
+                return extractions.get(key).directory();
+            }
+            Path target = directory.resolve("archive-" + (extractions.size() + 1));
+            Path pooled = pool().resolve(key);
+            if (Files.isDirectory(pooled)) {
+                // The quota applies to a pooled extraction as well, one that does not fit is extracted anew
+                long bytes = sizeOf(pooled);
+                if (bytes > limits.maxBytes() - usedBytes) {
+                    logger.info("Pooled extraction of {} ({} bytes) exceeds the quota of workspace: {}", zipFile,
+                        bytes, directory);
+                } else if (take(pooled, target)) {
+                    usedBytes += bytes;
+                    extractions.put(key, new Extraction(target, snapshot(target)));
+                    reused.incrementAndGet();
+                    logger.info("Reusing extraction of {} ({} bytes) in workspace: {}", zipFile, bytes, directory);
+                    return target;
+                }
+            }
+
+            try (ZipArchive archive = new ZipArchive(zipFile)) {
+                if (!fullExtract && archive.findPomEntries().isEmpty()) {
+                    throw new IOException("No pom.xml found in ZIP file: " + zipFile);
+                }
+                long remaining = limits.maxBytes() - usedBytes;
+                long declared = archive.declaredSize(fullExtract ? ZipArchive.ALL_FILES : ZipArchive.BUILD_FILES);
+                long usable = Files.getFileStore(directory).getUsableSpace();
+                if (declared > usable) {
+                    throw new IOException(String.format("Not enough disk space to extract %s: %d bytes needed, %d "
+                        + "bytes free in %s", zipFile, declared, usable, directory));
+                }
+                Files.createDirectories(target);
+                long bytes = archive.extract(target.toFile(), fullExtract ? ZipArchive.ALL_FILES : ZipArchive.BUILD_FILES,
+                    parallelism, limits.withMaxBytes(remaining));
+                usedBytes += bytes;
+                extractions.put(key, new Extraction(target, snapshot(target)));
+                extracted.incrementAndGet();
+                return target;
+            }
+        }
+
+        @Override
+        public synchronized void close() throws IOException {
+            try {
+                for (Map.Entry<String, Extraction> extraction : extractions.entrySet()) {
+                    release(extraction.getKey(), extraction.getValue());
+                }
+            } finally {
+                ResultCache.deleteRecursively(directory);
+            }
+        }
+    }
+
+    /**
+     * An extracted archive and the state of its files right after the extraction.
+     */
+    private record Extraction(Path directory, Map<Path, FileState> files) {
+    }
+
+    private record FileState(boolean directory, long size, long modified) {
+    }
+
+    private static Map<Path, FileState> snapshot(Path directory) throws IOException {
+        Map<Path, FileState> files = new HashMap<>();
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : (Iterable<Path>) paths::iterator) {
+                files.put(directory.relativize(path), state(path));
+            }
+        }
+        return files;
+    }
+
+    private static FileState state(Path path) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class,
+            LinkOption.NOFOLLOW_LINKS);
+        return attributes.isDirectory() ? new FileState(true, 0, 0)
+            : new FileState(false, attributes.size(), attributes.lastModifiedTime().toMillis());
+    }
+
+    /**
+     * Deletes what the job added to an extraction, e.g. the target directories of the
+     * Maven build, and returns false when it changed or deleted extracted files, then the
+     * extraction is not pooled.
+     */
+    private static boolean restore(Extraction extraction) throws IOException {
+        List<Path> paths;
+        try (Stream<Path> files = Files.walk(extraction.directory())) {
+            // Children before their parents
+            paths = files.sorted(Comparator.reverseOrder()).collect(Collectors.toList());
+        }
+        int kept = 0;
+        for (Path path : paths) {
+            FileState original = extraction.files().get(extraction.directory().relativize(path));
+            if (original == null) {
+                Files.delete(path);
+            } else if (!original.equals(state(path))) {
+                return false;
+            } else {
+                kept++;
+            }
+        }
+        return kept == extraction.files().size();
+    }
+
+    private Path pool() throws IOException {
+        return Files.createDirectories(directory.resolve("pool"));
+    }
+
+    private static boolean take(Path pooled, Path target) throws IOException {
+        try {
+            move(pooled, target);
+            return true;
+        } catch (NoSuchFileException e) {
+            // Taken by another job in the meantime
+            return false;
+        }
+    }
+
+    /**
+     * Moves an extraction into the pool, unless the pool has one of the same archive, and
+     * evicts the least recently used extractions above the pool size. Only the extracted
+     * files are pooled, so the next job starts from the archive's content alone.
+     */
+    private void release(String key, Extraction extraction) throws IOException {
+        if (!restore(extraction)) {
+            logger.info("Extracted files of {} were changed, not pooling: {}", key, extraction.directory());
+            return;
+        }
+        Path pooled = pool().resolve(key);
+        try {
+            move(extraction.directory(), pooled);
+            Files.setLastModifiedTime(pooled, FileTime.from(Instant.now()));
+        } catch (FileSystemException e) {
+            // Renaming onto a non-empty directory fails with ENOTEMPTY, not always as DirectoryNotEmptyException
+            if (!Files.exists(pooled)) {
+                throw e;
+            }
+            logger.debug("Extraction of {} is already pooled", key);
+            return;
+        }
+        evict();
+    }
+
+    private static void move(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target);
+        }
+    }
+
+    synchronized void evict() throws IOException {
+        List<Path> entries = listPool();
+        entries.sort(Comparator.comparing(WorkspaceManager::lastUse).reversed());
+        long total = 0;
+        for (int i = 0; i < entries.size(); i++) {
+            Path entry = entries.get(i);
+            total += sizeOf(entry);
+            if (i >= poolSize || total > poolMaxBytes) {
+                ResultCache.deleteRecursively(entry);
+                evictions.incrementAndGet();
+                logger.info("Evicted pooled extraction: {}", entry);
+            }
+        }
+    }
+
+    synchronized int clear() throws IOException {
+        List<Path> entries = listPool();
+        for (Path entry : entries) {
+            ResultCache.deleteRecursively(entry);
+        }
+        return entries.size();
+    }
+
+    String stats() throws IOException {
+        List<Path> entries = listPool();
+        long size = 0;
+        for (Path entry : entries) {
+            size += sizeOf(entry);
+        }
+        int active;
+        Path jobs = directory.resolve("jobs");
+        try (Stream<Path> files = Files.isDirectory(jobs) ? Files.list(jobs) : Stream.empty()) {
+            active = (int) files.count();
+        }
+        return String.format("Workspace directory: %s%nActive workspaces: %d (quota %.1f MB each)%n"
+                + "Pooled extractions: %d (%.1f MB of %.1f MB, at most %d)%n"
+                + "Extracted: %d, reused: %d, evictions: %d",
+                directory, active, limits.maxBytes() / (1024.0 * 1024.0), entries.size(), size / (1024.0 * 1024.0),
+                poolMaxBytes / (1024.0 * 1024.0), poolSize, extracted.get(), reused.get(), evictions.get());
+    }
+
+    private List<Path> listPool() throws IOException {
+        Path pool = directory.resolve("pool");
+        if (!Files.isDirectory(pool)) {
+            return new ArrayList<>();
+        }
+        try (Stream<Path> files = Files.list(pool)) {
+            return files.filter(Files::isDirectory).collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Identifies an archive by its path, size and modification time, hashing the content
+     * of a large archive would cost as much as extracting its build files.
+     */
+    static String key(File zipFile, boolean fullExtract) throws IOException {
+        Path path = zipFile.toPath().toRealPath();
+        String identity = path + "\0" + Files.size(path) + "\0" + Files.getLastModifiedTime(path).toMillis() + "\0"
+            + (fullExtract ? "all" : "build");
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(identity.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static FileTime lastUse(Path entry) {
+        try {
+            return Files.getLastModifiedTime(entry);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    private static long sizeOf(Path directory) {
+        try (Stream<Path> files = Files.walk(directory)) {
+            return files.filter(Files::isRegularFile).mapToLong(file -> {
+                try {
+                    return Files.size(file);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }).sum();
+        } catch (IOException | UncheckedIOException e) {
+            return 0;
+        }
+    }
+}
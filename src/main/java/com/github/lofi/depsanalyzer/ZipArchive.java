@@ -0,0 +1,215 @@
+package com.github.lofi.depsanalyzer;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Random access to a ZIP file through its central directory. Entries can be listed
+ * without reading any file data, and only the selected entries are extracted. Entries
+ * that would be written outside of the target directory are rejected, and the number of
+ * entries, the bytes written and the compression ratio are limited.
+ */
+class ZipArchive implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ZipArchive.class);
+
+    static final Predicate<ZipEntry> ALL_FILES = entry -> true;
+    static final Predicate<ZipEntry> BUILD_FILES = entry -> isBuildFile(entry.getName());
+
+    // Small files compress well, the ratio is only checked above this size
+    private static final long RATIO_THRESHOLD = 1024 * 1024;
+
+    /**
+     * Guards against ZIP bombs: at most {@code maxEntries} entries and {@code maxBytes}
+     * bytes are extracted, and no entry above 1 MB may be more than {@code maxRatio} times
+     * its compressed size.
+     */
+    record Limits(long maxBytes, int maxEntries, int maxRatio) {
+
+        static final Limits DEFAULT = new Limits(4L * 1024 * 1024 * 1024, 100_000, 200);
+
+        Limits withMaxBytes(long bytes) {
+            return new Limits(bytes, maxEntries, maxRatio);
+        }
+    }
+
+    private final ZipFile zipFile;
+
+    ZipArchive(File file) throws IOException {
+        this.zipFile = new ZipFile(file);
+    }
+
+    /**
+     * Returns the names of all pom.xml entries, read from the central directory only.
+     */
+    List<String> findPomEntries() {
+        List<String> poms = new ArrayList<>();
+        for (ZipEntry entry : Collections.list(zipFile.entries())) {
+            if (!entry.isDirectory() && isPom(entry.getName())) {
+                poms.add(entry.getName());
+            }
+        }
+        return poms;
+    }
+
+    /**
+     * Files Maven needs to resolve dependencies and licenses: the POMs of every module,
+     * the Maven wrapper and the .mvn configuration, and license plugin overrides.
+     */
+    static boolean isBuildFile(String name) {
+        String fileName = name.substring(name.lastIndexOf('/') + 1);
+        return isPom(name)
+                || fileName.equals("mvnw")
+                || fileName.equals("mvnw.cmd")
+                || name.startsWith(".mvn/") || name.contains("/.mvn/")
+                || name.startsWith("src/license/") || name.contains("/src/license/");
+    }
+
+    private static boolean isPom(String name) {
+        return name.equals("pom.xml") || name.endsWith("/pom.xml");
+    }
+
+    /**
+     * The uncompressed size of the matching entries as declared in the central directory.
+     */
+    long declaredSize(Predicate<ZipEntry> filter) {
+        long size = 0;
+        for (ZipEntry entry : Collections.list(zipFile.entries())) {
+            if (!entry.isDirectory() && filter.test(entry) && entry.getSize() > 0) {
+                size += entry.getSize();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Extracts the matching entries in parallel within the default limits and returns the
+     * number of bytes written.
+     */
+    long extract(File destDir, Predicate<ZipEntry> filter, int parallelism) throws IOException {
+        return extract(destDir, filter, parallelism, Limits.DEFAULT);
+    }
+
+    /**
+     * Extracts the matching entries in parallel and returns the number of bytes written.
+     * The central directory is checked against the limits before anything is written, the
+     * bytes actually inflated are checked while writing, declared sizes may be forged.
+     */
+    long extract(File destDir, Predicate<ZipEntry> filter, int parallelism, Limits limits) throws IOException {
+        Path dest = destDir.toPath().toAbsolutePath().normalize();
+        List<ZipEntry> entries = new ArrayList<>();
+        List<Path> directories = new ArrayList<>();
+        long declared = 0;
+        for (ZipEntry entry : Collections.list(zipFile.entries())) {
+            Path target = target(dest, entry.getName());
+            if (entry.isDirectory()) {
+                directories.add(target);
+            } else if (filter.test(entry)) {
+                entries.add(entry);
+                declared += Math.max(0, entry.getSize());
+                checkRatio(entry, entry.getSize(), limits);
+            }
+            if (entries.size() + directories.size() > limits.maxEntries()) {
+                throw new IOException("ZIP file " + zipFile.getName() + " has more than " + limits.maxEntries()
+                    + " entries");
+            }
+        }
+        if (declared > limits.maxBytes()) {
+            throw new IOException(String.format("ZIP file %s expands to %d bytes, more than the limit of %d bytes",
+                zipFile.getName(), declared, limits.maxBytes()));
+        }
+        for (Path directory : directories) {
+            Files.createDirectories(directory);
+        }
+        logger.info("Extracting {} entries of {} to: {}", entries.size(), zipFile.getName(), destDir);
+
+        AtomicLong written = new AtomicLong();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(parallelism, entries.size())));
+        try {
+            List<Future<Long>> futures = new ArrayList<>();
+            for (ZipEntry entry : entries) {
+                futures.add(executor.submit(() -> extractEntry(entry, dest, limits, written)));
+            }
+            long bytes = 0;
+            for (Future<Long> future : futures) {
+                bytes += future.get();
+            }
+            return bytes;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Extraction of " + zipFile.getName() + " interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException("Error extracting " + zipFile.getName() + ": " + e.getCause().getMessage(), e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * The path of an entry below the target directory, entries with absolute names or
+     * {@code ..} segments that leave it are rejected (zip slip).
+     */
+    static Path target(Path destDir, String name) throws IOException {
+        Path target = destDir.resolve(name).normalize();
+        if (!target.startsWith(destDir)) {
+            throw new IOException("Entry is outside of the target directory: " + name);
+        }
+        return target;
+    }
+
+    private long extractEntry(ZipEntry entry, Path destDir, Limits limits, AtomicLong written) throws IOException {
+        Path target = target(destDir, entry.getName());
+        Files.createDirectories(target.getParent());
+        // ZipFile is thread safe, every entry gets its own inflater stream
+        try (InputStream in = zipFile.getInputStream(entry); OutputStream out = Files.newOutputStream(target)) {
+            byte[] buffer = new byte[64 * 1024];
+            long bytes = 0;
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                bytes += read;
+                checkRatio(entry, bytes, limits);
+                if (written.addAndGet(read) > limits.maxBytes()) {
+                    throw new IOException(String.format("ZIP file %s expands to more than the limit of %d bytes",
+                        zipFile.getName(), limits.maxBytes()));
+                }
+                out.write(buffer, 0, read);
+            }
+            return bytes;
+        }
+    }
+
+    private void checkRatio(ZipEntry entry, long size, Limits limits) throws IOException {
+        long compressed = Math.max(1, entry.getCompressedSize());
+        if (size > RATIO_THRESHOLD && size > compressed * limits.maxRatio()) {
+            throw new IOException(String.format("Entry %s of ZIP file %s expands more than %d times, a ZIP bomb?",
+                entry.getName(), zipFile.getName(), limits.maxRatio()));
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        zipFile.close();
+    }
+}
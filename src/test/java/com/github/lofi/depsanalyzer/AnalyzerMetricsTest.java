@@ -0,0 +1,98 @@
+package com.github.lofi.depsanalyzer;
+
+import org.apache.maven.shared.invoker.DefaultInvocationRequest;
+import org.apache.maven.shared.invoker.InvocationOutputHandler;
+import org.apache.maven.shared.invoker.InvocationRequest;
+import org.apache.maven.shared.invoker.InvocationResult;
+import org.apache.maven.shared.utils.cli.CommandLineException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.io.File;
+import java.util.List;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class AnalyzerMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final AnalyzerMetrics metrics = new AnalyzerMetrics(registry);
+
+    @Test
+    void run_records_stages_and_quantities() {
+        try (AnalyzerMetrics.Run run = metrics.start("list-licenses-zip")) {
+            run.stage("extract", System.nanoTime());
+            run.stage("extract", System.nanoTime());
+            run.bytesExtracted(3 * 1024 * 1024);
+            run.pomsScanned(12);
+            run.mavenExitCode(1);
+            run.failed();
+
+            String summary = run.summary();
+            assertTrue(summary.startsWith("Stages: extract "), summary);
+            assertTrue(summary.endsWith("; 3.0 MB extracted, 12 POMs scanned, Maven exit code 1"), summary);
+        }
+
+        assertEquals(2, registry.get(AnalyzerMetrics.STAGE).tags("command", "list-licenses-zip", "stage", "extract")
+            .timer().count());
+        assertEquals(3 * 1024 * 1024, registry.get(AnalyzerMetrics.EXTRACTED_BYTES).summary().totalAmount());
+        assertEquals(12, registry.get(AnalyzerMetrics.POMS_SCANNED).summary().totalAmount());
+        assertEquals(1, registry.get(AnalyzerMetrics.COMMAND).tags("outcome", "error").timer().count());
+    }
+
+    @Test
+    void bind_records_maven_builds_by_exit_code() throws Exception {
+        MavenPool pool = new MavenPool("test", 1, 0, 0, index -> new MavenPool.Worker() {
+            private int builds;
+
+            @Override
+            public InvocationResult execute(InvocationRequest request, InvocationOutputHandler outputHandler) {
+                int exitCode = builds++ == 0 ? 0 : 1;
+                return new InvocationResult() {
+                    @Override
+                    public CommandLineException getExecutionException() {
+                        return null;
+                    }
+
+                    @Override
+                    public int getExitCode() {
+                        return exitCode;
+                    }
+                };
+            }
+
+            @Override
+            public long memoryBytes() {
+                return 0;
+            }
+
+            @Override
+            public void close() {
+            }
+        });
+        metrics.bind(pool);
+        InvocationRequest request = new DefaultInvocationRequest();
+        request.setPomFile(new File("project/pom.xml"));
+        request.setGoals(List.of(MavenCommand.GOAL_LICENSES));
+
+        pool.execute(request, line -> { });
+        pool.execute(request, line -> { });
+
+        assertEquals(1, registry.get(AnalyzerMetrics.MAVEN_EXECUTION).tags("goal", MavenCommand.GOAL_LICENSES,
+            "exit", "1").timer().count());
+        assertEquals(2, registry.get(AnalyzerMetrics.MAVEN_QUEUE_WAIT).timer().count());
+        assertEquals(0, registry.get(AnalyzerMetrics.MAVEN_BUSY_WORKERS).gauge().value());
+        assertTrue(metrics.format().contains("analyzer.maven.execution exit=0 goal=license:add-third-party  count 1"),
+            metrics.format());
+    }
+
+    @Test
+    void format_sizes_and_durations() {
+        assertEquals("512 B", AnalyzerMetrics.formatBytes(512));
+        assertEquals("1.5 KB", AnalyzerMetrics.formatBytes(1536));
+        assertEquals("999 ms", AnalyzerMetrics.formatNanos(999_000_000L));
+        assertEquals("4.2 s", AnalyzerMetrics.formatNanos(4_200_000_000L));
+        assertEquals("No analyzer metrics recorded yet", AnalyzerMetrics.disabled().format());
+    }
+}
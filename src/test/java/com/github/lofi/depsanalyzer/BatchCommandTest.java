@@ -0,0 +1,117 @@
+package com.github.lofi.depsanalyzer;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+class BatchCommandTest {
+
+    private BatchCommand batchCommand;
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeEach
+    void setUp() {
+        batchCommand = new BatchCommand(new MavenCommand());
+    }
+
+    @Test
+    void find_archives_in_directory() throws IOException {
+        Files.createFile(tempDir.resolve("b.zip"));
+        Files.createFile(tempDir.resolve("a.zip"));
+        Files.createFile(tempDir.resolve("readme.txt"));
+
+        List<Path> result = batchCommand.findArchives(tempDir.toString());
+
+        assertEquals(2, result.size());
+        assertEquals("a.zip", result.get(0).getFileName().toString());
+        assertEquals("b.zip", result.get(1).getFileName().toString());
+    }
+
+    @Test
+    void find_archives_with_glob() throws IOException {
+        Files.createFile(tempDir.resolve("release-1.zip"));
+        Files.createFile(tempDir.resolve("release-2.zip"));
+        Files.createFile(tempDir.resolve("snapshot-1.zip"));
+
+        List<Path> result = batchCommand.findArchives(tempDir.resolve("release-*.zip").toString());
+
+        assertEquals(2, result.size());
+        assertEquals("release-1.zip", result.get(0).getFileName().toString());
+    }
+
+    @Test
+    void find_archives_missing_directory() throws IOException {
+        List<Path> result = batchCommand.findArchives(tempDir.resolve("missing/*.zip").toString());
+
+        assertTrue(result.isEmpty());
+    }
+
+    @Test
+    void format_results_with_summary() {
+        List<BatchCommand.ArchiveResult> results = List.of(
+            new BatchCommand.ArchiveResult("/tmp/a.zip", 1024, true, false, 2, 10, 2000, 5, null),
+            new BatchCommand.ArchiveResult("/tmp/b.zip", 1024, false, false, 0, 10, 1500, 0, "Maven build failed"));
+
+        String result = batchCommand.formatResults(results, 2000);
+
+        assertTrue(result.contains("a.zip"));
+        assertTrue(result.contains("Maven build failed"));
+        assertTrue(result.contains("Processed 2 archives (1 succeeded, 1 failed) in 2.0 s"));
+        assertTrue(result.contains("Throughput: 60.00 archives/min"));
+    }
+
+    @Test
+    void cache_hit_without_merged_report_removes_stale_one() throws IOException {
+        String pom = "<project><groupId>x</groupId><artifactId>app</artifactId><version>1</version></project>";
+        Path zipFile = tempDir.resolve("app.zip");
+        try (OutputStream out = Files.newOutputStream(zipFile);
+                ZipOutputStream zip = new ZipOutputStream(out)) {
+            zip.putNextEntry(new ZipEntry("app/pom.xml"));
+            zip.write(pom.getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+        }
+        ResultCache resultCache = new ResultCache(tempDir.resolve("cache"), ResultCache.DEFAULT_MAX_BYTES,
+            ResultCache.DEFAULT_MAX_AGE);
+        MavenCommand mavenCommand = new MavenCommand(resultCache, new PomDiscovery(), MavenPool.invoker(),
+            OfflineMode.disabled(), LicensePolicy.defaults(), AnalyzerMetrics.disabled(),
+            new WorkspaceManager(tempDir.resolve("workspaces"), ZipArchive.Limits.DEFAULT, 2,
+                WorkspaceManager.DEFAULT_POOL_MAX_BYTES));
+        BatchCommand batch = new BatchCommand(mavenCommand);
+
+        // A cached result of a project whose only module wrote no license file
+        Path copy = Files.createDirectories(tempDir.resolve("copy/app"));
+        Files.writeString(copy.resolve("pom.xml"), pom);
+        Path moduleFile = Files.writeString(tempDir.resolve("app-licenses-app.txt"), "");
+        resultCache.store(mavenCommand.cacheKey(copy.toString(), MavenCommand.GOAL_LICENSES),
+            MavenCommand.GOAL_LICENSES, Map.of("licenses-app.txt", moduleFile));
+
+        Path output = Files.createDirectories(tempDir.resolve("output"));
+        Files.writeString(output.resolve("app-licenses-merged.txt"), "stale");
+        Files.writeString(output.resolve("license-report.json"), "{}");
+
+        BatchCommand.ArchiveResult result = batch.processArchive(zipFile, output.toString(), new Semaphore(1), true,
+            false);
+
+        assertTrue(result.success());
+        assertTrue(result.cached());
+        assertFalse(Files.exists(output.resolve("app-licenses-merged.txt")));
+        assertEquals("", batch.evaluateLicenses(List.of(result), output.toString(), LicensePolicy.defaults()));
+        assertFalse(Files.exists(output.resolve("license-report.json")));
+    }
+}
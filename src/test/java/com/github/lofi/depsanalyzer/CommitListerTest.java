@@ -0,0 +1,112 @@
+package com.github.lofi.depsanalyzer;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.PersonIdent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.TimeZone;
+
+class CommitListerTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Git git;
+    private CommitLister lister;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        git = Git.init().setDirectory(tempDir.toFile()).setInitialBranch("main").call();
+        lister = new CommitLister();
+
+        commit("pom.xml", "Add root pom", "2024-01-01T10:00:00Z");
+        commit("README.md", "Add readme", "2024-01-02T10:00:00Z");
+        commit("module/pom.xml", "Add module", "2024-01-03T10:00:00Z");
+        commit("module/App.java", "Add app", "2024-01-04T10:00:00Z");
+        commit("pom.xml", "Change root pom", "2024-01-05T10:00:00Z");
+    }
+
+    @AfterEach
+    void tearDown() {
+        git.close();
+    }
+
+    @Test
+    void list_with_limit_and_offset() throws Exception {
+        assertEquals(List.of("Add app", "Add module"), subjects(query(1, 2, null, null, List.of())));
+    }
+
+    @Test
+    void list_commits_touching_pom_files() throws Exception {
+        assertEquals(List.of("Change root pom", "Add module", "Add root pom"),
+            subjects(query(0, 0, null, null, List.of("pom.xml"))));
+        assertEquals(List.of("Add app", "Add module"), subjects(query(0, 0, null, null, List.of("module/"))));
+    }
+
+    @Test
+    void list_commits_between_since_and_until() throws Exception {
+        assertEquals(List.of("Add app", "Add module", "Add readme"), subjects(query(0, 0,
+            Instant.parse("2024-01-02T00:00:00Z"), Instant.parse("2024-01-04T23:00:00Z"), List.of())));
+    }
+
+    @Test
+    void until_date_includes_that_day() throws Exception {
+        assertEquals(List.of("Add app", "Add module", "Add readme"), subjects(query(0, 0,
+            GitlabCommand.parseTime("2024-01-02", false), GitlabCommand.parseTime("2024-01-04", true), List.of())));
+        assertEquals(List.of("Add root pom"), subjects(query(0, 0, null,
+            GitlabCommand.parseTime("2024-01-01", true), List.of())));
+    }
+
+    @Test
+    void full_message_is_listed_on_request() throws Exception {
+        List<String> lines = new ArrayList<>();
+        lister.list(git.getRepository(), new CommitLister.Query("main", 0, 1, null, null, List.of(), true), lines::add);
+
+        assertEquals(List.of("Change root pom"), lines);
+    }
+
+    @Test
+    void unknown_branch_is_rejected() {
+        assertThrows(IllegalArgumentException.class, () -> lister.list(git.getRepository(),
+            new CommitLister.Query("unknown", 0, 0, null, null, List.of(), false), line -> { }));
+    }
+
+    private CommitLister.Query query(int offset, int limit, Instant since, Instant until, List<String> paths) {
+        return new CommitLister.Query("main", offset, limit, since, until, paths, false);
+    }
+
+    private List<String> subjects(CommitLister.Query query) throws Exception {
+        List<String> lines = new ArrayList<>();
+        int listed = lister.list(git.getRepository(), query, lines::add);
+        assertEquals(lines.size(), listed);
+        List<String> subjects = new ArrayList<>();
+        for (String line : lines) {
+            // <id> <date> <time> <author> <subject>
+            assertTrue(line.matches("[0-9a-f]{8} \\d{4}-\\d{2}-\\d{2} \\d{2}:\\d{2} test .*"), line);
+            subjects.add(line.substring(line.indexOf(" test ") + 6));
+        }
+        return subjects;
+    }
+
+    private void commit(String file, String message, String time) throws Exception {
+        Path path = tempDir.resolve(file);
+        Files.createDirectories(path.getParent());
+        Files.writeString(path, message);
+        PersonIdent ident = new PersonIdent("test", "test@example.com", Date.from(Instant.parse(time)),
+            TimeZone.getTimeZone("UTC"));
+        git.add().addFilepattern(".").call();
+        git.commit().setMessage(message).setAuthor(ident).setCommitter(ident).call();
+    }
+}
@@ -0,0 +1,79 @@
+package com.github.lofi.depsanalyzer;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+class DependencyDiffTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void reports_added_removed_and_changed_dependencies() throws Exception {
+        DependencyGraph from = graph("1.0", "org.slf4j:slf4j-api:2.0.9", "commons-io:commons-io:2.11.0",
+            "junit:junit:4.13.2");
+        DependencyGraph to = graph("1.1", "org.slf4j:slf4j-api:2.0.16", "commons-io:commons-io:2.11.0",
+            "com.google.guava:guava:33.0.0-jre");
+
+        DependencyDiff diff = DependencyDiff.compare("app-1.0", from, null, "app-1.1", to, null,
+            new SpdxLicenses(Map.of()));
+
+        assertEquals(List.of(new DependencyDiff.Dependency("com.google.guava:guava", List.of("33.0.0-jre"), List.of())),
+            diff.getAdded());
+        assertEquals(List.of(new DependencyDiff.Dependency("junit:junit", List.of("4.13.2"), List.of())),
+            diff.getRemoved());
+        // The version of the reactor module itself is no change
+        assertEquals(List.of(new DependencyDiff.Change("org.slf4j:slf4j-api", List.of("2.0.9"), List.of("2.0.16"))),
+            diff.getChanged());
+        assertEquals(3, diff.getSummary().fromDependencies());
+        assertTrue(diff.format().startsWith("Dependencies of app-1.0 (3) and app-1.1 (3): 1 added, 1 removed, "
+            + "1 version changes, 0 license changes"), diff.format());
+
+        Path file = tempDir.resolve("diff.json");
+        diff.write(file);
+        assertTrue(Files.readString(file).contains("\"added\" : 1"));
+    }
+
+    @Test
+    void license_changes_are_compared_by_spdx_id() {
+        DependencyGraph from = graph("1.0", "org.example:renamed:1.0", "org.example:relicensed:1.0");
+        DependencyGraph to = graph("1.1", "org.example:renamed:1.0", "org.example:relicensed:2.0");
+
+        DependencyDiff diff = DependencyDiff.compare("from",
+            from, List.of(entry("renamed", "1.0", "The Apache Software License, Version 2.0"),
+                entry("relicensed", "1.0", "MIT License")),
+            "to", to, List.of(entry("renamed", "1.0", "Apache License 2.0"),
+                entry("relicensed", "2.0", "GNU General Public License v3.0")),
+            new SpdxLicenses(Map.of()));
+
+        assertEquals(List.of(new DependencyDiff.Change("org.example:relicensed", List.of("MIT"),
+            List.of("GPL-3.0-only"))), diff.getLicenseChanges());
+        assertEquals(1, diff.getChanged().size());
+    }
+
+    private static DependencyGraph graph(String version, String... dependencies) {
+        DependencyGraph graph = new DependencyGraph();
+        int root = graph.addNode(new DependencyGraph.Node("com.example", "app", "jar", "", version, "", false), -1);
+        int module = graph.addNode(new DependencyGraph.Node("com.example", "core", "jar", "", version, "compile",
+            false), root);
+        for (String dependency : dependencies) {
+            String[] parts = dependency.split(":");
+            graph.addNode(new DependencyGraph.Node(parts[0], parts[1], "jar", "", parts[2], "compile", false), module);
+        }
+        graph.addNode(new DependencyGraph.Node("com.example", "core", "jar", "", version, "", false), -1);
+        return graph;
+    }
+
+    private static ThirdPartyReport.MergedEntry entry(String artifactId, String version, String license) {
+        return new ThirdPartyReport.MergedEntry(new ThirdPartyReport.Entry("org.example", artifactId, version,
+            artifactId, List.of(license), "https://example.org"), Set.of("app"));
+    }
+}
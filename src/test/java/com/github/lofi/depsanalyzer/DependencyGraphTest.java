@@ -0,0 +1,96 @@
+package com.github.lofi.depsanalyzer;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.io.IOException;
+import java.nio.file.Path;
+
+class DependencyGraphTest {
+
+    private static final String TREE_OUTPUT = """
+        [INFO] Scanning for projects...
+        [INFO] --- dependency:3.8.1:tree (default-cli) @ core ---
+        [INFO] com.example:core:jar:1.0
+        [INFO] +- org.slf4j:slf4j-api:jar:2.0.16:compile
+        [INFO] +- com.example:library:jar:1.0:compile
+        [INFO] |  \\- com.example:transitive:jar:tests:2.0:compile
+        [INFO] \\- org.junit:junit-bom:pom:5.11.4:test (optional)
+        [INFO]
+        [INFO] --- dependency:3.8.1:tree (default-cli) @ web ---
+        [INFO] com.example:web:war:1.0
+        [INFO] \\- com.example:core:jar:1.0:compile
+        [INFO] ------------------------------------------------------------------------
+        [INFO] BUILD SUCCESS
+        """;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void parse_dependency_tree_output() {
+        DependencyGraph graph = parse(TREE_OUTPUT);
+
+        assertEquals(7, graph.size());
+        assertEquals(2, graph.roots().size());
+        assertEquals("com.example:transitive:jar:tests:2.0:compile", graph.node(3).coordinate());
+        assertEquals(2, graph.parent(3));
+        assertEquals(0, graph.parent(4));
+        assertTrue(graph.node(4).optional());
+        assertEquals(5, graph.parent(6));
+    }
+
+    @Test
+    void parse_ignores_lines_outside_of_tree() {
+        DependencyGraph graph = parse("""
+            [INFO] Building core 1.0
+            [INFO] +- not:a:jar:1.0:compile
+            [WARNING] com.example:core:jar:1.0
+            """);
+
+        assertEquals(0, graph.size());
+    }
+
+    @Test
+    void parse_coordinate_with_unknown_format() {
+        assertNull(DependencyTreeParser.parseCoordinate("Building core"));
+    }
+
+    @Test
+    void render_tree_like_maven() {
+        DependencyGraph graph = parse(TREE_OUTPUT);
+
+        String result = graph.render();
+
+        assertEquals("""
+            com.example:core:jar:1.0
+            +- org.slf4j:slf4j-api:jar:2.0.16:compile
+            +- com.example:library:jar:1.0:compile
+            |  \\- com.example:transitive:jar:tests:2.0:compile
+            \\- org.junit:junit-bom:pom:5.11.4:test (optional)
+            com.example:web:war:1.0
+            \\- com.example:core:jar:1.0:compile
+            """, result);
+    }
+
+    @Test
+    void write_and_read_graph() throws IOException {
+        DependencyGraph graph = parse(TREE_OUTPUT);
+        Path file = tempDir.resolve("graph/project-dependencies.json");
+
+        graph.write(file);
+        DependencyGraph result = DependencyGraph.read(file);
+
+        assertEquals(graph.size(), result.size());
+        assertEquals(graph.render(), result.render());
+    }
+
+    private DependencyGraph parse(String output) {
+        DependencyTreeParser parser = new DependencyTreeParser();
+        output.lines().forEach(parser::consumeLine);
+        return parser.getGraph();
+    }
+}
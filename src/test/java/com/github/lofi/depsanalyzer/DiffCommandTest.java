@@ -0,0 +1,121 @@
+package com.github.lofi.depsanalyzer;
+
+import org.eclipse.jgit.api.Git;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+class DiffCommandTest {
+
+    @TempDir
+    Path tempDir;
+
+    private DiffCommand diffCommand;
+
+    @BeforeEach
+    void setUp() {
+        ResultCache resultCache = new ResultCache(tempDir.resolve("cache"), ResultCache.DEFAULT_MAX_BYTES,
+            ResultCache.DEFAULT_MAX_AGE);
+        diffCommand = new DiffCommand(new MavenCommand(resultCache, new PomDiscovery(), MavenPool.invoker(),
+            OfflineMode.disabled(), LicensePolicy.defaults(), AnalyzerMetrics.disabled(),
+            new WorkspaceManager(tempDir.resolve("workspaces"), ZipArchive.Limits.DEFAULT, 2,
+                WorkspaceManager.DEFAULT_POOL_MAX_BYTES)));
+    }
+
+    @Test
+    void revisions_are_exported_with_build_files_only() throws Exception {
+        Path repository = Files.createDirectories(tempDir.resolve("repo"));
+        try (Git git = Git.init().setDirectory(repository.toFile()).call()) {
+            Files.writeString(repository.resolve("pom.xml"), "<project><version>1.0</version></project>");
+            Files.createDirectories(repository.resolve("src"));
+            Files.writeString(repository.resolve("src/App.java"), "class App {}");
+            git.add().addFilepattern(".").call();
+            git.commit().setMessage("Release 1.0").call();
+            git.tag().setName("v1.0").call();
+            Files.writeString(repository.resolve("pom.xml"), "<project><version>1.1</version></project>");
+            git.commit().setAll(true).setMessage("Release 1.1").call();
+        }
+        Path work = tempDir.resolve("work");
+
+        DiffCommand.Side from = diffCommand.side("v1.0", repository.toString(), work.toString(), "from");
+        DiffCommand.Side to = diffCommand.side("HEAD", repository.toString(), work.toString(), "to");
+
+        assertTrue(from.label().startsWith("v1.0 ("), from.label());
+        assertEquals(work.resolve("from").toString(), from.outputDirectory());
+        Path fromProject = Path.of(from.projectDirectory());
+        assertEquals("<project><version>1.0</version></project>", Files.readString(fromProject.resolve("pom.xml")));
+        assertFalse(Files.exists(fromProject.resolve("src/App.java")));
+        assertEquals("<project><version>1.1</version></project>",
+            Files.readString(Path.of(to.projectDirectory()).resolve("pom.xml")));
+
+        // Exported into workspaces, deleted when the diff is done
+        assertTrue(fromProject.startsWith(tempDir.resolve("workspaces")));
+        diffCommand.close(from);
+        diffCommand.close(to);
+        assertFalse(Files.exists(fromProject));
+        assertFalse(Files.exists(work.resolve("from")));
+    }
+
+    @Test
+    void zip_files_are_extracted_into_separate_workspaces() throws Exception {
+        Path zipFile = tempDir.resolve("app.zip");
+        try (OutputStream out = Files.newOutputStream(zipFile);
+                ZipOutputStream zip = new ZipOutputStream(out)) {
+            zip.putNextEntry(new ZipEntry("app/pom.xml"));
+            zip.write("<project/>".getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+        }
+        String work = tempDir.resolve("work").toString();
+
+        DiffCommand.Side first = diffCommand.side(zipFile.toString(), "", work, "from");
+        DiffCommand.Side second = diffCommand.side(zipFile.toString(), "", work, "to");
+
+        assertEquals("app", first.name());
+        assertFalse(first.projectDirectory().equals(second.projectDirectory()));
+        assertTrue(Files.isRegularFile(Path.of(first.projectDirectory()).resolve("pom.xml")));
+        assertTrue(Files.isRegularFile(Path.of(second.projectDirectory()).resolve("pom.xml")));
+        diffCommand.close(first);
+        diffCommand.close(second);
+        assertFalse(Files.exists(Path.of(first.projectDirectory())));
+        assertFalse(Files.exists(tempDir.resolve("work")));
+    }
+
+    @Test
+    void directories_are_used_in_place() throws Exception {
+        Path project = Files.createDirectories(tempDir.resolve("app"));
+
+        DiffCommand.Side side = diffCommand.side(project.toString(), "", "", "from");
+
+        assertEquals(project.toString(), side.label());
+        assertEquals(project.toAbsolutePath().normalize().toString(), side.projectDirectory());
+        assertNull(side.outputDirectory());
+        assertTrue(diffCommand.diffDependencies(project.toString(), project.toString(), "", "",
+            MavenCommand.ENGINE_RESOLVER, true, false, "").contains("Pass --directory to write the license reports"));
+
+        // License reports go below --directory, never next to the project
+        DiffCommand.Side withOutput = diffCommand.side(project.toString(), "", tempDir.resolve("work").toString(),
+            "to");
+        assertEquals(tempDir.resolve("work/to").toString(), withOutput.outputDirectory());
+        assertEquals("app", withOutput.name());
+    }
+
+    @Test
+    void unknown_source_without_repository_is_rejected() {
+        assertThrows(IllegalArgumentException.class,
+            () -> diffCommand.side("v1.0", "", tempDir.toString(), "from"));
+        assertTrue(diffCommand.diffDependencies("v1.0", "v1.1", "", tempDir.toString(), MavenCommand.ENGINE_RESOLVER,
+            false, false, "").startsWith("Error comparing dependencies: Not a ZIP file or directory: v1.0"));
+    }
+}
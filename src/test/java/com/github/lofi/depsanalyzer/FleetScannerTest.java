@@ -0,0 +1,133 @@
+package com.github.lofi.depsanalyzer;
+
+import org.eclipse.jgit.api.Git;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+class FleetScannerTest {
+
+    @TempDir
+    Path tempDir;
+
+    private FleetScanner scanner;
+    private Path manifest;
+    private Path workDirectory;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        ResultCache resultCache = new ResultCache(tempDir.resolve("cache"), ResultCache.DEFAULT_MAX_BYTES,
+            ResultCache.DEFAULT_MAX_AGE);
+        scanner = new FleetScanner(new MavenCommand(resultCache, new PomDiscovery()),
+            new GitMirrorCache(tempDir.resolve("mirrors")));
+        workDirectory = tempDir.resolve("scan");
+
+        Path single = bareRepository("single", Map.of("pom.xml", pom("single", "jar", "")));
+        Path reactor = bareRepository("reactor", Map.of(
+            "pom.xml", pom("reactor", "pom", "<modules><module>core</module></modules>"),
+            "core/pom.xml", pom("core", "jar", ""),
+            "core/src/main/java/App.java", "class App {}"));
+        Path empty = bareRepository("empty", Map.of("README.md", "no build"));
+
+        manifest = Files.writeString(tempDir.resolve("manifest.txt"), "# repositories to scan\n"
+            + single.toUri() + "\n\n" + reactor + " main\n" + empty.toUri() + "\n");
+    }
+
+    @Test
+    void read_manifest_with_urls_and_local_paths() throws Exception {
+        List<FleetScanner.Repository> repositories = FleetScanner.readManifest(manifest);
+
+        assertEquals(3, repositories.size());
+        assertTrue(repositories.get(1).url().startsWith("file:"));
+        assertEquals("main", repositories.get(1).branch());
+        assertEquals("", repositories.get(0).branch());
+    }
+
+    @Test
+    void scan_repository_listed_twice_once() throws Exception {
+        List<FleetScanner.Repository> repositories = FleetScanner.readManifest(manifest);
+        Path twice = Files.writeString(tempDir.resolve("twice.txt"), repositories.get(0).url() + "\n"
+            + repositories.get(0).url() + " main\n");
+
+        List<FleetScanner.Repository> distinct = FleetScanner.readManifest(twice);
+        assertEquals(List.of(repositories.get(0)), distinct);
+
+        List<FleetScanner.RepositoryResult> results = scanner.scan(List.of(repositories.get(0), repositories.get(0)),
+            workDirectory, new FleetScanner.Limits(2, 1, 1, 1), MavenCommand.ENGINE_RESOLVER, false, true, false,
+            false);
+        assertEquals(1, results.size());
+        assertTrue(results.get(0).success());
+        assertEquals(1, Files.readAllLines(workDirectory.resolve(FleetScanner.JOURNAL_FILE)).size());
+    }
+
+    @Test
+    void scan_all_repositories_through_the_pipeline() throws Exception {
+        Map<String, FleetScanner.RepositoryResult> results = scan();
+
+        assertTrue(results.get("single").success());
+        assertEquals(1, results.get("single").modules());
+        assertTrue(results.get("reactor").success());
+        assertEquals(2, results.get("reactor").modules());
+        assertFalse(results.get("empty").success());
+        assertTrue(results.get("empty").error().startsWith("discovery failed"));
+
+        Path checkout = workDirectory.resolve(FleetScanner.REPOSITORIES_DIRECTORY)
+            .resolve(results.get("reactor").name());
+        assertTrue(Files.isRegularFile(checkout.resolve("core/pom.xml")));
+        assertFalse(Files.exists(checkout.resolve("core/src/main/java/App.java")));
+        assertTrue(Files.isRegularFile(checkout.resolveSibling(results.get("reactor").name() + "-dependencies.json")));
+    }
+
+    @Test
+    void second_scan_resumes_succeeded_repositories() throws Exception {
+        scan();
+
+        Map<String, FleetScanner.RepositoryResult> results = scan();
+
+        assertTrue(results.get("single").resumed());
+        assertTrue(results.get("reactor").resumed());
+        assertFalse(results.get("empty").resumed());
+        assertEquals(4, Files.readAllLines(workDirectory.resolve(FleetScanner.JOURNAL_FILE)).size());
+    }
+
+    private Map<String, FleetScanner.RepositoryResult> scan() throws Exception {
+        // One worker per stage and queues of one repository exercise the backpressure
+        List<FleetScanner.RepositoryResult> results = scanner.scan(FleetScanner.readManifest(manifest), workDirectory,
+            new FleetScanner.Limits(2, 1, 1, 1), MavenCommand.ENGINE_RESOLVER, false, true, false, false);
+        Map<String, FleetScanner.RepositoryResult> byName = new LinkedHashMap<>();
+        results.forEach(result -> byName.put(result.name().substring(0, result.name().lastIndexOf('-')), result));
+        return byName;
+    }
+
+    private Path bareRepository(String name, Map<String, String> files) throws Exception {
+        Path source = tempDir.resolve("sources").resolve(name);
+        try (Git git = Git.init().setDirectory(source.toFile()).setInitialBranch("main").call()) {
+            for (Map.Entry<String, String> file : files.entrySet()) {
+                Path path = source.resolve(file.getKey());
+                Files.createDirectories(path.getParent());
+                Files.writeString(path, file.getValue());
+            }
+            git.add().addFilepattern(".").call();
+            git.commit().setMessage("Initial commit").setAuthor("test", "test@example.com")
+                .setCommitter("test", "test@example.com").call();
+        }
+        Path bare = tempDir.resolve("remotes").resolve(name + ".git");
+        Git.cloneRepository().setURI(source.toUri().toString()).setDirectory(bare.toFile()).setBare(true).call()
+            .close();
+        return bare;
+    }
+
+    private String pom(String artifactId, String packaging, String modules) {
+        return "<project><modelVersion>4.0.0</modelVersion><groupId>com.example</groupId><artifactId>" + artifactId
+            + "</artifactId><version>1.0</version><packaging>" + packaging + "</packaging>" + modules + "</project>";
+    }
+}
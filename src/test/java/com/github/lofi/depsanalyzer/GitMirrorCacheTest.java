@@ -0,0 +1,93 @@
+package com.github.lofi.depsanalyzer;
+
+import org.eclipse.jgit.api.Git;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+class GitMirrorCacheTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path remote;
+    private Git remoteGit;
+    private GitMirrorCache mirrorCache;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        remote = Files.createDirectories(tempDir.resolve("remote"));
+        remoteGit = Git.init().setDirectory(remote.toFile()).setInitialBranch("main").call();
+        mirrorCache = new GitMirrorCache(tempDir.resolve("mirrors"));
+
+        Files.writeString(remote.resolve("pom.xml"), "<project/>");
+        Files.createDirectories(remote.resolve("module/src/main/java"));
+        Files.writeString(remote.resolve("module/pom.xml"), "<project/>");
+        Files.writeString(remote.resolve("module/src/main/java/App.java"), "class App {}");
+        commit("Initial commit");
+    }
+
+    @AfterEach
+    void tearDown() {
+        remoteGit.close();
+    }
+
+    @Test
+    void build_files_only_checkout() throws Exception {
+        Path target = tempDir.resolve("checkout");
+
+        GitMirrorCache.CloneResult result = mirrorCache.cloneForAnalysis(url(), "", target, 1, true, true);
+
+        assertEquals("main", result.branch());
+        assertEquals(2, result.filesCheckedOut());
+        assertFalse(result.mirrorUpdated());
+        assertTrue(result.bytesTransferred() > 0);
+        assertTrue(Files.isRegularFile(target.resolve("module/pom.xml")));
+        assertFalse(Files.exists(target.resolve("module/src/main/java/App.java")));
+        assertTrue(Files.isDirectory(mirrorCache.mirrorPath(url())));
+    }
+
+    @Test
+    void second_clone_fetches_into_existing_mirror() throws Exception {
+        mirrorCache.cloneForAnalysis(url(), "main", tempDir.resolve("first"), 1, true, true);
+        Files.writeString(remote.resolve("pom.xml"), "<project><artifactId>changed</artifactId></project>");
+        String head = commit("Change pom");
+
+        GitMirrorCache.CloneResult result = mirrorCache.cloneForAnalysis(url(), "main", tempDir.resolve("second"), 1,
+            false, true);
+
+        assertTrue(result.mirrorUpdated());
+        assertEquals(head, result.commit());
+        assertEquals(3, result.filesCheckedOut());
+        assertTrue(Files.readString(tempDir.resolve("second/pom.xml")).contains("changed"));
+        try (Git git = Git.open(tempDir.resolve("second").toFile())) {
+            assertEquals(url(), git.getRepository().getConfig().getString("remote", "origin", "url"));
+        }
+    }
+
+    @Test
+    void clone_without_mirror_removes_temporary_mirror() throws Exception {
+        GitMirrorCache.CloneResult result = mirrorCache.cloneForAnalysis(url(), "main", tempDir.resolve("checkout"), 1,
+            true, false);
+
+        assertEquals(2, result.filesCheckedOut());
+        assertFalse(Files.exists(tempDir.resolve("mirrors")));
+    }
+
+    private String url() {
+        return remote.toUri().toString();
+    }
+
+    private String commit(String message) throws Exception {
+        remoteGit.add().addFilepattern(".").call();
+        return remoteGit.commit().setMessage(message).setAuthor("test", "test@example.com")
+            .setCommitter("test", "test@example.com").call().name();
+    }
+}
@@ -0,0 +1,128 @@
+package com.github.lofi.depsanalyzer;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.Predicate;
+
+class GraphStoreTest {
+
+    @TempDir
+    Path tempDir;
+
+    private DependencyGraph shop;
+    private DependencyGraph billing;
+    private DependencyGraph search;
+
+    @BeforeEach
+    void setUp() {
+        // shop -> web -> log4j-core 2.14.1, shop -> log4j-api
+        shop = new DependencyGraph();
+        int root = shop.addNode(node("com.example", "shop", "1.0"), -1);
+        int web = shop.addNode(node("com.example", "web", "2.0"), root);
+        shop.addNode(node("org.apache.logging.log4j", "log4j-core", "2.14.1"), web);
+        shop.addNode(node("org.apache.logging.log4j", "log4j-api", "2.14.1"), root);
+
+        // billing -> web -> log4j-core 2.14.1 (the same edges again), billing -> log4j-core 2.17.1
+        billing = new DependencyGraph();
+        root = billing.addNode(node("com.example", "billing", "1.0"), -1);
+        web = billing.addNode(node("com.example", "web", "2.0"), root);
+        billing.addNode(node("org.apache.logging.log4j", "log4j-core", "2.14.1"), web);
+        billing.addNode(node("org.apache.logging.log4j", "log4j-core", "2.17.1"), root);
+
+        search = new DependencyGraph();
+        root = search.addNode(node("com.example", "search", "1.0"), -1);
+        search.addNode(node("org.slf4j", "slf4j-api", "2.0.9"), root);
+    }
+
+    @Test
+    void intern_artifacts_and_drop_duplicate_edges() {
+        GraphStore store = store();
+
+        assertEquals(8, store.vertexCount());
+        assertEquals(6, store.edgeCount());
+        assertEquals(3, store.projects().size());
+    }
+
+    @Test
+    void projects_depending_on_a_version_range_with_paths() {
+        GraphStore store = store();
+
+        List<GraphStore.Match> matches = store.dependingProjects(
+            store.find("org.apache.logging.log4j", "log4j-core", GraphStore.versionFilter("[,2.17)")));
+
+        assertEquals(2, matches.size());
+        assertEquals("shop", matches.get(0).project());
+        assertEquals(List.of("com.example:shop:1.0", "com.example:web:2.0", "org.apache.logging.log4j:log4j-core:2.14.1"),
+            matches.get(0).path());
+        assertEquals("billing", matches.get(1).project());
+        assertEquals(3, matches.get(1).path().size());
+    }
+
+    @Test
+    void direct_and_transitive_dependents() {
+        GraphStore store = store();
+        int[] log4j = store.find("org.apache.logging.log4j", "log4j-core", GraphStore.versionFilter(""));
+
+        assertEquals(List.of("com.example:billing:1.0", "com.example:web:2.0"), store.dependents(log4j, false));
+        assertEquals(List.of("com.example:billing:1.0", "com.example:shop:1.0", "com.example:web:2.0"),
+            store.dependents(log4j, true));
+    }
+
+    @Test
+    void shortest_path_between_artifacts() {
+        GraphStore store = store();
+        int[] billingRoot = { store.vertex("com.example", "billing", "1.0") };
+
+        assertEquals(List.of("com.example:billing:1.0", "org.apache.logging.log4j:log4j-core:2.17.1"),
+            store.shortestPath(billingRoot, store.find("org.apache.logging.log4j", "log4j-core",
+                GraphStore.versionFilter(""))));
+        assertTrue(store.shortestPath(billingRoot, store.find("org.slf4j", "slf4j-api",
+            GraphStore.versionFilter(""))).isEmpty());
+    }
+
+    @Test
+    void version_filters() {
+        Predicate<String> vulnerable = GraphStore.versionFilter("[2.0,2.15.0),[2.16.0,2.17.0)");
+
+        assertTrue(vulnerable.test("2.14.1"));
+        assertTrue(vulnerable.test("2.16.0"));
+        assertFalse(vulnerable.test("2.15.0"));
+        assertFalse(vulnerable.test("2.17.1"));
+        assertTrue(GraphStore.versionFilter("2.14.1").test("2.14.1"));
+        assertFalse(GraphStore.versionFilter("2.14.1").test("2.14"));
+        assertTrue(GraphStore.versionFilter("").test("anything"));
+    }
+
+    @Test
+    void load_graph_files_and_skip_other_json() throws Exception {
+        shop.write(tempDir.resolve("shop-dependencies.json"));
+        billing.write(tempDir.resolve("nested/billing/dependency-graph.json"));
+        Files.writeString(tempDir.resolve("report.json"), "{\"name\":\"not a graph\"}");
+
+        GraphStore store = GraphStore.load(tempDir);
+
+        assertEquals(2, store.projects().size());
+        assertEquals("nested/billing/dependency-graph", store.projects().get(0).name());
+        assertEquals(5, store.edgeCount());
+    }
+
+    private GraphStore store() {
+        return GraphStore.builder()
+            .addProject("shop", shop)
+            .addProject("billing", billing)
+            .addProject("search", search)
+            .build();
+    }
+
+    private static DependencyGraph.Node node(String groupId, String artifactId, String version) {
+        return new DependencyGraph.Node(groupId, artifactId, "jar", "", version, "compile", false);
+    }
+}
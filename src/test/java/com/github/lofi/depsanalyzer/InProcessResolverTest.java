@@ -0,0 +1,99 @@
+package com.github.lofi.depsanalyzer;
+
+import org.eclipse.aether.graph.DependencyNode;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+class InProcessResolverTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path localRepository;
+    private InProcessResolver resolver;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        localRepository = Files.createDirectories(tempDir.resolve("repository"));
+        resolver = new InProcessResolver(localRepository.toFile());
+
+        installPom("com.example", "library", "1.0", dependency("com.example", "transitive", "2.0", null));
+        installPom("com.example", "transitive", "2.0", "");
+    }
+
+    @Test
+    void resolve_transitive_dependencies_from_local_repository() throws Exception {
+        Path project = Files.createDirectories(tempDir.resolve("project"));
+        Path pomFile = writePom(project, "com.example", "app", "1.0", "jar", "",
+            dependency("com.example", "library", "1.0", null));
+
+        List<DependencyNode> roots = resolver.resolve(pomFile.toFile());
+
+        assertEquals(1, roots.size());
+        String tree = DependencyGraph.from(roots).render();
+        assertTrue(tree.contains("com.example:app:jar:1.0"));
+        assertTrue(tree.contains("\\- com.example:library:jar:1.0:compile"));
+        assertTrue(tree.contains("   \\- com.example:transitive:jar:2.0:compile"));
+    }
+
+    @Test
+    void resolve_reactor_modules_with_sibling_dependency() throws Exception {
+        Path project = Files.createDirectories(tempDir.resolve("reactor"));
+        writePom(project, "com.example", "parent", "1.0", "pom",
+            "<modules><module>core</module><module>web</module></modules>", "");
+        writePom(Files.createDirectories(project.resolve("core")), "com.example", "core", "1.0", "jar", "",
+            dependency("com.example", "library", "1.0", null));
+        writePom(Files.createDirectories(project.resolve("web")), "com.example", "web", "1.0", "jar", "",
+            dependency("com.example", "core", "1.0", null));
+
+        List<DependencyNode> roots = resolver.resolve(project.resolve("pom.xml").toFile());
+
+        assertEquals(3, roots.size());
+        String tree = DependencyGraph.from(roots).render();
+        assertTrue(tree.contains("com.example:web:jar:1.0"));
+        assertTrue(tree.contains("      \\- com.example:transitive:jar:2.0:compile"));
+    }
+
+    private void installPom(String groupId, String artifactId, String version, String dependencies)
+            throws IOException {
+        Path directory = Files.createDirectories(localRepository.resolve(groupId.replace('.', '/'))
+            .resolve(artifactId).resolve(version));
+        Files.writeString(directory.resolve(artifactId + "-" + version + ".pom"),
+            pom(groupId, artifactId, version, "jar", "", dependencies));
+    }
+
+    private Path writePom(Path directory, String groupId, String artifactId, String version, String packaging,
+            String modules, String dependencies) throws IOException {
+        return Files.writeString(directory.resolve("pom.xml"),
+            pom(groupId, artifactId, version, packaging, modules, dependencies));
+    }
+
+    private String pom(String groupId, String artifactId, String version, String packaging, String modules,
+            String dependencies) {
+        return """
+            <project>
+              <modelVersion>4.0.0</modelVersion>
+              <groupId>%s</groupId>
+              <artifactId>%s</artifactId>
+              <version>%s</version>
+              <packaging>%s</packaging>
+              %s
+              <dependencies>%s</dependencies>
+            </project>
+            """.formatted(groupId, artifactId, version, packaging, modules, dependencies);
+    }
+
+    private String dependency(String groupId, String artifactId, String version, String scope) {
+        return "<dependency><groupId>" + groupId + "</groupId><artifactId>" + artifactId
+            + "</artifactId><version>" + version + "</version>"
+            + (scope == null ? "" : "<scope>" + scope + "</scope>") + "</dependency>";
+    }
+}
@@ -0,0 +1,144 @@
+package com.github.lofi.depsanalyzer;
+
+import org.eclipse.jgit.api.Git;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+class IncrementalAnalyzerTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path repository;
+    private Path output;
+    private Git git;
+    private IncrementalAnalyzer analyzer;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        repository = Files.createDirectories(tempDir.resolve("repository"));
+        output = tempDir.resolve("analysis");
+        git = Git.init().setDirectory(repository.toFile()).call();
+        ResultCache resultCache = new ResultCache(tempDir.resolve("cache"), ResultCache.DEFAULT_MAX_BYTES,
+            ResultCache.DEFAULT_MAX_AGE);
+        analyzer = new IncrementalAnalyzer(new MavenCommand(resultCache, new PomDiscovery()));
+
+        Files.writeString(repository.resolve("pom.xml"), "<project><modelVersion>4.0.0</modelVersion>"
+            + "<groupId>com.example</groupId><artifactId>parent</artifactId><version>1.0</version>"
+            + "<packaging>pom</packaging><modules><module>core</module><module>web</module><module>tools</module>"
+            + "</modules></project>");
+        writeModule("core", "");
+        writeModule("web", "<dependencies><dependency><groupId>com.example</groupId><artifactId>core</artifactId>"
+            + "<version>1.0</version></dependency></dependencies>");
+        writeModule("tools", "");
+        commit("Initial commit");
+    }
+
+    @AfterEach
+    void tearDown() {
+        git.close();
+    }
+
+    @Test
+    void first_analysis_resolves_all_modules() throws Exception {
+        IncrementalAnalyzer.Analysis analysis = analyze("HEAD");
+
+        assertEquals(Map.of("parent", IncrementalAnalyzer.ModuleStatus.NEW, "core", IncrementalAnalyzer.ModuleStatus.NEW,
+            "web", IncrementalAnalyzer.ModuleStatus.NEW, "tools", IncrementalAnalyzer.ModuleStatus.NEW), statuses(analysis));
+        assertNull(analysis.error());
+        assertEquals(1, DependencyGraph.read(output.resolve("web-dependencies.json")).size() - 1);
+    }
+
+    @Test
+    void commit_without_pom_changes_reuses_all_modules() throws Exception {
+        analyze("HEAD");
+        String first = head();
+        Files.writeString(repository.resolve("README.md"), "readme");
+        commit("Add readme");
+
+        IncrementalAnalyzer.Analysis analysis = analyze(first);
+
+        assertEquals(List.of(), analysis.changedFiles());
+        assertTrue(statuses(analysis).values().stream().allMatch(status -> status == IncrementalAnalyzer.ModuleStatus.REUSED));
+        assertTrue(Files.isRegularFile(output.resolve("core-dependencies.json")));
+    }
+
+    @Test
+    void changed_module_and_its_dependents_are_reanalysed() throws Exception {
+        analyze("HEAD");
+        String first = head();
+        writeModule("core", "<properties><changed>true</changed></properties>");
+        commit("Change core");
+
+        IncrementalAnalyzer.Analysis analysis = analyze(first);
+
+        assertEquals(List.of("core/pom.xml"), analysis.changedFiles());
+        assertEquals(IncrementalAnalyzer.ModuleStatus.REUSED, statuses(analysis).get("parent"));
+        assertEquals(IncrementalAnalyzer.ModuleStatus.CHANGED, statuses(analysis).get("core"));
+        assertEquals(IncrementalAnalyzer.ModuleStatus.CHANGED, statuses(analysis).get("web"));
+        assertEquals(IncrementalAnalyzer.ModuleStatus.REUSED, statuses(analysis).get("tools"));
+    }
+
+    @Test
+    void changed_parent_reanalyses_inheriting_modules() throws Exception {
+        analyze("HEAD");
+        String first = head();
+        String parent = Files.readString(repository.resolve("pom.xml"));
+        Files.writeString(repository.resolve("pom.xml"), parent.replace("</modules>",
+            "</modules><properties><changed>true</changed></properties>"));
+        commit("Change parent");
+
+        IncrementalAnalyzer.Analysis analysis = analyze(first);
+
+        assertTrue(statuses(analysis).values().stream().allMatch(status -> status == IncrementalAnalyzer.ModuleStatus.CHANGED));
+    }
+
+    @Test
+    void working_tree_has_to_be_at_the_analysed_revision() throws Exception {
+        String first = head();
+        Files.writeString(repository.resolve("README.md"), "readme");
+        commit("Add readme");
+
+        assertThrows(IllegalArgumentException.class, () -> analyzer.analyze(repository, "HEAD", first,
+            MavenCommand.ENGINE_RESOLVER, false, output));
+    }
+
+    private IncrementalAnalyzer.Analysis analyze(String from) throws Exception {
+        return analyzer.analyze(repository, from, "HEAD", MavenCommand.ENGINE_RESOLVER, false, output);
+    }
+
+    private Map<String, IncrementalAnalyzer.ModuleStatus> statuses(IncrementalAnalyzer.Analysis analysis) {
+        Map<String, IncrementalAnalyzer.ModuleStatus> statuses = new LinkedHashMap<>();
+        analysis.modules().forEach(module -> statuses.put(module.module(), module.status()));
+        return statuses;
+    }
+
+    private void writeModule(String artifactId, String content) throws Exception {
+        Path directory = Files.createDirectories(repository.resolve(artifactId));
+        Files.writeString(directory.resolve("pom.xml"), "<project><modelVersion>4.0.0</modelVersion>"
+            + "<parent><groupId>com.example</groupId><artifactId>parent</artifactId><version>1.0</version></parent>"
+            + "<artifactId>" + artifactId + "</artifactId>" + content + "</project>");
+    }
+
+    private void commit(String message) throws Exception {
+        git.add().addFilepattern(".").call();
+        git.commit().setMessage(message).setAuthor("test", "test@example.com")
+            .setCommitter("test", "test@example.com").call();
+    }
+
+    private String head() throws Exception {
+        return git.getRepository().resolve("HEAD").name();
+    }
+}
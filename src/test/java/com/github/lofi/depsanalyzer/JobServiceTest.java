@@ -0,0 +1,122 @@
+package com.github.lofi.depsanalyzer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class JobServiceTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicInteger maxRunning = new AtomicInteger();
+    private JobService jobService;
+
+    @AfterEach
+    void close() throws InterruptedException {
+        release.countDown();
+        jobService.close();
+    }
+
+    private JobService jobService(int workers, int queueCapacity, int tenantConcurrency) {
+        JobService.Operation blocking = parameters -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } finally {
+                running.decrementAndGet();
+            }
+            return "done " + parameters.get("name");
+        };
+        JobService.Operation failing = parameters -> "Error retrieving Maven dependencies: no pom.xml";
+        jobService = new JobService(Map.of("block", blocking, "fail", failing), workers, queueCapacity,
+            tenantConcurrency, 100);
+        return jobService;
+    }
+
+    @Test
+    void job_runs_to_completion() throws Exception {
+        JobService service = jobService(2, 10, 2);
+        List<JobService.Status> events = new CopyOnWriteArrayList<>();
+
+        JobService.JobInfo job = service.submit("ci", "block", Map.of("name", "a"));
+        service.subscribe(job.id(), info -> events.add(info.status()));
+        release.countDown();
+        JobService.JobInfo done = await(service, job.id());
+
+        assertEquals(JobService.Status.SUCCEEDED, done.status());
+        assertEquals("done a", done.output());
+        assertEquals(JobService.Status.SUCCEEDED, events.get(events.size() - 1));
+    }
+
+    @Test
+    void error_output_marks_the_job_failed() throws Exception {
+        JobService service = jobService(1, 10, 1);
+
+        JobService.JobInfo job = service.submit("ci", "fail", Map.of());
+
+        assertEquals(JobService.Status.FAILED, await(service, job.id()).status());
+        assertThrows(IllegalArgumentException.class, () -> service.submit("ci", "unknown", Map.of()));
+    }
+
+    @Test
+    void tenant_runs_at_most_its_limit_while_others_proceed() throws Exception {
+        JobService service = jobService(4, 10, 1);
+
+        JobService.JobInfo first = service.submit("ci-a", "block", Map.of());
+        JobService.JobInfo second = service.submit("ci-a", "block", Map.of());
+        JobService.JobInfo other = service.submit("ci-b", "block", Map.of());
+        awaitRunning(2);
+
+        assertEquals(JobService.Status.RUNNING, service.get(first.id()).orElseThrow().status());
+        assertEquals(JobService.Status.QUEUED, service.get(second.id()).orElseThrow().status());
+        assertEquals(JobService.Status.RUNNING, service.get(other.id()).orElseThrow().status());
+
+        release.countDown();
+        assertEquals(JobService.Status.SUCCEEDED, await(service, second.id()).status());
+        assertEquals(2, maxRunning.get());
+    }
+
+    @Test
+    void full_queue_rejects_and_cancelled_jobs_free_their_place() throws Exception {
+        JobService service = jobService(1, 2, 1);
+        service.submit("ci", "block", Map.of());
+        awaitRunning(1);
+        JobService.JobInfo waiting = service.submit("ci", "block", Map.of());
+        service.submit("ci", "block", Map.of());
+
+        assertThrows(RejectedExecutionException.class, () -> service.submit("ci", "block", Map.of()));
+
+        assertTrue(service.cancel(waiting.id()));
+        assertEquals(JobService.Status.CANCELLED, service.get(waiting.id()).orElseThrow().status());
+        service.submit("ci", "block", Map.of());
+        assertTrue(service.stats().startsWith("1 jobs running, 2 waiting"), service.stats());
+    }
+
+    private void awaitRunning(int jobs) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (running.get() < jobs && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(jobs, running.get());
+    }
+
+    private JobService.JobInfo await(JobService service, String id) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        JobService.JobInfo job = service.get(id).orElseThrow();
+        while (!job.status().isDone() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            job = service.get(id).orElseThrow();
+        }
+        return job;
+    }
+}
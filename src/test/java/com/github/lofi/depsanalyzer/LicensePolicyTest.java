@@ -0,0 +1,62 @@
+package com.github.lofi.depsanalyzer;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+class LicensePolicyTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final LicensePolicy policy = LicensePolicy.defaults();
+
+    @Test
+    void evaluate_allows_when_any_alternative_is_allowed() {
+        LicensePolicy.Decision decision = policy.evaluate("ch.qos.logback", "logback-classic",
+            List.of("Eclipse Public License - v 1.0", "GNU Lesser General Public License"));
+        assertEquals(LicensePolicy.Verdict.REVIEW, decision.verdict());
+
+        decision = policy.evaluate("org.example", "dual", List.of("GPLv3", "MIT License"));
+        assertEquals(LicensePolicy.Verdict.ALLOWED, decision.verdict());
+        assertEquals(List.of("GPL-3.0-only", "MIT"), decision.spdxIds());
+    }
+
+    @Test
+    void evaluate_denies_when_all_alternatives_are_denied() {
+        LicensePolicy.Decision decision = policy.evaluate("org.example", "agpl", List.of("AGPLv3"));
+
+        assertEquals(LicensePolicy.Verdict.DENIED, decision.verdict());
+        assertEquals("AGPL-3.0-only", decision.reason());
+    }
+
+    @Test
+    void evaluate_reports_unknown_and_missing_licenses_for_review() {
+        assertEquals("unknown license Acme Commercial",
+            policy.evaluate("org.example", "acme", List.of("Acme Commercial")).reason());
+        assertEquals("no license", policy.evaluate("org.example", "none", List.of()).reason());
+    }
+
+    @Test
+    void load_reads_lists_exceptions_and_aliases() throws IOException {
+        Path file = Files.writeString(tempDir.resolve("policy.properties"), """
+            allow=Apache-2.0, EPL-2.0
+            exceptions=org.internal:*, org.example:agpl
+            alias.Acme\\ Commercial=LicenseRef-Acme
+            deny=LicenseRef-Acme
+            """);
+
+        LicensePolicy loaded = LicensePolicy.load(file);
+
+        assertEquals(LicensePolicy.Verdict.ALLOWED, loaded.evaluate("org.x", "y", List.of("EPL 2.0")).verdict());
+        assertEquals(LicensePolicy.Verdict.REVIEW, loaded.evaluate("org.x", "y", List.of("MIT")).verdict());
+        assertEquals(LicensePolicy.Verdict.DENIED, loaded.evaluate("org.x", "y", List.of("Acme Commercial")).verdict());
+        assertEquals(LicensePolicy.Verdict.ALLOWED, loaded.evaluate("org.internal", "z", List.of("GPLv3")).verdict());
+        assertEquals("exception", loaded.evaluate("org.example", "agpl", List.of("AGPLv3")).reason());
+    }
+}
@@ -0,0 +1,73 @@
+package com.github.lofi.depsanalyzer;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class LicenseReportTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void evaluate_merges_reports_of_several_archives() throws IOException {
+        Path shop = Files.writeString(tempDir.resolve("shop-licenses-merged.txt"), """
+
+            Lists of 2 third-party dependencies in 2 modules.
+                 (MIT) SLF4J API (org.slf4j:slf4j-api:2.0.16 - http://www.slf4j.org) [api, app]
+                 (GNU Affero General Public License v3.0) iText (com.itextpdf:itext:8.0.0 - no url defined) [app]
+            """);
+        Path billing = Files.writeString(tempDir.resolve("billing-THIRD-PARTY.txt"), """
+
+            Lists of 2 third-party dependencies.
+                 (MIT License) SLF4J API (org.slf4j:slf4j-api:2.0.16 - http://www.slf4j.org)
+                 (Acme Commercial) Acme Client (com.acme:client:1.0 - no url defined)
+            """);
+        Map<String, Path> files = new LinkedHashMap<>();
+        files.put("shop", shop);
+        files.put("billing", billing);
+
+        LicenseReport report = LicenseReport.evaluate(files, LicensePolicy.defaults());
+
+        List<LicenseReport.Dependency> dependencies = report.getDependencies();
+        assertEquals(List.of("com.acme:client:1.0", "com.itextpdf:itext:8.0.0", "org.slf4j:slf4j-api:2.0.16"),
+            dependencies.stream().map(LicenseReport.Dependency::coordinate).toList());
+        assertEquals(Set.of("billing", "shop/api", "shop/app"), dependencies.get(2).modules());
+        assertEquals(LicensePolicy.Verdict.ALLOWED, dependencies.get(2).verdict());
+        assertEquals(LicensePolicy.Verdict.DENIED, dependencies.get(1).verdict());
+        assertEquals(LicensePolicy.Verdict.REVIEW, dependencies.get(0).verdict());
+        assertEquals(new LicenseReport.Summary(3, 1, 1, 1,
+            Map.of("AGPL-3.0-only", 1, "MIT", 1, SpdxLicenses.UNKNOWN, 1)), report.getSummary());
+    }
+
+    @Test
+    void write_saves_summary_and_dependencies_as_json() throws IOException {
+        Path merged = Files.writeString(tempDir.resolve("shop-licenses-merged.txt"), """
+                 (Apache License, Version 2.0) Commons Lang (org.apache.commons:commons-lang3:3.17.0 - https://commons.apache.org) [api]
+            """);
+        LicenseReport report = LicenseReport.evaluate(Map.of("shop", merged), LicensePolicy.defaults());
+        Path reportFile = tempDir.resolve("out/license-report.json");
+
+        report.write(reportFile);
+
+        JsonNode json = new ObjectMapper().readTree(reportFile.toFile());
+        assertEquals(1, json.get("summary").get("allowed").asInt());
+        JsonNode dependency = json.get("dependencies").get(0);
+        assertEquals("org.apache.commons:commons-lang3:3.17.0", dependency.get("coordinate").asText());
+        assertEquals("Apache-2.0", dependency.get("spdxIds").get(0).asText());
+        assertEquals("api", dependency.get("modules").get(0).asText());
+        assertTrue(report.format(reportFile).startsWith("License policy: 1 dependencies, 1 allowed"));
+    }
+}
@@ -0,0 +1,82 @@
+package com.github.lofi.depsanalyzer;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+class LocalRepositoryIndexTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void index_poms_with_path_jar_and_parent() throws Exception {
+        Path repository = tempDir.resolve("repository");
+        install(repository, "com.example", "lib-a", "1.0",
+            "<parent><groupId>com.example</groupId><artifactId>parent</artifactId><version>3</version></parent>", true);
+        install(repository, "com.example", "lib-a", "1.1", "", false);
+        install(repository, "org.example.deep", "lib-b", "2.0-SNAPSHOT", "", false);
+        Files.writeString(repository.resolve("org/example/deep/lib-b/2.0-SNAPSHOT/lib-b-2.0-20240101.120000-1.pom"),
+            "<project/>");
+
+        LocalRepositoryIndex index = LocalRepositoryIndex.build(repository, tempDir.resolve("index/repository.idx"));
+
+        assertEquals(3, index.size());
+        LocalRepositoryIndex.Entry entry = index.find("com.example", "lib-a", "1.0");
+        assertEquals("com/example/lib-a/1.0/lib-a-1.0.pom", entry.path());
+        assertTrue(entry.hasJar());
+        assertEquals("com.example:parent:3", entry.parent());
+        assertFalse(index.find("com.example", "lib-a", "1.1").hasJar());
+        assertEquals("", index.find("com.example", "lib-a", "1.1").parent());
+        assertEquals("org.example.deep", index.find("org.example.deep", "lib-b", "2.0-SNAPSHOT").groupId());
+        assertNull(index.find("com.example", "lib-a", "2.0"));
+    }
+
+    @Test
+    void reopen_index_file_and_look_up_any_version() throws Exception {
+        Path repository = tempDir.resolve("repository");
+        install(repository, "com.example", "lib-a", "1.0", "", false);
+        install(repository, "com.example", "lib-ab", "1.0", "", false);
+        Path indexFile = tempDir.resolve("repository.idx");
+        LocalRepositoryIndex.build(repository, indexFile);
+
+        LocalRepositoryIndex index = LocalRepositoryIndex.open(indexFile);
+
+        assertEquals(repository.toAbsolutePath(), index.getLocalRepository());
+        assertTrue(index.containsAny("com.example", "lib-a"));
+        assertTrue(index.containsAny("com.example", "lib-ab"));
+        assertFalse(index.containsAny("com.example", "lib"));
+        assertFalse(index.containsAny("org.example", "lib-a"));
+        assertEquals(List.of("1.0"), index.versions("com.example", "lib-a"));
+    }
+
+    @Test
+    void empty_repository_gives_empty_index() throws Exception {
+        Path repository = Files.createDirectories(tempDir.resolve("repository"));
+
+        LocalRepositoryIndex index = LocalRepositoryIndex.build(repository, tempDir.resolve("repository.idx"));
+
+        assertEquals(0, index.size());
+        assertNull(index.find("com.example", "lib-a", "1.0"));
+        assertFalse(index.containsAny("com.example", "lib-a"));
+    }
+
+    static void install(Path repository, String groupId, String artifactId, String version, String content,
+            boolean jar) throws Exception {
+        Path directory = Files.createDirectories(
+            repository.resolve(groupId.replace('.', '/')).resolve(artifactId).resolve(version));
+        Files.writeString(directory.resolve(artifactId + "-" + version + ".pom"),
+            "<project><modelVersion>4.0.0</modelVersion><groupId>" + groupId + "</groupId><artifactId>" + artifactId
+                + "</artifactId><version>" + version + "</version>" + content + "</project>");
+        if (jar) {
+            Files.write(directory.resolve(artifactId + "-" + version + ".jar"), new byte[0]);
+        }
+    }
+}
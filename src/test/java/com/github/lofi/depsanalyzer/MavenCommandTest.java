@@ -8,9 +8,11 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import java.util.ArrayList;
+import java.util.List;
 
 class MavenCommandTest {
 
@@ -216,4 +218,107 @@ class MavenCommandTest {
         assertEquals("myproject-licenses-simple-module.txt", result);
     }
 
+    @Test
+    void get_dependency_graph_path_inside_project() {
+        Path result = mavenCommand.getDependencyGraphPath("/tmp/extract/project-1.0.0/");
+
+        assertEquals(Path.of("/tmp/extract/project-1.0.0/project-1.0.0-dependencies.json"), result);
+    }
+
+    @Test
+    void find_pom_files_with_modules_and_local_parent() throws IOException {
+        // Setup
+        Path tempDir = Files.createTempDirectory("testDir");
+        Path parentPom = Files.writeString(tempDir.resolve("pom.xml"), "<project><artifactId>parent</artifactId></project>");
+        Path projectDir = Files.createDirectory(tempDir.resolve("project"));
+        Path projectPom = Files.writeString(projectDir.resolve("pom.xml"),
+            "<project><parent><artifactId>parent</artifactId></parent></project>");
+        Path targetDir = Files.createDirectory(projectDir.resolve("target"));
+        Path targetPom = Files.createFile(targetDir.resolve("pom.xml"));
+
+        // Execute
+        List<Path> result = mavenCommand.findPomFiles(projectDir);
+
+        // Verify
+        assertEquals(List.of(projectPom, parentPom), result);
+
+        // Cleanup
+        Files.deleteIfExists(targetPom);
+        Files.deleteIfExists(targetDir);
+        Files.deleteIfExists(projectPom);
+        Files.deleteIfExists(projectDir);
+        Files.deleteIfExists(parentPom);
+        Files.deleteIfExists(tempDir);
+    }
+
+    @Test
+    void collect_module_licenses_per_reactor_module() throws IOException {
+        // Setup
+        Path extractDir = Files.createTempDirectory("testDir");
+        Path projectDir = Files.createDirectory(extractDir.resolve("project"));
+        Files.writeString(projectDir.resolve("pom.xml"), "<project><artifactId>parent</artifactId><packaging>pom</packaging>"
+            + "<modules><module>core</module><module>app</module></modules></project>");
+        Path coreDir = Files.createDirectory(projectDir.resolve("core"));
+        Files.writeString(coreDir.resolve("pom.xml"), "<project><artifactId>core-lib</artifactId></project>");
+        Path appDir = Files.createDirectory(projectDir.resolve("app"));
+        Files.writeString(appDir.resolve("pom.xml"), "<project><artifactId>app</artifactId></project>");
+        Path thirdParty = Files.createDirectories(coreDir.resolve("target/generated-sources/license"))
+            .resolve("THIRD-PARTY.txt");
+        Files.writeString(thirdParty,
+            "     (MIT) SLF4J API (org.slf4j:slf4j-api:2.0.16 - http://www.slf4j.org)\n");
+        List<String> thirdPartyFiles = List.of(thirdParty.toString());
+
+        // Execute
+        List<MavenCommand.ModuleLicenses> modules =
+            mavenCommand.collectModuleLicenses("project", extractDir.toString(), thirdPartyFiles);
+        List<Path> licenseFiles = mavenCommand.copyLicenseFiles("project", extractDir.toString(), thirdPartyFiles);
+
+        // Verify
+        assertEquals(List.of("parent", "core-lib", "app"),
+            modules.stream().map(MavenCommand.ModuleLicenses::module).toList());
+        assertNull(modules.get(0).licenseFile());
+        assertEquals(extractDir.resolve("project-licenses-core.txt"), modules.get(1).licenseFile());
+        assertEquals(1, modules.get(1).entries().size());
+        assertNull(modules.get(2).licenseFile());
+        assertEquals(List.of(extractDir.resolve("project-licenses-core.txt"), extractDir.resolve("project-licenses-merged.txt")),
+            licenseFiles);
+
+        String table = mavenCommand.formatModuleLicenses(modules);
+        assertEquals(4, table.lines().count());
+        assertEquals(true, table.lines().skip(1).findFirst().get().contains("POM"));
+        assertEquals(true, table.lines().skip(3).findFirst().get().contains("MISSING"));
+
+        // Cleanup
+        ResultCache.deleteRecursively(extractDir);
+    }
+
+    @Test
+    void cache_key_depends_on_engine_and_offline_mode() throws IOException {
+        Path tempDir = Files.createTempDirectory("testDir");
+        Files.writeString(tempDir.resolve("pom.xml"), "<project/>");
+        ResultCache resultCache = new ResultCache(tempDir.resolve("cache"), ResultCache.DEFAULT_MAX_BYTES,
+            ResultCache.DEFAULT_MAX_AGE);
+        MavenCommand online = new MavenCommand(resultCache, new PomDiscovery());
+        MavenCommand offline = new MavenCommand(resultCache, new PomDiscovery(), MavenPool.invoker(),
+            new OfflineMode(true, tempDir.resolve("index"), tempDir.resolve("repository").toFile()),
+            LicensePolicy.defaults(), AnalyzerMetrics.disabled(), WorkspaceManager.defaults());
+        String project = tempDir.toString();
+
+        String resolver = online.cacheKey(project, MavenCommand.GOAL_DEPENDENCY_TREE, MavenCommand.ENGINE_RESOLVER);
+        assertEquals(resolver, online.cacheKey(project, MavenCommand.GOAL_DEPENDENCY_TREE, "RESOLVER"));
+        assertNotEquals(resolver, online.cacheKey(project, MavenCommand.GOAL_DEPENDENCY_TREE,
+            MavenCommand.ENGINE_INVOKER));
+        assertNotEquals(resolver, offline.cacheKey(project, MavenCommand.GOAL_DEPENDENCY_TREE,
+            MavenCommand.ENGINE_RESOLVER));
+        assertNotEquals(online.cacheKey(project, MavenCommand.GOAL_LICENSES),
+            offline.cacheKey(project, MavenCommand.GOAL_LICENSES));
+        // analyze-diff keys its results by commit with the same qualifier
+        assertEquals("incremental:resolver", online.cacheQualifier(IncrementalAnalyzer.GOAL_INCREMENTAL,
+            MavenCommand.ENGINE_RESOLVER));
+        assertEquals("incremental:invoker:offline", offline.cacheQualifier(IncrementalAnalyzer.GOAL_INCREMENTAL,
+            MavenCommand.ENGINE_INVOKER));
+
+        ResultCache.deleteRecursively(tempDir);
+    }
+
 }
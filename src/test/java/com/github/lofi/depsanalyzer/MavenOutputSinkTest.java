@@ -0,0 +1,59 @@
+package com.github.lofi.depsanalyzer;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+class MavenOutputSinkTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void lines_are_streamed_to_log_file_and_matched() throws IOException {
+        Path logFile = tempDir.resolve("maven.txt");
+
+        try (MavenOutputSink sink = new MavenOutputSink(logFile)) {
+            sink.consumeLine("[INFO] Scanning for projects...");
+            sink.consumeLine("[INFO] Writing third-party file to /project/core/target/THIRD-PARTY.txt");
+            sink.consumeLine("[ERROR] Failed to execute goal");
+            sink.consumeLine("[INFO] Writing third-party file to /project/app/target/THIRD-PARTY.txt");
+
+            assertEquals(List.of("/project/core/target/THIRD-PARTY.txt", "/project/app/target/THIRD-PARTY.txt"),
+                sink.getThirdPartyFiles());
+            assertEquals(List.of("[ERROR] Failed to execute goal"), sink.getErrors());
+            assertEquals(4, sink.getLineCount());
+        }
+
+        assertEquals(4, Files.readAllLines(logFile).size());
+        assertEquals("[INFO] Scanning for projects...", Files.readAllLines(logFile).get(0));
+    }
+
+    @Test
+    void only_a_bounded_tail_is_kept() throws IOException {
+        Path logFile = tempDir.resolve("maven.txt");
+
+        try (MavenOutputSink sink = new MavenOutputSink(logFile, 3)) {
+            for (int i = 1; i <= 1000; i++) {
+                sink.consumeLine("[DEBUG] line " + i);
+            }
+
+            assertEquals("[DEBUG] line 998\n[DEBUG] line 999\n[DEBUG] line 1000", sink.getTail());
+        }
+
+        assertEquals(1000, Files.readAllLines(logFile).size());
+    }
+
+    @Test
+    void third_party_file_path() {
+        assertEquals("/a/THIRD-PARTY.txt", MavenOutputSink.thirdPartyFilePath("[INFO] Writing third-party file to /a/THIRD-PARTY.txt "));
+        assertNull(MavenOutputSink.thirdPartyFilePath("[INFO] Writing third-party file to "));
+        assertNull(MavenOutputSink.thirdPartyFilePath("[INFO] BUILD SUCCESS"));
+    }
+}
@@ -0,0 +1,191 @@
+package com.github.lofi.depsanalyzer;
+
+import org.apache.maven.shared.invoker.DefaultInvocationRequest;
+import org.apache.maven.shared.invoker.InvocationOutputHandler;
+import org.apache.maven.shared.invoker.InvocationRequest;
+import org.apache.maven.shared.invoker.InvocationResult;
+import org.apache.maven.shared.invoker.MavenInvocationException;
+import org.apache.maven.shared.utils.cli.CommandLineException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class MavenPoolTest {
+
+    private final AtomicInteger created = new AtomicInteger();
+    private final AtomicInteger closed = new AtomicInteger();
+    private final AtomicInteger memoryChecks = new AtomicInteger();
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void builds_wait_for_a_free_worker() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        MavenPool pool = new MavenPool("test", 1, 0, 0, index -> new FakeWorker(release, 0));
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<MavenPool.Execution> first = executor.submit(() -> pool.execute(request(), line -> { }));
+            Thread.sleep(100);
+            Future<MavenPool.Execution> second = executor.submit(() -> pool.execute(request(), line -> { }));
+            Thread.sleep(200);
+            release.countDown();
+
+            assertEquals(0, first.get(10, TimeUnit.SECONDS).exitCode());
+            assertTrue(second.get(10, TimeUnit.SECONDS).queueWaitMillis() >= 100);
+            assertEquals(1, created.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void worker_is_recycled_after_max_builds() throws Exception {
+        MavenPool pool = new MavenPool("test", 1, 2, 0, index -> new FakeWorker(null, 0));
+
+        for (int i = 0; i < 5; i++) {
+            pool.execute(request(), line -> { });
+        }
+
+        assertEquals(3, created.get());
+        assertEquals(2, closed.get());
+        assertEquals(5, pool.recentExecutions().size());
+        assertTrue(pool.stats().contains("Builds: 5, recycled workers: 2"));
+    }
+
+    @Test
+    void worker_is_recycled_on_memory_growth() throws Exception {
+        MavenPool pool = new MavenPool("test", 2, 0, 1024, index -> new FakeWorker(null, index == 0 ? 4096 : 0));
+
+        // Builds alternate between the workers, the memory is checked every few builds of one
+        for (int i = 0; i < 2 * MavenPool.MEMORY_CHECK_INTERVAL - 2; i++) {
+            pool.execute(request(), line -> { });
+        }
+        assertEquals(0, closed.get());
+        assertEquals(0, memoryChecks.get());
+
+        pool.execute(request(), line -> { });
+        pool.execute(request(), line -> { });
+        assertEquals(1, closed.get());
+        assertEquals(2, memoryChecks.get());
+    }
+
+    @Test
+    void hanging_daemon_client_times_out() throws Exception {
+        Path mvnd = Files.writeString(tempDir.resolve("mvnd"), "#!/bin/sh\necho RSS\nexec sleep 30\n");
+        assertTrue(mvnd.toFile().setExecutable(true));
+        MavenPool.DaemonWorker worker = new MavenPool.DaemonWorker(mvnd, tempDir.resolve("daemon"),
+            Duration.ofMillis(500));
+
+        long start = System.nanoTime();
+        assertEquals(0, worker.memoryBytes());
+        worker.close();
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(10));
+    }
+
+    @Test
+    void failure_to_start_maven_is_an_exception() {
+        MavenPool pool = new MavenPool("test", 1, 0, 0, index -> new MavenPool.Worker() {
+            @Override
+            public InvocationResult execute(InvocationRequest request, InvocationOutputHandler outputHandler) {
+                return result(-1, new CommandLineException("mvn not found"));
+            }
+
+            @Override
+            public long memoryBytes() {
+                return 0;
+            }
+
+            @Override
+            public void close() {
+            }
+        });
+
+        assertThrows(MavenInvocationException.class, () -> pool.execute(request(), line -> { }));
+        // The worker is available again after the failure
+        assertThrows(MavenInvocationException.class, () -> pool.execute(request(), line -> { }));
+    }
+
+    @Test
+    void resident_memory_from_daemon_status() {
+        List<String> status = List.of(
+            "      ID      PID                   Address      Status    RSS            Last activity  Java home",
+            "5b3a4c1d    12345   inet:/127.0.0.1:40123        Idle   512m  2024-01-01T10:00:00.000  /usr/lib/jvm",
+            "7f2e9a0b    12346   inet:/127.0.0.1:40124        Busy  1.5g  2024-01-01T10:01:00.000  /usr/lib/jvm");
+
+        assertEquals(512L * 1024 * 1024 + (long) (1.5 * 1024 * 1024 * 1024), MavenPool.residentMemory(status));
+        assertEquals(0, MavenPool.residentMemory(List.of("No daemons are running")));
+        assertEquals(2048, MavenPool.parseSize("2k"));
+        assertEquals(100, MavenPool.parseSize("100"));
+    }
+
+    private InvocationRequest request() {
+        InvocationRequest request = new DefaultInvocationRequest();
+        request.setPomFile(new File("project/pom.xml"));
+        request.setGoals(List.of("dependency:tree"));
+        return request;
+    }
+
+    private static InvocationResult result(int exitCode, CommandLineException exception) {
+        return new InvocationResult() {
+            @Override
+            public CommandLineException getExecutionException() {
+                return exception;
+            }
+
+            @Override
+            public int getExitCode() {
+                return exitCode;
+            }
+        };
+    }
+
+    private class FakeWorker implements MavenPool.Worker {
+
+        private final CountDownLatch release;
+        private final long memory;
+
+        FakeWorker(CountDownLatch release, long memory) {
+            this.release = release;
+            this.memory = memory;
+            created.incrementAndGet();
+        }
+
+        @Override
+        public InvocationResult execute(InvocationRequest request, InvocationOutputHandler outputHandler) {
+            if (release != null) {
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return result(0, null);
+        }
+
+        @Override
+        public long memoryBytes() {
+            memoryChecks.incrementAndGet();
+            return memory;
+        }
+
+        @Override
+        public void close() {
+            closed.incrementAndGet();
+        }
+    }
+}
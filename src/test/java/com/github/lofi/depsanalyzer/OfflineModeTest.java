@@ -0,0 +1,148 @@
+package com.github.lofi.depsanalyzer;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+class OfflineModeTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path repository;
+    private OfflineMode offlineMode;
+    private InProcessResolver resolver;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        repository = tempDir.resolve("repository");
+        LocalRepositoryIndexTest.install(repository, "com.example", "lib-a", "1.0",
+            dependencies("com.example", "lib-b", "1.0"), true);
+        LocalRepositoryIndexTest.install(repository, "com.example", "lib-c", "2.0", "", true);
+        // The version of the super POM of Maven 3.9
+        LocalRepositoryIndexTest.install(repository, "org.apache.maven.plugins", "maven-dependency-plugin", "3.7.0",
+            "", true);
+        offlineMode = new OfflineMode(true, tempDir.resolve("repository.idx"), repository.toFile());
+        resolver = new InProcessResolver(repository.toFile(), true);
+    }
+
+    @Test
+    void report_all_missing_artifacts_before_the_build() throws Exception {
+        File pom = project(dependencies("com.example", "lib-a", "1.0").replace("</dependencies>", "")
+            + "<dependency><groupId>com.example</groupId><artifactId>lib-c</artifactId><version>2.0</version></dependency>"
+            + "<dependency><groupId>com.example</groupId><artifactId>lib-d</artifactId><version>3.0</version></dependency>"
+            + "</dependencies>");
+
+        OfflineMode.Report report = offlineMode.check(pom, resolver, MavenCommand.GOAL_LICENSES);
+
+        assertEquals(5, report.artifacts());
+        assertEquals(3, report.problems().size());
+        assertEquals("com.example:lib-d:3.0", report.problems().get(0).coordinate());
+        assertEquals("com.example:lib-b:1.0", report.problems().get(1).coordinate());
+        assertEquals("com.example:lib-a:1.0", report.problems().get(1).requiredBy());
+        assertEquals("org.codehaus.mojo:license-maven-plugin", report.problems().get(2).coordinate());
+        assertTrue(report.format().contains("3 of 5 artifacts"));
+    }
+
+    @Test
+    void complete_project_passes_the_check() throws Exception {
+        File pom = project(dependencies("com.example", "lib-c", "2.0"));
+
+        OfflineMode.Report report = offlineMode.check(pom, resolver, MavenCommand.GOAL_DEPENDENCY_TREE);
+
+        assertTrue(report.ok(), report.format());
+        assertEquals(2, report.artifacts());
+    }
+
+    @Test
+    void artifact_installed_after_indexing_is_found() throws Exception {
+        offlineMode.index();
+        LocalRepositoryIndexTest.install(repository, "com.example", "lib-b", "1.0", "", true);
+        File pom = project(dependencies("com.example", "lib-a", "1.0"));
+
+        assertTrue(offlineMode.check(pom, resolver, null).ok());
+    }
+
+    @Test
+    void license_goal_requires_jars() throws Exception {
+        LocalRepositoryIndexTest.install(repository, "com.example", "lib-e", "1.0", "", false);
+        LocalRepositoryIndexTest.install(repository, "org.codehaus.mojo", "license-maven-plugin", "2.4.0", "", true);
+        File pom = project(dependencies("com.example", "lib-e", "1.0"));
+
+        assertTrue(offlineMode.check(pom, resolver, MavenCommand.GOAL_DEPENDENCY_TREE).ok());
+        OfflineMode.Report report = offlineMode.check(pom, resolver, MavenCommand.GOAL_LICENSES);
+
+        assertEquals(1, report.problems().size(), report.format());
+        assertEquals("com.example:lib-e:1.0", report.problems().get(0).coordinate());
+        assertEquals("jar not found", report.problems().get(0).reason());
+    }
+
+    @Test
+    void missing_parent_of_dependency_is_reported() throws Exception {
+        LocalRepositoryIndexTest.install(repository, "com.example", "lib-f", "1.0",
+            "<parent><groupId>com.example</groupId><artifactId>corporate</artifactId><version>7</version></parent>",
+            true);
+        File pom = project(dependencies("com.example", "lib-f", "1.0"));
+
+        OfflineMode.Report report = offlineMode.check(pom, resolver, null);
+
+        assertEquals(1, report.problems().size(), report.format());
+        assertEquals(new OfflineMode.Problem("com.example:corporate:7", "com.example:lib-f:1.0",
+            "parent POM not found"), report.problems().get(0));
+    }
+
+    @Test
+    void plugin_version_of_the_build_is_checked_with_its_dependencies() throws Exception {
+        LocalRepositoryIndexTest.install(repository, "org.codehaus.mojo", "license-maven-plugin", "2.0.0", "", true);
+        String plugin = "<build><plugins><plugin><groupId>org.codehaus.mojo</groupId>"
+            + "<artifactId>license-maven-plugin</artifactId><version>2.4.0</version></plugin></plugins></build>";
+        File pom = project(plugin);
+
+        OfflineMode.Report report = offlineMode.check(pom, resolver, MavenCommand.GOAL_LICENSES);
+        assertEquals(List.of("org.codehaus.mojo:license-maven-plugin:2.4.0"), coordinates(report));
+
+        LocalRepositoryIndexTest.install(repository, "org.codehaus.mojo", "license-maven-plugin", "2.4.0",
+            dependencies("com.example", "plugin-lib", "1.0").replace("</dependencies>", "")
+                + "<dependency><groupId>com.example</groupId><artifactId>test-lib</artifactId><version>1.0</version>"
+                + "<scope>test</scope></dependency></dependencies>", true);
+        report = offlineMode.check(pom, resolver, MavenCommand.GOAL_LICENSES);
+        assertEquals(List.of("com.example:plugin-lib:1.0"), coordinates(report));
+        assertEquals("org.codehaus.mojo:license-maven-plugin:2.4.0", report.problems().get(0).requiredBy());
+    }
+
+    @Test
+    void missing_parent_is_reported() throws Exception {
+        File pom = project("");
+        Files.writeString(pom.toPath(), "<project><modelVersion>4.0.0</modelVersion><parent><groupId>com.example"
+            + "</groupId><artifactId>parent</artifactId><version>1.0</version></parent><artifactId>app</artifactId>"
+            + "</project>");
+
+        IOException e = assertThrows(IOException.class, () -> offlineMode.requireArtifacts(pom, resolver, null));
+        assertTrue(e.getMessage().contains("com.example:parent:1.0"), e.getMessage());
+    }
+
+    private File project(String content) throws Exception {
+        Path directory = Files.createDirectories(tempDir.resolve("project"));
+        return Files.writeString(directory.resolve("pom.xml"), "<project><modelVersion>4.0.0</modelVersion>"
+            + "<groupId>com.example</groupId><artifactId>app</artifactId><version>1.0</version>" + content
+            + "</project>").toFile();
+    }
+
+    private static List<String> coordinates(OfflineMode.Report report) {
+        return report.problems().stream().map(OfflineMode.Problem::coordinate).toList();
+    }
+
+    private static String dependencies(String groupId, String artifactId, String version) {
+        return "<dependencies><dependency><groupId>" + groupId + "</groupId><artifactId>" + artifactId
+            + "</artifactId><version>" + version + "</version></dependency></dependencies>";
+    }
+}
@@ -0,0 +1,114 @@
+package com.github.lofi.depsanalyzer;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+class PomDiscoveryTest {
+
+    @TempDir
+    Path tempDir;
+
+    private PomDiscovery pomDiscovery;
+
+    @BeforeEach
+    void setUp() {
+        pomDiscovery = new PomDiscovery();
+    }
+
+    @Test
+    void reactor_root_is_aggregator_not_module() throws IOException {
+        // The module sorts before the aggregator directory, a depth first search finds it first
+        Path aggregator = Files.createDirectories(tempDir.resolve("b-aggregator"));
+        writePom(aggregator, "aggregator", "<modules><module>../a-module</module></modules>");
+        writePom(Files.createDirectories(tempDir.resolve("a-module")), "module", "");
+
+        PomIndex index = pomDiscovery.index(tempDir);
+
+        assertEquals(aggregator.resolve("pom.xml"), index.reactorRoot().pomFile());
+        assertEquals(List.of("aggregator", "module"), artifactIds(index.reactor(index.reactorRoot())));
+    }
+
+    @Test
+    void reactor_root_prefers_build_directory() throws IOException {
+        writePom(Files.createDirectories(tempDir.resolve("app")), "app", "");
+        Path build = writePom(Files.createDirectories(tempDir.resolve("Build_App")), "build", "");
+
+        assertEquals(build, pomDiscovery.index(tempDir).reactorRoot().pomFile());
+    }
+
+    @Test
+    void reactor_root_prefers_shallow_pom() throws IOException {
+        writePom(Files.createDirectories(tempDir.resolve("build/nested")), "nested", "");
+        Path shallow = writePom(Files.createDirectories(tempDir.resolve("project")), "project", "");
+
+        assertEquals(shallow, pomDiscovery.index(tempDir).reactorRoot().pomFile());
+    }
+
+    @Test
+    void pruned_directories_are_skipped() throws IOException {
+        writePom(tempDir, "root", "");
+        writePom(Files.createDirectories(tempDir.resolve("target/classes")), "copy", "");
+        writePom(Files.createDirectories(tempDir.resolve("node_modules/dep")), "npm", "");
+        writePom(Files.createDirectories(tempDir.resolve(".git/hooks")), "git", "");
+
+        PomIndex index = pomDiscovery.index(tempDir);
+
+        assertEquals(List.of("root"), artifactIds(List.copyOf(index.getPoms())));
+    }
+
+    @Test
+    void empty_directory_has_no_reactor_root() throws IOException {
+        assertNull(pomDiscovery.index(tempDir).reactorRoot());
+    }
+
+    @Test
+    void index_is_reused_until_a_pom_changes() throws IOException {
+        Path pom = writePom(tempDir, "root", "");
+
+        PomIndex first = pomDiscovery.index(tempDir);
+        assertSame(first, pomDiscovery.index(tempDir));
+
+        Files.setLastModifiedTime(pom, FileTime.fromMillis(Files.getLastModifiedTime(pom).toMillis() + 5000));
+        assertNotSame(first, pomDiscovery.index(tempDir));
+
+        PomIndex second = pomDiscovery.index(tempDir);
+        pomDiscovery.invalidate(tempDir);
+        assertNotSame(second, pomDiscovery.index(tempDir));
+    }
+
+    @Test
+    void external_parents_are_followed() throws IOException {
+        Path parent = writePom(tempDir, "parent", "");
+        Path project = Files.createDirectories(tempDir.resolve("project"));
+        Path child = Files.writeString(project.resolve("pom.xml"),
+            "<project><parent><groupId>g</groupId><artifactId>parent</artifactId><version>1</version></parent>"
+                + "<artifactId>child</artifactId></project>");
+
+        PomIndex index = pomDiscovery.index(project);
+
+        assertEquals(List.of(child, parent), index.pomFilesWithParents());
+        assertEquals("g:child:1", index.get(child).coordinate());
+    }
+
+    private Path writePom(Path directory, String artifactId, String modules) throws IOException {
+        return Files.writeString(directory.resolve("pom.xml"),
+            "<project><groupId>g</groupId><artifactId>" + artifactId + "</artifactId><version>1</version>"
+                + modules + "</project>");
+    }
+
+    private List<String> artifactIds(List<PomIndex.PomInfo> poms) {
+        return poms.stream().map(PomIndex.PomInfo::artifactId).collect(Collectors.toList());
+    }
+}
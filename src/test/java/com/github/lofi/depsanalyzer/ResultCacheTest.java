@@ -0,0 +1,148 @@
+package com.github.lofi.depsanalyzer;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+class ResultCacheTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void key_is_independent_of_project_location() throws IOException {
+        ResultCache cache = newCache(1024 * 1024, Duration.ofDays(1));
+        Path first = createProject("first", "<project>a</project>");
+        Path second = createProject("second", "<project>a</project>");
+
+        String firstKey = cache.key(first, List.of(first.resolve("pom.xml")), "dependency:tree");
+        String secondKey = cache.key(second, List.of(second.resolve("pom.xml")), "dependency:tree");
+
+        assertEquals(firstKey, secondKey);
+    }
+
+    @Test
+    void key_changes_with_pom_content_and_goal() throws IOException {
+        ResultCache cache = newCache(1024 * 1024, Duration.ofDays(1));
+        Path first = createProject("first", "<project>a</project>");
+        Path second = createProject("second", "<project>b</project>");
+
+        String key = cache.key(first, List.of(first.resolve("pom.xml")), "dependency:tree");
+
+        assertNotEquals(key, cache.key(second, List.of(second.resolve("pom.xml")), "dependency:tree"));
+        assertNotEquals(key, cache.key(first, List.of(first.resolve("pom.xml")), "license:add-third-party"));
+    }
+
+    @Test
+    void lookup_counts_hits_and_misses() throws IOException {
+        ResultCache cache = newCache(1024 * 1024, Duration.ofDays(1));
+        Path result = Files.writeString(tempDir.resolve("result.txt"), "result");
+
+        assertFalse(cache.lookup("key").isPresent());
+        cache.store("key", "dependency:tree", Map.of("result.txt", result));
+        Optional<Path> entry = cache.lookup("key");
+
+        assertTrue(entry.isPresent());
+        assertEquals("result", Files.readString(entry.get().resolve("result.txt")));
+        assertEquals(List.of(entry.get().resolve("result.txt")), cache.entryFiles(entry.get()));
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    void keep_entry_until_reader_is_done() throws Exception {
+        ResultCache cache = newCache(1024 * 1024, Duration.ofDays(1));
+        Path result = Files.writeString(tempDir.resolve("result.txt"), "result");
+        cache.store("key", "dependency:tree", Map.of("result.txt", result));
+
+        CountDownLatch reading = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Optional<String>> read = executor.submit(() -> cache.read("key", entry -> {
+                reading.countDown();
+                try {
+                    done.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    throw new InterruptedIOException();
+                }
+                return Files.readString(entry.resolve("result.txt"));
+            }));
+            assertTrue(reading.await(10, TimeUnit.SECONDS));
+            Future<Integer> clear = executor.submit(cache::clear);
+            Thread.sleep(100);
+            assertFalse(clear.isDone());
+
+            done.countDown();
+            assertEquals(Optional.of("result"), read.get(10, TimeUnit.SECONDS));
+            assertEquals(1, clear.get(10, TimeUnit.SECONDS));
+        } finally {
+            done.countDown();
+            executor.shutdownNow();
+        }
+        assertFalse(cache.read("key", entry -> entry).isPresent());
+    }
+
+    @Test
+    void evict_least_recently_used_entries_over_max_size() throws IOException {
+        ResultCache cache = newCache(300, Duration.ofDays(1));
+        Path result = Files.writeString(tempDir.resolve("result.txt"), "x".repeat(100));
+
+        cache.store("old", "dependency:tree", Map.of("result.txt", result));
+        Files.setLastModifiedTime(tempDir.resolve("cache/old"), FileTime.fromMillis(0));
+        cache.store("new", "dependency:tree", Map.of("result.txt", result));
+
+        assertFalse(cache.lookup("old").isPresent());
+        assertTrue(cache.lookup("new").isPresent());
+    }
+
+    @Test
+    void evict_entries_over_max_age() throws IOException {
+        ResultCache cache = newCache(1024 * 1024, Duration.ZERO);
+        Path result = Files.writeString(tempDir.resolve("result.txt"), "result");
+
+        cache.store("key", "dependency:tree", Map.of("result.txt", result));
+
+        assertFalse(cache.lookup("key").isPresent());
+        assertFalse(Files.exists(tempDir.resolve("cache/key")));
+    }
+
+    @Test
+    void clear_removes_all_entries() throws IOException {
+        ResultCache cache = newCache(1024 * 1024, Duration.ofDays(1));
+        Path result = Files.writeString(tempDir.resolve("result.txt"), "result");
+        cache.store("first", "dependency:tree", Map.of("result.txt", result));
+        cache.store("second", "dependency:tree", Map.of("result.txt", result));
+
+        assertEquals(2, cache.clear());
+        assertFalse(cache.lookup("first").isPresent());
+    }
+
+    private ResultCache newCache(long maxBytes, Duration maxAge) {
+        return new ResultCache(tempDir.resolve("cache"), maxBytes, maxAge);
+    }
+
+    private Path createProject(String name, String pom) throws IOException {
+        Path project = Files.createDirectories(tempDir.resolve(name));
+        Files.writeString(project.resolve("pom.xml"), pom);
+        return project;
+    }
+}
@@ -0,0 +1,90 @@
+package com.github.lofi.depsanalyzer;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+class ServerAccessTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void confine_paths_to_root() throws Exception {
+        Path root = Files.createDirectories(tempDir.resolve("root"));
+        ServerAccess access = new ServerAccess(root, Map.of(), List.of());
+
+        Map<String, String> confined = access.confine(Map.of("directory", "out", "zipfile", root + "/in/app.zip",
+            "engine", "resolver"));
+
+        assertEquals(root.resolve("out").toString(), confined.get("directory"));
+        assertEquals(root.resolve("in/app.zip").toString(), confined.get("zipfile"));
+        assertEquals("resolver", confined.get("engine"));
+        assertThrows(IllegalArgumentException.class, () -> access.confine(Map.of("directory", "../outside")));
+        assertThrows(IllegalArgumentException.class, () -> access.confine(Map.of("output", "/etc/passwd")));
+        assertThrows(IllegalArgumentException.class, () -> access.confine(Map.of("policy", "a/../../b")));
+
+        Files.createSymbolicLink(root.resolve("link"), tempDir);
+        assertThrows(IllegalArgumentException.class, () -> access.confine(Map.of("directory", "link/out")));
+    }
+
+    @Test
+    void confine_default_dependency_graph_output() throws Exception {
+        Path root = Files.createDirectories(tempDir.resolve("root"));
+        Path project = Files.createDirectories(root.resolve("app"));
+        Files.createSymbolicLink(project.resolve("app-dependencies.json"), tempDir.resolve("outside.json"));
+        ServerAccess access = new ServerAccess(root, Map.of(), List.of());
+        MavenCommand mavenCommand = new MavenCommand(new ResultCache(tempDir.resolve("cache"),
+            ResultCache.DEFAULT_MAX_BYTES, ResultCache.DEFAULT_MAX_AGE), new PomDiscovery());
+
+        JobService.Operation dependencies = ServerConfiguration.operations(mavenCommand, null, access)
+            .get("dependencies");
+
+        assertThrows(IllegalArgumentException.class, () -> dependencies.run(Map.of("directory", "app")));
+        assertFalse(Files.exists(tempDir.resolve("outside.json")));
+    }
+
+    @Test
+    void allow_clone_urls_with_configured_prefixes() {
+        ServerAccess closed = new ServerAccess(tempDir, Map.of(), List.of());
+        ServerAccess open = new ServerAccess(tempDir, Map.of(), List.of("https://gitlab.example.com/"));
+
+        assertThrows(IllegalArgumentException.class, () -> closed.confine(Map.of("url", "https://evil.test/x.git")));
+        assertDoesNotThrow(() -> open.confine(Map.of("url", "https://gitlab.example.com/group/app.git")));
+        assertThrows(IllegalArgumentException.class, () -> open.confine(Map.of("url", "file:///srv/repo")));
+    }
+
+    @Test
+    void tenant_from_token_or_header() {
+        ServerAccess local = new ServerAccess(tempDir, Map.of(), List.of());
+        ServerAccess secured = new ServerAccess(tempDir, ServerAccess.parseTokens(List.of("team-a:s3cret", "team-b:other")),
+            List.of());
+
+        assertEquals("team-a", local.tenant(null, "team-a"));
+        assertEquals(ServerAccess.DEFAULT_TENANT, local.tenant(null, null));
+        assertEquals("team-a", secured.tenant("Bearer s3cret", "team-b"));
+        assertEquals("team-b", secured.tenant("Bearer other", null));
+        assertThrows(SecurityException.class, () -> secured.tenant(null, "team-a"));
+        assertThrows(SecurityException.class, () -> secured.tenant("Bearer wrong", null));
+    }
+
+    @Test
+    void require_tokens_unless_loopback() {
+        ServerAccess local = new ServerAccess(tempDir, Map.of(), List.of());
+        ServerAccess secured = new ServerAccess(tempDir, Map.of("s3cret", "team-a"), List.of());
+
+        assertDoesNotThrow(() -> local.checkAddress("127.0.0.1"));
+        assertThrows(IllegalStateException.class, () -> local.checkAddress(""));
+        assertThrows(IllegalStateException.class, () -> local.checkAddress("0.0.0.0"));
+        assertDoesNotThrow(() -> secured.checkAddress(""));
+        assertThrows(IllegalArgumentException.class, () -> ServerAccess.parseTokens(List.of("no-token")));
+    }
+}
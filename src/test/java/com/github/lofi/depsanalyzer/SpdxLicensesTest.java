@@ -0,0 +1,37 @@
+package com.github.lofi.depsanalyzer;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import java.util.Map;
+
+class SpdxLicensesTest {
+
+    private final SpdxLicenses spdxLicenses = new SpdxLicenses(Map.of());
+
+    @Test
+    void to_spdx_normalises_spelling_variants() {
+        assertEquals("Apache-2.0", spdxLicenses.toSpdx("The Apache Software License, Version 2.0"));
+        assertEquals("Apache-2.0", spdxLicenses.toSpdx("Apache License, Version 2.0"));
+        assertEquals("Apache-2.0", spdxLicenses.toSpdx("apache-2.0"));
+        assertEquals("EPL-1.0", spdxLicenses.toSpdx("Eclipse Public License - v 1.0"));
+        assertEquals("MIT", spdxLicenses.toSpdx("The MIT License (MIT)"));
+        assertEquals("LGPL-2.1-only", spdxLicenses.toSpdx("GNU Lesser General Public Licence, version 2.1"));
+    }
+
+    @Test
+    void to_spdx_maps_dual_licenses_and_urls() {
+        assertEquals("CDDL-1.1 OR GPL-2.0-only WITH Classpath-exception-2.0",
+            spdxLicenses.toSpdx("CDDL + GPLv2 with classpath exception"));
+        assertEquals("Apache-2.0", spdxLicenses.toSpdx("https://www.apache.org/licenses/LICENSE-2.0.txt"));
+    }
+
+    @Test
+    void to_spdx_prefers_custom_aliases() {
+        SpdxLicenses custom = new SpdxLicenses(Map.of("BSD", "BSD-2-Clause", "Acme Commercial", "LicenseRef-Acme"));
+
+        assertEquals("BSD-2-Clause", custom.toSpdx("BSD"));
+        assertEquals("LicenseRef-Acme", custom.toSpdx("ACME commercial"));
+        assertEquals(SpdxLicenses.UNKNOWN, spdxLicenses.toSpdx("Acme Commercial"));
+    }
+}
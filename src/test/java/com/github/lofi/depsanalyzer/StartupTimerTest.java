@@ -0,0 +1,55 @@
+package com.github.lofi.depsanalyzer;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.shell.standard.ShellComponent;
+import org.springframework.shell.standard.ShellMethod;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StartupTimerTest {
+
+    @Test
+    void start_within_target_passes() {
+        assertDoesNotThrow(() -> new StartupTimer(1000, true).check(1000));
+    }
+
+    @Test
+    void slow_start_only_fails_when_target_is_enforced() {
+        assertDoesNotThrow(() -> new StartupTimer(1000, false).check(1500));
+
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+            () -> new StartupTimer(1000, true).check(1500));
+        assertTrue(e.getMessage().contains("1500 ms after JVM start, above the target of 1000 ms"), e.getMessage());
+    }
+
+    @Test
+    void measure_when_first_command_starts() {
+        StartupTimer timer = new StartupTimer(0, true);
+        Object other = new Object();
+        assertEquals(other, timer.postProcessAfterInitialization(other, "other"));
+
+        Commands commands = (Commands) timer.postProcessAfterInitialization(new Commands(), "commands");
+
+        assertEquals("help", commands.help());
+        IllegalStateException e = assertThrows(IllegalStateException.class, commands::run);
+        assertTrue(e.getMessage().contains("above the target of 0 ms"), e.getMessage());
+        // Measured once, later commands run
+        assertEquals("ran", commands.run());
+    }
+
+    @ShellComponent
+    static class Commands {
+
+        @ShellMethod(key = "run", value = "Run.")
+        public String run() {
+            return "ran";
+        }
+
+        public String help() {
+            return "help";
+        }
+    }
+}
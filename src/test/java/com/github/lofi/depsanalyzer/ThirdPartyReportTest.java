@@ -0,0 +1,80 @@
+package com.github.lofi.depsanalyzer;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+class ThirdPartyReportTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void parse_line_with_multiple_licenses() {
+        ThirdPartyReport.Entry entry = ThirdPartyReport.parseLine(
+            "     (Eclipse Public License - v 1.0) (GNU Lesser General Public License) Logback Classic Module "
+                + "(ch.qos.logback:logback-classic:1.5.16 - http://logback.qos.ch/logback-classic)");
+
+        assertEquals("ch.qos.logback:logback-classic:1.5.16", entry.coordinate());
+        assertEquals("Logback Classic Module", entry.name());
+        assertEquals(List.of("Eclipse Public License - v 1.0", "GNU Lesser General Public License"), entry.licenses());
+        assertEquals("http://logback.qos.ch/logback-classic", entry.url());
+    }
+
+    @Test
+    void parse_line_with_parentheses_in_license_and_name() {
+        ThirdPartyReport.Entry entry = ThirdPartyReport.parseLine(
+            "     (CDDL + GPLv2 with classpath exception (CPE)) JavaBeans(TM) Activation "
+                + "(javax.activation:activation:1.1 - no url defined)");
+
+        assertEquals(List.of("CDDL + GPLv2 with classpath exception (CPE)"), entry.licenses());
+        assertEquals("JavaBeans(TM) Activation", entry.name());
+        assertEquals("javax.activation:activation:1.1", entry.coordinate());
+    }
+
+    @Test
+    void parse_line_ignores_header() {
+        assertNull(ThirdPartyReport.parseLine("Lists of 116 third-party dependencies."));
+        assertNull(ThirdPartyReport.parseLine(""));
+    }
+
+    @Test
+    void merge_deduplicates_by_coordinate() throws IOException {
+        Path api = Files.writeString(tempDir.resolve("api.txt"), """
+
+            Lists of 2 third-party dependencies.
+                 (MIT) SLF4J API (org.slf4j:slf4j-api:2.0.16 - http://www.slf4j.org)
+                 (Apache-2.0) Commons Lang (org.apache.commons:commons-lang3:3.17.0 - https://commons.apache.org)
+            """);
+        Path app = Files.writeString(tempDir.resolve("app.txt"), """
+
+            Lists of 1 third-party dependencies.
+                 (MIT) SLF4J API (org.slf4j:slf4j-api:2.0.16 - http://www.slf4j.org)
+            """);
+        Map<String, List<ThirdPartyReport.Entry>> entriesByModule = new LinkedHashMap<>();
+        entriesByModule.put("api", ThirdPartyReport.parse(api));
+        entriesByModule.put("app", ThirdPartyReport.parse(app));
+
+        List<ThirdPartyReport.MergedEntry> merged = new ArrayList<>(ThirdPartyReport.merge(entriesByModule));
+
+        assertEquals(2, merged.size());
+        assertEquals("org.apache.commons:commons-lang3:3.17.0", merged.get(0).entry().coordinate());
+        assertEquals(Set.of("api", "app"), merged.get(1).modules());
+
+        Path mergedFile = tempDir.resolve("merged.txt");
+        ThirdPartyReport.writeMerged(mergedFile, merged, 2);
+        List<ThirdPartyReport.Entry> reread = ThirdPartyReport.parse(mergedFile);
+        assertEquals(2, reread.size());
+        assertEquals("org.slf4j:slf4j-api:2.0.16", reread.get(1).coordinate());
+    }
+}
@@ -0,0 +1,181 @@
+package com.github.lofi.depsanalyzer;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+class WorkspaceManagerTest {
+
+    @TempDir
+    Path tempDir;
+
+    private WorkspaceManager workspaces;
+
+    @BeforeEach
+    void setUp() {
+        workspaces = new WorkspaceManager(tempDir.resolve("workspaces"), ZipArchive.Limits.DEFAULT, 2,
+            WorkspaceManager.DEFAULT_POOL_MAX_BYTES);
+    }
+
+    @Test
+    void extract_into_isolated_workspaces() throws IOException {
+        Path zipFile = createZip("app", "<project>app</project>");
+
+        try (WorkspaceManager.Workspace first = workspaces.create("test");
+                WorkspaceManager.Workspace second = workspaces.create("test")) {
+            Path firstProject = first.extract(zipFile.toFile(), false, 2).resolve("app");
+            Path secondProject = second.extract(zipFile.toFile(), false, 2).resolve("app");
+
+            assertNotEquals(firstProject, secondProject);
+            assertEquals("<project>app</project>", Files.readString(firstProject.resolve("pom.xml")));
+            assertEquals("<project>app</project>", Files.readString(secondProject.resolve("pom.xml")));
+            assertFalse(Files.exists(firstProject.resolve("README.md")));
+            assertTrue(first.getUsedBytes() > 0);
+        }
+    }
+
+    @Test
+    void reuse_pooled_extraction_after_close() throws IOException {
+        Path zipFile = createZip("app", "<project>app</project>");
+        Path directory;
+        try (WorkspaceManager.Workspace workspace = workspaces.create("test")) {
+            directory = workspace.getDirectory();
+            workspace.extract(zipFile.toFile(), false, 2);
+        }
+        assertFalse(Files.exists(directory));
+
+        try (WorkspaceManager.Workspace workspace = workspaces.create("test")) {
+            Path project = workspace.extract(zipFile.toFile(), false, 2).resolve("app");
+            assertEquals("<project>app</project>", Files.readString(project.resolve("pom.xml")));
+        }
+        assertTrue(workspaces.stats().contains("Extracted: 1, reused: 1, evictions: 0"));
+
+        // A full extraction is another entry of the pool
+        try (WorkspaceManager.Workspace workspace = workspaces.create("test")) {
+            Path project = workspace.extract(zipFile.toFile(), true, 2).resolve("app");
+            assertTrue(Files.exists(project.resolve("README.md")));
+        }
+        assertTrue(workspaces.stats().contains("Pooled extractions: 2"));
+    }
+
+    @Test
+    void pool_extraction_without_build_output() throws IOException {
+        Path zipFile = createZip("app", "<project>app</project>");
+        try (WorkspaceManager.Workspace workspace = workspaces.create("test")) {
+            Path project = workspace.extract(zipFile.toFile(), false, 2).resolve("app");
+            Files.createDirectories(project.resolve("target"));
+            Files.writeString(project.resolve("target/THIRD-PARTY.txt"), "stale");
+        }
+
+        try (WorkspaceManager.Workspace workspace = workspaces.create("test")) {
+            Path project = workspace.extract(zipFile.toFile(), false, 2).resolve("app");
+            assertFalse(Files.exists(project.resolve("target")));
+        }
+        assertTrue(workspaces.stats().contains("reused: 1"));
+    }
+
+    @Test
+    void drop_extraction_with_modified_files() throws IOException {
+        Path zipFile = createZip("app", "<project>app</project>");
+        try (WorkspaceManager.Workspace workspace = workspaces.create("test")) {
+            Path project = workspace.extract(zipFile.toFile(), false, 2).resolve("app");
+            Files.writeString(project.resolve("pom.xml"), "<project>changed</project>");
+        }
+        assertTrue(workspaces.stats().contains("Pooled extractions: 0"));
+
+        try (WorkspaceManager.Workspace workspace = workspaces.create("test")) {
+            Path project = workspace.extract(zipFile.toFile(), false, 2).resolve("app");
+            assertEquals("<project>app</project>", Files.readString(project.resolve("pom.xml")));
+        }
+    }
+
+    @Test
+    void keep_workspaces_private_to_owner() throws IOException {
+        try (WorkspaceManager.Workspace workspace = workspaces.create("test")) {
+            Path root = workspace.getDirectory().getParent().getParent();
+            if (Files.getFileStore(root).supportsFileAttributeView("posix")) {
+                assertEquals("rwx------", PosixFilePermissions.toString(Files.getPosixFilePermissions(root)));
+            }
+        }
+    }
+
+    @Test
+    void evict_least_recently_used_extractions() throws IOException {
+        for (String name : new String[] {"one", "two", "three"}) {
+            Path zipFile = createZip(name, "<project>" + name + "</project>");
+            try (WorkspaceManager.Workspace workspace = workspaces.create("test")) {
+                workspace.extract(zipFile.toFile(), false, 2);
+            }
+        }
+
+        String stats = workspaces.stats();
+        assertTrue(stats.contains("Pooled extractions: 2"), stats);
+        assertTrue(stats.contains("evictions: 1"), stats);
+        assertEquals(2, workspaces.clear());
+    }
+
+    @Test
+    void reject_archive_above_quota() throws IOException {
+        WorkspaceManager small = new WorkspaceManager(tempDir.resolve("small"),
+            ZipArchive.Limits.DEFAULT.withMaxBytes(20), 2, WorkspaceManager.DEFAULT_POOL_MAX_BYTES);
+        Path zipFile = createZip("app", "<project>app</project>");
+
+        Path directory;
+        try (WorkspaceManager.Workspace workspace = small.create("test")) {
+            directory = workspace.getDirectory();
+            assertThrows(IOException.class, () -> workspace.extract(zipFile.toFile(), false, 2));
+        }
+        assertFalse(Files.exists(directory));
+        assertTrue(small.stats().contains("Pooled extractions: 0"));
+    }
+
+    @Test
+    void apply_quota_to_pooled_extraction() throws IOException {
+        WorkspaceManager small = new WorkspaceManager(tempDir.resolve("small"),
+            ZipArchive.Limits.DEFAULT.withMaxBytes(30), 2, WorkspaceManager.DEFAULT_POOL_MAX_BYTES);
+        Path first = createZip("one", "<project>one</project>");
+        Path second = createZip("two", "<project>two</project>");
+        try (WorkspaceManager.Workspace workspace = small.create("test")) {
+            workspace.extract(second.toFile(), false, 2);
+        }
+
+        try (WorkspaceManager.Workspace workspace = small.create("test")) {
+            workspace.extract(first.toFile(), false, 2);
+            assertThrows(IOException.class, () -> workspace.extract(second.toFile(), false, 2));
+            assertTrue(workspace.getUsedBytes() <= 30);
+        }
+        String stats = small.stats();
+        assertTrue(stats.contains("reused: 0"), stats);
+        assertTrue(stats.contains("Pooled extractions: 2"), stats);
+    }
+
+    private Path createZip(String name, String pom) throws IOException {
+        Path zipFile = tempDir.resolve(name + ".zip");
+        try (OutputStream out = Files.newOutputStream(zipFile);
+                ZipOutputStream zip = new ZipOutputStream(out)) {
+            addEntry(zip, name + "/pom.xml", pom);
+            addEntry(zip, name + "/README.md", "# " + name);
+        }
+        return zipFile;
+    }
+
+    private void addEntry(ZipOutputStream zip, String name, String content) throws IOException {
+        zip.putNextEntry(new ZipEntry(name));
+        zip.write(content.getBytes(StandardCharsets.UTF_8));
+        zip.closeEntry();
+    }
+}
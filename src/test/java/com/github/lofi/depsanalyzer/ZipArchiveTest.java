@@ -0,0 +1,150 @@
+package com.github.lofi.depsanalyzer;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+class ZipArchiveTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path zipFile;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        zipFile = tempDir.resolve("project.zip");
+        try (OutputStream out = Files.newOutputStream(zipFile);
+                ZipOutputStream zip = new ZipOutputStream(out)) {
+            addDirectory(zip, "project/");
+            addEntry(zip, "project/pom.xml", "<project/>");
+            addEntry(zip, "project/.mvn/maven.config", "-B");
+            addEntry(zip, "project/mvnw", "#!/bin/sh");
+            addEntry(zip, "project/module/pom.xml", "<project/>");
+            addEntry(zip, "project/module/src/main/java/App.java", "class App {}");
+            addEntry(zip, "project/module/src/test/resources/data.bin", "x".repeat(10_000));
+        }
+    }
+
+    @Test
+    void find_pom_entries_from_central_directory() throws IOException {
+        try (ZipArchive archive = new ZipArchive(zipFile.toFile())) {
+            assertEquals(List.of("project/pom.xml", "project/module/pom.xml"), archive.findPomEntries());
+        }
+    }
+
+    @Test
+    void extract_build_files_only() throws IOException {
+        Path destDir = tempDir.resolve("extract");
+
+        try (ZipArchive archive = new ZipArchive(zipFile.toFile())) {
+            archive.extract(destDir.toFile(), ZipArchive.BUILD_FILES, 4);
+        }
+
+        assertEquals("<project/>", Files.readString(destDir.resolve("project/module/pom.xml")));
+        assertTrue(Files.exists(destDir.resolve("project/pom.xml")));
+        assertTrue(Files.exists(destDir.resolve("project/.mvn/maven.config")));
+        assertTrue(Files.exists(destDir.resolve("project/mvnw")));
+        assertFalse(Files.exists(destDir.resolve("project/module/src/main/java/App.java")));
+        assertFalse(Files.exists(destDir.resolve("project/module/src/test/resources/data.bin")));
+    }
+
+    @Test
+    void extract_all_files() throws IOException {
+        Path destDir = tempDir.resolve("extract");
+
+        long bytes;
+        try (ZipArchive archive = new ZipArchive(zipFile.toFile())) {
+            bytes = archive.extract(destDir.toFile(), ZipArchive.ALL_FILES, 4);
+        }
+
+        assertTrue(Files.exists(destDir.resolve("project/module/src/main/java/App.java")));
+        assertEquals(10_000, Files.size(destDir.resolve("project/module/src/test/resources/data.bin")));
+        assertTrue(bytes > 10_000);
+    }
+
+    @Test
+    void reject_entry_outside_of_target_directory() throws IOException {
+        Path slipFile = tempDir.resolve("slip.zip");
+        try (OutputStream out = Files.newOutputStream(slipFile);
+                ZipOutputStream zip = new ZipOutputStream(out)) {
+            addEntry(zip, "project/pom.xml", "<project/>");
+            addEntry(zip, "project/../../evil.txt", "evil");
+        }
+        Path destDir = tempDir.resolve("extract");
+
+        try (ZipArchive archive = new ZipArchive(slipFile.toFile())) {
+            IOException e = assertThrows(IOException.class,
+                () -> archive.extract(destDir.toFile(), ZipArchive.ALL_FILES, 4));
+            assertTrue(e.getMessage().contains("outside of the target directory"));
+        }
+        assertFalse(Files.exists(tempDir.resolve("evil.txt")));
+        assertFalse(Files.exists(destDir.resolve("project/pom.xml")));
+    }
+
+    @Test
+    void reject_highly_compressed_entry() throws IOException {
+        Path bombFile = tempDir.resolve("bomb.zip");
+        try (OutputStream out = Files.newOutputStream(bombFile);
+                ZipOutputStream zip = new ZipOutputStream(out)) {
+            addEntry(zip, "project/pom.xml", "<project/>");
+            zip.putNextEntry(new ZipEntry("project/zeros.bin"));
+            zip.write(new byte[4 * 1024 * 1024]);
+            zip.closeEntry();
+        }
+
+        try (ZipArchive archive = new ZipArchive(bombFile.toFile())) {
+            IOException e = assertThrows(IOException.class,
+                () -> archive.extract(tempDir.resolve("extract").toFile(), ZipArchive.ALL_FILES, 4));
+            assertTrue(e.getMessage().contains("ZIP bomb"));
+        }
+    }
+
+    @Test
+    void reject_archive_above_limits() throws IOException {
+        try (ZipArchive archive = new ZipArchive(zipFile.toFile())) {
+            IOException tooLarge = assertThrows(IOException.class, () -> archive.extract(
+                tempDir.resolve("large").toFile(), ZipArchive.ALL_FILES, 4, ZipArchive.Limits.DEFAULT.withMaxBytes(5_000)));
+            assertTrue(tooLarge.getMessage().contains("5000 bytes"));
+
+            IOException tooMany = assertThrows(IOException.class, () -> archive.extract(
+                tempDir.resolve("many").toFile(), ZipArchive.ALL_FILES, 4, new ZipArchive.Limits(1_000_000, 3, 200)));
+            assertTrue(tooMany.getMessage().contains("more than 3 entries"));
+        }
+    }
+
+    @Test
+    void is_build_file() {
+        assertTrue(ZipArchive.isBuildFile("pom.xml"));
+        assertTrue(ZipArchive.isBuildFile("project/module/pom.xml"));
+        assertTrue(ZipArchive.isBuildFile("project/.mvn/wrapper/maven-wrapper.properties"));
+        assertTrue(ZipArchive.isBuildFile("project/mvnw.cmd"));
+        assertTrue(ZipArchive.isBuildFile("project/src/license/THIRD-PARTY.properties"));
+        assertFalse(ZipArchive.isBuildFile("project/src/main/resources/pom.xml.template"));
+        assertFalse(ZipArchive.isBuildFile("project/README.md"));
+    }
+
+    private void addDirectory(ZipOutputStream zip, String name) throws IOException {
+        zip.putNextEntry(new ZipEntry(name));
+        zip.closeEntry();
+    }
+
+    private void addEntry(ZipOutputStream zip, String name, String content) throws IOException {
+        zip.putNextEntry(new ZipEntry(name));
+        zip.write(content.getBytes(StandardCharsets.UTF_8));
+        zip.closeEntry();
+    }
+}